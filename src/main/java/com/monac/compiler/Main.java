@@ -4,11 +4,13 @@ import com.monac.compiler.lexer.Lexer;
 import com.monac.compiler.parser.Parser;
 import com.monac.compiler.parser.ParserException;
 import com.monac.compiler.parser.tree.Node;
+import com.monac.compiler.preprocessor.HeaderCache;
+import com.monac.compiler.preprocessor.Preprocessor;
 import com.monac.compiler.util.ParseTreePrinter;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Scanner;
 
 public class Main {
@@ -22,9 +24,11 @@ public class Main {
 
 
     public static void parseFromFile(String filename) throws IOException {
-        String content = Files.readString(Path.of("src/main/resources/" + filename));
+        // Every file is lexed straight from its mapped UTF-8 bytes, never decoded as a whole
+        Path directory = Path.of("src/main/resources");
+        Preprocessor preprocessor = new Preprocessor(new HeaderCache(), List.of(directory));
 
-        Parser parser = new Parser(new Lexer(content));
+        Parser parser = new Parser(preprocessor.preprocess(directory.resolve(filename)));
         Node tree = parser.parse();
 
         for (var error : parser.getErrors()) {
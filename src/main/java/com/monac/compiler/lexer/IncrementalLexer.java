@@ -0,0 +1,79 @@
+package com.monac.compiler.lexer;
+
+/**
+ * Updates a token stream after a text edit by re-lexing only the damaged region.
+ *
+ * <p>Lexing restarts at the end of the last token the edit cannot affect, which is always a
+ * point between tokens. The scanner looks at most one code unit past the end of a token, so
+ * every token that ends before the edit is kept as it is. Once a new token starts behind the
+ * inserted text at the (shifted) start of an old token, the text from there on is the same as
+ * before and so are the tokens; the rest of the old stream is copied over with its offsets
+ * moved by the size difference of the edit, without scanning it again.</p>
+ *
+ * <p>New identifiers are interned into the {@link SymbolTable} of the old stream, so the symbol
+ * ids of untouched tokens stay valid.</p>
+ */
+public final class IncrementalLexer {
+
+    private IncrementalLexer() {
+    }
+
+    /**
+     * @param tokens   The tokens of the text before the edit, terminated by an {@code EOF} token.
+     * @param offset   Where the edit starts, in code units of the old source.
+     * @param removed  The number of code units removed at {@code offset}.
+     * @param inserted The text inserted at {@code offset}.
+     * @return The tokens of the edited text, over a new {@link Source}.
+     */
+    public static TokenBuffer edit(TokenBuffer tokens, int offset, int removed, CharSequence inserted) {
+        Source oldInput = tokens.getInput();
+        if (offset < 0 || removed < 0 || offset + removed > oldInput.length()) {
+            throw new IndexOutOfBoundsException("Edit [" + offset + ", " + (offset + removed) + ") out of bounds for length " + oldInput.length());
+        }
+
+        Source input = oldInput.replace(offset, offset + removed, inserted);
+        int shift = input.length() - oldInput.length();
+        int insertedEnd = offset + removed + shift; // In the new source
+
+        int first = firstAffected(tokens, offset);
+        int restart = first == 0 ? 0 : tokens.start(first - 1) + tokens.length(first - 1);
+
+        TokenBuffer result = new TokenBuffer(input, tokens.getSymbolTable());
+        result.append(tokens, 0, first);
+
+        Lexer lexer = new Lexer(input, tokens.getSymbolTable(), restart, input.length());
+        int old = first;
+        while (true) {
+            int index = result.size();
+            if (lexer.scanInto(result) == TokenType.EOF) return result;
+
+            int start = result.start(index);
+            if (start < insertedEnd) continue;
+
+            // Old tokens that start before this one were damaged by the edit
+            int oldStart = start - shift;
+            while (old < tokens.size() && tokens.start(old) < oldStart) old++;
+            if (old < tokens.size() && tokens.start(old) == oldStart) {
+                // Back in sync, the new token is the same as the old one
+                result.append(tokens, old + 1, tokens.size(), shift);
+                return result;
+            }
+        }
+    }
+
+    // Index of the first token that ends at or after the offset, found by binary search
+    private static int firstAffected(TokenBuffer tokens, int offset) {
+        int low = 0;
+        int high = tokens.size() - 1; // The EOF token ends at the input length
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (tokens.start(middle) + tokens.length(middle) < offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.monac.compiler.lexer;
+
+/**
+ * Keyword recognition through a perfect hash.
+ *
+ * <p>The hash only looks at the first character, the last character and the length of a word.
+ * Its multipliers were chosen offline so that every keyword lands in its own slot of a
+ * 32 entry table; the static initializer re-checks that, so adding a keyword that collides
+ * fails at class load instead of silently shadowing another keyword. A lookup is therefore one
+ * hash, one table read and at most one character comparison.</p>
+ */
+final class Keywords {
+
+    private static final int TABLE_SIZE = 32;
+    private static final int MIN_LENGTH = 2;
+    private static final int MAX_LENGTH = 8;
+
+    private static final String[] SPELLINGS = new String[TABLE_SIZE];
+    private static final TokenType[] TYPES = new TokenType[TABLE_SIZE];
+    private static final String[] SPELLING_OF = new String[TokenType.values().length]; // By type ordinal
+
+    static {
+        add("void", TokenType.VOID);
+        add("char", TokenType.CHAR);
+        add("int", TokenType.INT);
+        add("const", TokenType.CONST);
+        add("volatile", TokenType.VOLATILE);
+        add("struct", TokenType.STRUCT);
+        add("union", TokenType.UNION);
+        add("case", TokenType.CASE);
+        add("default", TokenType.DEFAULT);
+        add("goto", TokenType.GOTO);
+        add("continue", TokenType.CONTINUE);
+        add("return", TokenType.RETURN);
+        add("break", TokenType.BREAK);
+        add("if", TokenType.IF);
+        add("else", TokenType.ELSE);
+        add("switch", TokenType.SWITCH);
+        add("while", TokenType.WHILE);
+        add("do", TokenType.DO);
+        add("for", TokenType.FOR);
+        add("typedef", TokenType.TYPEDEF);
+        add("sizeof", TokenType.SIZEOF);
+    }
+
+    private Keywords() {
+    }
+
+    private static void add(String spelling, TokenType type) {
+        int length = spelling.length();
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            throw new IllegalStateException("Keyword '" + spelling + "' is outside the hashed length range");
+        }
+        int slot = hash(spelling.charAt(0), spelling.charAt(length - 1), length);
+        if (SPELLINGS[slot] != null) {
+            throw new IllegalStateException("Keywords '" + SPELLINGS[slot] + "' and '" + spelling + "' collide");
+        }
+        SPELLINGS[slot] = spelling;
+        TYPES[slot] = type;
+        SPELLING_OF[type.ordinal()] = spelling;
+    }
+
+    private static int hash(char first, char last, int length) {
+        return ((first * 722 + last * 3303 + length * 81) >>> 8) & (TABLE_SIZE - 1);
+    }
+
+    // The spelling of a keyword type, null for other types
+    static String spelling(TokenType type) {
+        return SPELLING_OF[type.ordinal()];
+    }
+
+    /**
+     * Classifies the word {@code input[start, end)} as a keyword or an identifier.
+     *
+     * @return The keyword's token type, or {@link TokenType#IDENTIFIER} if the word is not a keyword.
+     */
+    static TokenType lookup(CharSequence input, int start, int end) {
+        int length = end - start;
+        if (length < MIN_LENGTH || length > MAX_LENGTH) return TokenType.IDENTIFIER;
+
+        int slot = hash(input.charAt(start), input.charAt(end - 1), length);
+        String spelling = SPELLINGS[slot];
+        if (spelling == null || spelling.length() != length) return TokenType.IDENTIFIER;
+
+        for (int i = 0; i < length; i++) {
+            if (input.charAt(start + i) != spelling.charAt(i)) return TokenType.IDENTIFIER;
+        }
+        return TYPES[slot];
+    }
+
+}
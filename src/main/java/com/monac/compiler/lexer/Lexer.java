@@ -1,154 +1,620 @@
 package com.monac.compiler.lexer;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.regex.Pattern;
 
+/**
+ * Single pass, table driven scanner for the supported C subset.
+ *
+ * <p>Every character is classified once through {@link #CHAR_CLASS}, which selects the
+ * sub-scanner for the token that starts at the cursor. Operators and punctuators are
+ * recognized by a small DFA ({@link #OPERATOR_TRANSITIONS}) built from {@link #OPERATORS},
+ * so the longest operator always wins ({@code <=} is {@code LE}, not {@code LT ASSIGN}).
+ * Identifiers are scanned as a whole before keyword lookup, so {@code integer} stays an
+ * identifier. A backslash that ends a line splices it to the next one and, between tokens, is
+ * skipped like whitespace.</p>
+ *
+ * <p>The scanner keeps no line or column bookkeeping; tokens only record their offset and
+ * positions are resolved through the {@link LineIndex} of the source when needed.</p>
+ *
+ * <p>For a {@link Utf8Source} the long runs (whitespace, comment bodies and identifiers) are
+ * skipped by the {@link VectorScanner} when the {@code jdk.incubator.vector} module is present
+ * ({@code --add-modules jdk.incubator.vector}). Setting the system property
+ * {@code monac.lexer.vector} to {@code false} forces the scalar scanner.</p>
+ *
+ * <p>Keywords are recognized through the perfect hash in {@link Keywords}. Every other
+ * identifier is interned in a {@link SymbolTable}, which can be shared between lexers
+ * running on different threads.</p>
+ *
+ * <p>Malformed source is reported with a {@link LexerException}, unless the lexer is
+ * {@linkplain #setLenient(boolean) lenient}.</p>
+ */
 public class Lexer {
 
-    private final Map<TokenType, Pattern> patterns = new LinkedHashMap<>();
-    private final List<Token> tokens = new ArrayList<>();
-    private final String input;
-    private int cursor = 0;
-    private int line = 1;
-    private int column = 1;
+    // Character classes
+    private static final byte OTHER = 0;
+    private static final byte WHITESPACE = 1;
+    private static final byte LETTER = 2;
+    private static final byte DIGIT = 3;
+    private static final byte QUOTE = 4;
+    private static final byte OPERATOR = 5;
+
+    private static final byte[] CHAR_CLASS = new byte[128];
+
+    // Operators and punctuators, recognized with longest match
+    private static final String[] OPERATORS = {
+            "(", ")", "[", "]", "{", "}", ":", ";", ",", "?", ".", "->",
+            "&&", "||", "&", "|", "^", "++", "--", "<<", ">>", "+", "-", "*", "/", "%",
+            "<", ">", "<=", ">=", "==", "!=", "=",
+            "*=", "/=", "%=", "+=", "-=", "<<=", ">>=", "&=", "^=", "|=",
+            "#", "##"
+    };
+
+    private static final TokenType[] OPERATOR_TYPES = {
+            TokenType.LPAREN, TokenType.RPAREN, TokenType.LBRACKET, TokenType.RBRACKET,
+            TokenType.LBRACE, TokenType.RBRACE, TokenType.COLON, TokenType.SEMICOLON,
+            TokenType.COMMA, TokenType.QUESTION, TokenType.DOT, TokenType.ARROW,
+            TokenType.LAND, TokenType.LOR, TokenType.AND, TokenType.OR, TokenType.XOR,
+            TokenType.INCREMENT, TokenType.DECREMENT, TokenType.SHL, TokenType.SHR,
+            TokenType.PLUS, TokenType.MINUS, TokenType.MUL, TokenType.DIV, TokenType.MOD,
+            TokenType.LT, TokenType.GT, TokenType.LE, TokenType.GE, TokenType.EQ, TokenType.NE,
+            TokenType.ASSIGN,
+            TokenType.MUL_ASSIGN, TokenType.DIV_ASSIGN, TokenType.MOD_ASSIGN, TokenType.INC_ASSIGN,
+            TokenType.DEC_ASSIGN, TokenType.SHL_ASSIGN, TokenType.SHR_ASSIGN, TokenType.AND_ASSIGN,
+            TokenType.XOR_ASSIGN, TokenType.OR_ASSIGN,
+            TokenType.HASH, TokenType.HASH_HASH
+    };
+
+    // Operator DFA: column of every operator character, transitions per state and accepting types
+    private static final byte[] OPERATOR_COLUMN = new byte[128];
+    private static final int OPERATOR_COLUMNS;
+    private static final int[] OPERATOR_TRANSITIONS;
+    private static final TokenType[] OPERATOR_ACCEPT;
+    private static final String[] OPERATOR_SPELLINGS = new String[TokenType.values().length]; // By type ordinal
+
+    static {
+        CHAR_CLASS[' '] = WHITESPACE;
+        CHAR_CLASS['\t'] = WHITESPACE;
+        CHAR_CLASS['\r'] = WHITESPACE;
+        CHAR_CLASS['\f'] = WHITESPACE;
+        CHAR_CLASS[0x0B] = WHITESPACE;
+        CHAR_CLASS['\n'] = WHITESPACE;
+        for (char c = 'a'; c <= 'z'; c++) CHAR_CLASS[c] = LETTER;
+        for (char c = 'A'; c <= 'Z'; c++) CHAR_CLASS[c] = LETTER;
+        CHAR_CLASS['_'] = LETTER;
+        for (char c = '0'; c <= '9'; c++) CHAR_CLASS[c] = DIGIT;
+        CHAR_CLASS['"'] = QUOTE;
+        CHAR_CLASS['\''] = QUOTE;
+
+        // Assign a DFA column to every character that appears in an operator
+        Arrays.fill(OPERATOR_COLUMN, (byte) -1);
+        int columns = 0;
+        for (String operator : OPERATORS) {
+            for (char c : operator.toCharArray()) {
+                if (OPERATOR_COLUMN[c] < 0) OPERATOR_COLUMN[c] = (byte) columns++;
+                CHAR_CLASS[c] = OPERATOR;
+            }
+        }
+        OPERATOR_COLUMNS = columns;
+
+        // Build the trie of all operators, which is already a DFA for longest match
+        int maxStates = 1;
+        for (String operator : OPERATORS) maxStates += operator.length();
+        int[] transitions = new int[maxStates * columns];
+        TokenType[] accept = new TokenType[maxStates];
+        int states = 1;
+        for (int i = 0; i < OPERATORS.length; i++) {
+            int state = 0;
+            for (char c : OPERATORS[i].toCharArray()) {
+                int slot = state * columns + OPERATOR_COLUMN[c];
+                if (transitions[slot] == 0) transitions[slot] = states++;
+                state = transitions[slot];
+            }
+            accept[state] = OPERATOR_TYPES[i];
+            OPERATOR_SPELLINGS[OPERATOR_TYPES[i].ordinal()] = OPERATORS[i];
+        }
+        OPERATOR_TRANSITIONS = Arrays.copyOf(transitions, states * columns);
+        OPERATOR_ACCEPT = Arrays.copyOf(accept, states);
+    }
+
+    // Whether the Vector API fast path can be used at all in this JVM
+    private static final boolean VECTOR_SUPPORTED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            && Boolean.parseBoolean(System.getProperty("monac.lexer.vector", "true"));
+
+    private final SymbolTable symbols;
+    private final boolean vectorize;
+    private boolean lenient = false;
+    private Source input;
+    private int length;
+    private VectorScanner vector; // Null when scanning scalar
+    private int cursor;
+    private int tokenStart; // Start of the most recently scanned token
+    private long value; // Decoded value of the most recently scanned constant, doubles as raw bits
 
     public Lexer(String input) {
+        this(new StringSource(input));
+    }
+
+    public Lexer(Source input) {
+        this(input, new SymbolTable());
+    }
+
+    public Lexer(Source input, SymbolTable symbols) {
+        this(input, symbols, true);
+    }
+
+    /**
+     * @param input     The source to scan.
+     * @param symbols   The table identifiers are interned into, may be shared with other lexers.
+     * @param vectorize Whether to use the Vector API fast path if the input and the JVM support it.
+     */
+    public Lexer(Source input, SymbolTable symbols, boolean vectorize) {
+        this(input, symbols, vectorize, 0, input.length());
+    }
+
+    // Scans only [start, end) of the input, which must begin and end between tokens. Offsets
+    // stay relative to the whole input, and the EOF token is reported at the end of the region.
+    Lexer(Source input, SymbolTable symbols, int start, int end) {
+        this(input, symbols, true, start, end);
+    }
+
+    private Lexer(Source input, SymbolTable symbols, boolean vectorize, int start, int end) {
+        this.symbols = symbols;
+        this.vectorize = vectorize;
+        start(input, start, end);
+    }
+
+    /**
+     * Starts over at the beginning of another input, keeping the symbol table. Lets one lexer
+     * scan many small inputs in turn.
+     */
+    public void reset(Source input) {
+        start(input, 0, input.length());
+    }
+
+    private void start(Source input, int start, int end) {
         this.input = input;
+        this.length = end;
+        this.cursor = start;
+        this.tokenStart = start;
+        this.vector = vectorize && VECTOR_SUPPORTED && input instanceof Utf8Source utf8
+                ? new VectorScanner(utf8.segment().asSlice(0, end))
+                : null;
+    }
 
-        this.patterns.put(TokenType.VOID, Pattern.compile("void"));
-        this.patterns.put(TokenType.CHAR, Pattern.compile("char"));
-        this.patterns.put(TokenType.INT, Pattern.compile("int"));
-
-        // Keywords
-        this.patterns.put(TokenType.CONST, Pattern.compile("\\bconst\\b"));
-        this.patterns.put(TokenType.VOLATILE, Pattern.compile("\\bvolatile\\b"));
-        this.patterns.put(TokenType.STRUCT, Pattern.compile("\\bstruct\\b"));
-        this.patterns.put(TokenType.UNION, Pattern.compile("\\bunion\\b"));
-        this.patterns.put(TokenType.CASE, Pattern.compile("\\bcase\\b"));
-        this.patterns.put(TokenType.DEFAULT, Pattern.compile("\\bdefault\\b"));
-        this.patterns.put(TokenType.GOTO, Pattern.compile("\\bgoto\\b"));
-        this.patterns.put(TokenType.CONTINUE, Pattern.compile("\\bcontinue\\b"));
-        this.patterns.put(TokenType.RETURN, Pattern.compile("\\breturn\\b"));
-        this.patterns.put(TokenType.BREAK, Pattern.compile("\\bbreak\\b"));
-        this.patterns.put(TokenType.IF, Pattern.compile("\\bif\\b"));
-        this.patterns.put(TokenType.ELSE, Pattern.compile("\\belse\\b"));
-        this.patterns.put(TokenType.SWITCH, Pattern.compile("\\bswitch\\b"));
-        this.patterns.put(TokenType.WHILE, Pattern.compile("\\bwhile\\b"));
-        this.patterns.put(TokenType.DO, Pattern.compile("\\bdo\\b"));
-        this.patterns.put(TokenType.FOR, Pattern.compile("\\bfor\\b"));
-        this.patterns.put(TokenType.SIZEOF, Pattern.compile("\\bsizeof\\b"));
-
-        // Identifiers and literals
-        this.patterns.put(TokenType.IDENTIFIER, Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*"));
-        this.patterns.put(TokenType.STRING, Pattern.compile("\"(\\\\[\\s\\S]|[^\"\\n])*\""));
-        this.patterns.put(TokenType.INTEGER_CONSTANT, Pattern.compile("\\d+"));
-
-        // Punctuation and symbols
-        this.patterns.put(TokenType.LPAREN, Pattern.compile("\\("));
-        this.patterns.put(TokenType.RPAREN, Pattern.compile("\\)"));
-        this.patterns.put(TokenType.LBRACKET, Pattern.compile("\\["));
-        this.patterns.put(TokenType.RBRACKET, Pattern.compile("\\]"));
-        this.patterns.put(TokenType.LBRACE, Pattern.compile("\\{"));
-        this.patterns.put(TokenType.RBRACE, Pattern.compile("\\}"));
-        this.patterns.put(TokenType.COLON, Pattern.compile(":"));
-        this.patterns.put(TokenType.SEMICOLON, Pattern.compile(";"));
-        this.patterns.put(TokenType.COMMA, Pattern.compile(","));
-        this.patterns.put(TokenType.QUESTION, Pattern.compile("\\?"));
-        this.patterns.put(TokenType.DOT, Pattern.compile("\\."));
-        this.patterns.put(TokenType.ARROW, Pattern.compile("->"));
-
-        // Operators
-        this.patterns.put(TokenType.LAND, Pattern.compile("&&"));
-        this.patterns.put(TokenType.LOR, Pattern.compile("\\|\\|"));
-        this.patterns.put(TokenType.AND, Pattern.compile("&"));
-        this.patterns.put(TokenType.OR, Pattern.compile("\\|"));
-        this.patterns.put(TokenType.XOR, Pattern.compile("\\^"));
-        this.patterns.put(TokenType.INCREMENT, Pattern.compile("\\+\\+"));
-        this.patterns.put(TokenType.DECREMENT, Pattern.compile("--"));
-        this.patterns.put(TokenType.SHL, Pattern.compile("<<"));
-        this.patterns.put(TokenType.SHR, Pattern.compile(">>"));
-        this.patterns.put(TokenType.PLUS, Pattern.compile("\\+"));
-        this.patterns.put(TokenType.MINUS, Pattern.compile("-"));
-        this.patterns.put(TokenType.MUL, Pattern.compile("\\*"));
-        this.patterns.put(TokenType.DIV, Pattern.compile("/"));
-        this.patterns.put(TokenType.MOD, Pattern.compile("%"));
-
-        // Relational and equality operators
-        this.patterns.put(TokenType.LT, Pattern.compile("<"));
-        this.patterns.put(TokenType.GT, Pattern.compile(">"));
-        this.patterns.put(TokenType.LE, Pattern.compile("<="));
-        this.patterns.put(TokenType.GE, Pattern.compile(">="));
-        this.patterns.put(TokenType.EQ, Pattern.compile("=="));
-        this.patterns.put(TokenType.NE, Pattern.compile("!="));
-        this.patterns.put(TokenType.ASSIGN, Pattern.compile("="));
-
-        // Assignment operators
-        this.patterns.put(TokenType.MUL_ASSIGN, Pattern.compile("\\*="));
-        this.patterns.put(TokenType.DIV_ASSIGN, Pattern.compile("/="));
-        this.patterns.put(TokenType.MOD_ASSIGN, Pattern.compile("%="));
-        this.patterns.put(TokenType.INC_ASSIGN, Pattern.compile("\\+="));
-        this.patterns.put(TokenType.DEC_ASSIGN, Pattern.compile("-="));
-        this.patterns.put(TokenType.SHL_ASSIGN, Pattern.compile("<<="));
-        this.patterns.put(TokenType.SHR_ASSIGN, Pattern.compile(">>="));
-        this.patterns.put(TokenType.AND_ASSIGN, Pattern.compile("&="));
-        this.patterns.put(TokenType.XOR_ASSIGN, Pattern.compile("\\^="));
-        this.patterns.put(TokenType.OR_ASSIGN, Pattern.compile("\\|="));
-
-        // Whitespace and comments
-        this.patterns.put(TokenType.WHITESPACE, Pattern.compile("[\\t\\n\\r\\f\\v ]+"));
-        this.patterns.put(TokenType.COMMENT, Pattern.compile("//[^\\n]*|/\\\\*[^*]*\\\\*+([^/*][^*]*\\\\*+)*/"));
+    /**
+     * @return The text every token of a keyword or operator type is spelled with, or
+     *         {@code null} for identifiers, constants, strings and {@code EOF}.
+     */
+    public static String spelling(TokenType type) {
+        String keyword = Keywords.spelling(type);
+        return keyword != null ? keyword : OPERATOR_SPELLINGS[type.ordinal()];
     }
 
+    public SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * Makes the lexer read preprocessing tokens the way the preprocessor needs them. A character
+     * that starts no token becomes an {@link TokenType#OTHER} token of its own. An unterminated
+     * or malformed character constant or string becomes one that reaches its closing quote or the
+     * end of the line, and a malformed number one that spans the whole number. It is then up to
+     * the preprocessor to reject the token if it is not skipped. An unterminated comment is still
+     * a {@link LexerException}.
+     */
+    public void setLenient(boolean lenient) {
+        this.lenient = lenient;
+    }
+
+    /**
+     * Scans the whole input eagerly. Prefer {@link #nextToken()} when the tokens are consumed
+     * once, front to back, so the list never has to be built.
+     *
+     * @return All tokens of the input, terminated by a single {@code EOF} token.
+     * @throws LexerException If the input is malformed.
+     */
     public List<Token> tokenize() {
-        while (cursor < input.length()) {
-            boolean matched = false;
-
-            for (var entry : patterns.entrySet()) {
-                var type = entry.getKey();
-                var pattern = entry.getValue();
-                var matcher = pattern.matcher(input.substring(cursor));
-
-                if (matcher.lookingAt()) {
-                    String value = matcher.group();
-                    int length = value.length();
-
-                    // If it's a whitespace or comment, skip adding it to the token list
-                    if (type == TokenType.WHITESPACE || type == TokenType.COMMENT) {
-                        updatePosition(value);
-                        cursor += length;
-                        matched = true;
-                        break;
-                    }
+        List<Token> tokens = new ArrayList<>();
+        Token token;
+        do {
+            token = nextToken();
+            tokens.add(token);
+        } while (token.getType() != TokenType.EOF);
+        return tokens;
+    }
 
-                    // Add other tokens to the list
-                    tokens.add(new Token(type, value, line, column));
-                    updatePosition(value);
-                    cursor += length;
-                    matched = true;
-                    break;
+    /**
+     * Scans the whole input into a compact {@link TokenBuffer}, without creating a
+     * {@link Token} object or a lexeme copy for any of the tokens.
+     *
+     * @return A buffer holding all tokens of the input, terminated by a single {@code EOF} token.
+     * @throws LexerException If the input is malformed.
+     */
+    public TokenBuffer tokenizeToBuffer() {
+        return tokenizeInto(new TokenBuffer(input, symbols));
+    }
+
+    /**
+     * Scans the whole input into a buffer that is reused, replacing the tokens it held. The
+     * buffer must intern into the same symbol table as this lexer.
+     *
+     * @return {@code buffer}, now holding the tokens of this lexer's input.
+     * @throws LexerException If the input is malformed.
+     */
+    public TokenBuffer tokenizeInto(TokenBuffer buffer) {
+        if (buffer.getSymbolTable() != symbols) throw new IllegalArgumentException("The buffer uses another symbol table");
+        buffer.reset(input);
+        TokenType type;
+        do {
+            type = scanInto(buffer);
+        } while (type != TokenType.EOF);
+        return buffer;
+    }
+
+    // Scans the next token and adds it to the buffer
+    TokenType scanInto(TokenBuffer buffer) {
+        TokenType type = scan();
+        int symbol = type == TokenType.IDENTIFIER ? symbols.intern(input, tokenStart, cursor) : -1;
+        buffer.add(type, tokenStart, cursor - tokenStart, symbol, value);
+        return type;
+    }
+
+    /**
+     * Scans the next token on demand, skipping whitespace and comments.
+     *
+     * @return The next token, or an {@code EOF} token once the input is exhausted
+     *         (repeatedly, if called again).
+     * @throws LexerException If the input is malformed.
+     */
+    public Token nextToken() {
+        TokenType type = scan();
+        if (type == TokenType.IDENTIFIER) {
+            // The canonical spelling is shared by all occurrences of the name
+            int symbol = symbols.intern(input, tokenStart, cursor);
+            return new Token(type, symbols.name(symbol), symbol, 0, input, tokenStart);
+        }
+        return new Token(type, input.text(tokenStart, cursor), -1, value, input, tokenStart);
+    }
+
+    // Skips whitespace and comments, then scans one token. The token spans [tokenStart, cursor).
+    private TokenType scan() {
+        if (!lenient) return scanToken();
+        try {
+            return scanToken();
+        } catch (LexerException e) {
+            if (input.charAt(tokenStart) == '/') throw e; // Unterminated comment, the only error that starts with a slash
+            cursor = otherEnd(tokenStart);
+            value = 0;
+            return TokenType.OTHER;
+        }
+    }
+
+    private TokenType scanToken() {
+        value = 0;
+        while (cursor < length) {
+            char c = input.charAt(cursor);
+            tokenStart = cursor;
+
+            switch (c < 128 ? CHAR_CLASS[c] : OTHER) {
+                case WHITESPACE -> cursor = vector != null ? vector.skipWhitespace(cursor + 1) : cursor + 1;
+                case LETTER -> {
+                    cursor = scanIdentifier(cursor + 1);
+                    return Keywords.lookup(input, tokenStart, cursor);
+                }
+                case DIGIT -> {
+                    return scanNumber();
+                }
+                case QUOTE -> {
+                    if (c == '\'') return scanCharacter();
+                    cursor = scanString(cursor + 1);
+                    return TokenType.STRING;
                 }
+                case OPERATOR -> {
+                    if (c == '.' && cursor + 1 < length && isDigit(input.charAt(cursor + 1), 10)) {
+                        return scanNumber();
+                    } else if (c == '/' && cursor + 1 < length && input.charAt(cursor + 1) == '/') {
+                        cursor = skipLineComment(cursor + 2);
+                    } else if (c == '/' && cursor + 1 < length && input.charAt(cursor + 1) == '*') {
+                        cursor = skipBlockComment(cursor + 2);
+                    } else {
+                        return scanOperator();
+                    }
+                }
+                default -> {
+                    int splice = spliceEnd(cursor);
+                    if (splice == cursor) throw error(tokenStart);
+                    cursor = splice; // A line splice between tokens is whitespace
+                }
+            }
+        }
+        tokenStart = cursor;
+        return TokenType.EOF;
+    }
+
+    // End of a backslash that ends its line, with the line break, or position if there is none
+    private int spliceEnd(int position) {
+        if (input.charAt(position) != '\\') return position;
+        int next = position + 1;
+        if (next < length && input.charAt(next) == '\r') next++;
+        return next < length && input.charAt(next) == '\n' ? next + 1 : position;
+    }
+
+    private int scanIdentifier(int position) {
+        if (vector != null) return vector.skipIdentifier(position);
+        while (position < length) {
+            char c = input.charAt(position);
+            if (c >= 128) break;
+            byte type = CHAR_CLASS[c];
+            if (type != LETTER && type != DIGIT) break;
+            position++;
+        }
+        return position;
+    }
+
+    // Scans an integer or floating constant, starting at its first digit or at a leading '.',
+    // and decodes its value. Hexadecimal and octal integers, hexadecimal floats and all
+    // integer and floating suffixes are recognized.
+    private TokenType scanNumber() {
+        int position = cursor;
+        boolean hex = input.charAt(position) == '0' && position + 2 < length && (input.charAt(position + 1) | 0x20) == 'x'
+                && (isDigit(input.charAt(position + 2), 16) || input.charAt(position + 2) == '.');
+        int base = hex ? 16 : 10;
+        if (hex) position += 2;
+
+        int integerStart = position;
+        position = scanDigits(position, base);
+        int integerEnd = position;
+        boolean floating = false;
+        if (position < length && input.charAt(position) == '.') {
+            floating = true;
+            position = scanDigits(position + 1, base);
+            if (hex && integerEnd == integerStart && position == integerEnd + 1) throw error(tokenStart, "No digits in hexadecimal floating constant");
+        }
+        if (position < length && (input.charAt(position) | 0x20) == (hex ? 'p' : 'e')) {
+            int exponent = position + 1;
+            if (exponent < length && (input.charAt(exponent) == '+' || input.charAt(exponent) == '-')) exponent++;
+            position = scanDigits(exponent, 10);
+            if (position == exponent) throw error(tokenStart, "Missing exponent digits in floating constant");
+            floating = true;
+        } else if (floating && hex) {
+            throw error(tokenStart, "Hexadecimal floating constant requires an exponent");
+        }
+
+        TokenType type;
+        if (floating) {
+            // Exact rounding is subtle, so the digits are handed to the JDK, once, in the lexer
+            String digits = input.subSequence(tokenStart, position).toString();
+            char suffix = position < length ? (char) (input.charAt(position) | 0x20) : 0;
+            if (suffix == 'f') {
+                value = Double.doubleToRawLongBits(Float.parseFloat(digits));
+                position++;
+            } else {
+                value = Double.doubleToRawLongBits(Double.parseDouble(digits));
+                if (suffix == 'l') position++;
             }
+            type = TokenType.FLOATING_CONSTANT;
+        } else {
+            if (!hex && integerEnd - integerStart > 1 && input.charAt(integerStart) == '0') base = 8;
+            value = decodeInteger(integerStart, integerEnd, base);
+            position = scanIntegerSuffix(position);
+            type = TokenType.INTEGER_CONSTANT;
+        }
 
-            if (!matched) {
-                throw new RuntimeException("Unknown token at position: [" + line + ":" + column + "]");
+        // A constant can not run into an identifier or another constant, "12ab" is one bad token
+        if (position < length) {
+            char c = input.charAt(position);
+            if (c < 128 && (CHAR_CLASS[c] == LETTER || CHAR_CLASS[c] == DIGIT || c == '.')) {
+                throw error(tokenStart, "Invalid suffix on constant");
             }
         }
-        tokens.add(new Token(TokenType.EOF, "", line, column));
-        return tokens;
+        cursor = position;
+        return type;
+    }
+
+    private int scanDigits(int position, int base) {
+        while (position < length && isDigit(input.charAt(position), base)) position++;
+        return position;
+    }
+
+    // Decodes [start, end) as an unsigned 64-bit integer, reporting constants that do not fit
+    private long decodeInteger(int start, int end, int base) {
+        long limit = Long.divideUnsigned(-1L, base);
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = digitValue(input.charAt(i));
+            if (digit >= base) throw error(tokenStart, "Invalid digit '" + input.charAt(i) + "' in octal constant");
+            if (Long.compareUnsigned(result, limit) > 0) throw error(tokenStart, "Integer constant is too large");
+            long next = result * base + digit;
+            if (Long.compareUnsigned(next, result * base) < 0) throw error(tokenStart, "Integer constant is too large");
+            result = next;
+        }
+        return result;
+    }
+
+    // Accepts at most one of u/U and one of l/L/ll/LL, in either order
+    private int scanIntegerSuffix(int position) {
+        boolean unsigned = false;
+        boolean sized = false;
+        while (position < length) {
+            char c = input.charAt(position);
+            if ((c == 'u' || c == 'U') && !unsigned) {
+                unsigned = true;
+                position++;
+            } else if ((c == 'l' || c == 'L') && !sized) {
+                sized = true;
+                position++;
+                if (position < length && input.charAt(position) == c) position++;
+            } else {
+                break;
+            }
+        }
+        return position;
+    }
+
+    // Scans a character constant and decodes its value. A constant with several characters
+    // packs them into an int, eight bits each, like GCC and Clang do.
+    private TokenType scanCharacter() {
+        cursor++; // Opening quote
+        long decoded = 0;
+        int count = 0;
+        while (cursor < length) {
+            char c = input.charAt(cursor);
+            if (c == '\'') {
+                if (count == 0) throw error(tokenStart, "Empty character constant");
+                cursor++;
+                value = decoded;
+                return TokenType.CHARACTER_CONSTANT;
+            }
+            if (c == '\n') break;
+            int code = c == '\\' ? scanEscape() : input.charAt(cursor++);
+            decoded = count == 0 ? code : (int) (decoded << 8 | code & 0xFF);
+            count++;
+        }
+        throw error(tokenStart, "Unterminated character constant");
+    }
+
+    // Decodes the escape sequence at the cursor, which is on the backslash
+    private int scanEscape() {
+        cursor++;
+        if (cursor >= length) throw error(tokenStart, "Unterminated character constant");
+        char c = input.charAt(cursor++);
+        return switch (c) {
+            case 'n' -> '\n';
+            case 't' -> '\t';
+            case 'r' -> '\r';
+            case 'a' -> 0x07;
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case 'v' -> 0x0B;
+            case '\\', '\'', '"', '?' -> c;
+            case 'x' -> {
+                int start = cursor;
+                cursor = scanDigits(cursor, 16);
+                if (cursor == start) throw error(tokenStart, "Missing digits in hexadecimal escape sequence");
+                yield escapeValue(start, 16);
+            }
+            default -> {
+                if (c < '0' || c > '7') throw error(tokenStart, "Unknown escape sequence '\\" + c + "'");
+                int start = cursor - 1;
+                while (cursor < length && cursor - start < 3 && isDigit(input.charAt(cursor), 8)) cursor++;
+                yield escapeValue(start, 8);
+            }
+        };
+    }
+
+    private int escapeValue(int start, int base) {
+        long decoded = decodeInteger(start, cursor, base);
+        if (decoded > 0xFF) throw error(tokenStart, "Escape sequence out of range");
+        return (int) decoded;
+    }
+
+    private static boolean isDigit(char c, int base) {
+        return digitValue(c) < base;
+    }
+
+    // Value of an ASCII digit or hexadecimal letter, 16 or more for anything else
+    private static int digitValue(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        int lower = c | 0x20;
+        if (lower >= 'a' && lower <= 'f') return lower - 'a' + 10;
+        return 16;
     }
 
-    private void updatePosition(String value) {
-        for (char c : value.toCharArray()) {
-            if (c == '\n') {
-                line++;
-                column = 1;
+    private int scanString(int position) {
+        while (position < length) {
+            char c = input.charAt(position);
+            if (c == '"') return position + 1;
+            if (c == '\n') break;
+            if (c == '\\' && position + 1 < length) {
+                position += 2; // Also skips escaped line breaks, which continue the literal
             } else {
-                column++;
+                position++;
             }
         }
+        throw error(tokenStart);
+    }
+
+    // End of the text a lenient lexer turns into an OTHER token that starts at start
+    private int otherEnd(int start) {
+        char quote = input.charAt(start);
+        int position = start + 1;
+        if (quote == '"' || quote == '\'') {
+            while (position < length) {
+                char c = input.charAt(position);
+                if (c == '\n') break;
+                position += c == '\\' && position + 1 < length && input.charAt(position + 1) != '\n' ? 2 : 1;
+                if (c == quote) break;
+            }
+            return position;
+        }
+        if (isDigit(quote, 10) || quote == '.') {
+            // Everything a preprocessing number can hold, signs only after an exponent letter
+            while (position < length) {
+                char c = input.charAt(position);
+                char previous = input.charAt(position - 1);
+                boolean sign = (c == '+' || c == '-') && ((previous | 0x20) == 'e' || (previous | 0x20) == 'p');
+                if (c == '.' || sign || c < 128 && (CHAR_CLASS[c] == LETTER || CHAR_CLASS[c] == DIGIT)) position++;
+                else break;
+            }
+            return position;
+        }
+        return position;
+    }
+
+    private int skipLineComment(int position) {
+        if (vector != null) return vector.findLineEnd(position);
+        while (position < length && input.charAt(position) != '\n') position++;
+        return position;
+    }
+
+    private int skipBlockComment(int position) {
+        if (vector != null) {
+            int end = vector.findBlockCommentEnd(position);
+            if (end < 0) throw error(tokenStart);
+            return end;
+        }
+        while (position + 1 < length) {
+            if (input.charAt(position) == '*' && input.charAt(position + 1) == '/') return position + 2;
+            position++;
+        }
+        throw error(tokenStart);
+    }
+
+    // Runs the operator DFA from the cursor and stops at the last accepting state
+    private TokenType scanOperator() {
+        int state = 0;
+        int position = cursor;
+        TokenType accepted = null;
+        int acceptedEnd = cursor;
+
+        while (position < length) {
+            char c = input.charAt(position);
+            int column = c < 128 ? OPERATOR_COLUMN[c] : -1;
+            if (column < 0) break;
+            state = OPERATOR_TRANSITIONS[state * OPERATOR_COLUMNS + column];
+            if (state == 0) break;
+            position++;
+            if (OPERATOR_ACCEPT[state] != null) {
+                accepted = OPERATOR_ACCEPT[state];
+                acceptedEnd = position;
+            }
+        }
+
+        if (accepted == null) throw error(cursor);
+        cursor = acceptedEnd;
+        return accepted;
+    }
+
+    private LexerException error(int offset) {
+        return error(offset, "Unknown token");
+    }
+
+    // Lines are only counted once an error has to be reported
+    private LexerException error(int offset, String message) {
+        LineIndex lines = input.lines();
+        return new LexerException(message + " at position: [" + lines.line(offset) + ":" + lines.column(offset) + "]", offset);
     }
 
 }
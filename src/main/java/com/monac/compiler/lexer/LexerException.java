@@ -1,7 +1,24 @@
 package com.monac.compiler.lexer;
 
-public class LexerException extends Exception {
+/**
+ * Thrown by the lexer for malformed source, such as an unknown character, an unterminated
+ * comment or constant, or a malformed number. It is the only exception the lexer throws for its
+ * input; anything else thrown while lexing is a bug.
+ */
+public class LexerException extends RuntimeException {
 
+    private final int offset;
 
+    public LexerException(String message, int offset) {
+        super(message);
+        this.offset = offset;
+    }
+
+    /**
+     * @return Offset in the source where the malformed token starts.
+     */
+    public int getOffset() {
+        return offset;
+    }
 
 }
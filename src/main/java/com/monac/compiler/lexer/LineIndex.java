@@ -0,0 +1,65 @@
+package com.monac.compiler.lexer;
+
+import java.util.Arrays;
+
+/**
+ * Maps source offsets to line and column numbers.
+ *
+ * <p>Tokens and nodes only record an offset. The start offset of every line is collected in a
+ * single pass the first time a position is actually needed (for an error message, say), and
+ * each lookup after that is a binary search over the line starts.</p>
+ */
+public final class LineIndex {
+
+    private final int[] lineStarts;
+    private final int lineCount;
+
+    private LineIndex(int[] lineStarts, int lineCount) {
+        this.lineStarts = lineStarts;
+        this.lineCount = lineCount;
+    }
+
+    public static LineIndex of(CharSequence input) {
+        int[] starts = new int[64];
+        int count = 1; // Line 1 starts at offset 0
+        int length = input.length();
+        for (int i = 0; i < length; i++) {
+            if (input.charAt(i) == '\n') {
+                if (count == starts.length) starts = Arrays.copyOf(starts, count * 2);
+                starts[count++] = i + 1;
+            }
+        }
+        return new LineIndex(starts, count);
+    }
+
+    /**
+     * @param offset Offset into the source.
+     * @return The 1-based line containing {@code offset}.
+     */
+    public int line(int offset) {
+        int low = 0;
+        int high = lineCount - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (lineStarts[middle] <= offset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low + 1;
+    }
+
+    /**
+     * @param offset Offset into the source.
+     * @return The 1-based column of {@code offset} within its line.
+     */
+    public int column(int offset) {
+        return offset - lineStarts[line(offset) - 1] + 1;
+    }
+
+    public int lineCount() {
+        return lineCount;
+    }
+
+}
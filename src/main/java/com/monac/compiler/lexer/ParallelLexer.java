@@ -0,0 +1,141 @@
+package com.monac.compiler.lexer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Lexes a large translation unit in chunks on a {@link ForkJoinPool}.
+ *
+ * <p>A cheap sequential pre-scan, which only tracks whether it is inside a comment or a literal,
+ * picks split points at line starts roughly every {@code chunkSize} characters. Such a point
+ * always lies between two tokens, so each chunk can be lexed on its own by a {@link Lexer}
+ * limited to that region. All chunks intern into the same {@link SymbolTable}, which is safe to
+ * share, and keep offsets relative to the whole input, so stitching the chunk buffers back
+ * together is a plain array copy. Line and column numbers need no fix-up either, they are
+ * resolved through the {@link LineIndex} of the source.</p>
+ *
+ * <p>The resulting tokens are the same as those of {@link Lexer#tokenizeToBuffer()}; only the
+ * numbering of the symbol ids may differ, since chunks intern their names concurrently.</p>
+ */
+public final class ParallelLexer {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    // Pre-scan states
+    private static final int CODE = 0;
+    private static final int LINE_COMMENT = 1;
+    private static final int BLOCK_COMMENT = 2;
+    private static final int LITERAL = 3;
+
+    private ParallelLexer() {
+    }
+
+    public static TokenBuffer tokenize(Source input, SymbolTable symbols) {
+        return tokenize(input, symbols, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize The number of characters each task lexes, approximately.
+     * @return A buffer holding all tokens of the input, terminated by a single {@code EOF} token.
+     */
+    public static TokenBuffer tokenize(Source input, SymbolTable symbols, ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+
+        // Without a second worker or a second chunk the pre-scan would be pure overhead
+        if (pool.getParallelism() < 2 || input.length() < 2 * chunkSize) {
+            return new Lexer(input, symbols).tokenizeToBuffer();
+        }
+
+        int[] splits = splitPoints(input, chunkSize);
+
+        List<Callable<TokenBuffer>> tasks = new ArrayList<>(splits.length - 1);
+        for (int i = 0; i + 1 < splits.length; i++) {
+            int start = splits[i];
+            int end = splits[i + 1];
+            tasks.add(() -> new Lexer(input, symbols, start, end).tokenizeToBuffer());
+        }
+
+        // Joined in order, so an error in an earlier chunk is the one that is reported
+        TokenBuffer result = new TokenBuffer(input, symbols);
+        List<Future<TokenBuffer>> chunks = pool.invokeAll(tasks);
+        for (int i = 0; i < chunks.size(); i++) {
+            TokenBuffer chunk = join(chunks.get(i));
+            boolean last = i == chunks.size() - 1;
+            result.append(chunk, 0, last ? chunk.size() : chunk.size() - 1); // Drops the inner EOF tokens
+        }
+        return result;
+    }
+
+    /**
+     * @return The chunk boundaries, starting with {@code 0} and ending with the input length.
+     *         Every inner boundary is the start of a line that begins outside of any comment or literal.
+     */
+    static int[] splitPoints(Source input, int chunkSize) {
+        int length = input.length();
+        int[] splits = new int[2 + length / chunkSize];
+        int count = 1;
+
+        int state = CODE;
+        char quote = 0;
+        int next = chunkSize;
+        for (int position = 0; position < length && next < length; position++) {
+            char c = input.charAt(position);
+            switch (state) {
+                case CODE -> {
+                    if (c == '\n' && position + 1 >= next) {
+                        splits[count++] = position + 1;
+                        next = position + 1 + chunkSize;
+                    } else if (c == '"' || c == '\'') {
+                        state = LITERAL;
+                        quote = c;
+                    } else if (c == '/' && position + 1 < length) {
+                        char following = input.charAt(position + 1);
+                        if (following == '/') state = LINE_COMMENT;
+                        else if (following == '*') state = BLOCK_COMMENT;
+                        if (state != CODE) position++;
+                    }
+                }
+                case LINE_COMMENT -> {
+                    // The line feed itself is code again, so it can end a chunk
+                    if (c == '\n') {
+                        state = CODE;
+                        position--;
+                    }
+                }
+                case BLOCK_COMMENT -> {
+                    if (c == '*' && position + 1 < length && input.charAt(position + 1) == '/') {
+                        state = CODE;
+                        position++;
+                    }
+                }
+                case LITERAL -> {
+                    if (c == '\\') position++;
+                    else if (c == quote || c == '\n') state = CODE; // An unterminated literal is reported by the lexer
+                }
+                default -> throw new IllegalStateException("Unknown pre-scan state " + state);
+            }
+        }
+
+        splits[count++] = length;
+        return Arrays.copyOf(splits, count);
+    }
+
+    private static TokenBuffer join(Future<TokenBuffer> chunk) {
+        try {
+            return chunk.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while lexing", e);
+        }
+    }
+
+}
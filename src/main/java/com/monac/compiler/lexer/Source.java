@@ -0,0 +1,30 @@
+package com.monac.compiler.lexer;
+
+/**
+ * Input of a {@link Lexer}, seen as a sequence of code units.
+ *
+ * <p>For a {@link StringSource} the code units are UTF-16 chars, for a {@link Utf8Source}
+ * they are the raw UTF-8 bytes widened to {@code char}. The scanner only makes decisions on
+ * ASCII characters, which are single code units in both encodings, so it never has to decode
+ * the input. Offsets reported by tokens are code unit offsets into the source.</p>
+ */
+public interface Source extends CharSequence {
+
+    /**
+     * Decodes the code units {@code [start, end)} into text. Implementations return a view
+     * instead of a copy where they can.
+     */
+    CharSequence text(int start, int end);
+
+    /**
+     * @return The line index of this source, built on first use.
+     */
+    LineIndex lines();
+
+    /**
+     * Returns a new source with the code units {@code [start, end)} replaced by {@code text},
+     * encoded the same way as this source. This source is left unchanged.
+     */
+    Source replace(int start, int end, CharSequence text);
+
+}
@@ -0,0 +1,56 @@
+package com.monac.compiler.lexer;
+
+import java.nio.CharBuffer;
+
+/**
+ * A {@link Source} backed by text that is already in memory, such as a REPL line.
+ */
+public final class StringSource implements Source {
+
+    private final CharSequence text;
+    private LineIndex lines; // Built lazily, racing builds produce equal indexes
+
+    public StringSource(CharSequence text) {
+        this.text = text;
+    }
+
+    @Override
+    public int length() {
+        return text.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return text.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return text.subSequence(start, end);
+    }
+
+    @Override
+    public CharSequence text(int start, int end) {
+        return CharBuffer.wrap(text, start, end);
+    }
+
+    @Override
+    public LineIndex lines() {
+        LineIndex index = lines;
+        if (index == null) lines = index = LineIndex.of(this);
+        return index;
+    }
+
+    @Override
+    public Source replace(int start, int end, CharSequence replacement) {
+        StringBuilder edited = new StringBuilder(text.length() - (end - start) + replacement.length());
+        edited.append(text, 0, start).append(replacement).append(text, end, text.length());
+        return new StringSource(edited); // Never modified again, so it is not copied into a String
+    }
+
+    @Override
+    public String toString() {
+        return text.toString();
+    }
+
+}
@@ -0,0 +1,167 @@
+package com.monac.compiler.lexer;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Interns identifier spellings, mapping every distinct name to a dense {@code int} id.
+ *
+ * <p>Ids are handed out in insertion order starting at zero, so they can index plain arrays in
+ * later passes, and two identifiers are the same name exactly when their ids are equal.
+ * Each name is stored once, as a canonical {@link String} returned by {@link #name(int)}.</p>
+ *
+ * <p>The table is safe to share between lexers running on different threads. Lookups of
+ * names that are already known run under an optimistic read stamp and take no lock at all;
+ * only inserting a new name takes the write lock. The lookup works on a region of the input,
+ * so no {@code String} is created unless the name is new.</p>
+ */
+public final class SymbolTable {
+
+    private static final int INITIAL_CAPACITY = 256; // Must be a power of two
+    private static final int MAX_RETAINED_CAPACITY = 1 << 16; // Kept by clear()
+
+    private final StampedLock lock = new StampedLock();
+
+    // Open addressing table of (id + 1), zero marks an empty slot
+    private int[] slots = new int[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY / 2];
+    private int[] hashes = new int[INITIAL_CAPACITY / 2];
+    private int size = 0;
+
+    /**
+     * Returns the id of {@code input[start, end)}, adding the name if it has not been seen.
+     */
+    public int intern(CharSequence input, int start, int end) {
+        int hash = hash(input, start, end);
+
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            int id = find(input, start, end, hash);
+            if (id >= 0 && lock.validate(stamp)) return id;
+        }
+
+        stamp = lock.writeLock();
+        try {
+            int id = find(input, start, end, hash);
+            return id >= 0 ? id : insert(input.subSequence(start, end).toString(), hash);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int intern(CharSequence name) {
+        return intern(name, 0, name.length());
+    }
+
+    /**
+     * @param id An id previously returned by {@link #intern}.
+     * @return The canonical spelling of the name.
+     */
+    public String name(int id) {
+        long stamp = lock.tryOptimisticRead();
+        String[] names = this.names;
+        String name = id >= 0 && id < names.length ? names[id] : null;
+        if (name != null && lock.validate(stamp)) return name;
+
+        stamp = lock.readLock();
+        try {
+            if (id < 0 || id >= size) throw new IndexOutOfBoundsException("Unknown symbol id " + id);
+            return this.names[id];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Forgets all names, so ids are handed out from zero again. Ids returned before no longer
+     * name anything. The arrays are kept for the next names unless they grew large.
+     */
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            if (slots.length > MAX_RETAINED_CAPACITY) {
+                slots = new int[INITIAL_CAPACITY];
+                names = new String[INITIAL_CAPACITY / 2];
+                hashes = new int[INITIAL_CAPACITY / 2];
+            } else {
+                Arrays.fill(slots, 0);
+                Arrays.fill(names, 0, size, null);
+            }
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // May run concurrently with insert() under an optimistic stamp, so it only works on local
+    // copies of the arrays, never indexes out of bounds and treats anything odd as a miss.
+    private int find(CharSequence input, int start, int end, int hash) {
+        int[] slots = this.slots;
+        String[] names = this.names;
+        int[] hashes = this.hashes;
+        int mask = slots.length - 1;
+
+        for (int probe = 0, slot = hash & mask; probe < slots.length; probe++, slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0) return -1;
+            if (id >= names.length || id >= hashes.length || hashes[id] != hash) continue;
+            String name = names[id];
+            if (name != null && matches(name, input, start, end)) return id;
+        }
+        return -1;
+    }
+
+    private int insert(String name, int hash) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        int id = size;
+        names[id] = name;
+        hashes[id] = hash;
+
+        // Keep the load factor at or below one half
+        if ((size + 1) * 2 > slots.length) rehash(slots.length * 2);
+        place(slots, id, hash);
+        size++;
+        return id;
+    }
+
+    private void rehash(int capacity) {
+        int[] table = new int[capacity];
+        for (int id = 0; id < size; id++) place(table, id, hashes[id]);
+        slots = table;
+    }
+
+    private static void place(int[] table, int id, int hash) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0) slot = (slot + 1) & mask;
+        table[slot] = id + 1;
+    }
+
+    private static boolean matches(String name, CharSequence input, int start, int end) {
+        int length = end - start;
+        if (name.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != input.charAt(start + i)) return false;
+        }
+        return true;
+    }
+
+    private static int hash(CharSequence input, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) hash = 31 * hash + input.charAt(i);
+        return hash ^ (hash >>> 16); // Spread the high bits into the masked low bits
+    }
+
+}
@@ -3,15 +3,24 @@ package com.monac.compiler.lexer;
 public class Token {
 
     private final TokenType type;
-    private final String lexeme;
-    private final int line;
-    private final int column;
+    private final CharSequence text;
+    private final int symbol;
+    private final long value;
 
-    public Token(TokenType type, String lexeme, int line, int column) {
+    // Only the offset is recorded, line and column are resolved through the source on demand
+    private final Source source;
+    private final int offset;
+
+    // Materialized on first request, the text is usually a view into the source
+    private String lexeme;
+
+    public Token(TokenType type, CharSequence text, int symbol, long value, Source source, int offset) {
         this.type = type;
-        this.lexeme = lexeme;
-        this.line = line;
-        this.column = column;
+        this.text = text;
+        this.symbol = symbol;
+        this.value = value;
+        this.source = source;
+        this.offset = offset;
     }
 
     // Getters
@@ -20,16 +29,55 @@ public class Token {
         return type;
     }
 
+    /**
+     * Returns the source text of this token without copying it.
+     *
+     * @return A character sequence, typically a view into the lexer input.
+     */
+    public CharSequence getText() {
+        return text;
+    }
+
     public String getLexeme() {
+        if (lexeme == null) lexeme = text.toString();
         return lexeme;
     }
 
+    /**
+     * @return The {@link SymbolTable} id of an identifier token, or {@code -1} for other tokens.
+     */
+    public int getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * @return The decoded value of an integer or character constant, or the raw bits of a
+     *         floating constant; see {@link #getDoubleValue()}.
+     */
+    public long getValue() {
+        return value;
+    }
+
+    public double getDoubleValue() {
+        return Double.longBitsToDouble(value);
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    // Resolved through the line index of the source, meant for diagnostics
+
     public int getLine() {
-        return line;
+        return source.lines().line(offset);
     }
 
     public int getColumn() {
-        return column;
+        return source.lines().column(offset);
     }
 
 }
@@ -0,0 +1,254 @@
+package com.monac.compiler.lexer;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Compact, struct-of-arrays storage for a token sequence.
+ *
+ * <p>Instead of one {@link Token} object per token, the buffer keeps the type ordinal, start
+ * offset and length of every token in parallel primitive arrays. Lexemes are not
+ * copied; {@link #lexeme(int)} returns a view into the original input, and {@link #token(int)}
+ * only materializes a {@link Token} when a caller really needs one. Identifiers additionally
+ * carry their {@link SymbolTable} id, and their lexeme is the shared canonical spelling.
+ * Constants carry the value the lexer decoded, so their text never has to be parsed again.</p>
+ */
+public final class TokenBuffer implements TokenStream {
+
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAX_RETAINED_CAPACITY = 1 << 16; // Kept across a reset
+
+    private Source input;
+    private final SymbolTable symbolTable;
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private int[] starts = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private int[] symbols = new int[INITIAL_CAPACITY];
+    private long[] values = new long[INITIAL_CAPACITY];
+    private int size = 0;
+
+    public TokenBuffer(Source input, SymbolTable symbolTable) {
+        this.input = input;
+        this.symbolTable = symbolTable;
+    }
+
+    /**
+     * Removes all tokens, to fill the buffer again with the tokens of {@code input}. The arrays
+     * are kept, unless a large input grew them past {@value #MAX_RETAINED_CAPACITY} tokens.
+     */
+    public void reset(Source input) {
+        this.input = input;
+        size = 0;
+        if (types.length > MAX_RETAINED_CAPACITY) {
+            types = new byte[INITIAL_CAPACITY];
+            starts = new int[INITIAL_CAPACITY];
+            lengths = new int[INITIAL_CAPACITY];
+            symbols = new int[INITIAL_CAPACITY];
+            values = new long[INITIAL_CAPACITY];
+        }
+    }
+
+    public void add(TokenType type, int start, int length, int symbol) {
+        add(type, start, length, symbol, 0);
+    }
+
+    public void add(TokenType type, int start, int length, int symbol, long value) {
+        if (size == types.length) grow();
+        types[size] = (byte) type.ordinal();
+        starts[size] = start;
+        lengths[size] = length;
+        symbols[size] = symbol;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * Appends the tokens {@code [from, to)} of another buffer over the same input.
+     */
+    public void append(TokenBuffer other, int from, int to) {
+        append(other, from, to, 0);
+    }
+
+    /**
+     * Appends the tokens {@code [from, to)} of another buffer, moving their start offsets by {@code shift}.
+     */
+    public void append(TokenBuffer other, int from, int to, int shift) {
+        int count = to - from;
+        if (size + count > types.length) grow(size + count);
+        System.arraycopy(other.types, from, types, size, count);
+        System.arraycopy(other.starts, from, starts, size, count);
+        System.arraycopy(other.lengths, from, lengths, size, count);
+        System.arraycopy(other.symbols, from, symbols, size, count);
+        System.arraycopy(other.values, from, values, size, count);
+        if (shift != 0) {
+            for (int i = size; i < size + count; i++) starts[i] += shift;
+        }
+        size += count;
+    }
+
+    private void grow() {
+        grow(types.length * 2);
+    }
+
+    private void grow(int minimum) {
+        int capacity = Math.max(types.length * 2, minimum);
+        types = Arrays.copyOf(types, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        symbols = Arrays.copyOf(symbols, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    // Getters
+
+    public int size() {
+        return size;
+    }
+
+    public Source getInput() {
+        return input;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    @Override
+    public TokenType type(int index) {
+        return TYPES[types[checkIndex(index)]];
+    }
+
+    public int start(int index) {
+        return starts[checkIndex(index)];
+    }
+
+    public int length(int index) {
+        return lengths[checkIndex(index)];
+    }
+
+    /**
+     * @return The symbol id of an identifier token, or {@code -1} for other tokens.
+     */
+    @Override
+    public int symbol(int index) {
+        return symbols[checkIndex(index)];
+    }
+
+    /**
+     * @return The value of an integer or character constant, the raw bits of a floating constant.
+     */
+    public long value(int index) {
+        return values[checkIndex(index)];
+    }
+
+    public double doubleValue(int index) {
+        return Double.longBitsToDouble(value(index));
+    }
+
+    // Resolved through the line index of the source, meant for diagnostics
+
+    public int line(int index) {
+        return input.lines().line(start(index));
+    }
+
+    public int column(int index) {
+        return input.lines().column(start(index));
+    }
+
+    /**
+     * @param index Token index.
+     * @return A view of the token's text in the original input; nothing is copied.
+     */
+    public CharSequence lexeme(int index) {
+        int symbol = symbols[checkIndex(index)];
+        if (symbol >= 0) return symbolTable.name(symbol);
+        int start = starts[index];
+        return input.text(start, start + lengths[index]);
+    }
+
+    @Override
+    public Token token(int index) {
+        return new Token(type(index), lexeme(index), symbols[index], values[index], input, starts[index]);
+    }
+
+    /**
+     * Writes the input and the tokens of this buffer in the format read by {@link #read}.
+     * The input is written as UTF-8. Where that keeps the offsets of the tokens, for a
+     * {@link Utf8Source} or ASCII text, the tokens are written as they are; otherwise only the
+     * text is written, and it is lexed again when it is read.
+     */
+    public void write(DataOutput out) throws IOException {
+        byte[] content;
+        if (input instanceof Utf8Source utf8) {
+            ByteBuffer bytes = utf8.bytes();
+            content = new byte[bytes.remaining()];
+            bytes.get(content);
+        } else {
+            content = input.toString().getBytes(StandardCharsets.UTF_8);
+            if (content.length != input.length()) {
+                out.writeByte(1);
+                out.writeInt(content.length);
+                out.write(content);
+                return;
+            }
+        }
+        out.writeByte(0);
+        out.writeInt(content.length);
+        out.write(content);
+
+        ByteBuffer columns = ByteBuffer.allocate(size * (1 + 4 + 4 + 4 + 8));
+        columns.put(types, 0, size);
+        columns.asIntBuffer().put(starts, 0, size).put(lengths, 0, size).put(symbols, 0, size);
+        columns.position(columns.position() + size * 12);
+        columns.asLongBuffer().put(values, 0, size);
+        out.writeInt(size);
+        out.write(columns.array());
+    }
+
+    /**
+     * Reads a buffer written by {@link #write}, advancing {@code in} past it. The input is a view
+     * into {@code in}, so a buffer read from a memory mapped file is not copied.
+     *
+     * @param symbolMap Maps the symbol ids of the writer to ids in {@code symbolTable}.
+     */
+    public static TokenBuffer read(ByteBuffer in, SymbolTable symbolTable, int[] symbolMap) {
+        byte kind = in.get();
+        int length = in.getInt();
+        ByteBuffer content = in.slice(in.position(), length);
+        in.position(in.position() + length);
+        if (kind == 1) {
+            return new Lexer(new StringSource(StandardCharsets.UTF_8.decode(content)), symbolTable).tokenizeToBuffer();
+        }
+
+        TokenBuffer buffer = new TokenBuffer(new Utf8Source(content), symbolTable);
+        int size = in.getInt();
+        int capacity = Math.max(size, 1); // Most buffers are never added to again
+        buffer.types = new byte[capacity];
+        buffer.starts = new int[capacity];
+        buffer.lengths = new int[capacity];
+        buffer.symbols = new int[capacity];
+        buffer.values = new long[capacity];
+        in.get(buffer.types, 0, size);
+        in.asIntBuffer().get(buffer.starts, 0, size).get(buffer.lengths, 0, size).get(buffer.symbols, 0, size);
+        in.position(in.position() + size * 12);
+        in.asLongBuffer().get(buffer.values, 0, size);
+        in.position(in.position() + size * 8);
+        for (int i = 0; i < size; i++) {
+            if (buffer.symbols[i] >= 0) buffer.symbols[i] = symbolMap[buffer.symbols[i]];
+        }
+        buffer.size = size;
+        return buffer;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Token index " + index + " out of bounds for size " + size);
+        }
+        return index;
+    }
+
+}
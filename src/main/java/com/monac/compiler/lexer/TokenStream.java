@@ -0,0 +1,31 @@
+package com.monac.compiler.lexer;
+
+/**
+ * Random access view of a token sequence, addressed by absolute token index.
+ *
+ * <p>Implementations may only keep a window of the sequence in memory, in which case
+ * indices that fell out of the window are rejected with an {@link IllegalStateException}.</p>
+ */
+public interface TokenStream {
+
+    /**
+     * @param index Absolute token index.
+     * @return The type of the token at {@code index}.
+     */
+    TokenType type(int index);
+
+    /**
+     * @param index Absolute token index.
+     * @return The token at {@code index}.
+     */
+    Token token(int index);
+
+    /**
+     * @param index Absolute token index.
+     * @return The symbol id of the identifier at {@code index}, or {@code -1} for other tokens.
+     */
+    default int symbol(int index) {
+        return token(index).getSymbol();
+    }
+
+}
@@ -7,6 +7,7 @@ public enum TokenType {
     STRUCT, UNION, CASE, DEFAULT,
     GOTO, CONTINUE, RETURN, BREAK,
     IF, ELSE, SWITCH, WHILE, DO, FOR,
+    TYPEDEF,
 
     // Types
     VOID,
@@ -44,7 +45,8 @@ public enum TokenType {
     OR_ASSIGN,  // |
 
     // Identifiers and literals
-    IDENTIFIER, STRING, INTEGER_CONSTANT,
+    IDENTIFIER, STRING, INTEGER_CONSTANT, FLOATING_CONSTANT, CHARACTER_CONSTANT,
+    TYPEDEF_NAME, // Never produced by the lexer, the parser reads an IDENTIFIER it knows to name a type as this
 
     // Punctuation and grouping symbols
     LPAREN, RPAREN,
@@ -61,6 +63,10 @@ public enum TokenType {
 
     SHL, SHR, // <<, >>
 
+    // Preprocessing
+    HASH, HASH_HASH, // #, ##
+    OTHER, // Text that forms no token, only produced by a lenient lexer
+
     // Miscellaneous
     WHITESPACE, COMMENT, EOF
 }
@@ -0,0 +1,37 @@
+package com.monac.compiler.lexer;
+
+/**
+ * A {@link TokenStream} that pulls tokens from a {@link Lexer} on demand and keeps only the
+ * most recent ones in a fixed size ring buffer, so memory does not grow with the input.
+ */
+public final class TokenWindow implements TokenStream {
+
+    private static final int CAPACITY = 8;
+    private static final int MASK = CAPACITY - 1;
+
+    private final Token[] ring = new Token[CAPACITY];
+    private final Lexer lexer;
+    private int fetched = 0; // Number of tokens pulled from the lexer so far
+
+    public TokenWindow(Lexer lexer) {
+        this.lexer = lexer;
+    }
+
+    @Override
+    public TokenType type(int index) {
+        return token(index).getType();
+    }
+
+    @Override
+    public Token token(int index) {
+        if (index < 0 || index <= fetched - CAPACITY) {
+            throw new IllegalStateException("Token " + index + " is no longer buffered");
+        }
+        while (fetched <= index) {
+            ring[fetched & MASK] = lexer.nextToken();
+            fetched++;
+        }
+        return ring[index & MASK];
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.monac.compiler.lexer;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A {@link Source} over UTF-8 encoded bytes, usually a memory mapped file.
+ *
+ * <p>The bytes are scanned as they are: {@link #charAt(int)} returns a single byte and offsets
+ * are byte offsets. Nothing is decoded up front; {@link #text(int, int)} decodes only the
+ * lexemes that are actually materialized, and pure ASCII lexemes are returned as views over
+ * the bytes without decoding them at all. With a mapped file the operating system pages the
+ * input in lazily while the lexer walks through it.</p>
+ */
+public final class Utf8Source implements Source {
+
+    private final ByteBuffer bytes;
+    private LineIndex lines; // Built lazily, racing builds produce equal indexes
+
+    public Utf8Source(ByteBuffer bytes) {
+        this.bytes = skipByteOrderMark(bytes.slice());
+    }
+
+    // A view of a range, where a U+FEFF is text and not a byte order mark
+    private Utf8Source(ByteBuffer bytes, int start, int end) {
+        this.bytes = bytes.slice(start, end - start);
+    }
+
+    /**
+     * Maps a file read-only into memory. The mapping stays valid after the channel is closed.
+     *
+     * @param path The UTF-8 encoded file to map.
+     * @return A source over the mapped bytes.
+     * @throws IOException If the file cannot be opened or is larger than 2 GB.
+     */
+    public static Utf8Source map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("File too large to lex: " + path);
+            return new Utf8Source(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    private static ByteBuffer skipByteOrderMark(ByteBuffer bytes) {
+        if (bytes.limit() >= 3 && bytes.get(0) == (byte) 0xEF && bytes.get(1) == (byte) 0xBB && bytes.get(2) == (byte) 0xBF) {
+            return bytes.slice(3, bytes.limit() - 3);
+        }
+        return bytes;
+    }
+
+    // Independent view of the bytes, used to write them out
+    ByteBuffer bytes() {
+        return bytes.duplicate();
+    }
+
+    // Segment view of the bytes, used by the vectorized scanner
+    MemorySegment segment() {
+        return MemorySegment.ofBuffer(bytes);
+    }
+
+    @Override
+    public int length() {
+        return bytes.limit();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (bytes.get(index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new Utf8Source(bytes, start, end);
+    }
+
+    @Override
+    public CharSequence text(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (bytes.get(i) < 0) {
+                byte[] encoded = new byte[end - start];
+                bytes.get(start, encoded);
+                return new String(encoded, StandardCharsets.UTF_8);
+            }
+        }
+        // ASCII only, every byte is exactly one char
+        return subSequence(start, end);
+    }
+
+    @Override
+    public LineIndex lines() {
+        LineIndex index = lines;
+        if (index == null) lines = index = LineIndex.of(this);
+        return index;
+    }
+
+    @Override
+    public Source replace(int start, int end, CharSequence text) {
+        byte[] encoded = text.toString().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer edited = ByteBuffer.allocate(length() - (end - start) + encoded.length);
+        edited.put(bytes.slice(0, start)).put(encoded).put(bytes.slice(end, length() - end));
+        return new Utf8Source(edited, 0, edited.capacity());
+    }
+
+    @Override
+    public String toString() {
+        byte[] encoded = new byte[length()];
+        bytes.get(0, encoded);
+        return new String(encoded, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.monac.compiler.lexer;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+/**
+ * Vector API fast path for the long runs that dominate real sources: whitespace, comment
+ * bodies and identifiers.
+ *
+ * <p>Each method classifies a whole vector of bytes (16 to 64, depending on the hardware) per
+ * step and only falls back to byte-at-a-time scanning for the tail that does not fill a vector.
+ * It works on the bytes of a {@link Utf8Source}; every byte of a multi-byte UTF-8 sequence is
+ * negative as a Java {@code byte}, so it never matches any of the ASCII classes below.</p>
+ *
+ * <p>This class needs the {@code jdk.incubator.vector} module at run time. {@link Lexer} only
+ * loads it when that module is present and uses the scalar scanner otherwise.</p>
+ */
+final class VectorScanner {
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+    private static final int WIDTH = SPECIES.length();
+
+    private final MemorySegment bytes;
+    private final int length;
+
+    VectorScanner(MemorySegment bytes) {
+        this.bytes = bytes;
+        this.length = (int) bytes.byteSize();
+    }
+
+    /**
+     * @return The offset of the first byte at or after {@code position} that is not whitespace.
+     */
+    int skipWhitespace(int position) {
+        while (position + WIDTH <= length) {
+            ByteVector chunk = load(position);
+            VectorMask<Byte> whitespace = chunk.eq((byte) ' ')
+                    .or(chunk.compare(VectorOperators.GE, (byte) '\t').and(chunk.compare(VectorOperators.LE, (byte) '\r')));
+            if (!whitespace.allTrue()) return position + whitespace.not().firstTrue();
+            position += WIDTH;
+        }
+        while (position < length && isWhitespace(get(position))) position++;
+        return position;
+    }
+
+    /**
+     * @return The offset of the first byte at or after {@code position} that cannot continue an identifier.
+     */
+    int skipIdentifier(int position) {
+        while (position + WIDTH <= length) {
+            ByteVector chunk = load(position);
+            ByteVector lower = chunk.or((byte) 0x20); // Folds 'A'-'Z' onto 'a'-'z'
+            VectorMask<Byte> identifier = lower.compare(VectorOperators.GE, (byte) 'a').and(lower.compare(VectorOperators.LE, (byte) 'z'))
+                    .or(chunk.compare(VectorOperators.GE, (byte) '0').and(chunk.compare(VectorOperators.LE, (byte) '9')))
+                    .or(chunk.eq((byte) '_'));
+            if (!identifier.allTrue()) return position + identifier.not().firstTrue();
+            position += WIDTH;
+        }
+        while (position < length && isIdentifierPart(get(position))) position++;
+        return position;
+    }
+
+    /**
+     * @return The offset of the next line feed at or after {@code position}, or the input length.
+     */
+    int findLineEnd(int position) {
+        while (position + WIDTH <= length) {
+            VectorMask<Byte> newline = load(position).eq((byte) '\n');
+            if (newline.anyTrue()) return position + newline.firstTrue();
+            position += WIDTH;
+        }
+        while (position < length && get(position) != '\n') position++;
+        return position;
+    }
+
+    /**
+     * @return The offset just past the next {@code *}{@code /} at or after {@code position}, or {@code -1}.
+     */
+    int findBlockCommentEnd(int position) {
+        // The second load is shifted by one byte, so it needs one byte of slack
+        while (position + WIDTH + 1 <= length) {
+            VectorMask<Byte> end = load(position).eq((byte) '*').and(load(position + 1).eq((byte) '/'));
+            if (end.anyTrue()) return position + end.firstTrue() + 2;
+            position += WIDTH;
+        }
+        while (position + 1 < length) {
+            if (get(position) == '*' && get(position + 1) == '/') return position + 2;
+            position++;
+        }
+        return -1;
+    }
+
+    private ByteVector load(int position) {
+        return ByteVector.fromMemorySegment(SPECIES, bytes, position, ByteOrder.nativeOrder());
+    }
+
+    private byte get(int position) {
+        return bytes.get(ValueLayout.JAVA_BYTE, position);
+    }
+
+    private static boolean isWhitespace(byte c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    private static boolean isIdentifierPart(byte c) {
+        int lower = c | 0x20;
+        return (lower >= 'a' && lower <= 'z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+}
@@ -0,0 +1,264 @@
+package com.monac.compiler.parser;
+
+import com.monac.compiler.lexer.IncrementalLexer;
+import com.monac.compiler.lexer.TokenBuffer;
+import com.monac.compiler.lexer.TokenType;
+import com.monac.compiler.parser.rules.declaration.Declaration;
+import com.monac.compiler.parser.rules.declaration.ExternalDeclaration;
+import com.monac.compiler.parser.rules.statement.CompoundStatement;
+import com.monac.compiler.parser.tree.Node;
+import com.monac.compiler.parser.tree.NodeType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the tree of a source up to date across text edits by re-parsing only the smallest
+ * {@code FUNCTION_DEFINITION}, {@code COMPOUND_STATEMENT} or {@code DECLARATION} around each
+ * edit.
+ *
+ * <p>The tokens are updated by {@link IncrementalLexer}. The tree is then searched from the
+ * root for the innermost of those nodes whose first token starts before the edit and whose last
+ * token, the closing {@code }} or {@code ;}, starts after it. That range is parsed again by its
+ * rule, with the typedef names of the declarations before it on the path from the root. The
+ * result is kept if it has the same type, has no errors, ends on the same, shifted, last token
+ * and, for a declaration, declares the same typedef names. Otherwise the next enclosing node is
+ * tried, and the whole input as a last resort. The new node replaces the old one in its parent,
+ * and the following siblings on the way down are kept with their offsets shifted by the size
+ * difference of the edit.</p>
+ *
+ * <p>The tree is updated in place: the node returned by {@link #edit} is the same root as before
+ * whenever part of it could be kept. A tree with errors is always parsed again as a whole.</p>
+ */
+public final class IncrementalParser {
+
+    private TokenBuffer tokens;
+    private Node tree;
+    private List<ParserException> errors = new ArrayList<>();
+    private Node reparsed;
+
+    public IncrementalParser(TokenBuffer tokens) {
+        this.tokens = tokens;
+    }
+
+    public Node parse() {
+        Parser parser = new Parser(tokens);
+        tree = parser.parse();
+        errors = parser.getErrors();
+        reparsed = tree;
+        return tree;
+    }
+
+    /**
+     * Applies a text edit and updates the tree.
+     *
+     * @param offset   Where the edit starts, in code units of the current source.
+     * @param removed  The number of code units removed at {@code offset}.
+     * @param inserted The text inserted at {@code offset}.
+     * @return The root of the updated tree.
+     */
+    public Node edit(int offset, int removed, CharSequence inserted) {
+        TokenBuffer old = tokens;
+        tokens = IncrementalLexer.edit(old, offset, removed, inserted);
+        if (tree == null || !errors.isEmpty() || !reparse(old, offset, offset + removed)) parse();
+        return tree;
+    }
+
+    public TokenBuffer getTokens() {
+        return tokens;
+    }
+
+    public Node getTree() {
+        return tree;
+    }
+
+    // The node the last parse or edit built anew, the root after a full parse
+    public Node getReparsed() {
+        return reparsed;
+    }
+
+    public boolean hadErrors() {
+        return !errors.isEmpty();
+    }
+
+    public List<ParserException> getErrors() {
+        return errors;
+    }
+
+    // Re-parses the innermost node around the old range [start, end), false if none fits
+    private boolean reparse(TokenBuffer old, int start, int end) {
+        List<Node> parents = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+        find(old, tree, start, end, parents, indices);
+
+        int shift = tokens.getInput().length() - old.getInput().length();
+        for (int level = parents.size() - 1; level >= 0; level--) {
+            Node parent = parents.get(level);
+            int index = indices.get(level);
+            Node node = parent.getChildren().get(index);
+            if (!isCandidate(node)) continue;
+
+            TypedefTable typedefs = typedefs(parents, indices, level);
+            Node replacement = reparse(old, parent, node, typedefs.copy());
+            if (replacement == null || !declaresSameNames(typedefs, node, replacement)) continue;
+
+            List<Node> children = new ArrayList<>(parent.getChildren());
+            children.set(index, replacement);
+            parent.setChildren(children);
+            for (int up = level; up >= 0; up--) {
+                List<Node> siblings = parents.get(up).getChildren();
+                for (int i = indices.get(up) + 1; i < siblings.size(); i++) {
+                    if (siblings.get(i) != null) siblings.get(i).shift(shift);
+                }
+            }
+            reparsed = replacement;
+            return true;
+        }
+        return false;
+    }
+
+    // Walks down to the innermost candidate around the edit, recording each parent and child index
+    private static boolean find(TokenBuffer old, Node node, int start, int end, List<Node> parents, List<Integer> indices) {
+        List<Node> children = node.getChildren();
+        if (children == null) return false;
+
+        // Children are in source order, only the last one starting before the edit can contain it
+        int index = -1;
+        for (int i = 0; i < children.size(); i++) {
+            Node child = children.get(i);
+            if (child == null) continue;
+            if (child.getOffset() >= start) break;
+            index = i;
+        }
+        if (index < 0) return false;
+        Node child = children.get(index);
+
+        if (isCandidate(child)) {
+            int first = tokenAt(old, child.getOffset());
+            int last = first < 0 ? -1 : lastToken(old, child, first);
+            if (last < 0 || end > old.start(last)) return false;
+            parents.add(node);
+            indices.add(index);
+            find(old, child, start, end, parents, indices);
+            return true;
+        }
+        if (child.getType() == NodeType.SELECTION_STATEMENT || child.getType() == NodeType.ITERATOR_STATEMENT
+                || child.getType() == NodeType.LABELED_STATEMENT) {
+            // Not re-parsed on its own, but its statement may be a compound statement
+            parents.add(node);
+            indices.add(index);
+            if (find(old, child, start, end, parents, indices)) return true;
+            parents.removeLast();
+            indices.removeLast();
+        }
+        return false;
+    }
+
+    private static boolean isCandidate(Node node) {
+        return switch (node.getType()) {
+            case FUNCTION_DEFINITION, COMPOUND_STATEMENT, DECLARATION -> true;
+            default -> false;
+        };
+    }
+
+    // The typedef names in scope at the start of the child at level, from the declarations before it on the path
+    private static TypedefTable typedefs(List<Node> parents, List<Integer> indices, int level) {
+        TypedefTable typedefs = new TypedefTable();
+        for (int up = 0; up <= level; up++) {
+            List<Node> children = parents.get(up).getChildren();
+            boolean function = parents.get(up).getType() == NodeType.FUNCTION_DEFINITION;
+            for (int i = 0; i < indices.get(up); i++) {
+                Node child = children.get(i);
+                if (child == null) continue;
+                if (child.getType() == NodeType.DECLARATION) typedefs.declare(child);
+                else if (function) typedefs.declareParameters(child);
+            }
+        }
+        return typedefs;
+    }
+
+    // A declaration that declares other names changes how the tokens after it are read
+    private static boolean declaresSameNames(TypedefTable typedefs, Node node, Node replacement) {
+        if (node.getType() != NodeType.DECLARATION) return true;
+        TypedefTable before = typedefs.copy();
+        before.declare(node);
+        TypedefTable after = typedefs.copy();
+        after.declare(replacement);
+        return before.hasSameNames(after);
+    }
+
+    // Parses the range of node again in the new tokens, null if the result does not fit in its place
+    private Node reparse(TokenBuffer old, Node parent, Node node, TypedefTable typedefs) {
+        int first = tokenAt(old, node.getOffset());
+        int oldLast = lastToken(old, node, first);
+        int last = oldLast + tokens.size() - old.size();
+        if (last <= first || tokens.type(last) != old.type(oldLast)) return null;
+
+        Parser parser = new Parser(tokens, typedefs);
+        parser.seek(first);
+        Node result;
+        if (parent.getType() == NodeType.TRANSLATION_UNIT) result = ExternalDeclaration.parse(parser);
+        else if (node.getType() == NodeType.DECLARATION) result = Declaration.parse(parser);
+        else if (node.getType() == NodeType.COMPOUND_STATEMENT) result = CompoundStatement.parse(parser);
+        else return null;
+
+        if (result == null || parser.hadErrors() || result.getType() != node.getType() || parser.position() != last + 1) return null;
+        return result;
+    }
+
+    // Index of the token starting at offset, or -1
+    private static int tokenAt(TokenBuffer tokens, int offset) {
+        int low = 0;
+        int high = tokens.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int start = tokens.start(middle);
+            if (start < offset) low = middle + 1;
+            else if (start > offset) high = middle - 1;
+            else return middle;
+        }
+        return -1;
+    }
+
+    // Index of the closing '}' or ';' of a candidate starting at token first, or -1
+    private static int lastToken(TokenBuffer tokens, Node node, int first) {
+        switch (node.getType()) {
+            case FUNCTION_DEFINITION -> {
+                List<Node> children = node.getChildren();
+                int body = tokenAt(tokens, children.getLast().getOffset());
+                return body < 0 ? -1 : closingBrace(tokens, body);
+            }
+            case COMPOUND_STATEMENT -> {
+                return closingBrace(tokens, first);
+            }
+            default -> {
+                int depth = 0;
+                for (int i = first; ; i++) {
+                    switch (tokens.type(i)) {
+                        case LBRACE -> depth++;
+                        case RBRACE -> depth--;
+                        case SEMICOLON -> {
+                            if (depth == 0) return i;
+                        }
+                        case EOF -> {
+                            return -1;
+                        }
+                        default -> {
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static int closingBrace(TokenBuffer tokens, int open) {
+        int depth = 0;
+        for (int i = open; ; i++) {
+            TokenType type = tokens.type(i);
+            if (type == TokenType.LBRACE) depth++;
+            else if (type == TokenType.RBRACE && --depth == 0) return i;
+            else if (type == TokenType.EOF) return -1;
+        }
+    }
+
+}
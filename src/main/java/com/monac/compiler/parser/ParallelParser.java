@@ -0,0 +1,241 @@
+package com.monac.compiler.parser;
+
+import com.monac.compiler.lexer.Token;
+import com.monac.compiler.lexer.TokenStream;
+import com.monac.compiler.lexer.TokenType;
+import com.monac.compiler.lexer.TokenWindow;
+import com.monac.compiler.parser.tree.Node;
+import com.monac.compiler.parser.tree.NodeType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Parses the external declarations of a large translation unit in segments on a
+ * {@link ForkJoinPool}.
+ *
+ * <p>A sequential pre-scan over the token types finds where top-level declarations end: a
+ * {@code ;} at brace depth 0, or the {@code }} closing a function body. These points are grouped
+ * into segments of roughly {@code segmentSize} tokens, and each segment is parsed by its own
+ * {@link Parser}, which sees the end of the segment as the end of the input. The declarations of
+ * all segments are then joined, in order, into one {@code TRANSLATION_UNIT} node.</p>
+ *
+ * <p>A segment cannot be parsed without the typedef names declared before it, so no segment
+ * boundary is placed before the last {@code typedef} at file scope. When there is one, the first
+ * segment is parsed before the others are started, and each of them begins with a copy of the
+ * typedef names it declared.</p>
+ *
+ * <p>The result is the same as that of {@link Parser#parse()}. A segment that reports an error,
+ * or stops before its end, may have been cut in the wrong place by the pre-scan, so from that
+ * segment on the input is parsed sequentially instead; its errors are then the errors a
+ * sequential parse reports.</p>
+ */
+public final class ParallelParser {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 16;
+
+    private final List<ParserException> errors = new ArrayList<>();
+    private final TokenStream tokens;
+    private final ForkJoinPool pool;
+    private final int segmentSize;
+
+    public ParallelParser(TokenStream tokens) {
+        this(tokens, ForkJoinPool.commonPool(), DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param segmentSize The number of tokens each task parses, approximately.
+     */
+    public ParallelParser(TokenStream tokens, ForkJoinPool pool, int segmentSize) {
+        if (segmentSize <= 0) throw new IllegalArgumentException("Segment size must be positive: " + segmentSize);
+        this.tokens = tokens;
+        this.pool = pool;
+        this.segmentSize = segmentSize;
+    }
+
+    public Node parse() {
+        // A window cannot be read from several positions at once
+        if (pool.getParallelism() < 2 || tokens instanceof TokenWindow) return parseSequentially(0);
+
+        int[] splits = splitPoints(tokens, segmentSize);
+        if (splits.length <= 2) return parseSequentially(0);
+
+        // The typedef names of the first segment are needed by all the others
+        Segment prefix = null;
+        if (declaresTypedefs(tokens, splits[1])) {
+            prefix = Segment.parse(tokens, 0, splits[1], new TypedefTable());
+            if (!prefix.complete()) return parseSequentially(0, new TypedefTable());
+        }
+        int first = prefix == null ? 0 : 1;
+        TypedefTable typedefs = prefix == null ? new TypedefTable() : prefix.typedefs();
+
+        List<Callable<Segment>> tasks = new ArrayList<>(splits.length - 1);
+        for (int i = first; i + 1 < splits.length; i++) {
+            int start = splits[i];
+            int end = splits[i + 1];
+            tasks.add(() -> Segment.parse(tokens, start, end, typedefs.copy()));
+        }
+
+        List<Node> children = new ArrayList<>();
+        if (prefix != null) children.addAll(prefix.declarations());
+        List<Future<Segment>> segments = pool.invokeAll(tasks);
+        TypedefTable names = typedefs; // As they are at the start of the current segment
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = join(segments.get(i));
+            if (!segment.complete()) {
+                segments.subList(i + 1, segments.size()).forEach(future -> future.cancel(false));
+                Node rest = parseSequentially(splits[first + i], names.copy());
+                if (rest != null) children.addAll(rest.getChildren());
+                break;
+            }
+            children.addAll(segment.declarations());
+            names = segment.typedefs();
+        }
+
+        if (children.isEmpty()) return null;
+        Node result = new Node(NodeType.TRANSLATION_UNIT, children.getFirst().getOffset());
+        result.setChildren(children);
+        return result;
+    }
+
+    private Node parseSequentially(int start) {
+        return parseSequentially(start, new TypedefTable());
+    }
+
+    private Node parseSequentially(int start, TypedefTable typedefs) {
+        Parser parser = new Parser(tokens, typedefs);
+        parser.seek(start);
+        Node result = parser.parse();
+        errors.addAll(parser.getErrors());
+        return result;
+    }
+
+    public boolean hadErrors() {
+        return !errors.isEmpty();
+    }
+
+    public List<ParserException> getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return The segment boundaries, starting with {@code 0} and ending with the index of the
+     *         {@code EOF} token. Every inner boundary is the first token after a top-level
+     *         declaration, and after the last {@code typedef} at file scope.
+     */
+    static int[] splitPoints(TokenStream tokens, int segmentSize) {
+        int[] splits = new int[16];
+        int count = 1;
+
+        int depth = 0;
+        boolean body = false;         // Inside a function body, at any depth
+        boolean parameters = false;   // Between a declarator's ')' and the '{' of a K&R definition
+        int typedef = -1;             // Index of the last typedef at depth 0
+        TokenType previous = null;
+        int index = 0;
+        for (TokenType type; (type = tokens.type(index)) != TokenType.EOF; previous = type, index++) {
+            boolean boundary = false;
+            switch (type) {
+                case LBRACE -> {
+                    // A body follows the declarator's ')' or the last K&R parameter declaration
+                    if (depth++ == 0) body = previous == TokenType.RPAREN || parameters && previous == TokenType.SEMICOLON;
+                    parameters = false;
+                }
+                case RBRACE -> {
+                    if (depth > 0 && --depth == 0 && body) boundary = true;
+                }
+                case SEMICOLON -> boundary = depth == 0 && !parameters;
+                case TYPEDEF -> {
+                    if (depth == 0) typedef = index;
+                }
+                default -> {
+                    if (depth == 0 && previous == TokenType.RPAREN && isSpecifier(type)) parameters = true;
+                }
+            }
+            if (boundary && index + 1 - splits[count - 1] >= segmentSize) {
+                if (count + 1 == splits.length) splits = Arrays.copyOf(splits, splits.length * 2);
+                splits[count++] = index + 1;
+            }
+        }
+
+        // Segments before the last typedef are merged into the first
+        int merged = 1;
+        while (merged < count && splits[merged] <= typedef) merged++;
+        System.arraycopy(splits, merged, splits, 1, count - merged);
+        count -= merged - 1;
+
+        if (splits[count - 1] == index) count--; // The last declaration ends right before EOF
+        splits[count++] = index;
+        return Arrays.copyOf(splits, count);
+    }
+
+    // Whether a typedef name may be declared at file scope before end
+    private static boolean declaresTypedefs(TokenStream tokens, int end) {
+        for (int index = 0; index < end; index++) {
+            if (tokens.type(index) == TokenType.TYPEDEF) return true;
+        }
+        return false;
+    }
+
+    // Starts a K&R parameter declaration when it directly follows a declarator, an identifier being a typedef name
+    private static boolean isSpecifier(TokenType type) {
+        return switch (type) {
+            case VOID, CHAR, INT, CONST, VOLATILE, STRUCT, UNION, IDENTIFIER -> true;
+            default -> false;
+        };
+    }
+
+    private static Segment join(Future<Segment> segment) {
+        try {
+            return segment.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing", e);
+        }
+    }
+
+    // The declarations of one segment, whether it was parsed to its end without errors, and the typedef names at its end
+    private record Segment(List<Node> declarations, boolean complete, TypedefTable typedefs) {
+
+        static Segment parse(TokenStream tokens, int start, int end, TypedefTable typedefs) {
+            Parser parser = new Parser(new Bounded(tokens, end), typedefs);
+            parser.seek(start);
+            Node unit = parser.parse();
+            boolean complete = !parser.hadErrors() && parser.position() == end;
+            return new Segment(unit == null ? List.of() : unit.getChildren(), complete, typedefs);
+        }
+
+    }
+
+    // The tokens before end, followed by EOF
+    private record Bounded(TokenStream tokens, int end) implements TokenStream {
+
+        @Override
+        public TokenType type(int index) {
+            return index < end ? tokens.type(index) : TokenType.EOF;
+        }
+
+        @Override
+        public Token token(int index) {
+            if (index < end) return tokens.token(index);
+            Token next = tokens.token(end);
+            return new Token(TokenType.EOF, "", -1, 0, next.getSource(), next.getOffset());
+        }
+
+        @Override
+        public int symbol(int index) {
+            return index < end ? tokens.symbol(index) : -1;
+        }
+
+    }
+
+}
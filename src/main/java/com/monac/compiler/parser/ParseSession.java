@@ -0,0 +1,84 @@
+package com.monac.compiler.parser;
+
+import com.monac.compiler.lexer.Lexer;
+import com.monac.compiler.lexer.Source;
+import com.monac.compiler.lexer.StringSource;
+import com.monac.compiler.lexer.SymbolTable;
+import com.monac.compiler.lexer.TokenBuffer;
+import com.monac.compiler.parser.tree.Node;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * A lexer, token buffer and parser that are used again for one input after another, for
+ * services that parse many small snippets.
+ *
+ * <p>Each {@link #parse} resets the parts of the last one instead of creating them again: the
+ * symbol table, the token arrays, the typedef names and the error list keep their capacity and
+ * are only cleared. The tokens and the errors of a parse are valid until the next one. The tree
+ * is built of new nodes and may be kept, but the symbol ids of its identifiers then refer to
+ * names of a table that has been cleared.</p>
+ *
+ * <p>A session is used by one thread at a time. {@link #acquire()} takes one from a shared pool,
+ * or creates one if the pool is empty, and {@link #close()} puts it back:</p>
+ *
+ * <pre>{@code
+ * try (ParseSession session = ParseSession.acquire()) {
+ *     Node tree = session.parse(snippet);
+ *     ...
+ * }
+ * }</pre>
+ */
+public final class ParseSession implements AutoCloseable {
+
+    // Sessions beyond this many idle ones are left to the garbage collector
+    private static final Queue<ParseSession> POOL = new ArrayBlockingQueue<>(2 * Runtime.getRuntime().availableProcessors());
+
+    private final SymbolTable symbols = new SymbolTable();
+    private final Lexer lexer = new Lexer(new StringSource(""), symbols);
+    private final TokenBuffer tokens = new TokenBuffer(new StringSource(""), symbols);
+    private final Parser parser = new Parser(tokens);
+    private boolean pooled = false;
+
+    public static ParseSession acquire() {
+        ParseSession session = POOL.poll();
+        if (session == null) return new ParseSession();
+        session.pooled = false;
+        return session;
+    }
+
+    public Node parse(CharSequence input) {
+        return parse(new StringSource(input));
+    }
+
+    public Node parse(Source input) {
+        symbols.clear();
+        lexer.reset(input);
+        lexer.tokenizeInto(tokens);
+        parser.reset();
+        return parser.parse();
+    }
+
+    public TokenBuffer getTokens() {
+        return tokens;
+    }
+
+    public boolean hadErrors() {
+        return parser.hadErrors();
+    }
+
+    public List<ParserException> getErrors() {
+        return parser.getErrors();
+    }
+
+    // Returns the session to the pool, it must not be used afterwards
+    @Override
+    public void close() {
+        if (pooled) return;
+        pooled = true;
+        POOL.offer(this);
+    }
+
+}
@@ -2,21 +2,104 @@ package com.monac.compiler.parser;
 
 import com.monac.compiler.lexer.Lexer;
 import com.monac.compiler.lexer.Token;
+import com.monac.compiler.lexer.TokenStream;
 import com.monac.compiler.lexer.TokenType;
+import com.monac.compiler.lexer.TokenWindow;
+import com.monac.compiler.parser.rules.specifier.DeclarationSpecifier;
 import com.monac.compiler.parser.rules.unit.TranslationUnit;
 import com.monac.compiler.parser.tree.Node;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
 
+/**
+ * A recursive descent parser over a {@link TokenStream}, with one class per grammar rule in
+ * {@code com.monac.compiler.parser.rules}.
+ *
+ * <p>Syntax errors never throw. A rule that cannot continue calls {@link #error}, which records
+ * a {@link ParserException} at the next token and skips to a synchronization point with
+ * {@link #synchronize(TokenSet)}, and then returns {@code null}. The rules that parse lists of
+ * statements or declarations call {@link #recover} when an element fails and then go on with
+ * the next one, so one mistake costs one error instead of the rest of the file.</p>
+ *
+ * <p>Recovery keeps the parse linear on any input. The cursor only moves forward and every
+ * skipped token is looked at once. A synchronization that stops where the previous one stopped,
+ * with nothing parsed in between, skips at least one token, so a list rule cannot retry an
+ * element at the same position twice. Until the next token is matched further errors are not
+ * recorded, which keeps a cascade of follow-up reports out of the list. Nor is an error that
+ * repeats one recorded since a {@code ;} or {@code }} last ended a declaration or statement, so
+ * input that fails the same way at every element, like {@code int (int (int (...}, costs one
+ * error per distinct report.</p>
+ *
+ * <p>Completed declarations are recorded in a {@link TypedefTable}, and every token type the
+ * rules see goes through it: an {@code IDENTIFIER} declared by a {@code typedef} in scope reads
+ * as {@code TYPEDEF_NAME}.</p>
+ *
+ * <p>With lazy bodies the errors of a function body are only found when the body is parsed, the
+ * first time the children of its {@link com.monac.compiler.parser.tree.LazyNode} are requested.
+ * Right after {@link #parse()} the errors are those outside of function bodies; they are complete
+ * once every body has been forced, for instance by walking the whole tree. Bodies may be forced
+ * on several threads, each collects its errors on its own and adds them when it is done.</p>
+ */
 public class Parser {
 
-    private final List<ParserException> errors = new ArrayList<>();
-    private final List<Token> tokens;
+    // Where a synchronization stops when no other set is given: before a token that starts a
+    // statement or a declaration. It also stops after a ';' and before a '}' closing a block.
+    public static final TokenSet RECOVERY = TokenSet.of(TokenType.LBRACE, TokenType.IF, TokenType.SWITCH,
+                    TokenType.WHILE, TokenType.DO, TokenType.FOR, TokenType.GOTO, TokenType.CONTINUE,
+                    TokenType.BREAK, TokenType.RETURN, TokenType.CASE, TokenType.DEFAULT)
+            .union(DeclarationSpecifier.FIRST);
+
+    private final List<ParserException> errors;
+    private final TokenStream tokens;
+    private final boolean lazyBodies;
+    private final TypedefTable typedefs;
     private int cursor = 0;
 
+    // Deeper nesting of statements or declarators is reported instead of overflowing the stack
+    public static final int MAX_NESTING = 1024;
+
+    private boolean recovering = false; // An error was reported and no token matched since
+    private int synchronizedAt = -1;    // Where the last synchronization stopped
+    private final Set<String> cascade = new HashSet<>(); // Message and expectation of the errors recorded since
+    private boolean cascading = false;  // An error was recorded and no declaration or statement ended since
+    private int nesting = 0;
+
+    // Streams tokens from the lexer through a small lookahead window
     public Parser(Lexer lexer) {
-        this.tokens = lexer.tokenize();
+        this(new TokenWindow(lexer));
+    }
+
+    // Parses an already scanned token sequence, e.g. a TokenBuffer
+    public Parser(TokenStream tokens) {
+        this(tokens, false);
+    }
+
+    /**
+     * @param lazyBodies Whether function bodies are skipped by brace matching and only parsed
+     *                   when the children of their node are first requested. Has no effect on a
+     *                   {@link TokenWindow}, which cannot go back to a body.
+     */
+    public Parser(TokenStream tokens, boolean lazyBodies) {
+        this(tokens, lazyBodies && !(tokens instanceof TokenWindow), new ArrayList<>(), new TypedefTable());
+    }
+
+    /**
+     * Starts with the typedef names of {@code typedefs} in scope, for a parse that does not
+     * begin at the start of the translation unit.
+     */
+    public Parser(TokenStream tokens, TypedefTable typedefs) {
+        this(tokens, false, new ArrayList<>(), typedefs);
+    }
+
+    private Parser(TokenStream tokens, boolean lazyBodies, List<ParserException> errors, TypedefTable typedefs) {
+        this.tokens = tokens;
+        this.lazyBodies = lazyBodies;
+        this.errors = errors;
+        this.typedefs = typedefs;
     }
 
     // Helper methods for terminal classes
@@ -28,63 +111,279 @@ public class Parser {
         return null;
     }
 
-    public boolean match(TokenType... types) {
-        for (TokenType type : types) {
-            if (check(type)) {
-                advance();
-                return true;
-            }
+    // match and check never allocate, several alternatives are tested with a TokenSet
+
+    public boolean match(TokenType type) {
+        if (check(type)) {
+            matched(type);
+            return true;
         }
         return false;
     }
 
+    public boolean match(TokenSet types) {
+        if (check(types)) {
+            matched(type(cursor));
+            return true;
+        }
+        return false;
+    }
+
+    private void matched(TokenType type) {
+        cursor++; // No need to materialize the matched token
+        recovering = false;
+        if (type == TokenType.SEMICOLON || type == TokenType.RBRACE) cascading = false;
+    }
+
     public boolean check(TokenType type) {
-        if (isAtEnd()) return false;
-        return peek().getType().equals(type);
+        return type != TokenType.EOF && type(cursor) == type;
+    }
+
+    public boolean check(TokenSet types) {
+        TokenType next = type(cursor);
+        return next != TokenType.EOF && types.contains(next);
     }
 
     public Token advance() {
-        if (!isAtEnd()) cursor++;
+        if (!isAtEnd()) matched(type(cursor));
         return previous();
     }
 
     public boolean isAtEnd() {
-        return peek().getType().equals(TokenType.EOF);
+        return tokens.type(cursor) == TokenType.EOF;
+    }
+
+    // Type of the next token, without materializing it
+    public TokenType peekType() {
+        return type(cursor);
+    }
+
+    // Type of the token distance places after the next one, for the few two token decisions
+    public TokenType peekType(int distance) {
+        return type(cursor + distance);
+    }
+
+    // The only place the typedef names are applied, so every rule sees the same token types
+    private TokenType type(int index) {
+        TokenType type = tokens.type(index);
+        if (type == TokenType.IDENTIFIER && !typedefs.isEmpty() && typedefs.isTypedef(tokens.symbol(index))) {
+            return TokenType.TYPEDEF_NAME;
+        }
+        return type;
     }
 
     public Token peek() {
-        return tokens.get(cursor);
+        return tokens.token(cursor);
     }
 
     public Token previous() {
-        return tokens.get(cursor - 1);
+        return tokens.token(cursor - 1);
+    }
+
+    public TypedefTable getTypedefs() {
+        return typedefs;
+    }
+
+    public boolean isLazyBodies() {
+        return lazyBodies;
+    }
+
+    // Random access to the token sequence, for deferred parsing
+
+    public int position() {
+        return cursor;
+    }
+
+    public void seek(int position) {
+        cursor = position;
     }
 
+    /**
+     * Goes back to the first token and forgets the errors and typedef names of the last parse,
+     * to parse the token stream again after it was refilled with other tokens.
+     */
+    public void reset() {
+        cursor = 0;
+        synchronized (errors) {
+            errors.clear();
+        }
+        typedefs.clear();
+        recovering = false;
+        synchronizedAt = -1;
+        cascade.clear();
+        cascading = false;
+        nesting = 0;
+    }
+
+    /**
+     * Finds the '}' closing the '{' at the cursor by counting braces, without parsing or
+     * materializing anything in between.
+     *
+     * @return The index of the closing brace, or {@code -1} if the input ends first.
+     */
+    public int findClosingBrace() {
+        int depth = 0;
+        for (int i = cursor; ; i++) {
+            switch (tokens.type(i)) {
+                case LBRACE -> depth++;
+                case RBRACE -> {
+                    if (--depth == 0) return i;
+                }
+                case EOF -> {
+                    return -1;
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns an eager parser over the same tokens, positioned at {@code position}, that starts
+     * with the typedef names now in scope. It keeps its own errors, which are handed to this
+     * parser with {@link #addErrors(List)} once it is done.
+     */
+    public Parser fork(int position) {
+        Parser parser = new Parser(tokens, false, new ArrayList<>(), typedefs.copy());
+        parser.cursor = position;
+        return parser;
+    }
+
+    /**
+     * @return Whether errors were found so far; see the class comment for lazy bodies.
+     */
     public boolean hadErrors() {
-        return !errors.isEmpty();
+        synchronized (errors) {
+            return !errors.isEmpty();
+        }
     }
 
+    /**
+     * @return The errors found so far, in the order they were added; see the class comment for
+     *         lazy bodies.
+     */
     public List<ParserException> getErrors() {
-        return errors;
+        synchronized (errors) {
+            return List.copyOf(errors);
+        }
     }
 
     public void addError(ParserException e) {
-        errors.add(e);
+        if (e == null) return;
+        synchronized (errors) {
+            errors.add(e);
+        }
+        recovering = true;
+    }
+
+    // Adds the errors of a fork, possibly from another thread, so the recovery state is left alone
+    public void addErrors(List<ParserException> errors) {
+        synchronized (this.errors) {
+            this.errors.addAll(errors);
+        }
+    }
+
+    /**
+     * Reports a syntax error at the next token and synchronizes with {@link #RECOVERY}. Nothing
+     * is reported while the parser is still recovering from an earlier error, and nothing is
+     * skipped if that error already synchronized at the current token.
+     *
+     * @return {@code null}, for the failing rule to return.
+     */
+    public Node error(String message, String expected, String suggestion) {
+        if (recovering && cursor == synchronizedAt) return null;
+        if (!recovering) {
+            Token actual = peek();
+            report(message, expected, () -> new ParserException(message, actual.getLine(), actual.getColumn(), actual.getLexeme(), expected, suggestion));
+        }
+        synchronize();
+        return null;
+    }
+
+    /**
+     * Called by a rule parsing a list when the element starting at {@code start} failed. If the
+     * element's rule already reported and synchronized there is nothing left to do, otherwise the
+     * unexpected token is reported and the parser synchronizes with {@code follow}.
+     */
+    public void recover(int start, TokenSet follow) {
+        if (cursor != start && cursor == synchronizedAt) return;
+        if (!recovering) {
+            Token actual = peek();
+            String message = actual.getType() == TokenType.EOF ? "Unexpected end of input." : "Unexpected '" + actual.getLexeme() + "'.";
+            report(message, "", () -> new ParserException(
+                    message,
+                    actual.getLine(),
+                    actual.getColumn(),
+                    actual.getLexeme(),
+                    "",
+                    ""
+            ));
+        }
+        synchronize(follow);
+    }
+
+    // Records an error unless it repeats one recorded since a declaration or statement last ended
+    private void report(String message, String expected, Supplier<ParserException> error) {
+        if (!cascading) cascade.clear();
+        cascading = true;
+        if (!cascade.add(message + '\0' + expected)) {
+            recovering = true;
+            return;
+        }
+        addError(error.get());
+    }
+
+    /**
+     * Called by a rule before it descends into a nested statement or declarator, and paired
+     * with {@link #leave()}. Past {@link #MAX_NESTING} levels an error is reported instead.
+     *
+     * @return Whether the rule may descend.
+     */
+    public boolean enter() {
+        if (nesting == MAX_NESTING) {
+            error("Too deeply nested.", "At most " + MAX_NESTING + " nested statements or declarators", "Split the code into smaller functions.");
+            return false;
+        }
+        nesting++;
+        return true;
+    }
+
+    public void leave() {
+        nesting--;
     }
 
     // Method for putting parser back in sync after error encountering
     public void synchronize() {
-        advance();
-
-        while (!isAtEnd()) {
-            if (previous().getType() == TokenType.SEMICOLON) return;
-//
-//            switch (peek().getType()) {
-//
-//            }
-            advance();
+        synchronize(RECOVERY);
+    }
+
+    /**
+     * Skips tokens up to the next synchronization point: after a {@code ;}, or before a token in
+     * {@code follow} or a {@code }} that closes a block opened before the cursor. Blocks opened
+     * while skipping are skipped as a whole.
+     */
+    public void synchronize(TokenSet follow) {
+        recovering = true;
+
+        // Stopping here again would parse the same tokens again, so the first one is skipped
+        boolean stuck = cursor == synchronizedAt;
+
+        int depth = 0;
+        for (TokenType type; (type = type(cursor)) != TokenType.EOF; cursor++) {
+            if (depth == 0 && !stuck && (type == TokenType.RBRACE || follow.contains(type))) break;
+            stuck = false;
+
+            if (type == TokenType.LBRACE) {
+                depth++;
+            } else if (type == TokenType.RBRACE) {
+                if (depth > 0) depth--;
+            } else if (type == TokenType.SEMICOLON && depth == 0) {
+                cursor++;
+                cascading = false; // The ';' ends the statement that failed
+                break;
+            }
         }
-        advance();
+        synchronizedAt = cursor;
     }
 
     public Node parse() {
@@ -1,5 +1,9 @@
 package com.monac.compiler.parser;
 
+/**
+ * A syntax error. Parsers record these in their error list instead of throwing them, so no stack
+ * trace is filled in.
+ */
 public class ParserException extends Exception {
 
     private final int line;
@@ -9,7 +13,7 @@ public class ParserException extends Exception {
     private final String suggestion;
 
     public ParserException(String message, int line, int column, String actual, String expected, String suggestion) {
-        super(message);
+        super(message, null, false, false);
         this.line = line;
         this.column = column;
         this.actual = actual;
@@ -0,0 +1,77 @@
+package com.monac.compiler.parser;
+
+import com.monac.compiler.lexer.TokenType;
+
+/**
+ * An immutable set of token types, stored as a bitmask over {@link TokenType} ordinals.
+ *
+ * <p>Rules keep their FIRST and FOLLOW sets in constants of this type, so choosing an
+ * alternative is a single bit test on the type of the next token. There are more than 64 token
+ * types, so the mask is split over two {@code long}s.</p>
+ */
+public final class TokenSet {
+
+    public static final TokenSet EMPTY = new TokenSet(0, 0);
+
+    static {
+        if (TokenType.values().length > 128) throw new IllegalStateException("TokenSet holds at most 128 token types");
+    }
+
+    private final long low;  // Ordinals 0 to 63
+    private final long high; // Ordinals 64 to 127
+
+    private TokenSet(long low, long high) {
+        this.low = low;
+        this.high = high;
+    }
+
+    public static TokenSet of(TokenType... types) {
+        long low = 0;
+        long high = 0;
+        for (TokenType type : types) {
+            int ordinal = type.ordinal();
+            if (ordinal < 64) low |= 1L << ordinal;
+            else high |= 1L << ordinal; // Shifts of a long only use the low six bits of the distance
+        }
+        return new TokenSet(low, high);
+    }
+
+    public TokenSet union(TokenSet other) {
+        return new TokenSet(low | other.low, high | other.high);
+    }
+
+    public TokenSet with(TokenType... types) {
+        return union(of(types));
+    }
+
+    public boolean contains(TokenType type) {
+        int ordinal = type.ordinal();
+        return ((ordinal < 64 ? low : high) >>> ordinal & 1L) != 0;
+    }
+
+    public boolean isEmpty() {
+        return low == 0 && high == 0;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof TokenSet set && set.low == low && set.high == high;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(low) * 31 + Long.hashCode(high);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("{");
+        for (TokenType type : TokenType.values()) {
+            if (!contains(type)) continue;
+            if (result.length() > 1) result.append(", ");
+            result.append(type);
+        }
+        return result.append('}').toString();
+    }
+
+}
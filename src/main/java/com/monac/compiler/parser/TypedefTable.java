@@ -0,0 +1,182 @@
+package com.monac.compiler.parser;
+
+import com.monac.compiler.parser.tree.Node;
+import com.monac.compiler.parser.tree.NodeType;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The identifiers that name a type at the current point of a parse, by symbol id.
+ *
+ * <p>C cannot be parsed without knowing which identifiers are typedef names: {@code T * x;}
+ * declares a pointer when {@code T} names a type and multiplies otherwise. The parser records
+ * every declaration as it completes, and reads an {@code IDENTIFIER} whose symbol is in this
+ * table as a {@code TYPEDEF_NAME}, so the rules decide on the next token instead of trying a
+ * declaration and backing up.</p>
+ *
+ * <p>The names are a bit set indexed by symbol id, so a lookup is one array read. A declaration
+ * in an inner scope may hide a typedef name or make one of an ordinary identifier; each change
+ * is logged with the previous state of its bit, and leaving the scope rolls the log back.</p>
+ *
+ * <p>A {@link #copy()} shares the bit set with the table it was made from until one of the two
+ * changes a name, which copies the set first. A copy made for every function body is therefore
+ * free unless names change between the bodies, and tables that share a set can be read on
+ * different threads.</p>
+ */
+public final class TypedefTable {
+
+    private long[] names = new long[0]; // Bit per symbol id, set for a typedef name
+    private boolean shared = false;     // Whether names may be shared with a copy, and is copied before it changes
+    private int count = 0;              // Number of set bits
+
+    // Changes since the outermost scope, each the symbol id shifted left once with the old bit
+    private int[] log = new int[16];
+    private int logSize = 0;
+    private int[] scopes = new int[16]; // Log size at the start of each open scope
+    private int depth = 0;
+
+    public boolean isTypedef(int symbol) {
+        int word = symbol >>> 6;
+        return symbol >= 0 && word < names.length && (names[word] >>> symbol & 1L) != 0;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    // Forgets all names and open scopes
+    public void clear() {
+        if (shared) {
+            names = new long[names.length];
+            shared = false;
+        } else {
+            Arrays.fill(names, 0L);
+        }
+        count = 0;
+        logSize = 0;
+        depth = 0;
+    }
+
+    public void enterScope() {
+        if (depth == scopes.length) scopes = Arrays.copyOf(scopes, depth * 2);
+        scopes[depth++] = logSize;
+    }
+
+    // Restores the names to what they were before the matching enterScope()
+    public void exitScope() {
+        int start = scopes[--depth];
+        while (logSize > start) {
+            int entry = log[--logSize];
+            set(entry >>> 1, (entry & 1) != 0);
+        }
+    }
+
+    /**
+     * Declares {@code symbol} in the current scope, as a typedef name or as an ordinary
+     * identifier that hides a typedef name of an outer scope.
+     */
+    public void declare(int symbol, boolean typedef) {
+        if (symbol < 0) return;
+        boolean old = isTypedef(symbol);
+        if (old == typedef) return;
+        if (depth > 0) {
+            if (logSize == log.length) log = Arrays.copyOf(log, logSize * 2);
+            log[logSize++] = symbol << 1 | (old ? 1 : 0);
+        }
+        set(symbol, typedef);
+    }
+
+    /**
+     * Declares the names of the declarators of a {@code DECLARATION} node, as typedef names
+     * when its specifiers include {@code typedef}.
+     */
+    public void declare(Node declaration) {
+        List<Node> children = declaration.getChildren();
+        boolean typedef = false;
+        for (Node child : children) {
+            if (child.getType() != NodeType.DECLARATION_SPECIFIER) continue;
+            Node specifier = child.getChildren().getFirst();
+            if (specifier.getType() == NodeType.STORAGE_CLASS_SPECIFIER && "typedef".equals(specifier.getLiteral())) {
+                typedef = true;
+            }
+        }
+        for (Node child : children) {
+            if (child.getType() != NodeType.DECLARATION_SPECIFIER) declare(name(child), typedef);
+        }
+    }
+
+    /**
+     * Declares the parameters of a function declarator as ordinary identifiers, for the body of
+     * its definition.
+     */
+    public void declareParameters(Node declarator) {
+        if (declarator.getType() != NodeType.DIRECT_DECLARATOR) return;
+        List<Node> children = declarator.getChildren();
+        for (int i = 1; i < children.size(); i++) declareParameter(children.get(i));
+    }
+
+    private void declareParameter(Node parameter) {
+        switch (parameter.getType()) {
+            case PARAMETER_TYPE_LIST, PARAMETER_LIST -> {
+                for (Node child : parameter.getChildren()) declareParameter(child);
+            }
+            case PARAMETER_DECLARATION -> declare(name(parameter.getChildren().get(1)), false);
+            case IDENTIFIER -> declare((int) parameter.getValue(), false);
+            default -> {
+            }
+        }
+    }
+
+    // Symbol id of the identifier a declarator or init declarator declares
+    private static int name(Node declarator) {
+        Node node = declarator;
+        while (node.getType() != NodeType.IDENTIFIER) {
+            List<Node> children = node.getChildren();
+            if (children == null || children.isEmpty()) return -1;
+            node = children.getFirst();
+        }
+        return (int) node.getValue();
+    }
+
+    /**
+     * Returns a table with the names visible now as its outermost scope, for a parse that
+     * continues from here independently of this one. The names are not copied until either
+     * table changes one.
+     */
+    public TypedefTable copy() {
+        TypedefTable copy = new TypedefTable();
+        copy.names = names;
+        copy.count = count;
+        copy.shared = true;
+        shared = true;
+        return copy;
+    }
+
+    // Whether both tables have the same typedef names now
+    boolean hasSameNames(TypedefTable other) {
+        if (count != other.count) return false;
+        int length = Math.min(names.length, other.names.length);
+        for (int word = 0; word < length; word++) {
+            if (names[word] != other.names[word]) return false;
+        }
+        return true; // Same count and same bits in the shared words, so none beyond
+    }
+
+    private void set(int symbol, boolean typedef) {
+        int word = symbol >>> 6;
+        if (word >= names.length) {
+            if (!typedef) return;
+            names = Arrays.copyOf(names, Math.max(word + 1, names.length * 2));
+            shared = false;
+        } else if (shared) {
+            names = names.clone();
+            shared = false;
+        }
+        long bit = 1L << symbol;
+        if (typedef) names[word] |= bit;
+        else names[word] &= ~bit;
+        count += typedef ? 1 : -1;
+    }
+
+}
@@ -0,0 +1,351 @@
+package com.monac.compiler.parser.lalr;
+
+import com.monac.compiler.lexer.TokenType;
+import com.monac.compiler.parser.tree.NodeType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A context-free grammar read from a grammar file, with the action of every production
+ * compiled to a few ints.
+ *
+ * <p>Symbols are numbered with the terminals first: symbol {@code i < terminalCount()} is the
+ * {@link TokenType} with ordinal {@code i}. Production 0 is the added start production
+ * {@code $accept ::= <start>}, reducing it on {@code EOF} accepts the input. The file format
+ * is described at the top of {@code c.grammar}.</p>
+ *
+ * <p>Only reading the symbols and productions is public, for tools that work from the grammar
+ * of the parser, such as the grammar-based fuzzer.</p>
+ */
+public final class Grammar {
+
+    // Action opcodes, see ParseTables.action
+    static final int PASS = 0;      // n
+    static final int LIST = 1;      // n, 0 for an empty list
+    static final int APPEND = 2;    // n, m
+    static final int LEAF = 3;      // node type, n
+    static final int NODE = 4;      // node type, at (0 for the first child), literal (0 for none), count (-1 for no children), children...
+
+    private final List<String> symbols = new ArrayList<>();
+    private final Map<String, Integer> symbolIds = new HashMap<>();
+    private final List<String> nodeTypes = new ArrayList<>();
+
+    private final List<Integer> lefts = new ArrayList<>();
+    private final List<int[]> rights = new ArrayList<>();
+    private final List<int[]> actions = new ArrayList<>();
+
+    private Grammar() {
+        for (TokenType type : TokenType.values()) symbol(type.name());
+    }
+
+    /**
+     * Reads a grammar file.
+     *
+     * @throws IllegalArgumentException If the text is not a valid grammar.
+     */
+    static Grammar parse(String text) {
+        Grammar grammar = new Grammar();
+        new Reader(grammar, text).read();
+        grammar.check();
+        return grammar;
+    }
+
+    /**
+     * Reads the C grammar of the parser from the {@code c.grammar} resource.
+     */
+    public static Grammar load() {
+        return parse(ParseTables.grammarText());
+    }
+
+    public int terminalCount() {
+        return TokenType.values().length;
+    }
+
+    public int symbolCount() {
+        return symbols.size();
+    }
+
+    int nonterminalCount() {
+        return symbols.size() - terminalCount();
+    }
+
+    public boolean isTerminal(int symbol) {
+        return symbol < terminalCount();
+    }
+
+    public String symbolName(int symbol) {
+        return symbols.get(symbol);
+    }
+
+    public int productionCount() {
+        return lefts.size();
+    }
+
+    public int left(int production) {
+        return lefts.get(production);
+    }
+
+    // The symbols of a production, not to be modified
+    public int[] right(int production) {
+        return rights.get(production);
+    }
+
+    int[] action(int production) {
+        return actions.get(production);
+    }
+
+    List<String> nodeTypes() {
+        return nodeTypes;
+    }
+
+    String describe(int production) {
+        StringBuilder text = new StringBuilder(symbolName(left(production))).append(" ::=");
+        for (int symbol : right(production)) text.append(' ').append(symbolName(symbol));
+        return text.toString();
+    }
+
+    private int symbol(String name) {
+        Integer id = symbolIds.get(name);
+        if (id != null) return id;
+        symbols.add(name);
+        symbolIds.put(name, symbols.size() - 1);
+        return symbols.size() - 1;
+    }
+
+    private int nodeType(String name) {
+        try {
+            NodeType.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown node type " + name);
+        }
+        int index = nodeTypes.indexOf(name);
+        if (index >= 0) return index;
+        nodeTypes.add(name);
+        return nodeTypes.size() - 1;
+    }
+
+    private void add(int left, int[] right, int[] action) {
+        lefts.add(left);
+        rights.add(right);
+        actions.add(action);
+    }
+
+    // Every nonterminal that is used needs at least one production
+    private void check() {
+        boolean[] defined = new boolean[symbolCount()];
+        for (int left : lefts) defined[left] = true;
+        for (int[] right : rights) {
+            for (int symbol : right) {
+                if (!isTerminal(symbol) && !defined[symbol]) {
+                    throw new IllegalArgumentException("Nonterminal " + symbolName(symbol) + " has no productions");
+                }
+            }
+        }
+    }
+
+    private static final class Reader {
+
+        private final Grammar grammar;
+        private final String text;
+        private int position = 0;
+        private int line = 1;
+
+        Reader(Grammar grammar, String text) {
+            this.grammar = grammar;
+            this.text = text;
+        }
+
+        void read() {
+            String start = null;
+            List<Integer> lefts = new ArrayList<>();
+            List<int[]> rights = new ArrayList<>();
+            List<int[]> actions = new ArrayList<>();
+
+            String word;
+            while ((word = next()) != null) {
+                if (word.equals("%start")) {
+                    start = expectName();
+                    continue;
+                }
+                if (!isNonterminal(word)) throw error("Expected a nonterminal, found '" + word + "'");
+                int left = grammar.symbol(word);
+                expect(":");
+                do {
+                    List<Integer> right = new ArrayList<>();
+                    String symbol;
+                    while (!(symbol = expectWord()).equals("{")) {
+                        if (isNonterminal(symbol)) {
+                            right.add(grammar.symbol(symbol));
+                        } else {
+                            Integer terminal = grammar.symbolIds.get(symbol);
+                            if (terminal == null || !grammar.isTerminal(terminal)) throw error("Unknown token type " + symbol);
+                            right.add(terminal);
+                        }
+                    }
+                    int[] symbols = right.stream().mapToInt(Integer::intValue).toArray();
+                    lefts.add(left);
+                    rights.add(symbols);
+                    actions.add(action(symbols.length));
+                } while (expectWord().equals("|") || unread());
+                expect(";");
+            }
+
+            if (start == null) throw error("Missing %start");
+            if (!grammar.symbolIds.containsKey(start)) throw error("Unknown start symbol " + start);
+            grammar.add(grammar.symbol("$accept"), new int[]{grammar.symbol(start)}, new int[]{PASS, 1});
+            for (int i = 0; i < lefts.size(); i++) grammar.add(lefts.get(i), rights.get(i), actions.get(i));
+        }
+
+        // Compiles the action in braces, the '{' has been read
+        private int[] action(int length) {
+            List<Integer> code = new ArrayList<>();
+            String word = expectWord();
+            switch (word) {
+                case "list" -> {
+                    code.add(LIST);
+                    String next = expectWord();
+                    if (next.equals("}")) {
+                        code.add(0);
+                        return toArray(code);
+                    }
+                    code.add(reference(next, length));
+                }
+                case "append" -> {
+                    code.add(APPEND);
+                    code.add(reference(expectWord(), length));
+                    code.add(reference(expectWord(), length));
+                }
+                case "leaf" -> {
+                    code.add(LEAF);
+                    code.add(grammar.nodeType(expectName()));
+                    code.add(reference(expectWord(), length));
+                }
+                default -> {
+                    if (word.startsWith("$")) {
+                        code.add(PASS);
+                        code.add(reference(word, length));
+                        break;
+                    }
+                    code.add(NODE);
+                    code.add(grammar.nodeType(word));
+                    expect("at");
+                    String at = expectWord();
+                    code.add(at.equals("first") ? 0 : reference(at, length));
+
+                    String next = expectWord();
+                    int literal = 0;
+                    if (next.equals("literal")) {
+                        literal = reference(expectWord(), length);
+                        next = expectWord();
+                    }
+                    code.add(literal);
+
+                    if (next.equals("children")) {
+                        List<Integer> children = new ArrayList<>();
+                        while (!(next = expectWord()).equals("}")) children.add(reference(next, length));
+                        code.add(children.size());
+                        code.addAll(children);
+                        return toArray(code);
+                    }
+                    code.add(-1);
+                    if (!next.equals("}")) throw error("Expected '}', found '" + next + "'");
+                    return toArray(code);
+                }
+            }
+            expect("}");
+            return toArray(code);
+        }
+
+        private int reference(String word, int length) {
+            if (!word.startsWith("$")) throw error("Expected a symbol reference like $1, found '" + word + "'");
+            int index;
+            try {
+                index = Integer.parseInt(word.substring(1));
+            } catch (NumberFormatException e) {
+                throw error("Invalid symbol reference " + word);
+            }
+            if (index < 1 || index > length) throw error("Symbol reference " + word + " out of range");
+            return index;
+        }
+
+        private static int[] toArray(List<Integer> values) {
+            return values.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        private static boolean isNonterminal(String word) {
+            return !word.isEmpty() && Character.isLowerCase(word.charAt(0));
+        }
+
+        // Words are separated by whitespace, the punctuation : | ; { } stands on its own
+        private String next() {
+            while (position < text.length()) {
+                char c = text.charAt(position);
+                if (c == '#') {
+                    while (position < text.length() && text.charAt(position) != '\n') position++;
+                } else if (Character.isWhitespace(c)) {
+                    if (c == '\n') line++;
+                    position++;
+                } else {
+                    break;
+                }
+            }
+            if (position == text.length()) return null;
+
+            int start = position;
+            if (":|;{}".indexOf(text.charAt(position)) >= 0) {
+                position++;
+            } else {
+                while (position < text.length() && !Character.isWhitespace(text.charAt(position))
+                        && ":|;{}#".indexOf(text.charAt(position)) < 0) {
+                    position++;
+                }
+            }
+            last = start;
+            return text.substring(start, position);
+        }
+
+        private int last = 0;
+
+        // Puts the last word back, always returns false so it can end a do/while condition
+        private boolean unread() {
+            position = last;
+            return false;
+        }
+
+        private String expectWord() {
+            String word = next();
+            if (word == null) throw error("Unexpected end of grammar");
+            return word;
+        }
+
+        private String expectName() {
+            String word = expectWord();
+            if (":|;{}".contains(word)) throw error("Expected a name, found '" + word + "'");
+            return word;
+        }
+
+        private void expect(String expected) {
+            String word = expectWord();
+            if (!word.equals(expected)) throw error("Expected '" + expected + "', found '" + word + "'");
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at line " + line + " of the grammar");
+        }
+
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < productionCount(); i++) {
+            text.append(i).append(": ").append(describe(i)).append("  ").append(Arrays.toString(action(i))).append('\n');
+        }
+        return text.toString();
+    }
+
+}
@@ -0,0 +1,229 @@
+package com.monac.compiler.parser.lalr;
+
+import com.monac.compiler.lexer.Lexer;
+import com.monac.compiler.lexer.Token;
+import com.monac.compiler.lexer.TokenBuffer;
+import com.monac.compiler.lexer.TokenStream;
+import com.monac.compiler.lexer.TokenType;
+import com.monac.compiler.lexer.TokenWindow;
+import com.monac.compiler.parser.ParserException;
+import com.monac.compiler.parser.tree.Node;
+import com.monac.compiler.parser.tree.NodeType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A table-driven parser for the same C subset as {@link com.monac.compiler.parser.Parser},
+ * building the same tree for programs that use no typedef names.
+ *
+ * <p>The loop is a plain LALR(1) automaton over {@link ParseTables}: one table lookup per
+ * token, explicit state and value stacks, and no recursion, so neither deep nesting nor long
+ * operator chains touch the Java stack. From a {@link TokenBuffer} only the index of a shifted
+ * token is kept and nodes read the buffer's arrays directly; from a streaming
+ * {@link TokenWindow} shifted tokens are materialized before the window moves on.</p>
+ *
+ * <p>The parser stops at the first syntax error, records it, and returns {@code null}. It does
+ * not know typedef names, which need feedback from the parser to the token stream: a declaration
+ * that starts with a typedef name, as in {@code typedef int T; int f() { T x; }}, is a syntax
+ * error here.</p>
+ */
+public final class LalrParser {
+
+    private final List<ParserException> errors = new ArrayList<>();
+    private final ParseTables tables;
+    private final TokenStream tokens;
+    private final TokenBuffer buffer; // Null when streaming
+
+    // The text of keywords and operators, the same for every token of a type
+    private final String[] spellings = new String[TokenType.values().length];
+
+    // A shifted token has a null value and its index in positions, unless it was materialized
+    private int[] states = new int[64];
+    private Object[] values = new Object[64];
+    private int[] positions = new int[64];
+
+    // Streams tokens from the lexer through a small lookahead window
+    public LalrParser(Lexer lexer) {
+        this(new TokenWindow(lexer));
+    }
+
+    /**
+     * Parses the tokens with the tables of {@link ParseTables#load()}.
+     *
+     * <p>Unlike {@link com.monac.compiler.parser.Parser}, this parser does not track typedef names.
+     * A typedef name is read as an ordinary identifier, so a declaration that starts with one, as
+     * in {@code typedef int T; int f() { T x; }}, is rejected with "Unexpected 'x'" where the
+     * recursive descent parser accepts it. The trees of the two parsers are equal only for
+     * programs that declare nothing with a typedef name.</p>
+     *
+     * @throws IllegalStateException If the parse tables are missing or out of date.
+     */
+    public LalrParser(TokenStream tokens) {
+        this(tokens, ParseTables.load());
+    }
+
+    LalrParser(TokenStream tokens, ParseTables tables) {
+        this.tokens = tokens;
+        this.tables = tables;
+        this.buffer = tokens instanceof TokenBuffer tokenBuffer ? tokenBuffer : null;
+    }
+
+    public Node parse() {
+        int top = 0;
+        states[0] = 0;
+        int index = 0;
+        TokenType type = tokens.type(index);
+
+        while (true) {
+            int action = tables.action(states[top], type);
+
+            if (action > 0) {
+                if (++top == states.length) grow();
+                states[top] = action - 1;
+                values[top] = buffer != null ? null : tokens.token(index);
+                positions[top] = index;
+                type = tokens.type(++index);
+            } else if (action < 0) {
+                int production = -action - 1;
+                if (production == 0) return (Node) values[top];
+
+                int length = tables.length(production);
+                if (tables.isUnit(production)) {
+                    // Passes its only value up, as in the long chains between expression levels
+                    states[top] = tables.goTo(states[top - 1], tables.left(production));
+                    continue;
+                }
+
+                int base = top - length + 1; // $1
+                Object value = reduce(tables.code(production), base);
+                Arrays.fill(values, base, top + 1, null);
+
+                top -= length;
+                int state = tables.goTo(states[top], tables.left(production));
+                if (++top == states.length) grow();
+                states[top] = state;
+                values[top] = value;
+            } else {
+                error(states[top], index);
+                return null;
+            }
+        }
+    }
+
+    // Builds the value of a production from the values of its symbols, values[base] being $1
+    @SuppressWarnings("unchecked")
+    private Object reduce(int[] code, int base) {
+        switch (code[0]) {
+            case Grammar.PASS:
+                return values[base + code[1] - 1];
+
+            case Grammar.LIST: {
+                List<Object> list = new ArrayList<>();
+                if (code[1] != 0) list.add(values[base + code[1] - 1]);
+                return list;
+            }
+
+            case Grammar.APPEND: {
+                List<Object> list = (List<Object>) values[base + code[1] - 1];
+                list.add(values[base + code[2] - 1]);
+                return list;
+            }
+
+            case Grammar.LEAF: {
+                NodeType type = tables.nodeType(code[1]);
+                int slot = base + code[2] - 1;
+                Node node = new Node(type, offset(slot));
+                switch (type) {
+                    case IDENTIFIER -> {
+                        node.setLiteral(values[slot] instanceof Token token ? token.getText() : buffer.lexeme(positions[slot]));
+                        node.setValue(values[slot] instanceof Token token ? token.getSymbol() : buffer.symbol(positions[slot]));
+                    }
+                    case STRING -> node.setLiteral(values[slot] instanceof Token token ? token.getText() : buffer.lexeme(positions[slot]));
+                    case INTEGER_CONSTANT, FLOATING_CONSTANT, CHARACTER_CONSTANT ->
+                            node.setValue(values[slot] instanceof Token token ? token.getValue() : buffer.value(positions[slot]));
+                    default -> node.setLiteral(spelling(slot));
+                }
+                return node;
+            }
+
+            case Grammar.NODE: {
+                int count = code[4];
+                List<Node> children = null;
+                if (count >= 0) {
+                    children = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        Object child = values[base + code[5 + i] - 1];
+                        if (child instanceof List<?> list) children.addAll((List<Node>) list);
+                        else children.add((Node) child);
+                    }
+                }
+
+                int offset;
+                if (code[2] != 0) offset = offset(base + code[2] - 1);
+                else offset = children == null || children.isEmpty() ? 0 : children.getFirst().getOffset();
+
+                Node node = new Node(tables.nodeType(code[1]), offset);
+                if (code[3] != 0) node.setLiteral(spelling(base + code[3] - 1));
+                node.setChildren(children);
+                return node;
+            }
+
+            default:
+                throw new IllegalStateException("Unknown action opcode " + code[0]);
+        }
+    }
+
+    // Offset of the value in a stack slot, shifted tokens are not materialized for it
+    private int offset(int slot) {
+        Object value = values[slot];
+        return value == null ? buffer.start(positions[slot]) : offset(value);
+    }
+
+    // Lexeme of the keyword or operator token in a stack slot
+    private String spelling(int slot) {
+        Object value = values[slot];
+        TokenType type = value == null ? buffer.type(positions[slot]) : ((Token) value).getType();
+        String spelling = spellings[type.ordinal()];
+        if (spelling == null) {
+            spelling = value == null ? buffer.lexeme(positions[slot]).toString() : ((Token) value).getLexeme();
+            spellings[type.ordinal()] = spelling;
+        }
+        return spelling;
+    }
+
+    private static int offset(Object value) {
+        if (value instanceof Token token) return token.getOffset();
+        if (value instanceof Node node) return node.getOffset();
+        List<?> list = (List<?>) value;
+        return list.isEmpty() ? 0 : offset(list.getFirst());
+    }
+
+    private void error(int state, int index) {
+        Token token = tokens.token(index);
+        StringBuilder expected = new StringBuilder();
+        for (TokenType type : TokenType.values()) {
+            if (tables.action(state, type) == 0) continue;
+            if (!expected.isEmpty()) expected.append(", ");
+            expected.append(type);
+        }
+        String message = token.getType() == TokenType.EOF ? "Unexpected end of input." : "Unexpected '" + token.getLexeme() + "'.";
+        errors.add(new ParserException(message, token.getLine(), token.getColumn(), token.getLexeme(), expected.toString(), ""));
+    }
+
+    private void grow() {
+        states = Arrays.copyOf(states, states.length * 2);
+        values = Arrays.copyOf(values, values.length * 2);
+        positions = Arrays.copyOf(positions, positions.length * 2);
+    }
+
+    public boolean hadErrors() {
+        return !errors.isEmpty();
+    }
+
+    public List<ParserException> getErrors() {
+        return errors;
+    }
+
+}
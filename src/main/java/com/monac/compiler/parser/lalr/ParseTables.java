@@ -0,0 +1,226 @@
+package com.monac.compiler.parser.lalr;
+
+import com.monac.compiler.lexer.TokenType;
+import com.monac.compiler.parser.tree.NodeType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The LALR(1) tables of the C grammar, as dense int arrays.
+ *
+ * <p>An action entry is {@code state + 1} for a shift, {@code -(production + 1)} for a reduce
+ * and {@code 0} for an error; reducing production 0 accepts. The tables are generated from
+ * {@code c.grammar} by {@link TableGenerator} in the {@code generate-sources} phase of the build
+ * and stored next to it as {@code c.tables}. The file records the grammar and the token and node
+ * type names it was built against, so tables that no longer match are rejected instead of being
+ * misread.</p>
+ */
+public final class ParseTables {
+
+    static final String GRAMMAR_RESOURCE = "c.grammar";
+    static final String TABLES_RESOURCE = "c.tables";
+
+    private static final byte[] MAGIC = "MONACLR1".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+
+    // Generates missing or stale tables at run time instead of failing, for running from an IDE
+    private static final boolean GENERATE = Boolean.getBoolean("monac.lalr.generate");
+
+    private static volatile ParseTables instance;
+
+    private final int grammarHash;
+    private final int stateCount;
+    private final int terminalCount;
+    private final int nonterminalCount;
+    private final int[] action;       // [state * terminalCount + token type ordinal]
+    private final int[] goTo;         // [state * nonterminalCount + nonterminal]
+    private final int[] left;         // Nonterminal of each production
+    private final int[] length;       // Number of symbols of each production
+    private final int[][] code;       // Compiled action of each production, see Grammar
+    private final String[] nodeTypeNames;
+    private final NodeType[] nodeTypes;
+
+    ParseTables(int grammarHash, int stateCount, int terminalCount, int nonterminalCount, int[] action, int[] goTo,
+                int[] left, int[] length, int[][] code, String[] nodeTypeNames) {
+        this.grammarHash = grammarHash;
+        this.stateCount = stateCount;
+        this.terminalCount = terminalCount;
+        this.nonterminalCount = nonterminalCount;
+        this.action = action;
+        this.goTo = goTo;
+        this.left = left;
+        this.length = length;
+        this.code = code;
+        this.nodeTypeNames = nodeTypeNames;
+        this.nodeTypes = Arrays.stream(nodeTypeNames).map(NodeType::valueOf).toArray(NodeType[]::new);
+    }
+
+    /**
+     * Returns the tables of the C grammar, read from the {@code c.tables} resource. Only with the
+     * system property {@code monac.lalr.generate} set are missing or out of date tables, for
+     * instance when running from an IDE that skipped the build step, generated from
+     * {@code c.grammar} instead.
+     *
+     * @throws IllegalStateException If the tables are missing or were built from another grammar
+     *                               or other token or node types.
+     */
+    public static ParseTables load() {
+        ParseTables tables = instance;
+        if (tables == null) {
+            synchronized (ParseTables.class) {
+                tables = instance;
+                if (tables == null) instance = tables = read();
+            }
+        }
+        return tables;
+    }
+
+    private static ParseTables read() {
+        String grammar = grammarText();
+        String problem;
+        try (InputStream in = ParseTables.class.getResourceAsStream(TABLES_RESOURCE)) {
+            if (in == null) {
+                problem = "Missing parse tables " + TABLES_RESOURCE;
+            } else {
+                ParseTables tables = read(in);
+                if (tables != null && tables.grammarHash == grammar.hashCode()) return tables;
+                problem = "Parse tables " + TABLES_RESOURCE + " do not match " + GRAMMAR_RESOURCE + " and the token and node types";
+            }
+        } catch (IOException e) {
+            problem = "Unreadable parse tables " + TABLES_RESOURCE + ": " + e.getMessage();
+        }
+        if (!GENERATE) {
+            throw new IllegalStateException(problem + "; rebuild them with mvn generate-sources, or set -Dmonac.lalr.generate=true");
+        }
+        System.err.println(problem + ", generating them from " + GRAMMAR_RESOURCE);
+        return TableGenerator.generate(grammar);
+    }
+
+    static String grammarText() {
+        try (InputStream in = ParseTables.class.getResourceAsStream(GRAMMAR_RESOURCE)) {
+            if (in == null) throw new IllegalStateException("Missing grammar resource " + GRAMMAR_RESOURCE);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Accessors for the driver
+
+    int action(int state, TokenType type) {
+        return action[state * terminalCount + type.ordinal()];
+    }
+
+    int goTo(int state, int nonterminal) {
+        return goTo[state * nonterminalCount + nonterminal];
+    }
+
+    int left(int production) {
+        return left[production];
+    }
+
+    int length(int production) {
+        return length[production];
+    }
+
+    // A single symbol production whose value is the value of that symbol
+    boolean isUnit(int production) {
+        return length[production] == 1 && code[production][0] == Grammar.PASS;
+    }
+
+    int[] code(int production) {
+        return code[production];
+    }
+
+    NodeType nodeType(int index) {
+        return nodeTypes[index];
+    }
+
+    public int stateCount() {
+        return stateCount;
+    }
+
+    public int productionCount() {
+        return left.length;
+    }
+
+    // Binary format
+
+    void write(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+        out.write(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(grammarHash);
+
+        TokenType[] types = TokenType.values();
+        out.writeInt(types.length);
+        for (TokenType type : types) out.writeUTF(type.name());
+        out.writeInt(nodeTypeNames.length);
+        for (String name : nodeTypeNames) out.writeUTF(name);
+
+        out.writeInt(stateCount);
+        out.writeInt(nonterminalCount);
+        writeInts(out, action);
+        writeInts(out, goTo);
+        writeInts(out, left);
+        writeInts(out, length);
+        for (int[] production : code) writeInts(out, production);
+        out.flush();
+    }
+
+    // Returns null when the file was written for other token or node types
+    static ParseTables read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC) || in.readInt() != VERSION) return null;
+        int grammarHash = in.readInt();
+
+        TokenType[] types = TokenType.values();
+        if (in.readInt() != types.length) return null;
+        for (TokenType type : types) {
+            if (!in.readUTF().equals(type.name())) return null;
+        }
+        String[] nodeTypeNames = new String[in.readInt()];
+        for (int i = 0; i < nodeTypeNames.length; i++) {
+            nodeTypeNames[i] = in.readUTF();
+            try {
+                NodeType.valueOf(nodeTypeNames[i]);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        int stateCount = in.readInt();
+        int nonterminalCount = in.readInt();
+        int[] action = readInts(in);
+        int[] goTo = readInts(in);
+        int[] left = readInts(in);
+        int[] length = readInts(in);
+        int[][] code = new int[left.length][];
+        for (int i = 0; i < code.length; i++) code[i] = readInts(in);
+        return new ParseTables(grammarHash, stateCount, types.length, nonterminalCount, action, goTo, left, length, code,
+                nodeTypeNames);
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) out.writeInt(value);
+    }
+
+    private static int[] readInts(DataInputStream in) throws IOException {
+        int[] values = new int[in.readInt()];
+        for (int i = 0; i < values.length; i++) values[i] = in.readInt();
+        return values;
+    }
+
+}
@@ -0,0 +1,294 @@
+package com.monac.compiler.parser.lalr;
+
+import com.monac.compiler.lexer.TokenType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Builds the LALR(1) parse tables of a {@link Grammar}.
+ *
+ * <p>States are LR(1) item sets merged by their LR(0) core as they are discovered: whenever the
+ * lookaheads of a state grow, its closure is recomputed and the new lookaheads flow on to its
+ * successors, until nothing changes. Any shift/reduce or reduce/reduce conflict is an error, the
+ * grammar has to be unambiguous as written.</p>
+ *
+ * <p>The build compiles this class on its own and runs {@link #main(String[])} in the
+ * {@code generate-sources} phase, so the tables ship next to the grammar in the jar;
+ * {@link ParseTables#load()} only generates them at run time when asked to.</p>
+ */
+public final class TableGenerator {
+
+    private final Grammar grammar;
+    private final int terminals;
+
+    // FIRST sets and nullability of the nonterminals, indexed by symbol
+    private final BitSet[] first;
+    private final boolean[] nullable;
+
+    // Items are numbered per production, item itemBase[p] + d has the dot before symbol d of p
+    private final int[] itemBase;
+    private final int[] itemProduction;
+
+    private final List<State> states = new ArrayList<>();
+    private final Map<String, State> statesByCore = new HashMap<>();
+
+    private TableGenerator(Grammar grammar) {
+        this.grammar = grammar;
+        this.terminals = grammar.terminalCount();
+        this.first = new BitSet[grammar.symbolCount()];
+        this.nullable = new boolean[grammar.symbolCount()];
+
+        itemBase = new int[grammar.productionCount()];
+        int items = 0;
+        for (int p = 0; p < grammar.productionCount(); p++) {
+            itemBase[p] = items;
+            items += grammar.right(p).length + 1;
+        }
+        itemProduction = new int[items];
+        for (int p = 0; p < grammar.productionCount(); p++) {
+            Arrays.fill(itemProduction, itemBase[p], itemBase[p] + grammar.right(p).length + 1, p);
+        }
+    }
+
+    /**
+     * Generates the tables of a grammar.
+     *
+     * @throws IllegalArgumentException If the grammar is not LALR(1).
+     */
+    public static ParseTables generate(String grammarText) {
+        TableGenerator generator = new TableGenerator(Grammar.parse(grammarText));
+        generator.computeFirst();
+        generator.buildStates();
+        return generator.tables(grammarText.hashCode());
+    }
+
+    /**
+     * Reads the grammar file given as first argument and writes its tables to the file given
+     * as second argument.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: TableGenerator <grammar> <tables>");
+            System.exit(2);
+        }
+        ParseTables tables = generate(Files.readString(Path.of(args[0])));
+        Path output = Path.of(args[1]);
+        if (output.getParent() != null) Files.createDirectories(output.getParent());
+        try (var out = Files.newOutputStream(output)) {
+            tables.write(out);
+        }
+        System.out.println("LALR(1) tables: " + tables.stateCount() + " states, " + tables.productionCount() + " productions");
+    }
+
+    // FIRST sets
+
+    private void computeFirst() {
+        for (int s = 0; s < grammar.symbolCount(); s++) {
+            first[s] = new BitSet(terminals);
+            if (grammar.isTerminal(s)) first[s].set(s);
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int p = 0; p < grammar.productionCount(); p++) {
+                int left = grammar.left(p);
+                int[] right = grammar.right(p);
+                int before = first[left].cardinality();
+
+                boolean allNullable = true;
+                for (int symbol : right) {
+                    first[left].or(first[symbol]);
+                    if (!nullable[symbol]) {
+                        allNullable = false;
+                        break;
+                    }
+                }
+                if (allNullable && !nullable[left]) {
+                    nullable[left] = true;
+                    changed = true;
+                }
+                if (first[left].cardinality() != before) changed = true;
+            }
+        }
+    }
+
+    // FIRST of right[from..] followed by the given lookaheads
+    private BitSet firstOf(int[] right, int from, BitSet lookaheads) {
+        BitSet result = new BitSet(terminals);
+        for (int i = from; i < right.length; i++) {
+            result.or(first[right[i]]);
+            if (!nullable[right[i]]) return result;
+        }
+        result.or(lookaheads);
+        return result;
+    }
+
+    // States
+
+    private static final class State {
+
+        final int id;
+        final int[] kernel;           // Sorted items
+        final BitSet[] lookaheads;    // Per kernel item
+        final Map<Integer, Integer> transitions = new TreeMap<>(); // Symbol to state id
+        boolean queued;
+
+        State(int id, int[] kernel, int terminals) {
+            this.id = id;
+            this.kernel = kernel;
+            this.lookaheads = new BitSet[kernel.length];
+            for (int i = 0; i < kernel.length; i++) lookaheads[i] = new BitSet(terminals);
+        }
+
+    }
+
+    private void buildStates() {
+        Deque<State> queue = new ArrayDeque<>();
+        State start = state(new int[]{itemBase[0]});
+        start.lookaheads[0].set(TokenType.EOF.ordinal());
+        start.queued = true;
+        queue.add(start);
+
+        while (!queue.isEmpty()) {
+            State state = queue.poll();
+            state.queued = false;
+
+            // Kernel items of the successors, grouped by the symbol after the dot
+            Map<Integer, Map<Integer, BitSet>> successors = new TreeMap<>();
+            closure(state).forEach((item, lookaheads) -> {
+                int production = itemProduction[item];
+                int dot = item - itemBase[production];
+                int[] right = grammar.right(production);
+                if (dot == right.length) return;
+                successors.computeIfAbsent(right[dot], k -> new TreeMap<>())
+                        .computeIfAbsent(item + 1, k -> new BitSet(terminals))
+                        .or(lookaheads);
+            });
+
+            successors.forEach((symbol, items) -> {
+                int[] kernel = items.keySet().stream().mapToInt(Integer::intValue).toArray();
+                State target = state(kernel);
+                state.transitions.put(symbol, target.id);
+
+                boolean grown = false;
+                int i = 0;
+                for (BitSet lookaheads : items.values()) {
+                    int before = target.lookaheads[i].cardinality();
+                    target.lookaheads[i].or(lookaheads);
+                    if (target.lookaheads[i].cardinality() != before) grown = true;
+                    i++;
+                }
+                if (grown && !target.queued) {
+                    target.queued = true;
+                    queue.add(target);
+                }
+            });
+        }
+    }
+
+    private State state(int[] kernel) {
+        String core = Arrays.toString(kernel);
+        State state = statesByCore.get(core);
+        if (state == null) {
+            state = new State(states.size(), kernel, terminals);
+            states.add(state);
+            statesByCore.put(core, state);
+        }
+        return state;
+    }
+
+    // LR(1) closure of a state, items mapped to their lookaheads
+    private Map<Integer, BitSet> closure(State state) {
+        Map<Integer, BitSet> items = new TreeMap<>();
+        Deque<Integer> work = new ArrayDeque<>();
+        for (int i = 0; i < state.kernel.length; i++) {
+            items.put(state.kernel[i], (BitSet) state.lookaheads[i].clone());
+            work.add(state.kernel[i]);
+        }
+
+        while (!work.isEmpty()) {
+            int item = work.poll();
+            int production = itemProduction[item];
+            int dot = item - itemBase[production];
+            int[] right = grammar.right(production);
+            if (dot == right.length || grammar.isTerminal(right[dot])) continue;
+
+            BitSet lookaheads = firstOf(right, dot + 1, items.get(item));
+            for (int p = 0; p < grammar.productionCount(); p++) {
+                if (grammar.left(p) != right[dot]) continue;
+                BitSet existing = items.get(itemBase[p]);
+                if (existing == null) {
+                    items.put(itemBase[p], (BitSet) lookaheads.clone());
+                    work.add(itemBase[p]);
+                } else {
+                    int before = existing.cardinality();
+                    existing.or(lookaheads);
+                    if (existing.cardinality() != before) work.add(itemBase[p]);
+                }
+            }
+        }
+        return items;
+    }
+
+    // Tables
+
+    private ParseTables tables(int grammarHash) {
+        int nonterminals = grammar.nonterminalCount();
+        int[] action = new int[states.size() * terminals];
+        int[] goTo = new int[states.size() * nonterminals];
+        List<String> conflicts = new ArrayList<>();
+
+        for (State state : states) {
+            int row = state.id * terminals;
+            state.transitions.forEach((symbol, target) -> {
+                if (grammar.isTerminal(symbol)) action[row + symbol] = target + 1;
+                else goTo[state.id * nonterminals + symbol - terminals] = target;
+            });
+
+            closure(state).forEach((item, lookaheads) -> {
+                int production = itemProduction[item];
+                if (item - itemBase[production] != grammar.right(production).length) return;
+                for (int t = lookaheads.nextSetBit(0); t >= 0; t = lookaheads.nextSetBit(t + 1)) {
+                    int existing = action[row + t];
+                    if (existing != 0 && existing != -production - 1) {
+                        conflicts.add("State " + state.id + " on " + grammar.symbolName(t) + ": "
+                                + describe(existing) + " and reduce " + grammar.describe(production));
+                    }
+                    action[row + t] = -production - 1;
+                }
+            });
+        }
+
+        if (!conflicts.isEmpty()) {
+            throw new IllegalArgumentException("The grammar is not LALR(1):\n" + String.join("\n", conflicts));
+        }
+
+        int[] left = new int[grammar.productionCount()];
+        int[] length = new int[grammar.productionCount()];
+        int[][] code = new int[grammar.productionCount()][];
+        for (int p = 0; p < grammar.productionCount(); p++) {
+            left[p] = grammar.left(p) - terminals;
+            length[p] = grammar.right(p).length;
+            code[p] = grammar.action(p);
+        }
+        return new ParseTables(grammarHash, states.size(), terminals, nonterminals, action, goTo, left, length, code,
+                grammar.nodeTypes().toArray(new String[0]));
+    }
+
+    private String describe(int action) {
+        return action > 0 ? "shift" : "reduce " + grammar.describe(-action - 1);
+    }
+
+}
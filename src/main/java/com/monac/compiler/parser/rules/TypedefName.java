@@ -1,13 +1,27 @@
 package com.monac.compiler.parser.rules;
 
+import com.monac.compiler.lexer.Token;
+import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
-import com.monac.compiler.parser.rules.other.Identifier;
 import com.monac.compiler.parser.tree.Node;
+import com.monac.compiler.parser.tree.NodeType;
 
 public final class TypedefName {
 
+    // <typedef-name> ::= <identifier>
+    //
+    // The parser reads an identifier declared by a typedef in scope as a TYPEDEF_NAME token. The
+    // node is an IDENTIFIER like any other name.
+
     public static Node parse(Parser parser) {
-        return Identifier.parse(parser);
+        if (parser.match(TokenType.TYPEDEF_NAME)) {
+            Token name = parser.previous();
+            Node result = new Node(NodeType.IDENTIFIER, name.getOffset());
+            result.setLiteral(name.getText());
+            result.setValue(name.getSymbol());
+            return result;
+        }
+        return null;
     }
 
 }
@@ -1,11 +1,20 @@
 package com.monac.compiler.parser.rules.constant;
 
+import com.monac.compiler.lexer.Token;
+import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
 import com.monac.compiler.parser.tree.Node;
+import com.monac.compiler.parser.tree.NodeType;
 
 public final class FloatingConstant {
 
     public static Node parse(Parser parser) {
+        if (parser.match(TokenType.FLOATING_CONSTANT)) {
+            Token token = parser.previous();
+            Node node = new Node(NodeType.FLOATING_CONSTANT, token.getOffset());
+            node.setValue(token.getValue()); // Decoded by the lexer
+            return node;
+        }
         return null;
     }
 
@@ -11,8 +11,8 @@ public final class IntegerConstant {
     public static Node parse(Parser parser) {
         if (parser.match(TokenType.INTEGER_CONSTANT)) {
             Token token = parser.previous();
-            Node node = new Node(NodeType.INTEGER_CONSTANT, token.getLine(), token.getColumn());
-            node.setLiteral(Integer.parseInt(token.getLexeme()));
+            Node node = new Node(NodeType.INTEGER_CONSTANT, token.getOffset());
+            node.setValue(token.getValue()); // Decoded by the lexer
             return node;
         }
         return null;
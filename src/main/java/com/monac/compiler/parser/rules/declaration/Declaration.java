@@ -2,46 +2,59 @@ package com.monac.compiler.parser.rules.declaration;
 
 import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.TokenSet;
+import com.monac.compiler.parser.rules.declarator.Declarator;
 import com.monac.compiler.parser.rules.declarator.InitDeclarator;
 import com.monac.compiler.parser.rules.specifier.DeclarationSpecifier;
 import com.monac.compiler.parser.tree.Node;
 import com.monac.compiler.parser.tree.NodeType;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public final class Declaration {
 
-    // <declaration> ::= {<declaration-specifier>}+ {<init-declarator>}* ;
+    // <declaration> ::= {<declaration-specifier>}+ {<init-declarator-list>}? ;
 
-    public static Node parse(Parser parser) {
+    // <init-declarator-list> ::= <init-declarator>
+    //| <init-declarator-list> , <init-declarator>
 
-        List<Node> declarationSpecifiers = new ArrayList<>();
-        Node declarationSpecifier;
-        while ((declarationSpecifier = DeclarationSpecifier.parse(parser)) != null) {
-            declarationSpecifiers.add(declarationSpecifier);
-        }
+    public static final TokenSet FIRST = DeclarationSpecifier.FIRST;
+
+    public static Node parse(Parser parser) {
+        if (!parser.check(FIRST)) return null;
+        return parse(parser, DeclarationSpecifier.parseAll(parser), null);
+    }
 
-        if (declarationSpecifiers.isEmpty()) {
+    // Continues a declaration after its specifiers and, if not null, its first declarator.
+    // ExternalDeclaration reads both before it knows whether it is looking at a declaration.
+    public static Node parse(Parser parser, List<Node> children, Node declarator) {
+        if (children.isEmpty()) {
             return null;
         }
 
-        Node initDeclarator;
-        while ((initDeclarator = InitDeclarator.parse(parser)) != null) {
-            declarationSpecifiers.add(initDeclarator);
+        if (declarator != null || parser.check(Declarator.FIRST)) {
+            do {
+                Node initDeclarator = declarator != null
+                        ? InitDeclarator.parse(parser, declarator)
+                        : InitDeclarator.parse(parser);
+                declarator = null;
+                if (initDeclarator == null) {
+                    return parser.error("Expected a declarator.", "Identifier or '('", "Name the declared object after the specifiers.");
+                }
+                children.add(initDeclarator);
+            } while (parser.match(TokenType.COMMA));
         }
 
         if (parser.match(TokenType.SEMICOLON)) {
-            Node result = new Node(
-                    NodeType.DECLARATION,
-                    declarationSpecifiers.getFirst().getLine(),
-                    declarationSpecifiers.getFirst().getColumn()
-            );
-            result.setChildren(declarationSpecifiers);
+            Node result = new Node(NodeType.DECLARATION, children.getFirst().getOffset());
+            result.setChildren(children);
+            parser.getTypedefs().declare(result); // Decides how the next tokens read
             return result;
         }
 
-        return null;
+        return parser.error("Missing semicolon ';' at the end of the declaration.",
+                "Expected ';' after a declaration.",
+                "Ensure your declaration ends with a semicolon.");
     }
 
 }
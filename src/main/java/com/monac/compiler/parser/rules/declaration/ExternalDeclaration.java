@@ -1,9 +1,14 @@
 package com.monac.compiler.parser.rules.declaration;
 
 import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.TokenSet;
+import com.monac.compiler.parser.rules.declarator.Declarator;
 import com.monac.compiler.parser.rules.definition.FunctionDefinition;
+import com.monac.compiler.parser.rules.specifier.DeclarationSpecifier;
 import com.monac.compiler.parser.tree.Node;
 
+import java.util.List;
+
 /**
  * Parses an external declaration in the source code.
  * <p>An external declaration represents a top-level declaration in a program.
@@ -23,24 +28,32 @@ import com.monac.compiler.parser.tree.Node;
  */
 public final class ExternalDeclaration {
 
+    public static final TokenSet FIRST = FunctionDefinition.FIRST.union(Declaration.FIRST);
+
     /**
      * Parses an external declaration from the provided parser.
      *
-     * <p>Attempts to parse a function definition first. If that fails, it tries to parse
-     * a general declaration.</p>
+     * <p>Both alternatives start with declaration specifiers and a declarator, so these are
+     * parsed once. The token after the declarator then decides: an opening brace or a declaration
+     * continues a function definition, anything else a declaration.</p>
      *
      * @param parser The parser instance used to extract tokens.
      * @return A {@link Node} representing the parsed external declaration,
      *         or {@code null} if neither a function definition nor a declaration is found.
      */
     public static Node parse(Parser parser) {
+        List<Node> children = DeclarationSpecifier.parseAll(parser);
 
-        // Attempt to parse a function definition
-        Node functionDefinition = FunctionDefinition.parse(parser);
-        if (functionDefinition != null) return functionDefinition;
+        Node declarator = null;
+        if (parser.check(Declarator.FIRST)) {
+            declarator = Declarator.parse(parser);
+            if (declarator == null) return null;
+            if (parser.check(FunctionDefinition.FOLLOW_DECLARATOR)) {
+                return FunctionDefinition.parse(parser, children, declarator);
+            }
+        }
 
-        // If not a function definition, attempt to parse a declaration
-        return Declaration.parse(parser);
+        return Declaration.parse(parser, children, declarator);
     }
 
 }
@@ -1,6 +1,8 @@
 package com.monac.compiler.parser.rules.declaration;
 
+import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.TokenSet;
 import com.monac.compiler.parser.rules.declarator.AbstractDeclarator;
 import com.monac.compiler.parser.rules.declarator.Declarator;
 import com.monac.compiler.parser.rules.specifier.DeclarationSpecifier;
@@ -15,28 +17,31 @@ public final class ParameterDeclaration {
     //| {<declaration-specifier>}+ <abstract-declarator>
     //| {<declaration-specifier>}+
 
+    public static final TokenSet FIRST = DeclarationSpecifier.FIRST;
+    public static final TokenSet FOLLOW = TokenSet.of(TokenType.COMMA, TokenType.RPAREN);
+
     public static Node parse(Parser parser) {
 
         Node declarationSpecifier = DeclarationSpecifier.parse(parser);
 
         // Expect declaration specifier
         if (declarationSpecifier == null) {
-            parser.addError(null);
-            parser.synchronize();
-            return null;
+            return parser.error("Expected a parameter declaration.", "Declaration specifier", "Start the parameter with its type.");
         }
 
-        // Just can hope that this won't cause indirect left-recursion.... todo check !!! (if shit brakes ofc)
-        Node declarator = Declarator.parse(parser);
+        // Nothing follows the specifiers, e.g. int f(int)
+        if (parser.check(FOLLOW)) return declarationSpecifier;
+
+        Node declarator = parser.check(Declarator.FIRST) ? Declarator.parse(parser) : null;
         if (declarator != null) {
-            Node result = new Node(NodeType.PARAMETER_DECLARATION, 0, 0); // todo later, dc now
+            Node result = new Node(NodeType.PARAMETER_DECLARATION, declarationSpecifier.getOffset());
             result.setChildren(List.of(declarationSpecifier, declarator));
             return result;
         }
 
         Node abstractDeclarator = AbstractDeclarator.parse(parser);
         if (abstractDeclarator != null) {
-            Node result = new Node(NodeType.PARAMETER_DECLARATION, 0, 0); // todo later, dc now
+            Node result = new Node(NodeType.PARAMETER_DECLARATION, declarationSpecifier.getOffset());
             result.setChildren(List.of(declarationSpecifier, abstractDeclarator));
             return result;
         }
@@ -0,0 +1,46 @@
+package com.monac.compiler.parser.rules.declaration;
+
+import com.monac.compiler.lexer.TokenType;
+import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.TokenSet;
+import com.monac.compiler.parser.rules.declarator.AbstractDeclarator;
+import com.monac.compiler.parser.rules.qualifier.TypeQualifier;
+import com.monac.compiler.parser.rules.specifier.TypeSpecifier;
+import com.monac.compiler.parser.tree.Node;
+import com.monac.compiler.parser.tree.NodeType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class TypeName {
+
+    // <type-name> ::= {<specifier-qualifier>}+ {<abstract-declarator>}?
+
+    // <specifier-qualifier> ::= <type-specifier>
+    //| <type-qualifier>
+
+    // Keywords and typedef names only, so a '(' followed by one of these starts a cast
+    public static final TokenSet FIRST = TypeSpecifier.FIRST.union(TypeQualifier.FIRST);
+
+    public static Node parse(Parser parser) {
+        List<Node> children = new ArrayList<>();
+
+        // As in a declaration, a typedef name after a type specifier is no longer part of the type
+        boolean typed = false;
+        while (parser.check(FIRST) && !(typed && parser.check(TokenType.TYPEDEF_NAME))) {
+            Node specifier = parser.check(TypeQualifier.FIRST) ? TypeQualifier.parse(parser) : TypeSpecifier.parse(parser);
+            if (specifier == null) break;
+            children.add(specifier);
+            typed |= specifier.getType() != NodeType.TYPE_QUALIFIER;
+        }
+        if (children.isEmpty()) return null;
+
+        Node abstractDeclarator = AbstractDeclarator.parse(parser);
+        if (abstractDeclarator != null) children.add(abstractDeclarator);
+
+        Node result = new Node(NodeType.TYPE_NAME, children.getFirst().getOffset());
+        result.setChildren(children);
+        return result;
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.monac.compiler.parser.rules.declarator;
 
 import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.TokenSet;
 import com.monac.compiler.parser.tree.Node;
 
 
@@ -8,6 +9,8 @@ public final class Declarator {
 
     // <declarator> ::= {<pointer>}? <direct-declarator> todo
 
+    public static final TokenSet FIRST = DirectDeclarator.FIRST;
+
     public static Node parse(Parser parser) {
         return DirectDeclarator.parse(parser);
     }
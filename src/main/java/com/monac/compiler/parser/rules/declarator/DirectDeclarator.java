@@ -1,9 +1,9 @@
 package com.monac.compiler.parser.rules.declarator;
 
-import com.monac.compiler.lexer.Token;
 import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
-import com.monac.compiler.parser.ParserException;
+import com.monac.compiler.parser.TokenSet;
+import com.monac.compiler.parser.rules.TypedefName;
 import com.monac.compiler.parser.rules.list.ParameterTypeList;
 import com.monac.compiler.parser.rules.expression.ConstantExpression;
 import com.monac.compiler.parser.rules.other.Identifier;
@@ -29,20 +29,25 @@ public final class DirectDeclarator {
     declarator -> {pointer}? direct-declarator
      */
 
+    // A typedef name can be declared again as an ordinary identifier in an inner scope
+    public static final TokenSet FIRST = TokenSet.of(TokenType.IDENTIFIER, TokenType.TYPEDEF_NAME, TokenType.LPAREN);
+
     public static Node parse(Parser parser) {
 
         Node left;
         if (parser.match(TokenType.LPAREN)) {
-            left = Declarator.parse(parser);
+            if (!parser.enter()) return null;
+            try {
+                left = Declarator.parse(parser);
+            } finally {
+                parser.leave();
+            }
             if (!parser.match(TokenType.RPAREN)) {
-                // todo error sync; expecting right parenthesis
-                parser.addError(null);
-                parser.synchronize();
-                return null;
+                return parser.error("Expecting ')' after declarator.", ")", "");
             }
             return left;
         } else {
-            left = Identifier.parse(parser);
+            left = parser.check(TokenType.TYPEDEF_NAME) ? TypedefName.parse(parser) : Identifier.parse(parser);
         }
 
         if (left == null) return null;
@@ -54,7 +59,7 @@ public final class DirectDeclarator {
             List<Node> children = new ArrayList<>();
             children.add(left);
 
-            Node result = new Node(NodeType.DIRECT_DECLARATOR, 0, 0);
+            Node result = new Node(NodeType.DIRECT_DECLARATOR, left.getOffset());
 
             // Check for an empty parameter list
             if (parser.match(TokenType.RPAREN)) {
@@ -63,8 +68,9 @@ public final class DirectDeclarator {
 
             } else {
 
-                Node parameterTypeList = ParameterTypeList.parse(parser);
-                if (parameterTypeList != null) {
+                if (parser.check(ParameterTypeList.FIRST)) {
+                    Node parameterTypeList = ParameterTypeList.parse(parser);
+                    if (parameterTypeList == null) return null;
                     children.add(parameterTypeList);
                 } else {
 
@@ -72,13 +78,12 @@ public final class DirectDeclarator {
                     Node identifier;
                     while ((identifier = Identifier.parse(parser)) != null) {
                         children.add(identifier);
+                        if (!parser.match(TokenType.COMMA)) break;
                     }
                 }
 
                 if (!parser.match(TokenType.RPAREN)) {
-                    parser.addError(null);
-                    parser.synchronize(); // Error recovery
-                    return null;
+                    return parser.error("Expecting ')' after parameters.", ")", "Separate parameters with ',' and close the list with ')'.");
                 }
 
                 result.setChildren(children);
@@ -2,7 +2,6 @@ package com.monac.compiler.parser.rules.declarator;
 
 import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
-import com.monac.compiler.parser.ParserException;
 import com.monac.compiler.parser.rules.Initializer;
 import com.monac.compiler.parser.tree.Node;
 import com.monac.compiler.parser.tree.NodeType;
@@ -39,8 +38,20 @@ public final class InitDeclarator {
      *         or {@code null} if a parsing error occurs.
      */
     public static Node parse(Parser parser) {
-
         Node declarator = Declarator.parse(parser);
+        if (declarator == null) return null;
+        return parse(parser, declarator);
+    }
+
+    /**
+     * Parses the optional initializer of a declarator that has already been parsed.
+     *
+     * @param parser     The parser instance used to extract tokens.
+     * @param declarator The declarator the initializer belongs to.
+     * @return A {@link Node} representing the parsed initialized declarator,
+     *         or {@code null} if a parsing error occurs.
+     */
+    public static Node parse(Parser parser, Node declarator) {
 
         // Check if there is an assignment ('=') indicating an initializer
         if (parser.match(TokenType.ASSIGN)) {
@@ -48,20 +59,13 @@ public final class InitDeclarator {
 
             if (initializer != null) {
                 // Create a new node representing the initialized declarator
-                Node result = new Node(NodeType.INIT_DECLARATOR, declarator.getLine(), declarator.getColumn());
+                Node result = new Node(NodeType.INIT_DECLARATOR, declarator.getOffset());
                 result.setChildren(List.of(declarator, initializer));
                 return result;
             } else {
-                parser.addError(new ParserException(
-                        "Invalid initializer",
-                        parser.peek().getLine(),
-                        parser.peek().getColumn(),
-                        parser.peek().getLexeme(),
+                return parser.error("Invalid initializer",
                         "Expected an initializer after '='",
-                        "Provide a valid expression or value after '='"
-                ));
-                parser.synchronize();
-                return null;
+                        "Provide a valid expression or value after '='");
             }
         }
 
@@ -1,10 +1,13 @@
 package com.monac.compiler.parser.rules.definition;
 
 import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.TokenSet;
+import com.monac.compiler.parser.TypedefTable;
 import com.monac.compiler.parser.rules.declaration.Declaration;
 import com.monac.compiler.parser.rules.declarator.Declarator;
 import com.monac.compiler.parser.rules.specifier.DeclarationSpecifier;
 import com.monac.compiler.parser.rules.statement.CompoundStatement;
+import com.monac.compiler.parser.tree.LazyNode;
 import com.monac.compiler.parser.tree.Node;
 import com.monac.compiler.parser.tree.NodeType;
 
@@ -14,49 +17,73 @@ import java.util.List;
 public final class FunctionDefinition {
 
     // <function-definition> ::= {<declaration-specifier>}* <declarator> {<declaration>}* <compound-statement>
+    //
+    // With lazy bodies the compound statement becomes a LazyNode over the skipped tokens
 
-    public static Node parse(Parser parser) {
-
-        List<Node> children = declarationSpecifiers(parser); // {<declaration-specifier>}* zero or more
+    public static final TokenSet FIRST = DeclarationSpecifier.FIRST.union(Declarator.FIRST);
 
+    // Tokens that can follow the declarator of a function definition, but not of a declaration
+    public static final TokenSet FOLLOW_DECLARATOR = Declaration.FIRST.union(CompoundStatement.FIRST);
 
+    public static Node parse(Parser parser) {
+        List<Node> children = DeclarationSpecifier.parseAll(parser); // {<declaration-specifier>}* zero or more
 
+        Node declarator = parser.check(Declarator.FIRST) ? Declarator.parse(parser) : null; // <declarator>
+        if (declarator == null) return null;
 
+        return parse(parser, children, declarator);
+    }
 
-        Node declarator = Declarator.parse(parser); // <declarator>
-        if (declarator == null) return null;
+    // Continues a function definition after its specifiers and declarator
+    public static Node parse(Parser parser, List<Node> children, Node declarator) {
         children.add(declarator);
 
-        children.addAll(declarations(parser)); // {<declaration>}*
-
-        Node compoundStatement = CompoundStatement.parse(parser); // <compound-statement>
+        // The parameters hide typedef names of the same spelling in the body
+        TypedefTable typedefs = parser.getTypedefs();
+        typedefs.enterScope();
+        typedefs.declareParameters(declarator);
+        Node compoundStatement;
+        try {
+            children.addAll(declarations(parser)); // {<declaration>}*
+
+            compoundStatement = parser.isLazyBodies() ? deferredBody(parser) : null;
+            if (compoundStatement == null) compoundStatement = CompoundStatement.parse(parser); // <compound-statement>
+        } finally {
+            typedefs.exitScope();
+        }
         if (compoundStatement == null) {
-            parser.addError(null); // todo
-            parser.synchronize();
-            return null;
+            return parser.error("Expected the body of the function.", "{", "Start the function body with '{'.");
         }
         children.add(compoundStatement);
 
 
-        Node result = new Node(NodeType.FUNCTION_DEFINITION, children.getFirst().getLine(), children.getLast().getColumn());
+        Node result = new Node(NodeType.FUNCTION_DEFINITION, children.getFirst().getOffset());
         result.setChildren(children);
 
         return result;
     }
 
-    private static List<Node> declarationSpecifiers(Parser parser) {
-        List<Node> declarationSpecifiers = new ArrayList<>();
-        Node declarationSpecifier;
-        while ((declarationSpecifier = DeclarationSpecifier.parse(parser)) != null) {
-            declarationSpecifiers.add(declarationSpecifier);
-        }
-        return declarationSpecifiers;
+    // Skips the body up to its matching '}' and parses it on demand, or returns null if there is no such '}'
+    private static Node deferredBody(Parser parser) {
+        if (!parser.check(CompoundStatement.FIRST)) return null;
+        int end = parser.findClosingBrace();
+        if (end < 0) return null; // Parsed right away, so the error is reported now
+
+        // The fork keeps its errors until the body is parsed, bodies may be parsed on several threads
+        Parser body = parser.fork(parser.position());
+        Node result = new LazyNode(NodeType.COMPOUND_STATEMENT, parser.peek().getOffset(), () -> {
+            Node parsed = CompoundStatement.parse(body);
+            parser.addErrors(body.getErrors());
+            return parsed;
+        });
+        parser.seek(end + 1);
+        return result;
     }
 
     private static List<Node> declarations(Parser parser) {
         List<Node> declarations = new ArrayList<>();
         Node declaration;
-        while ((declaration = Declaration.parse(parser)) != null) {
+        while (parser.check(Declaration.FIRST) && (declaration = Declaration.parse(parser)) != null) {
             declarations.add(declaration);
         }
         return declarations;
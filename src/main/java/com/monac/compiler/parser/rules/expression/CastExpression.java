@@ -1,6 +1,5 @@
 package com.monac.compiler.parser.rules.expression;
 
-import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
 import com.monac.compiler.parser.tree.Node;
 
@@ -9,13 +8,11 @@ public final class CastExpression {
     // <cast-expression> ::= <unary-expression>
     //| ( <type-name> ) <cast-expression>
 
-    public static Node parse(Parser parser) {
-
-        if (parser.match(TokenType.LPAREN)) {
-            // todo; later
-        }
+    // A cast is a prefix operator of OperatorPrecedence: a '(' is one when a type name follows,
+    // which the next token tells now that typedef names have a token type of their own
 
-        return UnaryExpression.parse(parser);
+    public static Node parse(Parser parser) {
+        return OperatorPrecedence.parse(parser, OperatorPrecedence.UNARY);
     }
 
 }
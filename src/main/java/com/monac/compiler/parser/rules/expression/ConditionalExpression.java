@@ -1,6 +1,5 @@
 package com.monac.compiler.parser.rules.expression;
 
-import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
 import com.monac.compiler.parser.tree.Node;
 
@@ -9,16 +8,11 @@ public final class ConditionalExpression {
     // <conditional-expression> ::= <logical-or-expression>
     //| <logical-or-expression> ? <expression> : <conditional-expression>
 
-    public static Node parse(Parser parser) {
-        Node left = LogicalOrExpression.parse(parser);
-
-        if (parser.match(TokenType.QUESTION)) {
-            // TODO: later man
+    // The binary levels from <logical-or-expression> down to <multiplicative-expression>
+    // are all parsed by OperatorPrecedence
 
-            Node middle = Expression.parse(parser);
-        }
-
-        return left;
+    public static Node parse(Parser parser) {
+        return OperatorPrecedence.parse(parser, OperatorPrecedence.CONDITIONAL);
     }
 
 }
@@ -1,41 +0,0 @@
-package com.monac.compiler.parser.rules.expression;
-
-import com.monac.compiler.lexer.Token;
-import com.monac.compiler.lexer.TokenType;
-import com.monac.compiler.parser.Parser;
-import com.monac.compiler.parser.ParserException;
-import com.monac.compiler.parser.tree.Node;
-import com.monac.compiler.parser.tree.NodeType;
-
-import java.util.Arrays;
-
-public final class EqualityExpression {
-
-    public static Node parse(Parser parser) {
-        Node left = RelationalExpression.parse(parser);
-        if (left == null) return null;
-        return parsePrime(parser, left);
-    }
-
-    public static Node parsePrime(Parser parser, Node left) {
-        while (parser.match(TokenType.EQ, TokenType.NE)) {
-            Token operator = parser.previous();
-            Node right = RelationalExpression.parse(parser);
-
-            if (right == null) {
-                Token actual = parser.peek();
-                // TODO: Make nice error message
-                parser.addError(null);
-                parser.synchronize();
-            }
-
-            Node result = new Node(NodeType.EQUALITY_EXPRESSION, operator.getLine(), operator.getColumn());
-            result.setLiteral(operator.getLexeme());
-            result.setChildren(Arrays.asList(left, right));
-
-            left = result;
-        }
-        return left;
-    }
-
-}
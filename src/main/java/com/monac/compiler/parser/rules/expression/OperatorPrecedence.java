@@ -0,0 +1,326 @@
+package com.monac.compiler.parser.rules.expression;
+
+import com.monac.compiler.lexer.Token;
+import com.monac.compiler.lexer.TokenType;
+import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.TokenSet;
+import com.monac.compiler.parser.rules.declaration.TypeName;
+import com.monac.compiler.parser.tree.Node;
+import com.monac.compiler.parser.tree.NodeType;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parses every level of the C expression grammar from {@code <expression>} down to
+ * {@code <unary-expression>} with a single operator-precedence loop.
+ *
+ * <p>Each operator has a binding power, looked up in a table indexed by the ordinal of its
+ * {@link TokenType}. Operands and pending operators live on two explicit stacks; an incoming
+ * operator first reduces the pending operators that bind tighter, which builds the same
+ * {@code ADDITIVE_EXPRESSION}, {@code SHIFT_EXPRESSION}, ... nodes the grammar rules describe.
+ * Parentheses and the {@code ?} of a conditional expression are markers on the operator stack,
+ * so neither nesting nor long operator chains recurse. Only the arguments of a function call
+ * are parsed by a nested call.</p>
+ *
+ * <p>A {@code (} followed by a type specifier or qualifier opens a cast instead of a group. The
+ * cast is a prefix operator binding like the unary ones, with its type name kept on the operand
+ * stack until the operator is reduced. Right after {@code sizeof} such a parenthesized type name
+ * is the operand of {@code sizeof} instead, as in {@code sizeof(int) * n}.</p>
+ *
+ * <p>The assignment operators and the conditional operator are right-associative. Whether the
+ * left side of an assignment is a unary expression is known from the pending operators when the
+ * assignment operator is reached, so the parser never has to back up.</p>
+ */
+public final class OperatorPrecedence {
+
+    // Binding powers, from the loosest to the tightest
+    public static final int COMMA = 1;
+    public static final int ASSIGNMENT = 2;
+    public static final int CONDITIONAL = 3;
+    public static final int LOGICAL_OR = 4;
+    public static final int LOGICAL_AND = 5;
+    public static final int INCLUSIVE_OR = 6;
+    public static final int EXCLUSIVE_OR = 7;
+    public static final int AND = 8;
+    public static final int EQUALITY = 9;
+    public static final int RELATIONAL = 10;
+    public static final int SHIFT = 11;
+    public static final int ADDITIVE = 12;
+    public static final int MULTIPLICATIVE = 13;
+    public static final int UNARY = 14;
+
+    // Roles of the entries of the operator stack
+    private static final int PREFIX = 0;
+    private static final int BINARY = 1;
+    private static final int GROUP = 2;         // An open '('
+    private static final int CONDITION = 3;     // A '?' still waiting for its ':'
+    private static final int ALTERNATIVE = 4;   // A '?' whose ':' has been read
+    private static final int CAST = 5;          // A '(' <type-name> ')', the type name is an operand
+
+    // Indexed by TokenType ordinal, a power of 0 means the token is no binary operator
+    private static final int[] POWER = new int[TokenType.values().length];
+    private static final NodeType[] NODE_TYPE = new NodeType[TokenType.values().length];
+    private static final String[] SPELLING = new String[TokenType.values().length];
+
+    // <unary-operator> and the prefix forms of <unary-expression>
+    private static final TokenSet PREFIX_OPERATOR = TokenSet.of(TokenType.INCREMENT, TokenType.DECREMENT,
+            TokenType.SIZEOF, TokenType.AND, TokenType.MUL, TokenType.PLUS, TokenType.MINUS);
+    private static final TokenSet PRIMARY = TokenSet.of(TokenType.IDENTIFIER, TokenType.STRING,
+            TokenType.INTEGER_CONSTANT, TokenType.FLOATING_CONSTANT, TokenType.CHARACTER_CONSTANT);
+
+    public static final TokenSet FIRST = PREFIX_OPERATOR.union(PRIMARY).with(TokenType.LPAREN);
+
+    static {
+        binary(TokenType.COMMA, ",", COMMA, NodeType.EXPRESSION);
+
+        binary(TokenType.ASSIGN, "=", ASSIGNMENT, NodeType.ASSIGNMENT_EXPRESSION);
+        binary(TokenType.MUL_ASSIGN, "*=", ASSIGNMENT, NodeType.ASSIGNMENT_EXPRESSION);
+        binary(TokenType.DIV_ASSIGN, "/=", ASSIGNMENT, NodeType.ASSIGNMENT_EXPRESSION);
+        binary(TokenType.MOD_ASSIGN, "%=", ASSIGNMENT, NodeType.ASSIGNMENT_EXPRESSION);
+        binary(TokenType.INC_ASSIGN, "+=", ASSIGNMENT, NodeType.ASSIGNMENT_EXPRESSION);
+        binary(TokenType.DEC_ASSIGN, "-=", ASSIGNMENT, NodeType.ASSIGNMENT_EXPRESSION);
+        binary(TokenType.SHL_ASSIGN, "<<=", ASSIGNMENT, NodeType.ASSIGNMENT_EXPRESSION);
+        binary(TokenType.SHR_ASSIGN, ">>=", ASSIGNMENT, NodeType.ASSIGNMENT_EXPRESSION);
+        binary(TokenType.AND_ASSIGN, "&=", ASSIGNMENT, NodeType.ASSIGNMENT_EXPRESSION);
+        binary(TokenType.XOR_ASSIGN, "^=", ASSIGNMENT, NodeType.ASSIGNMENT_EXPRESSION);
+        binary(TokenType.OR_ASSIGN, "|=", ASSIGNMENT, NodeType.ASSIGNMENT_EXPRESSION);
+
+        binary(TokenType.QUESTION, "?", CONDITIONAL, NodeType.CONDITIONAL_EXPRESSION);
+        binary(TokenType.LOR, "||", LOGICAL_OR, NodeType.LOGICAL_OR_EXPRESSION);
+        binary(TokenType.LAND, "&&", LOGICAL_AND, NodeType.LOGICAL_AND_EXPRESSION);
+        binary(TokenType.OR, "|", INCLUSIVE_OR, NodeType.INCLUSIVE_OR_EXPRESSION);
+        binary(TokenType.XOR, "^", EXCLUSIVE_OR, NodeType.EXCLUSIVE_OR_EXPRESSION);
+        binary(TokenType.AND, "&", AND, NodeType.AND_EXPRESSION);
+
+        binary(TokenType.EQ, "==", EQUALITY, NodeType.EQUALITY_EXPRESSION);
+        binary(TokenType.NE, "!=", EQUALITY, NodeType.EQUALITY_EXPRESSION);
+
+        binary(TokenType.LT, "<", RELATIONAL, NodeType.RELATIONAL_EXPRESSION);
+        binary(TokenType.GT, ">", RELATIONAL, NodeType.RELATIONAL_EXPRESSION);
+        binary(TokenType.LE, "<=", RELATIONAL, NodeType.RELATIONAL_EXPRESSION);
+        binary(TokenType.GE, ">=", RELATIONAL, NodeType.RELATIONAL_EXPRESSION);
+
+        binary(TokenType.SHL, "<<", SHIFT, NodeType.SHIFT_EXPRESSION);
+        binary(TokenType.SHR, ">>", SHIFT, NodeType.SHIFT_EXPRESSION);
+
+        binary(TokenType.PLUS, "+", ADDITIVE, NodeType.ADDITIVE_EXPRESSION);
+        binary(TokenType.MINUS, "-", ADDITIVE, NodeType.ADDITIVE_EXPRESSION);
+
+        binary(TokenType.MUL, "*", MULTIPLICATIVE, NodeType.MULTIPLICATIVE_EXPRESSION);
+        binary(TokenType.DIV, "/", MULTIPLICATIVE, NodeType.MULTIPLICATIVE_EXPRESSION);
+        binary(TokenType.MOD, "%", MULTIPLICATIVE, NodeType.MULTIPLICATIVE_EXPRESSION);
+
+        // Prefix only operators, the others are spelled like their binary forms
+        SPELLING[TokenType.INCREMENT.ordinal()] = "++";
+        SPELLING[TokenType.DECREMENT.ordinal()] = "--";
+        SPELLING[TokenType.SIZEOF.ordinal()] = "sizeof";
+    }
+
+    private final Parser parser;
+    private final int minimum;
+
+    private Node[] operands = new Node[8];
+    private int operandCount = 0;
+
+    private int[] operators = new int[8]; // TokenType ordinals
+    private int[] roles = new int[8];
+    private int[] offsets = new int[8];
+    private int operatorCount = 0;
+    private int markers = 0; // Open GROUP and CONDITION entries
+
+    private OperatorPrecedence(Parser parser, int minimum) {
+        this.parser = parser;
+        this.minimum = minimum;
+    }
+
+    /**
+     * Parses an expression whose top level operators bind at least as tight as {@code minimum},
+     * e.g. {@link #ASSIGNMENT} for an {@code <assignment-expression>} that stops at a comma.
+     * Inside parentheses and between {@code ?} and {@code :} every operator is accepted.
+     *
+     * @return The root of the expression, or {@code null} if the next token cannot start an
+     *         expression or a syntax error was reported.
+     */
+    public static Node parse(Parser parser, int minimum) {
+        if (!parser.check(FIRST)) return null;
+        return new OperatorPrecedence(parser, minimum).parse();
+    }
+
+    private Node parse() {
+        boolean operand = true; // Whether an operand is expected next
+
+        while (true) {
+            TokenType type = parser.peekType();
+            int ordinal = type.ordinal();
+
+            if (operand) {
+                if (type == TokenType.LPAREN && TypeName.FIRST.contains(parser.peekType(1))) {
+                    // Right after sizeof the parenthesized type name is its operand, otherwise it opens a cast
+                    boolean sizeof = isSizeof();
+                    Token token = parser.advance();
+                    Node typeName = TypeName.parse(parser);
+                    if (!parser.match(TokenType.RPAREN)) {
+                        return error("Expected ')' after the type name of " + (sizeof ? "sizeof." : "a cast."), ")", "");
+                    }
+                    pushOperand(typeName);
+                    if (sizeof) operand = false;
+                    else pushOperator(ordinal, CAST, token.getOffset());
+                } else if (PREFIX_OPERATOR.contains(type) || type == TokenType.LPAREN) {
+                    Token token = parser.advance();
+                    pushOperator(ordinal, type == TokenType.LPAREN ? GROUP : PREFIX, token.getOffset());
+                } else if (PRIMARY.contains(type)) {
+                    Node postfix = PostfixExpression.parsePrime(parser, PrimaryExpression.parse(parser));
+                    if (postfix == null) return null;
+                    pushOperand(postfix);
+                    operand = false;
+                } else {
+                    return missingOperand();
+                }
+            } else if (type == TokenType.RPAREN || type == TokenType.COLON) {
+                // Closes the innermost '(' or '?', anything else ends the expression
+                reduce(0, false);
+                int role = type == TokenType.RPAREN ? GROUP : CONDITION;
+                if (operatorCount == 0 || roles[operatorCount - 1] != role) break;
+                parser.advance();
+                markers--;
+                if (role == GROUP) {
+                    operatorCount--;
+                    Node postfix = PostfixExpression.parsePrime(parser, operands[operandCount - 1]);
+                    if (postfix == null) return null;
+                    operands[operandCount - 1] = postfix;
+                } else {
+                    roles[operatorCount - 1] = ALTERNATIVE;
+                    operand = true;
+                }
+            } else {
+                int power = POWER[ordinal];
+                if (power == 0 || (power < minimum && markers == 0)) break;
+
+                // Any pending binary or conditional operator that binds tighter would take the left operand,
+                // and a cast expression is no unary expression
+                if (power == ASSIGNMENT && !isUnaryOperand()) {
+                    return error("The left operand of an assignment must be a unary expression.",
+                            "Unary expression before '" + SPELLING[ordinal] + "'",
+                            "Put parentheses around the assignment or remove the operator before it.");
+                }
+
+                // Assignment and conditional operators group from the right
+                reduce(power, power == ASSIGNMENT || power == CONDITIONAL);
+                Token token = parser.advance();
+                pushOperator(ordinal, type == TokenType.QUESTION ? CONDITION : BINARY, token.getOffset());
+                operand = true;
+            }
+        }
+
+        reduce(0, false);
+        if (operatorCount > 0) {
+            return roles[operatorCount - 1] == GROUP
+                    ? error("Expected ')' after expression.", ")", "")
+                    : error("Expected ':' in conditional expression.", ":", "Complete the conditional expression with ': <expression>'.");
+        }
+        return operands[0];
+    }
+
+    // Whether the operator on top of the stack is a prefix sizeof
+    private boolean isSizeof() {
+        return operatorCount > 0 && roles[operatorCount - 1] == PREFIX && operators[operatorCount - 1] == TokenType.SIZEOF.ordinal();
+    }
+
+    // Whether the operand on top of the stack, with the prefix operators before it, is a unary expression
+    private boolean isUnaryOperand() {
+        for (int top = operatorCount - 1; top >= 0; top--) {
+            int role = roles[top];
+            if (role == CAST) return false;
+            if (role == BINARY || role == ALTERNATIVE) return POWER[operators[top]] <= ASSIGNMENT;
+            if (role != PREFIX) return true;
+        }
+        return true;
+    }
+
+    // Reduces the pending operators, up to the innermost marker, that bind tighter than power
+    private void reduce(int power, boolean rightAssociative) {
+        while (operatorCount > 0) {
+            int top = operatorCount - 1;
+            int role = roles[top];
+            if (role == GROUP || role == CONDITION) return;
+
+            int pending = role == PREFIX || role == CAST ? UNARY : POWER[operators[top]];
+            if (pending < power || (pending == power && rightAssociative)) return;
+
+            operatorCount--;
+            int offset = offsets[top];
+            String spelling = SPELLING[operators[top]];
+            Node result;
+            if (role == CAST) {
+                Node operand = popOperand();
+                Node typeName = popOperand();
+                result = new Node(NodeType.CAST_EXPRESSION, offset);
+                result.setChildren(List.of(typeName, operand));
+            } else if (role == PREFIX) {
+                result = new Node(NodeType.UNARY_EXPRESSION, offset);
+                result.setLiteral(spelling);
+                result.setChildren(List.of(popOperand()));
+            } else if (role == ALTERNATIVE) {
+                Node alternative = popOperand();
+                Node consequent = popOperand();
+                Node condition = popOperand();
+                result = new Node(NodeType.CONDITIONAL_EXPRESSION, offset);
+                result.setChildren(List.of(condition, consequent, alternative));
+            } else if (pending == ASSIGNMENT) {
+                Node right = popOperand();
+                Node left = popOperand();
+                Node operator = new Node(NodeType.ASSIGNMENT_OPERATOR, offset);
+                operator.setLiteral(spelling);
+                result = new Node(NodeType.ASSIGNMENT_EXPRESSION, left.getOffset());
+                result.setChildren(List.of(left, operator, right));
+            } else {
+                Node right = popOperand();
+                Node left = popOperand();
+                result = new Node(NODE_TYPE[operators[top]], offset);
+                result.setLiteral(spelling);
+                result.setChildren(Arrays.asList(left, right));
+            }
+            pushOperand(result);
+        }
+    }
+
+    private Node missingOperand() {
+        return error("Invalid expression. Expected an operand after '" + parser.previous().getLexeme() + "'.",
+                "Identifier, constant, string or parenthesized expression",
+                "Ensure that a valid operand follows the operator.");
+    }
+
+    private Node error(String message, String expected, String suggestion) {
+        return parser.error(message, expected, suggestion);
+    }
+
+    private void pushOperand(Node node) {
+        if (operandCount == operands.length) operands = Arrays.copyOf(operands, operandCount * 2);
+        operands[operandCount++] = node;
+    }
+
+    private Node popOperand() {
+        return operands[--operandCount];
+    }
+
+    private void pushOperator(int ordinal, int role, int offset) {
+        if (operatorCount == operators.length) {
+            operators = Arrays.copyOf(operators, operatorCount * 2);
+            roles = Arrays.copyOf(roles, operatorCount * 2);
+            offsets = Arrays.copyOf(offsets, operatorCount * 2);
+        }
+        operators[operatorCount] = ordinal;
+        roles[operatorCount] = role;
+        offsets[operatorCount] = offset;
+        operatorCount++;
+        if (role == GROUP || role == CONDITION) markers++;
+    }
+
+    private static void binary(TokenType type, String spelling, int power, NodeType node) {
+        POWER[type.ordinal()] = power;
+        NODE_TYPE[type.ordinal()] = node;
+        SPELLING[type.ordinal()] = spelling;
+    }
+
+}
@@ -1,9 +1,7 @@
 package com.monac.compiler.parser.rules.expression;
 
-import com.monac.compiler.lexer.Token;
 import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
-import com.monac.compiler.parser.ParserException;
 import com.monac.compiler.parser.tree.Node;
 import com.monac.compiler.parser.tree.NodeType;
 
@@ -14,7 +12,7 @@ public final class PostfixExpression {
 
     //<postfix-expression> ::= <primary-expression>
     //                       | <postfix-expression> [ <expression> ]
-    //                       | <postfix-expression> ( {<assignment-expression>}* )
+    //                       | <postfix-expression> ( {<assignment-expression>}* )   separated by ,
     //                       | <postfix-expression> . <identifier>
     //                       | <postfix-expression> -> <identifier>
     //                       | <postfix-expression> ++
@@ -39,32 +37,24 @@ public final class PostfixExpression {
         return parsePrime(parser, primaryExpression);
     }
 
-    private static Node parsePrime(Parser parser, Node left) {
+    // Also applied to a parenthesized expression by OperatorPrecedence
+    static Node parsePrime(Parser parser, Node left) {
 
         while (parser.match(TokenType.LPAREN)) {
             List<Node> assignmentExpressions = new ArrayList<>();
 
-            // this one is optional
+            // this one is optional, arguments are separated by commas
             Node assignmentExpression;
             while ((assignmentExpression = AssignmentExpression.parse(parser)) != null) {
                 assignmentExpressions.add(assignmentExpression);
+                if (!parser.match(TokenType.COMMA)) break;
             }
 
             if (!parser.match(TokenType.RPAREN)) {
-                Token actual = parser.peek();
-                parser.addError(new ParserException(
-                        "error message, from postfix expression",
-                        actual.getLine(),
-                        actual.getColumn(),
-                        actual.getLexeme(),
-                        "",
-                        ""
-                ));
-                parser.synchronize();
-                return null;
+                return parser.error("Expected ')' after the arguments of a call.", ")", "Separate arguments with ','.");
             }
 
-            Node result = new Node(NodeType.POSTFIX_EXPRESSION, left.getLine(), left.getColumn());
+            Node result = new Node(NodeType.POSTFIX_EXPRESSION, left.getOffset());
             result.setChildren(assignmentExpressions);
 
             left = result;
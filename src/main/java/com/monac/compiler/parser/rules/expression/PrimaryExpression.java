@@ -1,9 +1,7 @@
 package com.monac.compiler.parser.rules.expression;
 
-import com.monac.compiler.lexer.Token;
 import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
-import com.monac.compiler.parser.ParserException;
 import com.monac.compiler.parser.rules.constant.Constant;
 import com.monac.compiler.parser.rules.other.Identifier;
 import com.monac.compiler.parser.rules.other.String;
@@ -23,18 +21,10 @@ public final class PrimaryExpression {
                 if (parser.match(TokenType.RPAREN)) {
                     return expression;
                 } else {
-                    Token token = parser.peek();
-                    parser.addError(new ParserException(
-                            "Expected ')' after expression.",
-                            token.getLine(), token.getColumn(),
-                            token.getLexeme(), ")",
-                            ""
-                    ));
-                    parser.synchronize();
+                    return parser.error("Expected ')' after expression.", ")", "");
                 }
             } else {
-                parser.addError(null);
-                parser.synchronize();
+                return parser.error("Expected an expression after '('.", "Expression", "");
             }
         }
 
@@ -2,6 +2,7 @@ package com.monac.compiler.parser.rules.list;
 
 import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.TokenSet;
 import com.monac.compiler.parser.rules.declaration.ParameterDeclaration;
 import com.monac.compiler.parser.tree.Node;
 import com.monac.compiler.parser.tree.NodeType;
@@ -20,6 +21,8 @@ public final class ParameterList {
     // <parameter-list'> ::= , <parameter-declaration>
     //                     | epsilon
 
+    public static final TokenSet FIRST = ParameterDeclaration.FIRST;
+
     public static Node parse(Parser parser) {
         Node parameterDeclaration = ParameterDeclaration.parse(parser);
         if (parameterDeclaration == null) return null;
@@ -33,12 +36,10 @@ public final class ParameterList {
 
             // Expect parameter declaration now
             if (parameterDeclaration == null) {
-                parser.addError(null);
-                parser.synchronize();
-                return null;
+                return parser.error("Expected a parameter declaration after ','.", "Declaration specifier", "");
             }
 
-            Node result = new Node(NodeType.PARAMETER_LIST, 0, 0);
+            Node result = new Node(NodeType.PARAMETER_LIST, left.getOffset());
             result.setChildren(List.of(left, parameterDeclaration));
 
             left = result;
@@ -2,6 +2,7 @@ package com.monac.compiler.parser.rules.list;
 
 import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.TokenSet;
 import com.monac.compiler.parser.tree.Node;
 import com.monac.compiler.parser.tree.NodeType;
 
@@ -13,6 +14,8 @@ public final class ParameterTypeList {
     // <parameter-type-list> ::= <parameter-list>
     //| <parameter-list> , ...
 
+    public static final TokenSet FIRST = ParameterList.FIRST;
+
     public static Node parse(Parser parser) {
 
         List<Node> children = new ArrayList<>();
@@ -27,14 +30,12 @@ public final class ParameterTypeList {
 
             // Expect it after ','
             if (parameterList == null) {
-                parser.addError(null); // todo
-                parser.synchronize();
-                return null;
+                return parser.error("Expected a parameter declaration after ','.", "Declaration specifier", "");
             }
             children.add(parameterList);
         }
 
-        Node result = new Node(NodeType.PARAMETER_TYPE_LIST, children.getFirst().getLine(), children.getLast().getLine());
+        Node result = new Node(NodeType.PARAMETER_TYPE_LIST, children.getFirst().getOffset());
         result.setChildren(children);
 
         return result;
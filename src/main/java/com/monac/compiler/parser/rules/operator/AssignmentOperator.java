@@ -3,6 +3,7 @@ package com.monac.compiler.parser.rules.operator;
 import com.monac.compiler.lexer.Token;
 import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.TokenSet;
 import com.monac.compiler.parser.tree.Node;
 import com.monac.compiler.parser.tree.NodeType;
 
@@ -20,14 +21,15 @@ public final class AssignmentOperator {
     //| ^=
     //| |=
 
+    public static final TokenSet FIRST = TokenSet.of(TokenType.ASSIGN, TokenType.MUL_ASSIGN, TokenType.DIV_ASSIGN,
+            TokenType.MOD_ASSIGN, TokenType.INC_ASSIGN, TokenType.DEC_ASSIGN,
+            TokenType.SHL_ASSIGN, TokenType.SHR_ASSIGN, TokenType.AND_ASSIGN,
+            TokenType.XOR_ASSIGN, TokenType.OR_ASSIGN);
+
     public static Node parse(Parser parser) {
-        if (parser.match(TokenType.ASSIGN, TokenType.MUL_ASSIGN, TokenType.DIV_ASSIGN,
-                TokenType.MOD_ASSIGN, TokenType.INC_ASSIGN, TokenType.DEC_ASSIGN,
-                TokenType.SHL_ASSIGN, TokenType.SHR_ASSIGN, TokenType.AND_ASSIGN,
-                TokenType.XOR_ASSIGN, TokenType.OR_ASSIGN
-        )) {
+        if (parser.match(FIRST)) {
             Token token = parser.previous();
-            Node result = new Node(NodeType.ASSIGNMENT_OPERATOR, token.getLine(), token.getColumn());
+            Node result = new Node(NodeType.ASSIGNMENT_OPERATOR, token.getOffset());
             result.setLiteral(token.getLexeme());
             return result;
         }
@@ -20,7 +20,8 @@ public final class Identifier {
      * <p>
      * If the parser encounters an identifier token, this method creates a
      * {@link Node} representing the identifier and sets its literal value
-     * to the identifier's lexeme.
+     * to the identifier's text, a view into the source that is not copied.
+     * Its value is the symbol id of the name.
      * </p>
      *
      * @param parser The parser instance used to analyze the token stream.
@@ -30,8 +31,9 @@ public final class Identifier {
     public static Node parse(Parser parser) {
         if (parser.match(TokenType.IDENTIFIER)) {
             Token identifier = parser.previous();
-            Node result = new Node(NodeType.IDENTIFIER, identifier.getLine(), identifier.getColumn());
-            result.setLiteral(identifier.getLexeme());
+            Node result = new Node(NodeType.IDENTIFIER, identifier.getOffset());
+            result.setLiteral(identifier.getText());
+            result.setValue(identifier.getSymbol());
             return result;
         }
         return null;
@@ -1,11 +1,20 @@
 package com.monac.compiler.parser.rules.other;
 
+import com.monac.compiler.lexer.Token;
+import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
 import com.monac.compiler.parser.tree.Node;
+import com.monac.compiler.parser.tree.NodeType;
 
 public final class String {
 
     public static Node parse(Parser parser) {
+        if (parser.match(TokenType.STRING)) {
+            Token token = parser.previous();
+            Node result = new Node(NodeType.STRING, token.getOffset());
+            result.setLiteral(token.getText()); // Quotes included, escapes left as written
+            return result;
+        }
         return null;
     }
 
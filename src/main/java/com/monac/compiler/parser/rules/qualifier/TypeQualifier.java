@@ -3,6 +3,7 @@ package com.monac.compiler.parser.rules.qualifier;
 import com.monac.compiler.lexer.Token;
 import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.TokenSet;
 import com.monac.compiler.parser.tree.Node;
 import com.monac.compiler.parser.tree.NodeType;
 
@@ -15,6 +16,8 @@ import com.monac.compiler.parser.tree.NodeType;
  */
 public final class TypeQualifier {
 
+    public static final TokenSet FIRST = TokenSet.of(TokenType.CONST, TokenType.VOLATILE);
+
     /**
      * Parses the source code for type qualifiers such as `const` or `volatile`.
      * If a type qualifier is found, it creates a new AST node representing
@@ -24,9 +27,9 @@ public final class TypeQualifier {
      * @return A Node representing the type qualifier if one is found; otherwise, returns null.
      */
     public static Node parse(Parser parser) {
-        if (parser.match(TokenType.CONST, TokenType.VOLATILE)) {
+        if (parser.match(FIRST)) {
             Token token = parser.previous();
-            Node result = new Node(NodeType.TYPE_QUALIFIER, token.getLine(), token.getColumn());
+            Node result = new Node(NodeType.TYPE_QUALIFIER, token.getOffset());
             result.setLiteral(token.getLexeme());
             return result;
         }
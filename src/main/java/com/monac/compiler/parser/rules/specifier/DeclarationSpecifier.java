@@ -1,10 +1,13 @@
 package com.monac.compiler.parser.rules.specifier;
 
+import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.TokenSet;
 import com.monac.compiler.parser.rules.qualifier.TypeQualifier;
 import com.monac.compiler.parser.tree.Node;
 import com.monac.compiler.parser.tree.NodeType;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -24,10 +27,12 @@ import java.util.List;
  */
 public final class DeclarationSpecifier {
 
+    public static final TokenSet FIRST = StorageClassSpecifier.FIRST.union(TypeSpecifier.FIRST).union(TypeQualifier.FIRST);
+
     /**
      * Parses a declaration specifier from the provided parser.
      *
-     * <p>Attempts to parse the following specifiers in order:</p>
+     * <p>Picks one of the following specifiers by the next token:</p>
      * <ol>
      *     <li>Storage class specifier</li>
      *     <li>Type specifier</li>
@@ -39,28 +44,40 @@ public final class DeclarationSpecifier {
      *         or {@code null} if no valid specifier is found.
      */
     public static Node parse(Parser parser) {
+        Node specifier;
+        if (parser.check(StorageClassSpecifier.FIRST)) specifier = StorageClassSpecifier.parse(parser);
+        else if (parser.check(TypeSpecifier.FIRST)) specifier = TypeSpecifier.parse(parser);
+        else if (parser.check(TypeQualifier.FIRST)) specifier = TypeQualifier.parse(parser);
+        else return null;
 
-        Node result = new Node(NodeType.DECLARATION_SPECIFIER, 0, 0);
-
-        Node storageClassSpecifier = StorageClassSpecifier.parse(parser);
-        if (storageClassSpecifier != null) {
-            result.setChildren(List.of(storageClassSpecifier));
-            return result;
-        };
-
-        Node typeSpecifier = TypeSpecifier.parse(parser);
-        if (typeSpecifier != null) {
-            result.setChildren(List.of(typeSpecifier));
-            return result;
-        };
+        return specifier == null ? null : wrap(specifier);
+    }
 
-        Node typeQualifier = TypeQualifier.parse(parser);
-        if (typeQualifier != null) {
-            result.setChildren(List.of(typeQualifier));
-            return result;
+    /**
+     * Parses zero or more declaration specifiers.
+     *
+     * <p>A typedef name after a type specifier is not another specifier but the declarator, as
+     * {@code T} in {@code int T;} hiding a type {@code T} in an inner scope.</p>
+     *
+     * @param parser The parser instance used to extract tokens.
+     * @return The parsed declaration specifiers, in a mutable list.
+     */
+    public static List<Node> parseAll(Parser parser) {
+        List<Node> specifiers = new ArrayList<>();
+        boolean typed = false;
+        Node specifier;
+        while (parser.check(FIRST) && !(typed && parser.check(TokenType.TYPEDEF_NAME)) && (specifier = parse(parser)) != null) {
+            specifiers.add(specifier);
+            NodeType type = specifier.getChildren().getFirst().getType();
+            typed |= type == NodeType.TYPE_SPECIFIER || type == NodeType.IDENTIFIER;
         }
+        return specifiers;
+    }
 
-        return null;
+    private static Node wrap(Node specifier) {
+        Node result = new Node(NodeType.DECLARATION_SPECIFIER, specifier.getOffset());
+        result.setChildren(List.of(specifier));
+        return result;
     }
 
 }
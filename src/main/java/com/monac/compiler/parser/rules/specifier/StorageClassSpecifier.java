@@ -1,7 +1,11 @@
 package com.monac.compiler.parser.rules.specifier;
 
+import com.monac.compiler.lexer.Token;
+import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.TokenSet;
 import com.monac.compiler.parser.tree.Node;
+import com.monac.compiler.parser.tree.NodeType;
 
 public final class StorageClassSpecifier {
 
@@ -11,7 +15,16 @@ public final class StorageClassSpecifier {
     //| extern
     //| typedef
 
+    // The lexer only knows typedef yet
+    public static final TokenSet FIRST = TokenSet.of(TokenType.TYPEDEF);
+
     public static Node parse(Parser parser) {
+        if (parser.match(FIRST)) {
+            Token token = parser.previous();
+            Node result = new Node(NodeType.STORAGE_CLASS_SPECIFIER, token.getOffset());
+            result.setLiteral(token.getLexeme());
+            return result;
+        }
         return null;
     }
 
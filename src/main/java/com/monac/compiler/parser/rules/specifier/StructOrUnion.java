@@ -3,15 +3,18 @@ package com.monac.compiler.parser.rules.specifier;
 import com.monac.compiler.lexer.Token;
 import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.TokenSet;
 import com.monac.compiler.parser.tree.Node;
 import com.monac.compiler.parser.tree.NodeType;
 
 public final class StructOrUnion {
 
+    public static final TokenSet FIRST = TokenSet.of(TokenType.STRUCT, TokenType.UNION);
+
     public static Node parse(Parser parser) {
-        if (parser.match(TokenType.STRUCT, TokenType.UNION)) {
+        if (parser.match(FIRST)) {
             Token token = parser.previous();
-            Node result = new Node(NodeType.STRUCT_OR_UNION, token.getLine(), token.getColumn());
+            Node result = new Node(NodeType.STRUCT_OR_UNION, token.getOffset());
             result.setLiteral(token.getLexeme());
             return result;
         }
@@ -3,6 +3,7 @@ package com.monac.compiler.parser.rules.specifier;
 import com.monac.compiler.lexer.Token;
 import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.TokenSet;
 import com.monac.compiler.parser.rules.TypedefName;
 import com.monac.compiler.parser.tree.Node;
 import com.monac.compiler.parser.tree.NodeType;
@@ -22,13 +23,17 @@ public final class TypeSpecifier {
     //| <enum-specifier>
     //| <typedef-name>
 
+    public static final TokenSet FIRST = TokenSet.of(TokenType.VOID, TokenType.CHAR, TokenType.INT, TokenType.TYPEDEF_NAME);
+
     public static Node parse(Parser parser) {
 
+        if (parser.check(TokenType.TYPEDEF_NAME)) return TypedefName.parse(parser);
+
         // For now just handling void, int and char as types
 
-        if (parser.match(TokenType.VOID, TokenType.CHAR, TokenType.INT)) {
+        if (parser.match(FIRST)) {
             Token token = parser.previous();
-            Node result = new Node(NodeType.TYPE_SPECIFIER, token.getLine(), token.getColumn());
+            Node result = new Node(NodeType.TYPE_SPECIFIER, token.getOffset());
             result.setLiteral(token.getLexeme());
             return result;
         }
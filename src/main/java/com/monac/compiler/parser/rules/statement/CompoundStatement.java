@@ -3,7 +3,7 @@ package com.monac.compiler.parser.rules.statement;
 import com.monac.compiler.lexer.Token;
 import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
-import com.monac.compiler.parser.ParserException;
+import com.monac.compiler.parser.TokenSet;
 import com.monac.compiler.parser.rules.declaration.Declaration;
 import com.monac.compiler.parser.tree.Node;
 import com.monac.compiler.parser.tree.NodeType;
@@ -15,39 +15,41 @@ public final class CompoundStatement {
 
     // <compound-statement> ::= { {<declaration>}* {<statement>}* }
 
+    public static final TokenSet FIRST = TokenSet.of(TokenType.LBRACE);
+
     public static Node parse(Parser parser) {
 
         if (parser.match(TokenType.LBRACE)) {
             Token lBrace = parser.previous();
             List<Node> children = new ArrayList<>();
 
-            // Parse multiple declarations
-            Node declaration;
-            while ((declaration = Declaration.parse(parser)) != null) {
-                children.add(declaration);
-            }
-
-            // Parse multiple statements
-            Node statement;
-            while ((statement = Statement.parse(parser)) != null) {
-                children.add(statement);
+            // Declarations first, then statements. One that fails is reported and skipped.
+            parser.getTypedefs().enterScope();
+            boolean statements = false;
+            while (!parser.check(TokenType.RBRACE) && !parser.isAtEnd()) {
+                int start = parser.position();
+                Node child = null;
+                if (!statements && parser.check(Declaration.FIRST)) {
+                    child = Declaration.parse(parser);
+                } else if (parser.check(Statement.FIRST)) {
+                    statements = true;
+                    child = Statement.parse(parser);
+                }
+                if (child != null) children.add(child);
+                else parser.recover(start, Parser.RECOVERY);
             }
+            parser.getTypedefs().exitScope();
 
-            if (parser.match(TokenType.RBRACE)) {
-                Node result = new Node(NodeType.COMPOUND_STATEMENT, lBrace.getLine(), lBrace.getColumn());
-                result.setChildren(children);
-                return result;
-            } else {
-                Token actual = parser.peek();
-                parser.addError(new ParserException(
-                        "Syntax Error: Missing closing '}' for compound statement.",
-                        actual.getLine(),
-                        actual.getColumn(),
-                        actual.getLexeme(),
+            if (!parser.match(TokenType.RBRACE)) {
+                parser.error("Syntax Error: Missing closing '}' for compound statement.",
                         "Expected '}' to close the compound block.",
-                        "Ensure every '{' has a matching '}'."
-                ));
+                        "Ensure every '{' has a matching '}'.");
             }
+
+            // Also kept when the '}' is missing, with what could be parsed
+            Node result = new Node(NodeType.COMPOUND_STATEMENT, lBrace.getOffset());
+            result.setChildren(children);
+            return result;
         }
         return null;
     }
@@ -3,6 +3,7 @@ package com.monac.compiler.parser.rules.statement;
 import com.monac.compiler.lexer.Token;
 import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.TokenSet;
 import com.monac.compiler.parser.rules.expression.Expression;
 import com.monac.compiler.parser.tree.Node;
 import com.monac.compiler.parser.tree.NodeType;
@@ -16,105 +17,74 @@ public final class IterationStatement {
     //| do <statement> while ( <expression> ) ;
     //| for ( {<expression>}? ; {<expression>}? ; {<expression>}? ) <statement>
 
-    public static Node parse(Parser parser) throws Exception {
+    public static final TokenSet FIRST = TokenSet.of(TokenType.WHILE, TokenType.DO, TokenType.FOR);
+
+    public static Node parse(Parser parser) {
 
         if (parser.match(TokenType.WHILE)) {
             Token token = parser.previous();
-            if (parser.match(TokenType.LPAREN)) {
-                Node expression = Expression.parse(parser);
-                if (expression != null) {
-                    if (parser.match(TokenType.RPAREN)) {
-                        Node statement = Statement.parse(parser);
-                        if (statement != null) {
-                            Node result = new Node(NodeType.ITERATOR_STATEMENT, token.getLine(), token.getColumn());
-                            result.setLiteral(token.getLexeme());
-                            result.setChildren(List.of(expression, statement));
-                            return result;
-                        } else {
-                            throw new Exception();
-                        }
-                    } else {
-                        throw new Exception("Expecting ')' after expression.");
-                    }
-                } else {
-                    throw new Exception("Expression expected");
-                }
-            } else {
-                throw new Exception("Expecting '(' after 'while' keyword.");
-            }
+            if (!parser.match(TokenType.LPAREN)) return parser.error("Expecting '(' after 'while' keyword.", "(", "Put the condition in parentheses.");
+            Node expression = Expression.parse(parser);
+            if (expression == null) return parser.error("Expected an expression after 'while ('.", "Expression", "");
+            if (!parser.match(TokenType.RPAREN)) return parser.error("Expecting ')' after expression.", ")", "Close the condition with ')'.");
+            Node statement = Statement.parse(parser);
+            if (statement == null) return missingStatement(parser, "while (...)");
+
+            Node result = new Node(NodeType.ITERATOR_STATEMENT, token.getOffset());
+            result.setLiteral(token.getLexeme());
+            result.setChildren(List.of(expression, statement));
+            return result;
         }
 
         if (parser.match(TokenType.DO)) {
             Token token = parser.previous();
             Node statement = Statement.parse(parser);
-            if (statement != null) {
-                if (parser.match(TokenType.WHILE)) {
-                    if (parser.match(TokenType.LPAREN)) {
-                        Node expression = Expression.parse(parser);
-                        if (expression != null) {
-                            if (parser.match(TokenType.RPAREN)) {
-                                if (parser.match(TokenType.SEMICOLON)) {
-                                    Node result = new Node(NodeType.JUMP_STATEMENT, token.getLine(), token.getColumn());
-                                    result.setLiteral(token.getLexeme());
-                                    result.setChildren(List.of(statement, expression));
-                                    return result;
-                                } else {
-                                    throw new Exception();
-                                }
-                            } else {
-                                throw new Exception();
-                            }
-                        } else {
-                            throw new Exception();
-                        }
-                    } else {
-                        throw new Exception();
-                    }
-                } else {
-                    throw new Exception();
-                }
-            } else {
-                throw new Exception();
+            if (statement == null) return missingStatement(parser, "do");
+            if (!parser.match(TokenType.WHILE)) return parser.error("Expecting 'while' after the body of 'do'.", "while", "");
+            if (!parser.match(TokenType.LPAREN)) return parser.error("Expecting '(' after 'while' keyword.", "(", "Put the condition in parentheses.");
+            Node expression = Expression.parse(parser);
+            if (expression == null) return parser.error("Expected an expression after 'while ('.", "Expression", "");
+            if (!parser.match(TokenType.RPAREN)) return parser.error("Expecting ')' after expression.", ")", "Close the condition with ')'.");
+            if (!parser.match(TokenType.SEMICOLON)) {
+                return parser.error("Missing semicolon ';' after 'do ... while (...)'.",
+                        "Expected ';' after the condition.",
+                        "Ensure your statement ends with a semicolon.");
             }
+
+            Node result = new Node(NodeType.ITERATOR_STATEMENT, token.getOffset());
+            result.setLiteral(token.getLexeme());
+            result.setChildren(List.of(statement, expression));
+            return result;
         }
 
         if (parser.match(TokenType.FOR)) {
             Token token = parser.previous();
-            if (parser.match(TokenType.LPAREN)) {
-                Node expression1 = Expression.parse(parser);
-                if (parser.match(TokenType.SEMICOLON)) {
-                    Node expression2 = Expression.parse(parser);
-                    if (parser.match(TokenType.SEMICOLON)) {
-                        Node expression3 = Expression.parse(parser);
-                        if (parser.match(TokenType.RPAREN)) {
-                            Node statement = Statement.parse(parser);
-                            if (statement == null) {
-                                throw new Exception();
-                            }
-                            Node result = new Node(NodeType.ITERATOR_STATEMENT, token.getLine(), token.getColumn());
-                            result.setLiteral(token.getLexeme());
-                            List<Node> children = new ArrayList<>();
-                            if (expression1 != null) children.add(expression1);
-                            if (expression2 != null) children.add(expression2);
-                            if (expression3 != null) children.add(expression3);
-                            children.add(statement);
-                            result.setChildren(children);
-                            return result;
-                        } else {
-                            throw new Exception();
-                        }
-                    } else {
-                        throw new Exception();
-                    }
-                } else {
-                    throw new Exception();
-                }
-            } else {
-                throw new Exception();
-            }
+            if (!parser.match(TokenType.LPAREN)) return parser.error("Expecting '(' after 'for' keyword.", "(", "");
+            Node expression1 = Expression.parse(parser); // All three are optional
+            if (!parser.match(TokenType.SEMICOLON)) return parser.error("Expecting ';' after the initialization of 'for'.", ";", "");
+            Node expression2 = Expression.parse(parser);
+            if (!parser.match(TokenType.SEMICOLON)) return parser.error("Expecting ';' after the condition of 'for'.", ";", "");
+            Node expression3 = Expression.parse(parser);
+            if (!parser.match(TokenType.RPAREN)) return parser.error("Expecting ')' after the clauses of 'for'.", ")", "");
+            Node statement = Statement.parse(parser);
+            if (statement == null) return missingStatement(parser, "for (...)");
+
+            Node result = new Node(NodeType.ITERATOR_STATEMENT, token.getOffset());
+            result.setLiteral(token.getLexeme());
+            List<Node> children = new ArrayList<>();
+            if (expression1 != null) children.add(expression1);
+            if (expression2 != null) children.add(expression2);
+            if (expression3 != null) children.add(expression3);
+            children.add(statement);
+            result.setChildren(children);
+            return result;
         }
 
         return null;
     }
 
+    private static Node missingStatement(Parser parser, String after) {
+        return parser.error("Expected a statement after '" + after + "'.", "Statement", "Add a statement or a block as the body of the loop.");
+    }
+
 }
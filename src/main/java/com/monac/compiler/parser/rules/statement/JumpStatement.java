@@ -3,6 +3,7 @@ package com.monac.compiler.parser.rules.statement;
 import com.monac.compiler.lexer.Token;
 import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.TokenSet;
 import com.monac.compiler.parser.rules.expression.Expression;
 import com.monac.compiler.parser.rules.other.Identifier;
 import com.monac.compiler.parser.tree.Node;
@@ -17,20 +18,24 @@ public final class JumpStatement {
     //  | break ;
     //  | return {<expression>}? ;
 
+    // Only return is supported yet
+    public static final TokenSet FIRST = TokenSet.of(TokenType.RETURN);
+    public static final TokenSet FOLLOW_RETURN = TokenSet.of(TokenType.SEMICOLON);
+
     public static Node parse(Parser parser) {
 
         if (parser.match(TokenType.RETURN)) {
             Token token = parser.previous(); // return token
 
-            Node expression = Expression.parse(parser); // optional
+            Node expression = parser.check(FOLLOW_RETURN) ? null : Expression.parse(parser); // optional
 
             if (!parser.match(TokenType.SEMICOLON)) {
-                parser.addError(null); // todo
-                parser.synchronize();
-                return null;
+                return parser.error("Missing semicolon ';' after return statement.",
+                        "Expected ';' after 'return' or its expression.",
+                        "Ensure your statement ends with a semicolon.");
             }
 
-            Node result = new Node(NodeType.JUMP_STATEMENT, token.getLine(), token.getColumn());
+            Node result = new Node(NodeType.JUMP_STATEMENT, token.getOffset());
             result.setLiteral(token.getLexeme());
 
             if (expression != null) {
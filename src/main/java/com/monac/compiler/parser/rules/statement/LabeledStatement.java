@@ -3,6 +3,7 @@ package com.monac.compiler.parser.rules.statement;
 import com.monac.compiler.lexer.Token;
 import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.TokenSet;
 import com.monac.compiler.parser.rules.expression.ConstantExpression;
 import com.monac.compiler.parser.rules.other.Identifier;
 import com.monac.compiler.parser.tree.Node;
@@ -16,64 +17,53 @@ public final class LabeledStatement {
     //| case <constant-expression> : <statement>
     //| default : <statement>
 
-    public static Node parse(Parser parser) throws Exception {
+    // An identifier starts a label only when a ':' follows, which Statement checks
+    public static final TokenSet FIRST = TokenSet.of(TokenType.CASE, TokenType.DEFAULT);
 
-        Node identifier = Identifier.parse(parser);
-        if (identifier != null) {
-            if (parser.match(TokenType.COLON)) {
-                Node statement = Statement.parse(parser);
-                if (statement != null) {
-                    Node result = new Node(NodeType.LABELED_STATEMENT, identifier.getLine(), identifier.getColumn());
-                    result.setChildren(List.of(identifier,statement));
-                    return result;
-                } else {
-                    throw new Exception();
-                }
-            } else {
-                throw new Exception();
-            }
+    public static Node parse(Parser parser) {
+
+        if (parser.check(TokenType.IDENTIFIER)) {
+            Node identifier = Identifier.parse(parser);
+            if (!parser.match(TokenType.COLON)) return parser.error("Expecting ':' after label.", ":", "");
+            Node statement = Statement.parse(parser);
+            if (statement == null) return missingStatement(parser);
+
+            Node result = new Node(NodeType.LABELED_STATEMENT, identifier.getOffset());
+            result.setChildren(List.of(identifier, statement));
+            return result;
         }
 
         if (parser.match(TokenType.CASE)) {
             Token token = parser.previous();
             Node constantExpression = ConstantExpression.parse(parser);
-            if (constantExpression != null) {
-                if (parser.match(TokenType.COLON)) {
-                    Node statement = Statement.parse(parser);
-                    if (statement != null) {
-                        Node result = new Node(NodeType.LABELED_STATEMENT, token.getLine(), token.getLine());
-                        result.setLiteral(token.getLexeme());
-                        result.setChildren(List.of(constantExpression,statement));
-                        return result;
-                    } else {
-                        throw new Exception();
-                    }
-                } else {
-                    throw new Exception();
-                }
-            } else {
-                throw new Exception();
-            }
+            if (constantExpression == null) return parser.error("Expected a constant expression after 'case'.", "Constant expression", "");
+            if (!parser.match(TokenType.COLON)) return parser.error("Expecting ':' after case label.", ":", "");
+            Node statement = Statement.parse(parser);
+            if (statement == null) return missingStatement(parser);
+
+            Node result = new Node(NodeType.LABELED_STATEMENT, token.getOffset());
+            result.setLiteral(token.getLexeme());
+            result.setChildren(List.of(constantExpression, statement));
+            return result;
         }
 
         if (parser.match(TokenType.DEFAULT)) {
             Token token = parser.previous();
-            if (parser.match(TokenType.COLON)) {
-                Node statement = Statement.parse(parser);
-                if (statement != null) {
-                    Node result = new Node(NodeType.LABELED_STATEMENT, token.getLine(), token.getLine());
-                    result.setLiteral(token.getLexeme());
-                    result.setChildren(List.of(statement));
-                    return result;
-                } else {
-                    throw new Exception();
-                }
-            } else {
-                throw new Exception();
-            }
+            if (!parser.match(TokenType.COLON)) return parser.error("Expecting ':' after 'default'.", ":", "");
+            Node statement = Statement.parse(parser);
+            if (statement == null) return missingStatement(parser);
+
+            Node result = new Node(NodeType.LABELED_STATEMENT, token.getOffset());
+            result.setLiteral(token.getLexeme());
+            result.setChildren(List.of(statement));
+            return result;
         }
 
         return null;
     }
 
+    private static Node missingStatement(Parser parser) {
+        return parser.error("Expected a statement after label.", "Statement", "A label must be followed by a statement.");
+    }
+
 }
@@ -3,7 +3,7 @@ package com.monac.compiler.parser.rules.statement;
 import com.monac.compiler.lexer.Token;
 import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
-import com.monac.compiler.parser.ParserException;
+import com.monac.compiler.parser.TokenSet;
 import com.monac.compiler.parser.rules.expression.Expression;
 import com.monac.compiler.parser.tree.Node;
 import com.monac.compiler.parser.tree.NodeType;
@@ -16,6 +16,9 @@ public final class SelectionStatement {
     //| if ( <expression> ) <statement> else <statement>
     //| switch ( <expression> ) <statement>
 
+    // switch is not supported yet
+    public static final TokenSet FIRST = TokenSet.of(TokenType.IF);
+
     public static Node parse(Parser parser) {
 
         // Try parsing if
@@ -28,52 +31,26 @@ public final class SelectionStatement {
                         Node stmt = Statement.parse(parser);
                         if (stmt != null) {
 
-                            Node result = new Node(NodeType.SELECTION_STATEMENT, ifToken.getLine(), ifToken.getColumn());
+                            Node result = new Node(NodeType.SELECTION_STATEMENT, ifToken.getOffset());
                             result.setLiteral(ifToken.getLexeme());
                             result.setChildren(List.of(expr, stmt));
                             return result;
 
                         }
-                        return null; // To minimize cascading error reports
+                        return parser.error("Expected a statement after 'if (...)'.",
+                                "Statement",
+                                "Add a statement or a block for the condition.");
                     } else {
-                        Token actual = parser.peek();
-                        parser.addError(new ParserException(
-                                "",
-                                actual.getLine(),
-                                actual.getColumn(),
-                                actual.getLexeme(),
-                                "",
-                                ""
-                        ));
-                        parser.synchronize();
+                        return parser.error("Expecting ')' after expression.", ")", "Close the condition with ')'.");
                     }
                 } else {
-                    Token actual = parser.peek();
-                    parser.addError(new ParserException(
-                            "",
-                            actual.getLine(),
-                            actual.getColumn(),
-                            actual.getLexeme(),
-                            "",
-                            ""
-                    ));
-                    parser.synchronize();
+                    return parser.error("Expected an expression after 'if ('.", "Expression", "");
                 }
             } else {
-                Token actual = parser.peek();
-                parser.addError(new ParserException(
-                        "",
-                        actual.getLine(),
-                        actual.getColumn(),
-                        actual.getLexeme(),
-                        "",
-                        ""
-                ));
-                parser.synchronize();
+                return parser.error("Expecting '(' after 'if' keyword.", "(", "Put the condition in parentheses.");
             }
         }
 
-
         return null;
     }
 }
@@ -1,6 +1,8 @@
 package com.monac.compiler.parser.rules.statement;
 
+import com.monac.compiler.lexer.TokenType;
 import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.TokenSet;
 import com.monac.compiler.parser.tree.Node;
 
 public final class Statement {
@@ -12,18 +14,33 @@ public final class Statement {
     //| <iteration-statement>
     //| <jump-statement>
 
-    public static Node parse(Parser parser) {
-
-        Node cs = CompoundStatement.parse(parser);
-        if (cs != null) return cs;
-
-        Node ss = SelectionStatement.parse(parser);
-        if (ss != null) return ss;
+    // The FIRST sets of the alternatives are disjoint, so the next token picks one. Only an
+    // identifier can start both a label and an expression, the token after it decides.
+    public static final TokenSet FIRST = LabeledStatement.FIRST
+            .union(CompoundStatement.FIRST)
+            .union(SelectionStatement.FIRST)
+            .union(IterationStatement.FIRST)
+            .union(JumpStatement.FIRST)
+            .union(ExpressionStatement.FIRST);
 
-        Node js = JumpStatement.parse(parser);
-        if (js != null) return js;
+    public static Node parse(Parser parser) {
+        if (!parser.enter()) return null;
+        try {
+            return parseAlternative(parser);
+        } finally {
+            parser.leave();
+        }
+    }
 
-        return ExpressionStatement.parse(parser);
+    private static Node parseAlternative(Parser parser) {
+        if (parser.check(LabeledStatement.FIRST)) return LabeledStatement.parse(parser);
+        if (parser.check(TokenType.IDENTIFIER) && parser.peekType(1) == TokenType.COLON) return LabeledStatement.parse(parser);
+        if (parser.check(CompoundStatement.FIRST)) return CompoundStatement.parse(parser);
+        if (parser.check(SelectionStatement.FIRST)) return SelectionStatement.parse(parser);
+        if (parser.check(IterationStatement.FIRST)) return IterationStatement.parse(parser);
+        if (parser.check(JumpStatement.FIRST)) return JumpStatement.parse(parser);
+        if (parser.check(ExpressionStatement.FIRST)) return ExpressionStatement.parse(parser);
+        return null;
     }
 
 }
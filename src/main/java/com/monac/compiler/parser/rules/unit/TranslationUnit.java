@@ -1,6 +1,8 @@
 package com.monac.compiler.parser.rules.unit;
 
 import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.TokenSet;
+import com.monac.compiler.parser.rules.declaration.Declaration;
 import com.monac.compiler.parser.rules.declaration.ExternalDeclaration;
 import com.monac.compiler.parser.tree.Node;
 import com.monac.compiler.parser.tree.NodeType;
@@ -26,11 +28,15 @@ import java.util.List;
  */
 public final class TranslationUnit {
 
+    // After an error, parsing resumes at the next token that can only start a declaration
+    public static final TokenSet RECOVERY = Declaration.FIRST;
+
     /**
      * Parses a translation unit from the given parser.
      *
      * <p>Extracts all external declarations found in the source file.
-     * If no valid external declarations are present, it returns {@code null}.</p>
+     * If no valid external declarations are present, it returns {@code null}.
+     * A declaration that fails is reported and left out, and parsing goes on with the next one.</p>
      *
      * @param parser The parser instance used to extract tokens.
      * @return A {@link Node} representing the parsed translation unit,
@@ -40,20 +46,18 @@ public final class TranslationUnit {
         List<Node> children = new ArrayList<>();
 
         // Parse all external declarations in the file
-        Node externalDeclaration;
-        while ((externalDeclaration = ExternalDeclaration.parse(parser)) != null) {
-            children.add(externalDeclaration);
+        while (!parser.isAtEnd()) {
+            int start = parser.position();
+            Node externalDeclaration = parser.check(ExternalDeclaration.FIRST) ? ExternalDeclaration.parse(parser) : null;
+            if (externalDeclaration != null) children.add(externalDeclaration);
+            else parser.recover(start, RECOVERY);
         }
 
         // If no valid declarations are found, return null
         if (children.isEmpty()) return null;
 
         // Create a root node representing the translation unit
-        Node result = new Node(
-                NodeType.TRANSLATION_UNIT,
-                children.getFirst().getLine(),
-                children.getLast().getLine()
-        );
+        Node result = new Node(NodeType.TRANSLATION_UNIT, children.getFirst().getOffset());
         result.setChildren(children);
 
         return result;
@@ -0,0 +1,334 @@
+package com.monac.compiler.parser.tree;
+
+import com.monac.compiler.lexer.TokenBuffer;
+import com.monac.compiler.lexer.TokenType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact, struct-of-arrays storage for a parse tree.
+ *
+ * <p>Instead of one {@link Node} object, with its children list, per node, the tree keeps the
+ * type ordinal, parent, first child, next sibling and token of every node in parallel primitive
+ * arrays, indexed by a node handle. Every node the parsers build starts at a token and takes its
+ * literal and value from that token, so the offset, literal and value are not stored but read
+ * from the {@link TokenBuffer} the tree was parsed from; two flags per node say whether it has a
+ * literal and a value at all.</p>
+ *
+ * <p>Nodes are stored in preorder, the root is handle {@code 0} and the subtree of a node is the
+ * range from its handle up to the handle after its last descendant, so a pass over the whole tree
+ * is a loop over the arrays. The arrays grow with the tree and are trimmed to size when it is
+ * built; dropping the tree frees all its nodes at once. {@link Cursor} walks the tree without
+ * allocating, and {@link #toNode(int)} materializes a subtree for code written against
+ * {@link Node}.</p>
+ */
+public final class FlatTree {
+
+    public static final int NONE = -1;
+
+    private static final NodeType[] TYPES = NodeType.values();
+    private static final int INITIAL_CAPACITY = 256;
+
+    // Flags
+    private static final byte LITERAL = 1;
+    private static final byte VALUE = 2;
+
+    private final TokenBuffer tokens;
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+    private int[] parents = new int[INITIAL_CAPACITY];
+    private int[] firstChildren = new int[INITIAL_CAPACITY];
+    private int[] nextSiblings = new int[INITIAL_CAPACITY];
+    private int[] nodeTokens = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    private FlatTree(TokenBuffer tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * Copies a tree built by the parsers from {@code tokens}. Function bodies a {@link LazyNode}
+     * has not parsed yet are parsed, and {@code null} children are left out. The {@link Node}
+     * tree can be dropped afterwards.
+     *
+     * @throws IllegalArgumentException When a node does not start at a token of {@code tokens}.
+     */
+    public static FlatTree of(Node root, TokenBuffer tokens) {
+        FlatTree tree = new FlatTree(tokens);
+        if (root == null) return tree;
+
+        // Pairs of a node and its parent's handle; a node is linked to the sibling added last under the same parent
+        List<Node> pending = new ArrayList<>();
+        int[] pendingParents = new int[INITIAL_CAPACITY];
+        int[] lastChildren = new int[INITIAL_CAPACITY];
+        pending.add(root);
+        pendingParents[0] = NONE;
+        while (!pending.isEmpty()) {
+            int parent = pendingParents[pending.size() - 1];
+            Node node = pending.removeLast();
+            int handle = tree.add(node, parent);
+            if (handle == lastChildren.length) lastChildren = Arrays.copyOf(lastChildren, handle * 2);
+            lastChildren[handle] = NONE;
+            if (parent != NONE) {
+                if (lastChildren[parent] == NONE) tree.firstChildren[parent] = handle;
+                else tree.nextSiblings[lastChildren[parent]] = handle;
+                lastChildren[parent] = handle;
+            }
+
+            List<Node> children = node.getChildren();
+            if (children == null) continue;
+            for (int i = children.size() - 1; i >= 0; i--) { // Reversed, the first child is taken next
+                Node child = children.get(i);
+                if (child == null) continue;
+                if (pending.size() == pendingParents.length) pendingParents = Arrays.copyOf(pendingParents, pending.size() * 2);
+                pendingParents[pending.size()] = handle;
+                pending.add(child);
+            }
+        }
+        tree.trim();
+        return tree;
+    }
+
+    private int add(Node node, int parent) {
+        int token = tokenAt(node.getOffset());
+        if (token == NONE) throw new IllegalArgumentException("No token starts at offset " + node.getOffset() + " of " + node.getType());
+        if (size == types.length) grow();
+        types[size] = (byte) node.getType().ordinal();
+        flags[size] = (byte) ((node.getLiteral() != null ? LITERAL : 0) | (node.getValue() != 0 ? VALUE : 0));
+        parents[size] = parent;
+        firstChildren[size] = NONE;
+        nextSiblings[size] = NONE;
+        nodeTokens[size] = token;
+        return size++;
+    }
+
+    // Binary search, tokens are in the order of their offsets
+    private int tokenAt(int offset) {
+        int low = 0;
+        int high = tokens.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int start = tokens.start(middle);
+            if (start < offset) low = middle + 1;
+            else if (start > offset) high = middle - 1;
+            else return middle;
+        }
+        return NONE;
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        nodeTokens = Arrays.copyOf(nodeTokens, capacity);
+    }
+
+    private void trim() {
+        types = Arrays.copyOf(types, size);
+        flags = Arrays.copyOf(flags, size);
+        parents = Arrays.copyOf(parents, size);
+        firstChildren = Arrays.copyOf(firstChildren, size);
+        nextSiblings = Arrays.copyOf(nextSiblings, size);
+        nodeTokens = Arrays.copyOf(nodeTokens, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The root's handle, or {@link #NONE} for an empty tree.
+     */
+    public int root() {
+        return size == 0 ? NONE : 0;
+    }
+
+    public TokenBuffer getTokens() {
+        return tokens;
+    }
+
+    /**
+     * @return Bytes taken by the arrays of the tree, not counting the tokens it shares.
+     */
+    public long memoryUsage() {
+        return (long) size * (2 * Byte.BYTES + 4 * Integer.BYTES);
+    }
+
+    // Accessors by handle
+
+    public NodeType type(int node) {
+        return TYPES[types[node]];
+    }
+
+    public int parent(int node) {
+        return parents[node];
+    }
+
+    public int firstChild(int node) {
+        return firstChildren[node];
+    }
+
+    public int nextSibling(int node) {
+        return nextSiblings[node];
+    }
+
+    /**
+     * @return The handle after the last descendant of the node, the end of its subtree.
+     */
+    public int end(int node) {
+        for (int current = node; current != NONE; current = parents[current]) {
+            if (nextSiblings[current] != NONE) return nextSiblings[current];
+        }
+        return size;
+    }
+
+    public int childCount(int node) {
+        int count = 0;
+        for (int child = firstChildren[node]; child != NONE; child = nextSiblings[child]) count++;
+        return count;
+    }
+
+    /**
+     * @return The index in the {@link TokenBuffer} of the token the node starts at.
+     */
+    public int token(int node) {
+        return nodeTokens[node];
+    }
+
+    public int offset(int node) {
+        return tokens.start(nodeTokens[node]);
+    }
+
+    /**
+     * @return A view of the token's text in the original input, or {@code null} for a node
+     *         without a literal.
+     */
+    public CharSequence literal(int node) {
+        return (flags[node] & LITERAL) == 0 ? null : tokens.lexeme(nodeTokens[node]);
+    }
+
+    /**
+     * @return The symbol id of an identifier, the value of a constant, or {@code 0}.
+     */
+    public long value(int node) {
+        if ((flags[node] & VALUE) == 0) return 0;
+        int token = nodeTokens[node];
+        return tokens.type(token) == TokenType.IDENTIFIER ? tokens.symbol(token) : tokens.value(token);
+    }
+
+    public double doubleValue(int node) {
+        return Double.longBitsToDouble(value(node));
+    }
+
+    /**
+     * Builds {@link Node} objects for the subtree of a node, for code that walks {@link Node}
+     * trees, such as a {@link ParseTreeVisitor}.
+     */
+    public Node toNode(int node) {
+        int end = end(node);
+        Node[] nodes = new Node[end - node];
+        for (int i = node; i < end; i++) { // Parents come before their children
+            Node result = new Node(type(i), offset(i));
+            result.setLiteral(literal(i));
+            result.setValue(value(i));
+            if (i != node) {
+                Node parent = nodes[parents[i] - node];
+                if (parent.getChildren() == null) parent.setChildren(new ArrayList<>());
+                parent.getChildren().add(result);
+                result.setParent(parent);
+            }
+            nodes[i - node] = result;
+        }
+        return nodes[0];
+    }
+
+    /**
+     * @return A cursor at the root; the tree must not be empty.
+     */
+    public Cursor cursor() {
+        return new Cursor(root());
+    }
+
+    /**
+     * A position in the tree that moves between related nodes. The moves return false and stay
+     * put when there is no such node.
+     */
+    public final class Cursor {
+
+        private int node;
+
+        private Cursor(int node) {
+            this.node = node;
+        }
+
+        public int node() {
+            return node;
+        }
+
+        public void moveTo(int node) {
+            this.node = node;
+        }
+
+        public boolean toFirstChild() {
+            return move(firstChildren[node]);
+        }
+
+        public boolean toNextSibling() {
+            return move(nextSiblings[node]);
+        }
+
+        public boolean toParent() {
+            return move(parents[node]);
+        }
+
+        /**
+         * Moves to the next node in preorder.
+         *
+         * @param subtree Handle of the node whose subtree the walk stays in.
+         */
+        public boolean toNext(int subtree) {
+            if (firstChildren[node] != NONE) return move(firstChildren[node]);
+            for (int current = node; current != subtree; current = parents[current]) {
+                if (nextSiblings[current] != NONE) return move(nextSiblings[current]);
+            }
+            return false;
+        }
+
+        private boolean move(int target) {
+            if (target == NONE) return false;
+            node = target;
+            return true;
+        }
+
+        public NodeType type() {
+            return FlatTree.this.type(node);
+        }
+
+        public int offset() {
+            return FlatTree.this.offset(node);
+        }
+
+        public int token() {
+            return FlatTree.this.token(node);
+        }
+
+        public CharSequence literal() {
+            return FlatTree.this.literal(node);
+        }
+
+        public long value() {
+            return FlatTree.this.value(node);
+        }
+
+        public Cursor copy() {
+            return new Cursor(node);
+        }
+
+    }
+
+}
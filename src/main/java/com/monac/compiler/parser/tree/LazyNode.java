@@ -0,0 +1,43 @@
+package com.monac.compiler.parser.tree;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A node whose children are only parsed when they are first requested.
+ *
+ * <p>Used for function bodies when the parser skips them by brace matching: the node is
+ * created with the offset of the body, and {@code body} parses the skipped tokens into a node
+ * of the same type whose children are then adopted. Until then {@link #isParsed()} is false
+ * and walking the tree past this node costs nothing.</p>
+ */
+public final class LazyNode extends Node {
+
+    private Supplier<Node> body;
+
+    public LazyNode(NodeType type, int offset, Supplier<Node> body) {
+        super(type, offset);
+        this.body = body;
+    }
+
+    public synchronized boolean isParsed() {
+        return body == null;
+    }
+
+    @Override
+    public synchronized List<Node> getChildren() {
+        if (body != null) {
+            Node parsed = body.get();
+            body = null;
+            super.setChildren(parsed == null ? null : parsed.getChildren()); // Errors went to the parser
+        }
+        return super.getChildren();
+    }
+
+    @Override
+    public synchronized void setChildren(List<Node> children) {
+        body = null;
+        super.setChildren(children);
+    }
+
+}
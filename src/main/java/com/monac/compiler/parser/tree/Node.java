@@ -1,25 +1,27 @@
 package com.monac.compiler.parser.tree;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class Node {
 
     private final NodeType type;
 
-    // Useful for error reporting
-    private final int line;
-    private final int column;
+    // Useful for error reporting, resolve to line and column through the source's LineIndex
+    private int offset;
 
     // Optional, actual value
     private Object literal;
 
+    // Value of a constant, kept primitive; floating constants store the raw bits of a double
+    private long value;
+
     private Node parent;
     private List<Node> children;
 
-    public Node(NodeType type, int line, int column) {
+    public Node(NodeType type, int offset) {
         this.type = type;
-        this.line = line;
-        this.column = column;
+        this.offset = offset;
     }
 
     // Getters
@@ -28,18 +30,22 @@ public class Node {
         return type;
     }
 
-    public int getLine() {
-        return line;
-    }
-
-    public int getColumn() {
-        return column;
+    public int getOffset() {
+        return offset;
     }
 
     public Object getLiteral() {
         return literal;
     }
 
+    public long getValue() {
+        return value;
+    }
+
+    public double getDoubleValue() {
+        return Double.longBitsToDouble(value);
+    }
+
     public Node getParent() {
         return parent;
     }
@@ -54,6 +60,10 @@ public class Node {
         this.literal = literal;
     }
 
+    public void setValue(long value) {
+        this.value = value;
+    }
+
     public void setParent(Node parent) {
         this.parent = parent;
     }
@@ -62,6 +72,24 @@ public class Node {
         this.children = children;
     }
 
+    /**
+     * Moves the offsets of this node and all its descendants, for a subtree that is kept after
+     * an edit before it. Children that were never requested, like an unparsed {@link LazyNode}
+     * body, are left alone.
+     */
+    public void shift(int delta) {
+        List<Node> pending = new ArrayList<>();
+        pending.add(this);
+        while (!pending.isEmpty()) {
+            Node node = pending.removeLast();
+            node.offset += delta;
+            if (node.children == null) continue;
+            for (Node child : node.children) {
+                if (child != null) pending.add(child);
+            }
+        }
+    }
+
     // Method for accepting visitors
 
     public void accept(ParseTreeVisitor parseTreeVisitor) {
@@ -11,12 +11,16 @@ public enum NodeType {
     CONSTANT,
 
     INTEGER_CONSTANT,
+    FLOATING_CONSTANT,
+    CHARACTER_CONSTANT,
 
     COMPOUND_STATEMENT,
     SELECTION_STATEMENT,
 
     IDENTIFIER,
 
+    STRING,
+
     UNARY_EXPRESSION,
 
     TYPE_QUALIFIER,
@@ -46,6 +50,9 @@ public enum NodeType {
     ASSIGNMENT_OPERATOR,
 
     TYPE_SPECIFIER,
+    STORAGE_CLASS_SPECIFIER,
+    TYPE_NAME,
+    CAST_EXPRESSION,
 
     FUNCTION_DEFINITION,
     DIRECT_DECLARATOR,
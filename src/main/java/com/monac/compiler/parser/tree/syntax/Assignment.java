@@ -0,0 +1,7 @@
+package com.monac.compiler.parser.tree.syntax;
+
+/**
+ * @param offset Offset of the target.
+ */
+public record Assignment(int offset, AssignmentOperator operator, Expression target, Expression value) implements Expression {
+}
@@ -0,0 +1,43 @@
+package com.monac.compiler.parser.tree.syntax;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public enum AssignmentOperator {
+
+    ASSIGN("="),
+    MULTIPLY("*="),
+    DIVIDE("/="),
+    MODULO("%="),
+    ADD("+="),
+    SUBTRACT("-="),
+    SHIFT_LEFT("<<="),
+    SHIFT_RIGHT(">>="),
+    AND("&="),
+    EXCLUSIVE_OR("^="),
+    INCLUSIVE_OR("|=");
+
+    private static final Map<String, AssignmentOperator> BY_SPELLING = new HashMap<>();
+
+    static {
+        for (AssignmentOperator operator : values()) BY_SPELLING.put(operator.spelling, operator);
+    }
+
+    private final String spelling;
+
+    AssignmentOperator(String spelling) {
+        this.spelling = spelling;
+    }
+
+    public String getSpelling() {
+        return spelling;
+    }
+
+    /**
+     * @return The operator, or {@code null} for a spelling that is none.
+     */
+    public static AssignmentOperator of(CharSequence spelling) {
+        return BY_SPELLING.get(spelling.toString());
+    }
+
+}
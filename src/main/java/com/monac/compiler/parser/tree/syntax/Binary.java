@@ -0,0 +1,7 @@
+package com.monac.compiler.parser.tree.syntax;
+
+/**
+ * @param offset Offset of the operator.
+ */
+public record Binary(int offset, BinaryOperator operator, Expression left, Expression right) implements Expression {
+}
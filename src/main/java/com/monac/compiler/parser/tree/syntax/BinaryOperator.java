@@ -0,0 +1,62 @@
+package com.monac.compiler.parser.tree.syntax;
+
+import com.monac.compiler.parser.tree.NodeType;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public enum BinaryOperator {
+
+    COMMA(",", NodeType.EXPRESSION),
+    LOGICAL_OR("||", NodeType.LOGICAL_OR_EXPRESSION),
+    LOGICAL_AND("&&", NodeType.LOGICAL_AND_EXPRESSION),
+    INCLUSIVE_OR("|", NodeType.INCLUSIVE_OR_EXPRESSION),
+    EXCLUSIVE_OR("^", NodeType.EXCLUSIVE_OR_EXPRESSION),
+    AND("&", NodeType.AND_EXPRESSION),
+    EQUAL("==", NodeType.EQUALITY_EXPRESSION),
+    NOT_EQUAL("!=", NodeType.EQUALITY_EXPRESSION),
+    LESS("<", NodeType.RELATIONAL_EXPRESSION),
+    GREATER(">", NodeType.RELATIONAL_EXPRESSION),
+    LESS_OR_EQUAL("<=", NodeType.RELATIONAL_EXPRESSION),
+    GREATER_OR_EQUAL(">=", NodeType.RELATIONAL_EXPRESSION),
+    SHIFT_LEFT("<<", NodeType.SHIFT_EXPRESSION),
+    SHIFT_RIGHT(">>", NodeType.SHIFT_EXPRESSION),
+    ADD("+", NodeType.ADDITIVE_EXPRESSION),
+    SUBTRACT("-", NodeType.ADDITIVE_EXPRESSION),
+    MULTIPLY("*", NodeType.MULTIPLICATIVE_EXPRESSION),
+    DIVIDE("/", NodeType.MULTIPLICATIVE_EXPRESSION),
+    MODULO("%", NodeType.MULTIPLICATIVE_EXPRESSION);
+
+    private static final Map<String, BinaryOperator> BY_SPELLING = new HashMap<>();
+
+    static {
+        for (BinaryOperator operator : values()) BY_SPELLING.put(operator.spelling, operator);
+    }
+
+    private final String spelling;
+    private final NodeType nodeType;
+
+    BinaryOperator(String spelling, NodeType nodeType) {
+        this.spelling = spelling;
+        this.nodeType = nodeType;
+    }
+
+    public String getSpelling() {
+        return spelling;
+    }
+
+    /**
+     * @return The type of the {@code Node} the parsers build for the operator.
+     */
+    public NodeType getNodeType() {
+        return nodeType;
+    }
+
+    /**
+     * @return The operator, or {@code null} for a spelling that is none.
+     */
+    public static BinaryOperator of(CharSequence spelling) {
+        return BY_SPELLING.get(spelling.toString());
+    }
+
+}
@@ -0,0 +1,7 @@
+package com.monac.compiler.parser.tree.syntax;
+
+/**
+ * What a compound statement holds: declarations, then statements.
+ */
+public sealed interface BlockItem extends Syntax permits Statement, Declaration {
+}
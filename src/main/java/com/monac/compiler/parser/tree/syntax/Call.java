@@ -0,0 +1,15 @@
+package com.monac.compiler.parser.tree.syntax;
+
+import java.util.List;
+
+/**
+ * A function call. The parsers keep only the arguments, the offset is that of the called
+ * expression.
+ */
+public record Call(int offset, List<Expression> arguments) implements Expression {
+
+    public Call {
+        arguments = List.copyOf(arguments);
+    }
+
+}
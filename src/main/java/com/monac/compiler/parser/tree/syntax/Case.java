@@ -0,0 +1,4 @@
+package com.monac.compiler.parser.tree.syntax;
+
+public record Case(int offset, Expression value, Statement statement) implements Statement {
+}
@@ -0,0 +1,4 @@
+package com.monac.compiler.parser.tree.syntax;
+
+public record Cast(int offset, TypeName type, Expression operand) implements Expression {
+}
@@ -0,0 +1,4 @@
+package com.monac.compiler.parser.tree.syntax;
+
+public record CharacterConstant(int offset, long value) implements Expression {
+}
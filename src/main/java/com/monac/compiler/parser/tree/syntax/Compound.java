@@ -0,0 +1,11 @@
+package com.monac.compiler.parser.tree.syntax;
+
+import java.util.List;
+
+public record Compound(int offset, List<BlockItem> items) implements Statement {
+
+    public Compound {
+        items = List.copyOf(items);
+    }
+
+}
@@ -0,0 +1,7 @@
+package com.monac.compiler.parser.tree.syntax;
+
+/**
+ * @param offset Offset of the {@code ?}.
+ */
+public record Conditional(int offset, Expression condition, Expression consequent, Expression alternative) implements Expression {
+}
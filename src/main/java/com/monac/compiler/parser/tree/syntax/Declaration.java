@@ -0,0 +1,13 @@
+package com.monac.compiler.parser.tree.syntax;
+
+import java.util.List;
+
+public record Declaration(int offset, List<Specifier> specifiers, List<InitDeclarator> declarators)
+        implements BlockItem, ExternalDeclaration {
+
+    public Declaration {
+        specifiers = List.copyOf(specifiers);
+        declarators = List.copyOf(declarators);
+    }
+
+}
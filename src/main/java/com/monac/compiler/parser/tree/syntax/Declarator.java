@@ -0,0 +1,4 @@
+package com.monac.compiler.parser.tree.syntax;
+
+public sealed interface Declarator extends Syntax permits Identifier, FunctionDeclarator {
+}
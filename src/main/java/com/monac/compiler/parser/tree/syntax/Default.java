@@ -0,0 +1,4 @@
+package com.monac.compiler.parser.tree.syntax;
+
+public record Default(int offset, Statement statement) implements Statement {
+}
@@ -0,0 +1,4 @@
+package com.monac.compiler.parser.tree.syntax;
+
+public record DoWhile(int offset, Statement body, Expression condition) implements Statement {
+}
@@ -0,0 +1,8 @@
+package com.monac.compiler.parser.tree.syntax;
+
+/**
+ * An expression. Parentheses are not kept, the tree already groups the operands.
+ */
+public sealed interface Expression extends Statement permits Identifier, IntegerConstant, CharacterConstant,
+        FloatingConstant, StringLiteral, Binary, Assignment, Conditional, Unary, SizeofType, Cast, Call {
+}
@@ -0,0 +1,4 @@
+package com.monac.compiler.parser.tree.syntax;
+
+public sealed interface ExternalDeclaration extends Syntax permits FunctionDefinition, Declaration {
+}
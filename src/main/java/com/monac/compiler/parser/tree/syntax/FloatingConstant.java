@@ -0,0 +1,4 @@
+package com.monac.compiler.parser.tree.syntax;
+
+public record FloatingConstant(int offset, double value) implements Expression {
+}
@@ -0,0 +1,15 @@
+package com.monac.compiler.parser.tree.syntax;
+
+import java.util.List;
+
+/**
+ * @param clauses The initialization, condition and step that are there, in this order; the
+ *                parsers do not record which ones were left out.
+ */
+public record For(int offset, List<Expression> clauses, Statement body) implements Statement {
+
+    public For {
+        clauses = List.copyOf(clauses);
+    }
+
+}
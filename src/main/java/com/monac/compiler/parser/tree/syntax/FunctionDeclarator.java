@@ -0,0 +1,11 @@
+package com.monac.compiler.parser.tree.syntax;
+
+import java.util.List;
+
+public record FunctionDeclarator(int offset, Declarator declarator, List<Parameter> parameters) implements Declarator {
+
+    public FunctionDeclarator {
+        parameters = List.copyOf(parameters);
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.monac.compiler.parser.tree.syntax;
+
+import java.util.List;
+
+/**
+ * @param parameterDeclarations Declarations between the declarator and the body, which give the
+ *                              types of old style parameters.
+ */
+public record FunctionDefinition(int offset, List<Specifier> specifiers, Declarator declarator,
+                                 List<Declaration> parameterDeclarations, Compound body) implements ExternalDeclaration {
+
+    public FunctionDefinition {
+        specifiers = List.copyOf(specifiers);
+        parameterDeclarations = List.copyOf(parameterDeclarations);
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.monac.compiler.parser.tree.syntax;
+
+/**
+ * A name, as an operand, a declarator, a label or a typedef name.
+ *
+ * @param symbol The {@code SymbolTable} id of the name.
+ */
+public record Identifier(int offset, String name, int symbol) implements Expression, Specifier, Declarator, Parameter {
+}
@@ -0,0 +1,4 @@
+package com.monac.compiler.parser.tree.syntax;
+
+public record If(int offset, Expression condition, Statement then) implements Statement {
+}
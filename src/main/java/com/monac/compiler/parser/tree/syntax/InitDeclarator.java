@@ -0,0 +1,7 @@
+package com.monac.compiler.parser.tree.syntax;
+
+/**
+ * @param initializer The expression after {@code =}, or {@code null}.
+ */
+public record InitDeclarator(int offset, Declarator declarator, Expression initializer) implements Syntax {
+}
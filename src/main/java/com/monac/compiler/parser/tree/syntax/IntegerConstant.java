@@ -0,0 +1,4 @@
+package com.monac.compiler.parser.tree.syntax;
+
+public record IntegerConstant(int offset, long value) implements Expression {
+}
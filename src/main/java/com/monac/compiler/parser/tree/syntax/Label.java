@@ -0,0 +1,4 @@
+package com.monac.compiler.parser.tree.syntax;
+
+public record Label(int offset, Identifier label, Statement statement) implements Statement {
+}
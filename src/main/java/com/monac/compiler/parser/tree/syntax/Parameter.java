@@ -0,0 +1,8 @@
+package com.monac.compiler.parser.tree.syntax;
+
+/**
+ * A parameter of a function declarator: a declaration, or only a name in the old style
+ * {@code f(a, b)}.
+ */
+public sealed interface Parameter extends Syntax permits ParameterDeclaration, Identifier {
+}
@@ -0,0 +1,7 @@
+package com.monac.compiler.parser.tree.syntax;
+
+/**
+ * @param declarator The declarator, or {@code null} for a parameter given only by its type.
+ */
+public record ParameterDeclaration(int offset, Specifier specifier, Declarator declarator) implements Parameter {
+}
@@ -0,0 +1,7 @@
+package com.monac.compiler.parser.tree.syntax;
+
+/**
+ * @param value The returned expression, or {@code null}.
+ */
+public record Return(int offset, Expression value) implements Statement {
+}
@@ -0,0 +1,7 @@
+package com.monac.compiler.parser.tree.syntax;
+
+/**
+ * {@code sizeof} applied to a parenthesized type name rather than to an expression.
+ */
+public record SizeofType(int offset, TypeName type) implements Expression {
+}
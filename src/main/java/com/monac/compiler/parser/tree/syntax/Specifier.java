@@ -0,0 +1,8 @@
+package com.monac.compiler.parser.tree.syntax;
+
+/**
+ * A declaration specifier. A typedef name used as a type is an {@link Identifier}.
+ */
+public sealed interface Specifier extends Syntax permits StorageClassSpecifier, TypeSpecifier, TypeQualifier,
+        Identifier {
+}
@@ -0,0 +1,8 @@
+package com.monac.compiler.parser.tree.syntax;
+
+/**
+ * A statement. An expression statement is its expression.
+ */
+public sealed interface Statement extends BlockItem permits Expression, Compound, If, While, DoWhile, For,
+        Return, Label, Case, Default {
+}
@@ -0,0 +1,9 @@
+package com.monac.compiler.parser.tree.syntax;
+
+public record StorageClassSpecifier(int offset, Kind kind) implements Specifier {
+
+    public enum Kind {
+        TYPEDEF
+    }
+
+}
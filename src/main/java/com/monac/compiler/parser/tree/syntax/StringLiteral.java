@@ -0,0 +1,7 @@
+package com.monac.compiler.parser.tree.syntax;
+
+/**
+ * @param text The string as written, quotes and escapes included.
+ */
+public record StringLiteral(int offset, String text) implements Expression {
+}
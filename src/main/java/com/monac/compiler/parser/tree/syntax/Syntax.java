@@ -0,0 +1,32 @@
+package com.monac.compiler.parser.tree.syntax;
+
+import com.monac.compiler.parser.tree.Node;
+
+/**
+ * A typed, immutable parse tree, one record per kind of node.
+ *
+ * <p>Where a {@link Node} keeps its operator or keyword as an {@code Object} literal and its
+ * operands in a list, these records keep operators and keywords as enums, constants as primitives
+ * and operands in fields of their own, so a consumer switches over the sealed types instead of
+ * checking the node type and casting. Lists remain where the grammar repeats: the declarations of
+ * a translation unit, the items of a block, specifiers, parameters and arguments.</p>
+ *
+ * <p>Nodes that only wrap or chain others are left out: a declaration specifier is its
+ * specifier, and a parameter list is the list of its parameters.</p>
+ */
+public sealed interface Syntax permits BlockItem, ExternalDeclaration, Specifier, Declarator, Parameter,
+        TranslationUnit, InitDeclarator, TypeName {
+
+    int offset();
+
+    /**
+     * Builds the typed tree for a tree built by the parsers. Function bodies a lazy node has not
+     * parsed yet are parsed.
+     *
+     * @throws IllegalArgumentException For a node of a type the parsers do not build.
+     */
+    static Syntax of(Node root) {
+        return SyntaxBuilder.build(root);
+    }
+
+}
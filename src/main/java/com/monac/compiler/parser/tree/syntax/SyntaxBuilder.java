@@ -0,0 +1,186 @@
+package com.monac.compiler.parser.tree.syntax;
+
+import com.monac.compiler.parser.tree.Node;
+import com.monac.compiler.parser.tree.NodeType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Converts a {@link Node} tree into {@link Syntax} records.
+ *
+ * <p>The nodes are listed children first and converted in that order without recursion, as
+ * generated trees can be deep; the values of the children wait on a stack for their parent. A
+ * value is a record, or for the nodes that are left out an {@link AssignmentOperator} or a list
+ * of parameters.</p>
+ */
+final class SyntaxBuilder {
+
+    private SyntaxBuilder() {
+    }
+
+    static Syntax build(Node root) {
+        // Children are listed after their parent from the last to the first, so the list read
+        // backwards has every child, first to last, before its parent
+        List<Node> order = new ArrayList<>();
+        List<Node> pending = new ArrayList<>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.removeLast();
+            order.add(node);
+            List<Node> children = node.getChildren();
+            if (children == null) continue;
+            for (Node child : children) {
+                if (child != null) pending.add(child);
+            }
+        }
+
+        List<Object> values = new ArrayList<>();
+        for (int i = order.size() - 1; i >= 0; i--) {
+            Node node = order.get(i);
+            List<Node> nodes = children(node);
+            Object[] children = new Object[nodes.size()];
+            for (int c = children.length - 1; c >= 0; c--) children[c] = values.removeLast();
+            values.add(build(node, nodes, children));
+        }
+        return (Syntax) values.getFirst();
+    }
+
+    // Children that are there, nulls left out
+    private static List<Node> children(Node node) {
+        List<Node> children = node.getChildren();
+        if (children == null) return List.of();
+        for (Node child : children) {
+            if (child == null) { // Immutable lists reject contains(null)
+                List<Node> present = new ArrayList<>(children);
+                present.removeIf(Objects::isNull);
+                return present;
+            }
+        }
+        return children;
+    }
+
+    private static Object build(Node node, List<Node> nodes, Object[] children) {
+        int offset = node.getOffset();
+        return switch (node.getType()) {
+            case IDENTIFIER -> new Identifier(offset, text(node), (int) node.getValue());
+            case INTEGER_CONSTANT -> new IntegerConstant(offset, node.getValue());
+            case CHARACTER_CONSTANT -> new CharacterConstant(offset, node.getValue());
+            case FLOATING_CONSTANT -> new FloatingConstant(offset, node.getDoubleValue());
+            case STRING -> new StringLiteral(offset, text(node));
+
+            case EXPRESSION, LOGICAL_OR_EXPRESSION, LOGICAL_AND_EXPRESSION, INCLUSIVE_OR_EXPRESSION,
+                 EXCLUSIVE_OR_EXPRESSION, AND_EXPRESSION, EQUALITY_EXPRESSION, RELATIONAL_EXPRESSION,
+                 SHIFT_EXPRESSION, ADDITIVE_EXPRESSION, MULTIPLICATIVE_EXPRESSION ->
+                    new Binary(offset, operator(BinaryOperator.of(text(node)), node),
+                            (Expression) children[0], (Expression) children[1]);
+            case ASSIGNMENT_OPERATOR -> operator(AssignmentOperator.of(text(node)), node);
+            case ASSIGNMENT_EXPRESSION ->
+                    new Assignment(offset, (AssignmentOperator) children[1], (Expression) children[0], (Expression) children[2]);
+            case CONDITIONAL_EXPRESSION ->
+                    new Conditional(offset, (Expression) children[0], (Expression) children[1], (Expression) children[2]);
+            case UNARY_EXPRESSION -> children[0] instanceof TypeName type
+                    ? new SizeofType(offset, type)
+                    : new Unary(offset, operator(UnaryOperator.of(text(node)), node), (Expression) children[0]);
+            case CAST_EXPRESSION -> new Cast(offset, (TypeName) children[0], (Expression) children[1]);
+            case POSTFIX_EXPRESSION -> new Call(offset, list(children, 0, children.length, Expression.class));
+
+            case COMPOUND_STATEMENT -> new Compound(offset, list(children, 0, children.length, BlockItem.class));
+            case SELECTION_STATEMENT -> new If(offset, (Expression) children[0], (Statement) children[1]);
+            case ITERATOR_STATEMENT -> switch (text(node)) {
+                case "while" -> new While(offset, (Expression) children[0], (Statement) children[1]);
+                case "do" -> new DoWhile(offset, (Statement) children[0], (Expression) children[1]);
+                default -> new For(offset, list(children, 0, children.length - 1, Expression.class),
+                        (Statement) children[children.length - 1]);
+            };
+            case JUMP_STATEMENT -> new Return(offset, children.length == 0 ? null : (Expression) children[0]);
+            case LABELED_STATEMENT -> {
+                if (node.getLiteral() == null) yield new Label(offset, (Identifier) children[0], (Statement) children[1]);
+                if (text(node).equals("case")) yield new Case(offset, (Expression) children[0], (Statement) children[1]);
+                yield new Default(offset, (Statement) children[0]);
+            }
+
+            case TRANSLATION_UNIT -> new TranslationUnit(offset, list(children, 0, children.length, ExternalDeclaration.class));
+            case DECLARATION -> declaration(offset, nodes, children);
+            case FUNCTION_DEFINITION -> functionDefinition(offset, nodes, children);
+            case DECLARATION_SPECIFIER -> children[0];
+            case INIT_DECLARATOR -> new InitDeclarator(offset, (Declarator) children[0], (Expression) children[1]);
+            case DIRECT_DECLARATOR -> new FunctionDeclarator(offset, (Declarator) children[0], parameters(nodes, children, 1));
+            case PARAMETER_TYPE_LIST, PARAMETER_LIST -> parameters(nodes, children, 0);
+            case PARAMETER_DECLARATION ->
+                    new ParameterDeclaration(offset, (Specifier) children[0], (Declarator) children[1]);
+            case TYPE_NAME -> new TypeName(offset, list(children, 0, children.length, Specifier.class));
+            case STORAGE_CLASS_SPECIFIER -> new StorageClassSpecifier(offset, StorageClassSpecifier.Kind.valueOf(keyword(node)));
+            case TYPE_SPECIFIER -> new TypeSpecifier(offset, TypeSpecifier.Kind.valueOf(keyword(node)));
+            case TYPE_QUALIFIER -> new TypeQualifier(offset, TypeQualifier.Kind.valueOf(keyword(node)));
+
+            default -> throw new IllegalArgumentException(node.getType() + " nodes are not built by the parsers");
+        };
+    }
+
+    // Specifiers, then the declarators; a declarator without initializer is wrapped for a uniform list
+    private static Declaration declaration(int offset, List<Node> nodes, Object[] children) {
+        int specifiers = specifiers(nodes, 0);
+        List<InitDeclarator> declarators = new ArrayList<>(children.length - specifiers);
+        for (int i = specifiers; i < children.length; i++) {
+            declarators.add(children[i] instanceof InitDeclarator initDeclarator
+                    ? initDeclarator
+                    : new InitDeclarator(nodes.get(i).getOffset(), (Declarator) children[i], null));
+        }
+        return new Declaration(offset, list(children, 0, specifiers, Specifier.class), declarators);
+    }
+
+    // Specifiers, the declarator, the declarations of old style parameters and the body
+    private static FunctionDefinition functionDefinition(int offset, List<Node> nodes, Object[] children) {
+        int specifiers = specifiers(nodes, 0);
+        int body = children.length - 1;
+        return new FunctionDefinition(offset, list(children, 0, specifiers, Specifier.class), (Declarator) children[specifiers],
+                list(children, specifiers + 1, body, Declaration.class), (Compound) children[body]);
+    }
+
+    // End of the run of declaration specifiers from start
+    private static int specifiers(List<Node> nodes, int start) {
+        int end = start;
+        while (end < nodes.size() && nodes.get(end).getType() == NodeType.DECLARATION_SPECIFIER) end++;
+        return end;
+    }
+
+    // Parameter lists are flattened; a parameter given only by its type is a bare declaration specifier
+    private static List<Parameter> parameters(List<Node> nodes, Object[] children, int start) {
+        List<Parameter> parameters = new ArrayList<>();
+        for (int i = start; i < children.length; i++) {
+            Object child = children[i];
+            if (child instanceof List<?> list) {
+                for (Object parameter : list) parameters.add((Parameter) parameter);
+            } else if (nodes.get(i).getType() == NodeType.DECLARATION_SPECIFIER) {
+                Specifier specifier = (Specifier) child;
+                parameters.add(new ParameterDeclaration(specifier.offset(), specifier, null));
+            } else {
+                parameters.add((Parameter) child);
+            }
+        }
+        return parameters;
+    }
+
+    private static <T> List<T> list(Object[] children, int from, int to, Class<T> type) {
+        List<T> list = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) list.add(type.cast(children[i]));
+        return list;
+    }
+
+    private static <T> T operator(T operator, Node node) {
+        if (operator == null) throw new IllegalArgumentException("Unknown operator '" + node.getLiteral() + "' of " + node.getType());
+        return operator;
+    }
+
+    private static String text(Node node) {
+        return node.getLiteral().toString();
+    }
+
+    private static String keyword(Node node) {
+        return text(node).toUpperCase(Locale.ROOT);
+    }
+
+}
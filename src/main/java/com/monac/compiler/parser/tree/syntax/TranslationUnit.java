@@ -0,0 +1,11 @@
+package com.monac.compiler.parser.tree.syntax;
+
+import java.util.List;
+
+public record TranslationUnit(int offset, List<ExternalDeclaration> declarations) implements Syntax {
+
+    public TranslationUnit {
+        declarations = List.copyOf(declarations);
+    }
+
+}
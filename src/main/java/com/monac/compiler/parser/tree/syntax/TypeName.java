@@ -0,0 +1,14 @@
+package com.monac.compiler.parser.tree.syntax;
+
+import java.util.List;
+
+/**
+ * The type of a cast or of {@code sizeof}. Abstract declarators are not parsed yet.
+ */
+public record TypeName(int offset, List<Specifier> specifiers) implements Syntax {
+
+    public TypeName {
+        specifiers = List.copyOf(specifiers);
+    }
+
+}
@@ -0,0 +1,4 @@
+package com.monac.compiler.parser.tree.syntax;
+
+public record Unary(int offset, UnaryOperator operator, Expression operand) implements Expression {
+}
@@ -0,0 +1,42 @@
+package com.monac.compiler.parser.tree.syntax;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The prefix operators. Postfix increment and decrement are not parsed yet.
+ */
+public enum UnaryOperator {
+
+    INCREMENT("++"),
+    DECREMENT("--"),
+    SIZEOF("sizeof"),
+    ADDRESS("&"),
+    DEREFERENCE("*"),
+    PLUS("+"),
+    MINUS("-");
+
+    private static final Map<String, UnaryOperator> BY_SPELLING = new HashMap<>();
+
+    static {
+        for (UnaryOperator operator : values()) BY_SPELLING.put(operator.spelling, operator);
+    }
+
+    private final String spelling;
+
+    UnaryOperator(String spelling) {
+        this.spelling = spelling;
+    }
+
+    public String getSpelling() {
+        return spelling;
+    }
+
+    /**
+     * @return The operator, or {@code null} for a spelling that is none.
+     */
+    public static UnaryOperator of(CharSequence spelling) {
+        return BY_SPELLING.get(spelling.toString());
+    }
+
+}
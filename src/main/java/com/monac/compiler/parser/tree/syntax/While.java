@@ -0,0 +1,4 @@
+package com.monac.compiler.parser.tree.syntax;
+
+public record While(int offset, Expression condition, Statement body) implements Statement {
+}
@@ -0,0 +1,74 @@
+package com.monac.compiler.preprocessor;
+
+import com.monac.compiler.lexer.Source;
+import com.monac.compiler.lexer.TokenBuffer;
+import com.monac.compiler.lexer.TokenType;
+
+/**
+ * Finds directive lines in a token buffer.
+ *
+ * <p>The lexer treats line breaks as whitespace, so lines are recovered from the gaps between
+ * tokens: a directive is a {@code #} that starts a line, and it ends before the first token
+ * that follows a line break. A line break inside a block comment does not end the line, the
+ * comment counts as a single space, and one right after a backslash is spliced away, so a
+ * directive such as a long {@code #define} may continue on the next line.</p>
+ */
+final class Directives {
+
+    private Directives() {
+    }
+
+    /**
+     * @return Whether token {@code index} is a {@code #} that starts a directive.
+     */
+    static boolean isDirective(TokenBuffer tokens, int index) {
+        if (tokens.type(index) != TokenType.HASH) return false;
+        return index == 0 || lineBreakBetween(tokens.getInput(), tokens.start(index - 1) + tokens.length(index - 1), tokens.start(index));
+    }
+
+    /**
+     * @return The index of the first token after the line that holds token {@code index}.
+     */
+    static int lineEnd(TokenBuffer tokens, int index) {
+        Source input = tokens.getInput();
+        int next = index + 1;
+        while (tokens.type(next) != TokenType.EOF
+                && !lineBreakBetween(input, tokens.start(next - 1) + tokens.length(next - 1), tokens.start(next))) {
+            next++;
+        }
+        return next;
+    }
+
+    /**
+     * @param hash Index of the {@code #} of a directive.
+     * @return The directive name, or an empty string for a null directive.
+     */
+    static String name(TokenBuffer tokens, int hash) {
+        int name = hash + 1;
+        if (name >= lineEnd(tokens, hash)) return "";
+        return tokens.lexeme(name).toString(); // Also spells keywords such as if and else
+    }
+
+    // Whether [from, to), which only holds whitespace and comments, contains a line break
+    private static boolean lineBreakBetween(Source input, int from, int to) {
+        for (int position = from; position < to; position++) {
+            char c = input.charAt(position);
+            if (c == '\n' && !isSpliced(input, from, position)) return true;
+            if (c == '/' && position + 1 < to && input.charAt(position + 1) == '/') return true; // Always ends with a line break
+            if (c == '/' && position + 1 < to && input.charAt(position + 1) == '*') {
+                position += 2;
+                while (position + 1 < to && !(input.charAt(position) == '*' && input.charAt(position + 1) == '/')) position++;
+                position++;
+            }
+        }
+        return false;
+    }
+
+    // Whether the line break at position follows a backslash, with at most a carriage return between
+    private static boolean isSpliced(Source input, int from, int position) {
+        int previous = position - 1;
+        if (previous >= from && input.charAt(previous) == '\r') previous--;
+        return previous >= from && input.charAt(previous) == '\\';
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.monac.compiler.preprocessor;
+
+import com.monac.compiler.lexer.TokenBuffer;
+import com.monac.compiler.lexer.TokenType;
+
+import java.nio.file.Path;
+
+/**
+ * A lexed source file, as kept by the {@link HeaderCache}.
+ *
+ * <p>If the whole file is wrapped in the include guard pattern</p>
+ * <pre>
+ * #ifndef NAME
+ * #define NAME
+ * ...
+ * #endif
+ * </pre>
+ * <p>with nothing but whitespace and comments around it, {@link #getGuard()} returns
+ * {@code NAME}. Once {@code NAME} is defined, including the file again has no effect, so the
+ * {@link Preprocessor} skips it without opening it.</p>
+ */
+public final class Header {
+
+    private final Path path;
+    private final long hash;
+    private final TokenBuffer tokens;
+    private final String guard;
+
+    Header(Path path, long hash, TokenBuffer tokens) {
+        this.path = path;
+        this.hash = hash;
+        this.tokens = tokens;
+        this.guard = detectGuard(tokens);
+    }
+
+    // Getters
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return The hash of the file content the tokens were lexed from.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    public TokenBuffer getTokens() {
+        return tokens;
+    }
+
+    /**
+     * @return The include guard macro, or {@code null} if the file is not guarded.
+     */
+    public String getGuard() {
+        return guard;
+    }
+
+    private static String detectGuard(TokenBuffer tokens) {
+        if (!Directives.isDirective(tokens, 0) || !Directives.name(tokens, 0).equals("ifndef")) return null;
+        int line = Directives.lineEnd(tokens, 0);
+        if (line != 3 || tokens.type(2) != TokenType.IDENTIFIER) return null;
+        if (!Directives.isDirective(tokens, line) || !Directives.name(tokens, line).equals("define")) return null;
+        if (tokens.type(line + 2) != TokenType.IDENTIFIER || tokens.symbol(line + 2) != tokens.symbol(2)) return null;
+
+        // The #endif that closes the #ifndef must be the last line of the file
+        int depth = 1;
+        for (int i = Directives.lineEnd(tokens, line); tokens.type(i) != TokenType.EOF; ) {
+            int next = Directives.lineEnd(tokens, i);
+            if (Directives.isDirective(tokens, i)) {
+                switch (Directives.name(tokens, i)) {
+                    case "if", "ifdef", "ifndef" -> depth++;
+                    case "elif", "else" -> {
+                        if (depth == 1) return null;
+                    }
+                    case "endif" -> {
+                        if (--depth == 0) return tokens.type(next) == TokenType.EOF ? tokens.lexeme(2).toString() : null;
+                    }
+                    default -> {
+                    }
+                }
+            }
+            i = next;
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.monac.compiler.preprocessor;
+
+import com.monac.compiler.lexer.Lexer;
+import com.monac.compiler.lexer.SymbolTable;
+import com.monac.compiler.lexer.TokenBuffer;
+import com.monac.compiler.lexer.Utf8Source;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Keeps the token stream of every file that has been lexed, so a header that is included by
+ * many translation units is only lexed once.
+ *
+ * <p>Entries are keyed by the normalized path and checked against a hash of the file content,
+ * so an edited header is lexed again while an unchanged one is reused. Hashing a mapped file
+ * is much cheaper than lexing it. The cache can be shared by preprocessors running on
+ * different threads; all headers are interned into one {@link SymbolTable}, so symbol ids
+ * agree across every translation unit that uses the cache.</p>
+ */
+public final class HeaderCache {
+
+    private final SymbolTable symbols;
+    private final ConcurrentHashMap<Path, Header> headers = new ConcurrentHashMap<>();
+
+    public HeaderCache() {
+        this(new SymbolTable());
+    }
+
+    public HeaderCache(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * Returns the lexed file at {@code path}, lexing it only if it is new or its content changed.
+     *
+     * @throws IOException If the file cannot be read.
+     */
+    public Header load(Path path) throws IOException {
+        Path key = path.toAbsolutePath().normalize();
+        ByteBuffer content = map(key);
+        long hash = hash(content);
+
+        Header cached = headers.get(key);
+        if (cached != null && cached.getHash() == hash) return cached;
+
+        // Only one thread lexes a given file, the others wait for its tokens
+        return headers.compute(key, (p, old) -> old != null && old.getHash() == hash
+                ? old
+                : new Header(p, hash, lex(content)));
+    }
+
+    // Leniently, text the lexer rejects may sit in a skipped group or an #error line
+    private TokenBuffer lex(ByteBuffer content) {
+        Lexer lexer = new Lexer(new Utf8Source(content), symbols);
+        lexer.setLenient(true);
+        return lexer.tokenizeToBuffer();
+    }
+
+    public SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    public int size() {
+        return headers.size();
+    }
+
+    private static MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("File too large to lex: " + path);
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    private static long hash(ByteBuffer content) {
+        CRC32C crc = new CRC32C();
+        crc.update(content.duplicate());
+        return crc.getValue() << 32 | content.limit(); // The length makes collisions between versions even less likely
+    }
+
+}
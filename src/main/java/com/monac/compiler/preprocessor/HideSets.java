@@ -0,0 +1,125 @@
+package com.monac.compiler.preprocessor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interned hide-sets: sets of macro ids, each stored once as a sorted {@code int} array and
+ * referred to by a dense {@code int} id.
+ *
+ * <p>A token only carries the id of its hide-set, and {@link #EMPTY} for the vast majority of
+ * tokens that never went through an expansion. Since equal sets share one id, the results of
+ * {@link #add} and {@link #union} are memoized per pair of ids, and the same expansion
+ * repeated all over a file costs one map lookup per token instead of building a new set.</p>
+ */
+final class HideSets {
+
+    static final int EMPTY = 0;
+
+    private final List<int[]> sets = new ArrayList<>();
+    private final Map<Members, Integer> ids = new HashMap<>();
+    private final Map<Long, Integer> additions = new HashMap<>();
+    private final Map<Long, Integer> unions = new HashMap<>();
+    private final Map<Long, Integer> intersections = new HashMap<>();
+
+    HideSets() {
+        intern(new int[0]);
+    }
+
+    boolean contains(int set, int macro) {
+        return Arrays.binarySearch(sets.get(set), macro) >= 0;
+    }
+
+    /**
+     * @return The id of {@code set} with {@code macro} added.
+     */
+    int add(int set, int macro) {
+        return additions.computeIfAbsent(pair(set, macro), key -> {
+            int[] members = sets.get(set);
+            int position = Arrays.binarySearch(members, macro);
+            if (position >= 0) return set;
+            position = -position - 1;
+            int[] added = new int[members.length + 1];
+            System.arraycopy(members, 0, added, 0, position);
+            added[position] = macro;
+            System.arraycopy(members, position, added, position + 1, members.length - position);
+            return intern(added);
+        });
+    }
+
+    int union(int a, int b) {
+        if (a == b || b == EMPTY) return a;
+        if (a == EMPTY) return b;
+        return unions.computeIfAbsent(pair(Math.min(a, b), Math.max(a, b)), key -> {
+            int[] left = sets.get(a);
+            int[] right = sets.get(b);
+            int[] merged = new int[left.length + right.length];
+            int i = 0, j = 0, size = 0;
+            while (i < left.length && j < right.length) {
+                if (left[i] < right[j]) merged[size++] = left[i++];
+                else if (left[i] > right[j]) merged[size++] = right[j++];
+                else {
+                    merged[size++] = left[i++];
+                    j++;
+                }
+            }
+            while (i < left.length) merged[size++] = left[i++];
+            while (j < right.length) merged[size++] = right[j++];
+            return intern(Arrays.copyOf(merged, size));
+        });
+    }
+
+    int intersect(int a, int b) {
+        if (a == b) return a;
+        if (a == EMPTY || b == EMPTY) return EMPTY;
+        return intersections.computeIfAbsent(pair(Math.min(a, b), Math.max(a, b)), key -> {
+            int[] left = sets.get(a);
+            int[] right = sets.get(b);
+            int[] common = new int[Math.min(left.length, right.length)];
+            int i = 0, j = 0, size = 0;
+            while (i < left.length && j < right.length) {
+                if (left[i] < right[j]) i++;
+                else if (left[i] > right[j]) j++;
+                else {
+                    common[size++] = left[i++];
+                    j++;
+                }
+            }
+            return intern(Arrays.copyOf(common, size));
+        });
+    }
+
+    int size() {
+        return sets.size();
+    }
+
+    private int intern(int[] members) {
+        return ids.computeIfAbsent(new Members(members), key -> {
+            sets.add(members);
+            return sets.size() - 1;
+        });
+    }
+
+    private static long pair(int a, int b) {
+        return (long) a << 32 | (b & 0xFFFFFFFFL);
+    }
+
+    // Map key comparing the arrays by content
+    private record Members(int[] ids) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Members members && Arrays.equals(ids, members.ids);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(ids);
+        }
+
+    }
+
+}
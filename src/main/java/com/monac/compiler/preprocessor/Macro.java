@@ -0,0 +1,93 @@
+package com.monac.compiler.preprocessor;
+
+import com.monac.compiler.lexer.TokenBuffer;
+
+/**
+ * A macro definition. The replacement list is not copied, it is the range
+ * {@code [bodyStart, bodyEnd)} of the {@link TokenBuffer} holding the {@code #define} line.
+ */
+public final class Macro {
+
+    private final int id;
+    private final String name;
+    private final boolean functionLike;
+    private final int parameterCount;
+    private final boolean variadic;
+
+    private final TokenBuffer tokens;
+    private final int buffer; // Id of the tokens in the TokenSequence
+    private final int bodyStart;
+    private final int bodyEnd;
+    private final int[] parameters; // Parameter index of every replacement token, or -1
+
+    Macro(int id, String name, boolean functionLike, int parameterCount, boolean variadic,
+          TokenBuffer tokens, int buffer, int bodyStart, int bodyEnd, int[] parameters) {
+        this.id = id;
+        this.name = name;
+        this.functionLike = functionLike;
+        this.parameterCount = parameterCount;
+        this.variadic = variadic;
+        this.tokens = tokens;
+        this.buffer = buffer;
+        this.bodyStart = bodyStart;
+        this.bodyEnd = bodyEnd;
+        this.parameters = parameters;
+    }
+
+    // Getters
+
+    /**
+     * @return The id of this definition, unique within a {@link MacroTable}. Hide-sets are sets of these ids.
+     */
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isFunctionLike() {
+        return functionLike;
+    }
+
+    public int getParameterCount() {
+        return parameterCount;
+    }
+
+    /**
+     * @return Whether the last parameter is {@code __VA_ARGS__}, which takes all remaining arguments.
+     */
+    public boolean isVariadic() {
+        return variadic;
+    }
+
+    public TokenBuffer getTokens() {
+        return tokens;
+    }
+
+    int[] getParameters() {
+        return parameters;
+    }
+
+    int getBuffer() {
+        return buffer;
+    }
+
+    public int getBodyStart() {
+        return bodyStart;
+    }
+
+    public int getBodyEnd() {
+        return bodyEnd;
+    }
+
+    /**
+     * @param index Token index within the replacement list.
+     * @return The index of the parameter the token names, or {@code -1}.
+     */
+    public int parameter(int index) {
+        return parameters[index];
+    }
+
+}
@@ -0,0 +1,288 @@
+package com.monac.compiler.preprocessor;
+
+import com.monac.compiler.lexer.Lexer;
+import com.monac.compiler.lexer.LexerException;
+import com.monac.compiler.lexer.StringSource;
+import com.monac.compiler.lexer.SymbolTable;
+import com.monac.compiler.lexer.TokenBuffer;
+import com.monac.compiler.lexer.TokenType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Expands object-like and function-like macros, following Prosser's hide-set algorithm.
+ *
+ * <p>Every token carries the id of its hide-set, the macros it was produced by. A macro name
+ * whose own macro is in its hide-set is never expanded again, which is what stops recursion
+ * while still rescanning every replacement for further macros.</p>
+ *
+ * <p>Tokens are never copied: the result of a replacement is a {@link TokenList} of
+ * references to the tokens of the {@code #define} line and of the arguments. Only {@code #}
+ * and {@code ##} create new text, which is lexed into a small buffer of its own. Replacements
+ * are pushed onto a stack of frames that is read before the rest of the input, so expansion
+ * runs in time linear in the number of tokens it produces.</p>
+ */
+final class MacroExpander {
+
+    private final MacroTable macros;
+    private final HideSets hideSets = new HideSets();
+    private final TokenSequence output;
+    private final SymbolTable symbols;
+
+    MacroExpander(MacroTable macros, TokenSequence output, SymbolTable symbols) {
+        this.macros = macros;
+        this.output = output;
+        this.symbols = symbols;
+    }
+
+    /**
+     * Expands the tokens {@code [from, to)} of a buffer and appends the result to the output.
+     */
+    void expand(TokenBuffer tokens, int from, int to) {
+        int buffer = output.bufferId(tokens);
+        TokenList input = new TokenList();
+        for (int i = from; i < to; i++) input.add(buffer, i, HideSets.EMPTY);
+
+        TokenList result = new TokenList();
+        expand(new Reader(input), result);
+        for (int i = 0; i < result.size(); i++) output.add(result.buffer(i), result.index(i));
+    }
+
+    /**
+     * @return Whether any of the tokens {@code [from, to)} names a macro.
+     */
+    boolean mentionsMacro(TokenBuffer tokens, int from, int to) {
+        if (macros.size() == 0) return false;
+        for (int i = from; i < to; i++) {
+            if (tokens.type(i) == TokenType.IDENTIFIER && macros.get(tokens.symbol(i)) != null) return true;
+        }
+        return false;
+    }
+
+    private void expand(Reader in, TokenList out) {
+        while (in.advance()) {
+            int buffer = in.buffer;
+            int index = in.index;
+            int hideSet = in.hideSet;
+
+            Macro macro = macroAt(buffer, index);
+            if (macro == null || hideSets.contains(hideSet, macro.getId())) {
+                out.add(buffer, index, hideSet);
+            } else if (!macro.isFunctionLike()) {
+                in.push(substitute(macro, null, hideSets.add(hideSet, macro.getId())));
+            } else if (in.peekType() != TokenType.LPAREN) {
+                out.add(buffer, index, hideSet); // A function-like macro name without arguments is left alone
+            } else {
+                in.advance();
+                List<TokenList> arguments = collectArguments(in, macro, buffer, index);
+                // Only macros that produced both the name and the closing parenthesis stay hidden
+                int hidden = hideSets.add(hideSets.intersect(hideSet, in.hideSet), macro.getId());
+                in.push(substitute(macro, arguments, hidden));
+            }
+        }
+    }
+
+    // Reads the arguments after the '(' up to and including the matching ')'
+    private List<TokenList> collectArguments(Reader in, Macro macro, int buffer, int index) {
+        List<TokenList> arguments = new ArrayList<>();
+        TokenList argument = new TokenList();
+        int depth = 0;
+        while (true) {
+            if (!in.advance()) throw error("Unterminated argument list invoking macro " + macro.getName(), buffer, index);
+            TokenType type = typeOf(in.buffer, in.index);
+            if (type == TokenType.RPAREN && depth == 0) break;
+            if (type == TokenType.COMMA && depth == 0 && !(macro.isVariadic() && arguments.size() == macro.getParameterCount() - 1)) {
+                arguments.add(argument);
+                argument = new TokenList();
+                continue;
+            }
+            if (type == TokenType.LPAREN) depth++;
+            if (type == TokenType.RPAREN) depth--;
+            argument.add(in.buffer, in.index, in.hideSet);
+        }
+        arguments.add(argument);
+
+        // f() passes one empty argument, which is no argument at all for a macro without parameters
+        if (macro.getParameterCount() == 0 && arguments.size() == 1 && argument.isEmpty()) arguments.clear();
+        if (macro.isVariadic() && arguments.size() == macro.getParameterCount() - 1) arguments.add(new TokenList());
+        if (arguments.size() != macro.getParameterCount()) {
+            throw error("Macro " + macro.getName() + " expects " + macro.getParameterCount()
+                    + " arguments, but " + arguments.size() + " were given", buffer, index);
+        }
+        return arguments;
+    }
+
+    // Builds the replacement of one invocation, every token gets the hide-set of the invocation
+    private TokenList substitute(Macro macro, List<TokenList> arguments, int hideSet) {
+        TokenBuffer body = macro.getTokens();
+        int start = macro.getBodyStart();
+        int length = macro.getBodyEnd() - start;
+        TokenList[] expanded = arguments == null ? null : new TokenList[arguments.size()];
+
+        TokenList out = new TokenList();
+        boolean placemarker = false; // The last operand was an empty argument
+        for (int j = 0; j < length; j++) {
+            TokenType type = body.type(start + j);
+            int parameter = macro.parameter(j);
+
+            if (type == TokenType.HASH && macro.isFunctionLike() && j + 1 < length && macro.parameter(j + 1) >= 0) {
+                out.add(synthesize(stringify(arguments.get(macro.parameter(++j))), macro), 0, HideSets.EMPTY);
+                placemarker = false;
+            } else if (type == TokenType.HASH_HASH) {
+                int right = macro.parameter(++j);
+                TokenList operand = new TokenList();
+                if (right >= 0) operand.addAll(arguments.get(right));
+                else operand.add(macro.getBuffer(), start + j, HideSets.EMPTY);
+
+                if (placemarker || out.isEmpty()) {
+                    out.addAll(operand);
+                    placemarker = operand.isEmpty();
+                } else if (!operand.isEmpty()) {
+                    paste(out, operand, macro);
+                }
+            } else if (parameter >= 0) {
+                boolean pasted = j + 1 < length && body.type(start + j + 1) == TokenType.HASH_HASH;
+                if (pasted) {
+                    // Operands of ## are not macro expanded
+                    out.addAll(arguments.get(parameter));
+                    placemarker = arguments.get(parameter).isEmpty();
+                } else {
+                    if (expanded[parameter] == null) {
+                        expanded[parameter] = new TokenList();
+                        expand(new Reader(arguments.get(parameter)), expanded[parameter]);
+                    }
+                    out.addAll(expanded[parameter]);
+                    placemarker = false;
+                }
+            } else {
+                out.add(macro.getBuffer(), start + j, HideSets.EMPTY);
+                placemarker = false;
+            }
+        }
+
+        for (int i = 0; i < out.size(); i++) out.setHideSet(i, hideSets.union(out.hideSet(i), hideSet));
+        return out;
+    }
+
+    // Replaces the last token of out by its concatenation with the first operand token
+    private void paste(TokenList out, TokenList operand, Macro macro) {
+        int last = out.size() - 1;
+        String text = lexeme(out.buffer(last), out.index(last)) + lexeme(operand.buffer(0), operand.index(0));
+        int hideSet = out.hideSet(last);
+        out.removeLast();
+        out.add(synthesize(text, macro), 0, hideSet);
+        for (int i = 1; i < operand.size(); i++) out.add(operand.buffer(i), operand.index(i), operand.hideSet(i));
+    }
+
+    private String stringify(TokenList argument) {
+        StringBuilder text = new StringBuilder("\"");
+        for (int i = 0; i < argument.size(); i++) {
+            TokenBuffer tokens = output.bufferAt(argument.buffer(i));
+            int index = argument.index(i);
+            // Whitespace between two tokens becomes a single space
+            if (i > 0 && (argument.buffer(i - 1) != argument.buffer(i)
+                    || tokens.start(argument.index(i - 1)) + tokens.length(argument.index(i - 1)) < tokens.start(index))) {
+                text.append(' ');
+            }
+            CharSequence lexeme = tokens.lexeme(index);
+            TokenType type = tokens.type(index);
+            boolean literal = type == TokenType.STRING || type == TokenType.CHARACTER_CONSTANT;
+            for (int k = 0; k < lexeme.length(); k++) {
+                char c = lexeme.charAt(k);
+                if (literal && (c == '"' || c == '\\')) text.append('\\');
+                text.append(c);
+            }
+        }
+        return text.append('"').toString();
+    }
+
+    // Lexes text created by # or ## into a buffer of its own, it has to form exactly one token
+    private int synthesize(String text, Macro macro) {
+        TokenBuffer tokens;
+        try {
+            tokens = new Lexer(new StringSource(text), symbols).tokenizeToBuffer();
+        } catch (LexerException e) {
+            tokens = null;
+        }
+        if (tokens == null || tokens.size() != 2) {
+            throw new PreprocessorException("Pasting \"" + text + "\" in macro " + macro.getName() + " does not give a valid token");
+        }
+        return output.bufferId(tokens);
+    }
+
+    private Macro macroAt(int buffer, int index) {
+        TokenBuffer tokens = output.bufferAt(buffer);
+        return tokens.type(index) == TokenType.IDENTIFIER ? macros.get(tokens.symbol(index)) : null;
+    }
+
+    private TokenType typeOf(int buffer, int index) {
+        return output.bufferAt(buffer).type(index);
+    }
+
+    private String lexeme(int buffer, int index) {
+        return output.bufferAt(buffer).lexeme(index).toString();
+    }
+
+    private PreprocessorException error(String message, int buffer, int index) {
+        TokenBuffer tokens = output.bufferAt(buffer);
+        return new PreprocessorException(message + " at " + tokens.line(index) + ":" + tokens.column(index));
+    }
+
+    /**
+     * Reads tokens from a stack of token lists. Replacements are pushed on top and read first,
+     * so a function-like macro at the end of a replacement can still take its arguments from
+     * the tokens that follow the invocation.
+     */
+    private final class Reader {
+
+        private final List<TokenList> frames = new ArrayList<>();
+        private int[] positions = new int[8];
+
+        // The token read by the last call to advance()
+        int buffer;
+        int index;
+        int hideSet;
+
+        Reader(TokenList input) {
+            push(input);
+        }
+
+        void push(TokenList tokens) {
+            if (frames.size() == positions.length) positions = Arrays.copyOf(positions, frames.size() * 2);
+            positions[frames.size()] = 0;
+            frames.add(tokens);
+        }
+
+        boolean advance() {
+            if (!dropFinished()) return false;
+            int top = frames.size() - 1;
+            TokenList tokens = frames.get(top);
+            int position = positions[top]++;
+            buffer = tokens.buffer(position);
+            index = tokens.index(position);
+            hideSet = tokens.hideSet(position);
+            return true;
+        }
+
+        TokenType peekType() {
+            if (!dropFinished()) return TokenType.EOF;
+            int top = frames.size() - 1;
+            TokenList tokens = frames.get(top);
+            return typeOf(tokens.buffer(positions[top]), tokens.index(positions[top]));
+        }
+
+        // Pops the frames that have been read completely, returns whether a token is left
+        private boolean dropFinished() {
+            while (!frames.isEmpty()) {
+                int top = frames.size() - 1;
+                if (positions[top] < frames.get(top).size()) return true;
+                frames.remove(top);
+            }
+            return false;
+        }
+
+    }
+
+}
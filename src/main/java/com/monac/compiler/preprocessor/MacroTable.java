@@ -0,0 +1,149 @@
+package com.monac.compiler.preprocessor;
+
+import com.monac.compiler.lexer.SymbolTable;
+import com.monac.compiler.lexer.TokenBuffer;
+import com.monac.compiler.lexer.TokenType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The macros defined in a translation unit, indexed by the {@link SymbolTable} id of their name.
+ *
+ * <p>Checking whether an identifier token names a macro is a single array access, no string is
+ * hashed. Every definition gets a new id, so a redefined macro is a different macro as far as
+ * hide-sets are concerned.</p>
+ */
+public final class MacroTable {
+
+    private final SymbolTable symbols;
+    private Macro[] bySymbol = new Macro[64];
+    private int nextId = 0;
+    private int size = 0;
+
+    public MacroTable(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * @return The macro named by symbol {@code symbol}, or {@code null}.
+     */
+    public Macro get(int symbol) {
+        return symbol >= 0 && symbol < bySymbol.length ? bySymbol[symbol] : null;
+    }
+
+    public boolean isDefined(String name) {
+        return get(symbols.intern(name)) != null;
+    }
+
+    public void undefine(String name) {
+        int symbol = symbols.intern(name);
+        if (get(symbol) != null) {
+            bySymbol[symbol] = null;
+            size--;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // All defined macros, in no particular order
+    List<Macro> macros() {
+        List<Macro> defined = new ArrayList<>(size);
+        for (Macro macro : bySymbol) {
+            if (macro != null) defined.add(macro);
+        }
+        return defined;
+    }
+
+    int nextId() {
+        return nextId;
+    }
+
+    // Adds macros defined elsewhere, such as in a precompiled header
+    void restore(List<Macro> defined, int nextId) {
+        for (Macro macro : defined) put(symbols.intern(macro.getName()), macro);
+        this.nextId = Math.max(this.nextId, nextId);
+    }
+
+    /**
+     * Parses the {@code #define} line {@code [hash, end)} and defines the macro.
+     *
+     * @param buffer The id of {@code tokens} in the {@link TokenSequence} being built.
+     * @return The new macro.
+     */
+    Macro define(TokenBuffer tokens, int buffer, int hash, int end) {
+        int nameIndex = hash + 2;
+        if (nameIndex >= end) throw new PreprocessorException("Macro name missing");
+        if (tokens.type(nameIndex) != TokenType.IDENTIFIER) throw new PreprocessorException("Macro names must be identifiers");
+        int symbol = tokens.symbol(nameIndex);
+        String name = tokens.lexeme(nameIndex).toString();
+
+        // Function-like only if the parenthesis follows the name without any space
+        int bodyStart = nameIndex + 1;
+        boolean functionLike = bodyStart < end && tokens.type(bodyStart) == TokenType.LPAREN
+                && tokens.start(bodyStart) == tokens.start(nameIndex) + tokens.length(nameIndex);
+        int[] parameterSymbols = new int[0];
+        boolean variadic = false;
+
+        if (functionLike) {
+            int i = bodyStart + 1;
+            int count = 0;
+            while (i < end && tokens.type(i) != TokenType.RPAREN) {
+                if (count > 0) {
+                    if (tokens.type(i) != TokenType.COMMA) throw new PreprocessorException("Expected ',' or ')' in the parameters of macro " + name);
+                    i++;
+                }
+                if (isEllipsis(tokens, i, end)) {
+                    variadic = true;
+                    parameterSymbols = Arrays.copyOf(parameterSymbols, count + 1);
+                    parameterSymbols[count++] = symbols.intern("__VA_ARGS__");
+                    i += 3;
+                    break;
+                }
+                if (i >= end || tokens.type(i) != TokenType.IDENTIFIER) throw new PreprocessorException("Expected a parameter name in macro " + name);
+                parameterSymbols = Arrays.copyOf(parameterSymbols, count + 1);
+                parameterSymbols[count++] = tokens.symbol(i++);
+            }
+            if (i >= end || tokens.type(i) != TokenType.RPAREN) throw new PreprocessorException("Missing ')' in the parameters of macro " + name);
+            bodyStart = i + 1;
+        }
+
+        int[] parameters = new int[end - bodyStart];
+        for (int i = bodyStart; i < end; i++) {
+            int parameter = -1;
+            if (tokens.type(i) == TokenType.IDENTIFIER) {
+                for (int p = 0; p < parameterSymbols.length; p++) {
+                    if (parameterSymbols[p] == tokens.symbol(i)) parameter = p;
+                }
+            }
+            parameters[i - bodyStart] = parameter;
+        }
+        if (end > bodyStart && (tokens.type(bodyStart) == TokenType.HASH_HASH || tokens.type(end - 1) == TokenType.HASH_HASH)) {
+            throw new PreprocessorException("'##' cannot appear at either end of the replacement list of macro " + name);
+        }
+
+        Macro macro = new Macro(nextId++, name, functionLike, parameterSymbols.length, variadic,
+                tokens, buffer, bodyStart, end, parameters);
+        put(symbol, macro);
+        return macro;
+    }
+
+    private void put(int symbol, Macro macro) {
+        if (symbol >= bySymbol.length) bySymbol = Arrays.copyOf(bySymbol, Math.max(bySymbol.length * 2, symbol + 1));
+        if (bySymbol[symbol] == null) size++;
+        bySymbol[symbol] = macro;
+    }
+
+    // The lexer has no '...' token, it shows up as three adjacent dots
+    private static boolean isEllipsis(TokenBuffer tokens, int i, int end) {
+        if (i + 2 >= end) return false;
+        for (int k = 0; k < 3; k++) {
+            if (tokens.type(i + k) != TokenType.DOT || tokens.start(i + k) != tokens.start(i) + k) return false;
+        }
+        return true;
+    }
+
+}
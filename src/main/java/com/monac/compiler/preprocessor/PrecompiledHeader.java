@@ -0,0 +1,250 @@
+package com.monac.compiler.preprocessor;
+
+import com.monac.compiler.lexer.SymbolTable;
+import com.monac.compiler.lexer.TokenBuffer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A snapshot of the preprocessor state after a prefix header, such as a prelude that every
+ * source file of a project includes first.
+ *
+ * <p>{@link #write} preprocesses the prefix once and stores everything a translation unit would
+ * have after including it: the token buffers of all files it pulled in, the tokens it produced,
+ * the macro table, the include guards and the interned identifiers. {@link #load} maps the
+ * snapshot into memory; the sources of the buffers stay views into the mapping, only the token
+ * columns are copied out in bulk. A {@link Preprocessor} then starts from the snapshot whenever
+ * a translation unit begins with {@code #include} of the prefix, instead of processing the
+ * prefix again.</p>
+ *
+ * <p>The snapshot records the size and modification time of every file that went into it, and
+ * is ignored once any of them changed. Symbol ids are remapped into the {@link SymbolTable} of
+ * the cache it is loaded with, so the snapshot can be used next to headers lexed normally.</p>
+ */
+public final class PrecompiledHeader {
+
+    private static final long MAGIC = 0x4D4F4E4143504348L; // "MONACPCH"
+    private static final int VERSION = 3; // 2: token types renumbered for typedef, 3: OTHER token type
+
+    private final Path prefix;
+    private final List<Path> dependencies;
+    private final long[] sizes;
+    private final long[] modified;
+
+    private final List<TokenBuffer> buffers;
+    private final int[] outputBuffers;
+    private final int[] outputIndices;
+    private final List<Macro> macros;
+    private final int nextMacroId;
+    private final Map<Path, String> guards;
+    private final List<Path> once;
+
+    private PrecompiledHeader(Path prefix, List<Path> dependencies, long[] sizes, long[] modified,
+                              List<TokenBuffer> buffers, int[] outputBuffers, int[] outputIndices,
+                              List<Macro> macros, int nextMacroId, Map<Path, String> guards, List<Path> once) {
+        this.prefix = prefix;
+        this.dependencies = dependencies;
+        this.sizes = sizes;
+        this.modified = modified;
+        this.buffers = buffers;
+        this.outputBuffers = outputBuffers;
+        this.outputIndices = outputIndices;
+        this.macros = macros;
+        this.nextMacroId = nextMacroId;
+        this.guards = guards;
+        this.once = once;
+    }
+
+    /**
+     * Preprocesses {@code prefix} and writes the resulting state to {@code snapshot}.
+     */
+    public static void write(Path snapshot, Path prefix, HeaderCache cache, List<Path> includePath) throws IOException {
+        Preprocessor preprocessor = new Preprocessor(cache, includePath);
+        preprocessor.preprocessPrefix(prefix);
+        TokenSequence output = preprocessor.output();
+        SymbolTable symbols = cache.getSymbols();
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(snapshot), 1 << 16))) {
+            out.writeLong(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, prefix.toAbsolutePath().normalize().toString());
+
+            out.writeInt(preprocessor.dependencies().size());
+            for (Path dependency : preprocessor.dependencies()) {
+                writeString(out, dependency.toString());
+                out.writeLong(Files.size(dependency));
+                out.writeLong(Files.getLastModifiedTime(dependency).toMillis());
+            }
+
+            // The symbol ids used by the buffers, resolved by name when loading
+            int symbolCount = symbols.size();
+            out.writeInt(symbolCount);
+            for (int id = 0; id < symbolCount; id++) writeString(out, symbols.name(id));
+
+            out.writeInt(output.bufferCount());
+            for (int buffer = 0; buffer < output.bufferCount(); buffer++) output.bufferAt(buffer).write(out);
+
+            out.writeInt(output.size());
+            for (int i = 0; i < output.size(); i++) {
+                out.writeInt(output.bufferIdOf(i));
+                out.writeInt(output.index(i));
+            }
+
+            MacroTable table = preprocessor.getMacros();
+            List<Macro> defined = table.macros();
+            out.writeInt(table.nextId());
+            out.writeInt(defined.size());
+            for (Macro macro : defined) {
+                out.writeInt(macro.getId());
+                writeString(out, macro.getName());
+                out.writeBoolean(macro.isFunctionLike());
+                out.writeInt(macro.getParameterCount());
+                out.writeBoolean(macro.isVariadic());
+                out.writeInt(macro.getBuffer());
+                out.writeInt(macro.getBodyStart());
+                out.writeInt(macro.getBodyEnd());
+                for (int parameter : macro.getParameters()) out.writeInt(parameter);
+            }
+
+            out.writeInt(preprocessor.guards().size());
+            for (Map.Entry<Path, String> guard : preprocessor.guards().entrySet()) {
+                writeString(out, guard.getKey().toString());
+                writeString(out, guard.getValue());
+            }
+            out.writeInt(preprocessor.once().size());
+            for (Path path : preprocessor.once()) writeString(out, path.toString());
+        }
+    }
+
+    /**
+     * Maps a snapshot written by {@link #write} into memory.
+     *
+     * @param cache The cache of the preprocessors that will use the snapshot.
+     * @throws IOException If the file cannot be read or is not a snapshot of this version.
+     */
+    public static PrecompiledHeader load(Path snapshot, HeaderCache cache) throws IOException {
+        MappedByteBuffer in;
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("Precompiled header too large: " + snapshot);
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (in.remaining() < 12 || in.getLong() != MAGIC || in.getInt() != VERSION) {
+            throw new IOException("Not a precompiled header of this version: " + snapshot);
+        }
+        Path prefix = Path.of(readString(in));
+
+        int dependencyCount = in.getInt();
+        List<Path> dependencies = new ArrayList<>(dependencyCount);
+        long[] sizes = new long[dependencyCount];
+        long[] modified = new long[dependencyCount];
+        for (int i = 0; i < dependencyCount; i++) {
+            dependencies.add(Path.of(readString(in)));
+            sizes[i] = in.getLong();
+            modified[i] = in.getLong();
+        }
+
+        SymbolTable symbols = cache.getSymbols();
+        int[] symbolMap = new int[in.getInt()];
+        for (int id = 0; id < symbolMap.length; id++) symbolMap[id] = symbols.intern(readString(in));
+
+        int bufferCount = in.getInt();
+        List<TokenBuffer> buffers = new ArrayList<>(bufferCount);
+        for (int i = 0; i < bufferCount; i++) buffers.add(TokenBuffer.read(in, symbols, symbolMap));
+
+        int outputSize = in.getInt();
+        int[] outputBuffers = new int[outputSize];
+        int[] outputIndices = new int[outputSize];
+        for (int i = 0; i < outputSize; i++) {
+            outputBuffers[i] = in.getInt();
+            outputIndices[i] = in.getInt();
+        }
+
+        int nextMacroId = in.getInt();
+        int macroCount = in.getInt();
+        List<Macro> macros = new ArrayList<>(macroCount);
+        for (int i = 0; i < macroCount; i++) {
+            int id = in.getInt();
+            String name = readString(in);
+            boolean functionLike = in.get() != 0;
+            int parameterCount = in.getInt();
+            boolean variadic = in.get() != 0;
+            int buffer = in.getInt();
+            int bodyStart = in.getInt();
+            int bodyEnd = in.getInt();
+            int[] parameters = new int[bodyEnd - bodyStart];
+            for (int j = 0; j < parameters.length; j++) parameters[j] = in.getInt();
+            macros.add(new Macro(id, name, functionLike, parameterCount, variadic,
+                    buffers.get(buffer), buffer, bodyStart, bodyEnd, parameters));
+        }
+
+        int guardCount = in.getInt();
+        Map<Path, String> guards = new HashMap<>();
+        for (int i = 0; i < guardCount; i++) guards.put(Path.of(readString(in)), readString(in));
+        int onceCount = in.getInt();
+        List<Path> once = new ArrayList<>(onceCount);
+        for (int i = 0; i < onceCount; i++) once.add(Path.of(readString(in)));
+
+        return new PrecompiledHeader(prefix, dependencies, sizes, modified, buffers,
+                outputBuffers, outputIndices, macros, nextMacroId, guards, once);
+    }
+
+    /**
+     * @return The absolute, normalized path of the prefix header.
+     */
+    public Path getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * @return Whether none of the files that went into the snapshot changed since it was written.
+     */
+    public boolean isUpToDate() {
+        try {
+            for (int i = 0; i < dependencies.size(); i++) {
+                Path dependency = dependencies.get(i);
+                if (Files.size(dependency) != sizes[i] || Files.getLastModifiedTime(dependency).toMillis() != modified[i]) return false;
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Puts a fresh preprocessor into the state it would have after including the prefix
+    void restore(Preprocessor preprocessor) {
+        TokenSequence output = preprocessor.output();
+        for (TokenBuffer buffer : buffers) output.bufferId(buffer); // Same ids as when writing, the output is empty
+        for (int i = 0; i < outputBuffers.length; i++) output.add(outputBuffers[i], outputIndices[i]);
+        preprocessor.getMacros().restore(macros, nextMacroId);
+        preprocessor.guards().putAll(guards);
+        preprocessor.once().addAll(once);
+        preprocessor.dependencies().addAll(dependencies);
+    }
+
+    private static void writeString(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        String text = StandardCharsets.UTF_8.decode(in.slice(in.position(), length)).toString();
+        in.position(in.position() + length);
+        return text;
+    }
+
+}
@@ -0,0 +1,332 @@
+package com.monac.compiler.preprocessor;
+
+import com.monac.compiler.lexer.TokenBuffer;
+import com.monac.compiler.lexer.TokenType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs the directives of one translation unit and produces the {@link TokenSequence} the parser reads.
+ *
+ * <p>Supported are {@code #include}, {@code #define} and {@code #undef}, {@code #ifdef},
+ * {@code #ifndef}, {@code #else} and {@code #endif}, {@code #pragma once}, {@code #error} and
+ * {@code #warning}. Every file is lexed through the shared {@link HeaderCache}. The text between
+ * directives is macro expanded by the {@link MacroExpander}; text that mentions no macro at all
+ * is passed through token by token.</p>
+ *
+ * <p>Files are lexed leniently, so that skipped groups and the messages of {@code #error} and
+ * {@code #warning} may hold text that is no valid token, such as an unmatched quote. Such text
+ * is an error anywhere else.</p>
+ *
+ * <p>For every included file with an include guard the preprocessor remembers the guard
+ * macro. An {@code #include} of that file while the macro is still defined is dropped right
+ * away, without opening, hashing or lexing the file again.</p>
+ */
+public final class Preprocessor {
+
+    private static final int MAX_INCLUDE_DEPTH = 200;
+
+    private final HeaderCache cache;
+    private final List<Path> includePath;
+
+    private final MacroTable macros;
+    private final Map<Path, String> guards = new HashMap<>(); // Guard macro of every guarded file seen so far
+    private final Set<Path> once = new HashSet<>(); // Files that contain #pragma once
+    private final Set<Path> dependencies = new LinkedHashSet<>(); // Every file read, in order
+    private final TokenSequence output = new TokenSequence();
+    private final List<String> warnings = new ArrayList<>();
+    private final MacroExpander expander;
+    private int depth = 0;
+
+    /**
+     * @param cache       The cache every file is lexed through.
+     * @param includePath The directories searched for {@code <...>} includes, and for
+     *                    {@code "..."} includes that are not next to the including file.
+     */
+    public Preprocessor(HeaderCache cache, List<Path> includePath) {
+        this.cache = cache;
+        this.includePath = List.copyOf(includePath);
+        this.macros = new MacroTable(cache.getSymbols());
+        this.expander = new MacroExpander(macros, output, cache.getSymbols());
+    }
+
+    /**
+     * Preprocesses the translation unit rooted at {@code file}. A preprocessor handles a single
+     * translation unit.
+     *
+     * @return The tokens of the translation unit, terminated by a single {@code EOF} token.
+     * @throws IOException If the file or one of its includes cannot be read.
+     */
+    public TokenSequence preprocess(Path file) throws IOException {
+        return preprocess(file, null);
+    }
+
+    /**
+     * Preprocesses the translation unit rooted at {@code file}, starting from a snapshot if the
+     * file begins by including the prefix header the snapshot was made from, and none of the
+     * files that went into the snapshot changed since.
+     *
+     * @param snapshot A precompiled header, or {@code null}.
+     * @return The tokens of the translation unit, terminated by a single {@code EOF} token.
+     * @throws IOException If the file or one of its includes cannot be read.
+     */
+    public TokenSequence preprocess(Path file, PrecompiledHeader snapshot) throws IOException {
+        if (output.size() > 0) throw new IllegalStateException("The translation unit has already been preprocessed");
+
+        Header main = load(file);
+        TokenBuffer tokens = main.getTokens();
+        int from = 0;
+        if (snapshot != null && Directives.isDirective(tokens, 0) && Directives.name(tokens, 0).equals("include")) {
+            int end = Directives.lineEnd(tokens, 0);
+            if (snapshot.getPrefix().equals(includedPath(main, 0, end)) && snapshot.isUpToDate()) {
+                snapshot.restore(this);
+                from = end;
+            }
+        }
+
+        process(main, from);
+        output.add(tokens, tokens.size() - 1);
+        return output;
+    }
+
+    // Processes a prefix header on its own, the state is then written as a precompiled header
+    void preprocessPrefix(Path header) throws IOException {
+        process(load(header), 0);
+    }
+
+    // State shared with PrecompiledHeader
+
+    TokenSequence output() {
+        return output;
+    }
+
+    Map<Path, String> guards() {
+        return guards;
+    }
+
+    Set<Path> once() {
+        return once;
+    }
+
+    Set<Path> dependencies() {
+        return dependencies;
+    }
+
+    private Header load(Path path) throws IOException {
+        Header header = cache.load(path);
+        dependencies.add(header.getPath());
+        return header;
+    }
+
+    public MacroTable getMacros() {
+        return macros;
+    }
+
+    /**
+     * @return The messages of the {@code #warning} directives run so far, with their location.
+     */
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    private void process(Header header, int from) throws IOException {
+        TokenBuffer tokens = header.getTokens();
+        int buffer = output.bufferId(tokens);
+        int conditionals = 0; // Open conditional groups in this file
+
+        int i = from;
+        while (tokens.type(i) != TokenType.EOF) {
+            if (!Directives.isDirective(tokens, i)) {
+                int text = i;
+                while (tokens.type(i) != TokenType.EOF && !Directives.isDirective(tokens, i)) {
+                    if (tokens.type(i) == TokenType.OTHER) throw invalidToken(header, i);
+                    i++;
+                }
+                if (expander.mentionsMacro(tokens, text, i)) {
+                    expandText(header, text, i);
+                } else {
+                    for (int k = text; k < i; k++) output.add(buffer, k);
+                }
+                continue;
+            }
+
+            String name = Directives.name(tokens, i);
+            int end = Directives.lineEnd(tokens, i);
+            switch (name) {
+                case "include" -> include(header, i, end);
+                case "define" -> define(header, buffer, i, end);
+                case "undef" -> macros.undefine(macroName(header, i, end));
+                case "ifdef", "ifndef" -> {
+                    if (macros.isDefined(macroName(header, i, end)) == name.equals("ifdef")) {
+                        conditionals++;
+                    } else {
+                        int other = skipGroup(header, end, true);
+                        if (Directives.name(tokens, other).equals("else")) conditionals++;
+                        end = Directives.lineEnd(tokens, other);
+                    }
+                }
+                case "else", "elif" -> {
+                    // Only reached at the end of a group that was taken, the rest of the chain is skipped
+                    if (conditionals == 0) throw error(header, i, "#" + name + " without #if");
+                    end = Directives.lineEnd(tokens, skipGroup(header, end, false));
+                    conditionals--;
+                }
+                case "endif" -> {
+                    if (conditionals == 0) throw error(header, i, "#endif without #if");
+                    conditionals--;
+                }
+                case "pragma" -> {
+                    if (i + 2 < end && tokens.lexeme(i + 2).toString().equals("once")) once.add(header.getPath());
+                }
+                case "error" -> throw error(header, i, "#error " + restOfLine(tokens, i + 2, end));
+                case "warning" -> warnings.add(message(header, i, "#warning " + restOfLine(tokens, i + 2, end)));
+                case "if" -> throw error(header, i, "#if expressions are not supported");
+                case "", "line" -> {
+                    // Nothing to do
+                }
+                default -> throw error(header, i, "Unknown directive #" + name);
+            }
+            i = end;
+        }
+
+        if (conditionals != 0) throw error(header, i, "Unterminated conditional directive");
+    }
+
+    private void include(Header header, int hash, int end) throws IOException {
+        Path path = includedPath(header, hash, end);
+
+        // A guarded file whose guard is still defined would expand to nothing
+        if (once.contains(path)) return;
+        String guard = guards.get(path);
+        if (guard != null && macros.isDefined(guard)) return;
+
+        if (depth == MAX_INCLUDE_DEPTH) throw error(header, hash, "#include nested too deeply");
+        Header included = load(path);
+        if (included.getGuard() != null) guards.put(path, included.getGuard());
+
+        depth++;
+        try {
+            process(included, 0);
+        } finally {
+            depth--;
+        }
+    }
+
+    // Resolves the file named by the #include line [hash, end)
+    private Path includedPath(Header header, int hash, int end) {
+        TokenBuffer tokens = header.getTokens();
+        int first = hash + 2;
+        String name;
+        boolean quoted;
+        if (first + 1 == end && tokens.type(first) == TokenType.STRING) {
+            CharSequence literal = tokens.lexeme(first);
+            name = literal.subSequence(1, literal.length() - 1).toString();
+            quoted = true;
+        } else if (first + 1 < end && tokens.type(first) == TokenType.LT && tokens.type(end - 1) == TokenType.GT) {
+            name = tokens.getInput().text(tokens.start(first) + 1, tokens.start(end - 1)).toString();
+            quoted = false;
+        } else {
+            throw error(header, hash, "#include expects \"FILENAME\" or <FILENAME>");
+        }
+
+        Path path = resolve(header, name, quoted);
+        if (path == null) throw error(header, hash, "Cannot find include file " + name);
+        return path;
+    }
+
+    private void define(Header header, int buffer, int hash, int end) {
+        TokenBuffer tokens = header.getTokens();
+        for (int k = hash; k < end; k++) {
+            if (tokens.type(k) == TokenType.OTHER) throw invalidToken(header, k);
+        }
+        try {
+            macros.define(header.getTokens(), buffer, hash, end);
+        } catch (PreprocessorException e) {
+            throw error(header, hash, e.getMessage());
+        }
+    }
+
+    private void expandText(Header header, int from, int to) {
+        try {
+            expander.expand(header.getTokens(), from, to);
+        } catch (PreprocessorException e) {
+            throw new PreprocessorException(e.getMessage() + " in " + header.getPath());
+        }
+    }
+
+    private Path resolve(Header header, String name, boolean quoted) {
+        if (quoted) {
+            Path sibling = header.getPath().resolveSibling(name);
+            if (Files.isRegularFile(sibling)) return sibling.toAbsolutePath().normalize();
+        }
+        for (Path directory : includePath) {
+            Path candidate = directory.resolve(name);
+            if (Files.isRegularFile(candidate)) return candidate.toAbsolutePath().normalize();
+        }
+        return null;
+    }
+
+    // Skips the tokens of a group whose condition is false. Returns the index of the # of the
+    // #endif that closes it or, when stopAtElse is set, of an #else that continues it.
+    private int skipGroup(Header header, int i, boolean stopAtElse) {
+        TokenBuffer tokens = header.getTokens();
+        int nesting = 0;
+        while (tokens.type(i) != TokenType.EOF) {
+            if (Directives.isDirective(tokens, i)) {
+                switch (Directives.name(tokens, i)) {
+                    case "if", "ifdef", "ifndef" -> nesting++;
+                    case "else" -> {
+                        if (nesting == 0 && stopAtElse) return i;
+                    }
+                    case "elif" -> {
+                        if (nesting == 0 && stopAtElse) throw error(header, i, "#elif expressions are not supported");
+                    }
+                    case "endif" -> {
+                        if (nesting == 0) return i;
+                        nesting--;
+                    }
+                    default -> {
+                    }
+                }
+            }
+            i = Directives.lineEnd(tokens, i);
+        }
+        throw error(header, i, "Unterminated conditional directive");
+    }
+
+    private String macroName(Header header, int hash, int end) {
+        TokenBuffer tokens = header.getTokens();
+        if (hash + 2 >= end) throw error(header, hash, "Macro name missing");
+        String name = tokens.lexeme(hash + 2).toString();
+        if (!Character.isJavaIdentifierStart(name.charAt(0))) throw error(header, hash + 2, "Macro names must be identifiers");
+        return name;
+    }
+
+    private static String restOfLine(TokenBuffer tokens, int from, int end) {
+        if (from >= end) return "";
+        return tokens.getInput().text(tokens.start(from), tokens.start(end - 1) + tokens.length(end - 1)).toString();
+    }
+
+    private static PreprocessorException invalidToken(Header header, int index) {
+        return error(header, index, "Invalid token '" + header.getTokens().lexeme(index) + "'");
+    }
+
+    private static PreprocessorException error(Header header, int index, String message) {
+        return new PreprocessorException(message(header, index, message));
+    }
+
+    private static String message(Header header, int index, String message) {
+        TokenBuffer tokens = header.getTokens();
+        return message + " at " + header.getPath() + ":" + tokens.line(index) + ":" + tokens.column(index);
+    }
+
+}
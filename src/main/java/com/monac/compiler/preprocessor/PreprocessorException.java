@@ -0,0 +1,9 @@
+package com.monac.compiler.preprocessor;
+
+public class PreprocessorException extends RuntimeException {
+
+    public PreprocessorException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.monac.compiler.preprocessor;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of token references used during macro expansion: the buffer id and token
+ * index of each token, as in {@link TokenSequence}, plus the id of its hide-set.
+ */
+final class TokenList {
+
+    private int[] buffers = new int[8];
+    private int[] indices = new int[8];
+    private int[] hideSets = new int[8];
+    private int size = 0;
+
+    void add(int buffer, int index, int hideSet) {
+        if (size == buffers.length) {
+            buffers = Arrays.copyOf(buffers, size * 2);
+            indices = Arrays.copyOf(indices, size * 2);
+            hideSets = Arrays.copyOf(hideSets, size * 2);
+        }
+        buffers[size] = buffer;
+        indices[size] = index;
+        hideSets[size] = hideSet;
+        size++;
+    }
+
+    void addAll(TokenList other) {
+        for (int i = 0; i < other.size; i++) add(other.buffers[i], other.indices[i], other.hideSets[i]);
+    }
+
+    void removeLast() {
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int buffer(int i) {
+        return buffers[i];
+    }
+
+    int index(int i) {
+        return indices[i];
+    }
+
+    int hideSet(int i) {
+        return hideSets[i];
+    }
+
+    void setHideSet(int i, int hideSet) {
+        hideSets[i] = hideSet;
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.monac.compiler.preprocessor;
+
+import com.monac.compiler.lexer.Token;
+import com.monac.compiler.lexer.TokenBuffer;
+import com.monac.compiler.lexer.TokenStream;
+import com.monac.compiler.lexer.TokenType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The token stream of a preprocessed translation unit, stitched together from the
+ * {@link TokenBuffer}s of the main file and its headers.
+ *
+ * <p>Tokens are not copied. Every entry only refers to a token of one of the buffers, by buffer
+ * id and token index, so the tokens of a cached header are shared by every translation unit
+ * that includes it, and each token still resolves to its own source and offset.</p>
+ */
+public final class TokenSequence implements TokenStream {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final List<TokenBuffer> buffers = new ArrayList<>();
+    private final Map<TokenBuffer, Integer> bufferIds = new IdentityHashMap<>();
+    private int[] bufferOf = new int[INITIAL_CAPACITY];
+    private int[] indexOf = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Appends token {@code index} of {@code buffer}.
+     */
+    public void add(TokenBuffer buffer, int index) {
+        add(bufferId(buffer), index);
+    }
+
+    void add(int buffer, int index) {
+        if (size == bufferOf.length) {
+            bufferOf = Arrays.copyOf(bufferOf, size * 2);
+            indexOf = Arrays.copyOf(indexOf, size * 2);
+        }
+        bufferOf[size] = buffer;
+        indexOf[size] = index;
+        size++;
+    }
+
+    int bufferId(TokenBuffer buffer) {
+        return bufferIds.computeIfAbsent(buffer, b -> {
+            buffers.add(b);
+            return buffers.size() - 1;
+        });
+    }
+
+    TokenBuffer bufferAt(int buffer) {
+        return buffers.get(buffer);
+    }
+
+    int bufferCount() {
+        return buffers.size();
+    }
+
+    // Id of the buffer the token at index comes from
+    int bufferIdOf(int index) {
+        return bufferOf[checkIndex(index)];
+    }
+
+    // Getters
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The buffer the token at {@code index} comes from.
+     */
+    public TokenBuffer buffer(int index) {
+        return buffers.get(bufferOf[checkIndex(index)]);
+    }
+
+    /**
+     * @return The index of the token within {@link #buffer(int)}.
+     */
+    public int index(int index) {
+        return indexOf[checkIndex(index)];
+    }
+
+    @Override
+    public TokenType type(int index) {
+        return buffer(index).type(indexOf[index]);
+    }
+
+    @Override
+    public Token token(int index) {
+        return buffer(index).token(indexOf[index]);
+    }
+
+    @Override
+    public int symbol(int index) {
+        return buffer(index).symbol(indexOf[index]);
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Token index " + index + " out of bounds for size " + size);
+        }
+        return index;
+    }
+
+}
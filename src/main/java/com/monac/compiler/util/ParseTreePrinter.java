@@ -28,6 +28,16 @@ public class ParseTreePrinter implements ParseTreeVisitor {
     }
 
     public String formatNode(Node node) {
+        switch (node.getType()) {
+            case INTEGER_CONSTANT, CHARACTER_CONSTANT -> {
+                return "\033[34m" + node.getValue() + "\033[0m"; // Blue for constants
+            }
+            case FLOATING_CONSTANT -> {
+                return "\033[34m" + node.getDoubleValue() + "\033[0m";
+            }
+            default -> {
+            }
+        }
         Object literal = node.getLiteral();
         if (literal != null) {
             if (literal instanceof Integer) {
@@ -0,0 +1,110 @@
+package com.monac.compiler.benchmark;
+
+import com.monac.compiler.lexer.Lexer;
+import com.monac.compiler.lexer.ParallelLexer;
+import com.monac.compiler.lexer.Source;
+import com.monac.compiler.lexer.SymbolTable;
+import com.monac.compiler.lexer.TokenBuffer;
+import com.monac.compiler.lexer.Utf8Source;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Compares the scalar scanner with the Vector API fast path and with {@link ParallelLexer} on a
+ * large generated source.
+ *
+ * <p>Run with {@code --add-modules jdk.incubator.vector}, otherwise both variants fall back to
+ * the scalar scanner. Optional arguments: the size of the input in megabytes (default 32) and
+ * the number of measured rounds (default 10).</p>
+ *
+ * <p>Kept with the tests, out of the production jar; run from the test classpath, e.g.
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.monac.compiler.benchmark.LexerBenchmark}.</p>
+ */
+public final class LexerBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        Path file = Files.createTempFile("monac-bench", ".c");
+        try {
+            Files.writeString(file, generate(megabytes * 1024 * 1024));
+            Source source = Utf8Source.map(file);
+
+            TokenBuffer scalar = lex(source, false);
+            TokenBuffer vector = lex(source, true);
+            if (!sameTokens(scalar, vector)) throw new IllegalStateException("Scalar and vector token streams differ");
+            if (!sameTokens(scalar, lexParallel(source))) throw new IllegalStateException("Sequential and parallel token streams differ");
+
+            double scalarTime = measure(source, false, rounds);
+            double vectorTime = measure(source, true, rounds);
+            double parallelTime = measureParallel(source, rounds);
+            double size = source.length() / (1024.0 * 1024.0);
+
+            System.out.printf("input:  %.1f MB, %d tokens%n", size, scalar.size());
+            System.out.printf("scalar: %8.2f ms  %8.1f MB/s%n", scalarTime, size / scalarTime * 1000);
+            System.out.printf("vector: %8.2f ms  %8.1f MB/s%n", vectorTime, size / vectorTime * 1000);
+            System.out.printf("parallel: %6.2f ms  %8.1f MB/s%n", parallelTime, size / parallelTime * 1000);
+            System.out.printf("speedup: %.2fx vector, %.2fx parallel%n", scalarTime / vectorTime, scalarTime / parallelTime);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Average milliseconds per full scan, after warming up
+    private static double measure(Source source, boolean vectorize, int rounds) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) lex(source, vectorize);
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) lex(source, vectorize);
+        return (System.nanoTime() - start) / 1e6 / rounds;
+    }
+
+    private static double measureParallel(Source source, int rounds) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) lexParallel(source);
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) lexParallel(source);
+        return (System.nanoTime() - start) / 1e6 / rounds;
+    }
+
+    private static TokenBuffer lexParallel(Source source) {
+        return ParallelLexer.tokenize(source, new SymbolTable());
+    }
+
+    private static TokenBuffer lex(Source source, boolean vectorize) {
+        return new Lexer(source, new SymbolTable(), vectorize).tokenizeToBuffer();
+    }
+
+    private static boolean sameTokens(TokenBuffer a, TokenBuffer b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (a.type(i) != b.type(i) || a.start(i) != b.start(i) || a.length(i) != b.length(i)) return false;
+        }
+        return true;
+    }
+
+    // Generated code in the shape that dominates real sources: indentation, comments and long names
+    private static String generate(int size) {
+        StringBuilder builder = new StringBuilder(size + 512);
+        for (int function = 0; builder.length() < size; function++) {
+            builder.append("/*\n")
+                    .append(" * Computes the checksum of block ").append(function).append(" of the configuration table.\n")
+                    .append(" * The values are generated, do not edit them by hand.\n")
+                    .append(" */\n")
+                    .append("int configuration_block_checksum_").append(function)
+                    .append("(int configuration_table_index, int configuration_table_length) {\n");
+            for (int line = 0; line < 8; line++) {
+                builder.append("        int accumulated_value_").append(line)
+                        .append(" = configuration_table_index * ").append(line + 31)
+                        .append(" + configuration_table_length;   // running checksum part ").append(line).append('\n');
+            }
+            builder.append("        return accumulated_value_0 + accumulated_value_7;\n")
+                    .append("}\n\n");
+        }
+        return builder.toString();
+    }
+
+}
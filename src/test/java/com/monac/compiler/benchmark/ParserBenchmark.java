@@ -0,0 +1,200 @@
+package com.monac.compiler.benchmark;
+
+import com.monac.compiler.lexer.Lexer;
+import com.monac.compiler.lexer.StringSource;
+import com.monac.compiler.lexer.SymbolTable;
+import com.monac.compiler.lexer.TokenBuffer;
+import com.monac.compiler.parser.ParallelParser;
+import com.monac.compiler.parser.ParseSession;
+import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.lalr.LalrParser;
+import com.monac.compiler.parser.tree.FlatTree;
+import com.monac.compiler.parser.tree.Node;
+import com.monac.compiler.parser.tree.syntax.Syntax;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Compares the recursive descent {@link Parser} with the table-driven {@link LalrParser} on a
+ * large generated source, after checking that both build the same tree. Further runs skip the
+ * function bodies, as a pass that only needs declarations would, and parse the declarations
+ * in parallel with {@link ParallelParser}; lexing is timed for comparison. Last, every function is
+ * lexed and parsed as an input of its own, once with a new lexer and parser per input and once
+ * with a reused {@link ParseSession}. The tree is also copied into a {@link FlatTree}, to compare
+ * the heap both keep alive and the time of a preorder walk over each, and converted to
+ * {@link Syntax} records, to compare the heap they keep alive.
+ *
+ * <p>The parsers read the same {@link TokenBuffer}, so only parsing is measured. Optional
+ * arguments: the number of generated functions (default 20000) and the number of measured
+ * rounds (default 10).</p>
+ *
+ * <p>Kept with the tests, out of the production jar; run from the test classpath, e.g.
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.monac.compiler.benchmark.ParserBenchmark}.</p>
+ */
+public final class ParserBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+
+    // Written by the walks, so they are not optimized away
+    private static long checksum;
+
+    public static void main(String[] args) {
+        int functions = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        String source = generate(functions);
+        TokenBuffer tokens = new Lexer(new StringSource(source), new SymbolTable()).tokenizeToBuffer();
+
+        Parser parser = new Parser(tokens);
+        Node descent = parser.parse();
+        LalrParser lalrParser = new LalrParser(tokens);
+        Node lalr = lalrParser.parse();
+        if (parser.hadErrors() || lalrParser.hadErrors()) throw new IllegalStateException("The generated source does not parse");
+        if (!sameTree(descent, lalr)) throw new IllegalStateException("Recursive descent and LALR trees differ");
+        if (!sameTree(descent, new Parser(tokens, true).parse())) throw new IllegalStateException("Lazily parsed bodies differ");
+        if (!sameTree(descent, new ParallelParser(tokens).parse())) throw new IllegalStateException("Parallel and sequential trees differ");
+        FlatTree flat = FlatTree.of(descent, tokens);
+        if (!sameTree(descent, flat.toNode(flat.root()))) throw new IllegalStateException("Flat tree differs");
+
+        double lexTime = measure(() -> new Lexer(new StringSource(source), new SymbolTable()).tokenizeToBuffer(), rounds);
+        double descentTime = measure(() -> new Parser(tokens).parse(), rounds);
+        double lalrTime = measure(() -> new LalrParser(tokens).parse(), rounds);
+        double lazyTime = measure(() -> new Parser(tokens, true).parse(), rounds);
+        double parallelTime = measure(() -> new ParallelParser(tokens).parse(), rounds);
+
+        String[] snippets = source.split("\n\n");
+        double freshTime = measure(() -> {
+            for (String snippet : snippets) new Parser(new Lexer(new StringSource(snippet), new SymbolTable()).tokenizeToBuffer()).parse();
+        }, rounds);
+        double sessionTime = measure(() -> {
+            try (ParseSession session = ParseSession.acquire()) {
+                for (String snippet : snippets) session.parse(snippet);
+            }
+        }, rounds);
+
+        double flattenTime = measure(() -> FlatTree.of(descent, tokens), rounds);
+        double nodeWalkTime = measure(() -> walk(descent), rounds);
+        double flatWalkTime = measure(() -> walk(flat), rounds);
+        long nodeBytes = retained(() -> new Parser(tokens).parse());
+        long flatBytes = retained(() -> FlatTree.of(new Parser(tokens).parse(), tokens));
+        long typedBytes = retained(() -> Syntax.of(new Parser(tokens).parse()));
+
+        System.out.printf("input:   %d functions, %d tokens%n", functions, tokens.size());
+        System.out.printf("lexing:  %8.2f ms%n", lexTime);
+        System.out.printf("descent: %8.2f ms  %8.1f Mtokens/s%n", descentTime, tokens.size() / descentTime / 1000);
+        System.out.printf("lalr:    %8.2f ms  %8.1f Mtokens/s%n", lalrTime, tokens.size() / lalrTime / 1000);
+        System.out.printf("lazy:    %8.2f ms  %8.1f Mtokens/s, signatures only%n", lazyTime, tokens.size() / lazyTime / 1000);
+        System.out.printf("parallel: %7.2f ms  %8.1f Mtokens/s%n", parallelTime, tokens.size() / parallelTime / 1000);
+        System.out.printf("ratio:   %.2fx lalr, %.2fx lazy, %.2fx parallel%n",
+                descentTime / lalrTime, descentTime / lazyTime, descentTime / parallelTime);
+        System.out.printf("snippets: %d inputs, %.2f ms new per input, %.2f ms session (%.2fx)%n",
+                snippets.length, freshTime, sessionTime, freshTime / sessionTime);
+        System.out.printf("tree:    %d nodes, %.1f MB nodes, %.1f MB flat (%.1fx), %.1f MB typed (%.1fx), %.2f ms to flatten%n",
+                flat.size(), nodeBytes / 1e6, flatBytes / 1e6, (double) nodeBytes / flatBytes,
+                typedBytes / 1e6, (double) nodeBytes / typedBytes, flattenTime);
+        System.out.printf("walk:    %8.2f ms nodes, %.2f ms flat (%.2fx)%n", nodeWalkTime, flatWalkTime, nodeWalkTime / flatWalkTime);
+    }
+
+    // Average milliseconds per run, after warming up
+    private static double measure(Runnable parse, int rounds) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) parse.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) parse.run();
+        return (System.nanoTime() - start) / 1e6 / rounds;
+    }
+
+    // Preorder walks reading every node's type and offset
+
+    private static void walk(Node root) {
+        long sum = 0;
+        List<Node> pending = new ArrayList<>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.removeLast();
+            sum += node.getType().ordinal() + node.getOffset();
+            List<Node> children = node.getChildren();
+            if (children == null) continue;
+            for (int i = children.size() - 1; i >= 0; i--) pending.add(children.get(i));
+        }
+        checksum += sum;
+    }
+
+    private static void walk(FlatTree tree) {
+        long sum = 0;
+        FlatTree.Cursor cursor = tree.cursor();
+        do {
+            sum += cursor.type().ordinal() + cursor.offset();
+        } while (cursor.toNext(tree.root()));
+        checksum += sum;
+    }
+
+    // Bytes of heap kept alive by what build returns, after collections; an estimate
+    private static long retained(Supplier<Object> build) {
+        long before = usedHeap();
+        Object result = build.get();
+        long after = usedHeap();
+        Reference.reachabilityFence(result);
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // Compared without recursion, generated trees can be deep; no children and an empty list are the same
+    private static boolean sameTree(Node a, Node b) {
+        List<Node> pending = new ArrayList<>(); // Pairs, may hold nulls
+        pending.add(a);
+        pending.add(b);
+        while (!pending.isEmpty()) {
+            Node y = pending.removeLast();
+            Node x = pending.removeLast();
+            if (x == null || y == null) {
+                if (x != y) return false;
+                continue;
+            }
+            if (x.getType() != y.getType() || x.getOffset() != y.getOffset() || x.getValue() != y.getValue()) return false;
+            if (!Objects.equals(text(x.getLiteral()), text(y.getLiteral()))) return false;
+
+            List<Node> xs = x.getChildren() == null ? List.of() : x.getChildren();
+            List<Node> ys = y.getChildren() == null ? List.of() : y.getChildren();
+            if (xs.size() != ys.size()) return false;
+            for (int i = 0; i < xs.size(); i++) {
+                pending.add(xs.get(i));
+                pending.add(ys.get(i));
+            }
+        }
+        return true;
+    }
+
+    // Literals may be views into the source, which do not implement equals
+    private static String text(Object literal) {
+        return literal == null ? null : literal.toString();
+    }
+
+    // Functions in the subset both parsers understand: declarations, calls, conditions and returns
+    private static String generate(int functions) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("int total;\n\n");
+        for (int function = 0; function < functions; function++) {
+            builder.append("int step_").append(function).append("(int value, int limit) {\n")
+                    .append("    int scaled = value * ").append(function % 97 + 2).append(" + limit / 3, rest;\n")
+                    .append("    rest = (scaled << 2) - (limit >> 1) % 7;\n")
+                    .append("    if (scaled > limit && rest != 0 || value == ").append(function).append(") {\n")
+                    .append("        total += step_").append(Math.max(0, function - 1)).append("(rest, limit - 1);\n")
+                    .append("        return scaled ? rest : -value;\n")
+                    .append("    }\n")
+                    .append("    rest = rest & 255 | scaled ^ 15, value = rest;\n")
+                    .append("    return sizeof rest + f(value, 'c', \"text\");\n")
+                    .append("}\n\n");
+        }
+        return builder.toString();
+    }
+
+}
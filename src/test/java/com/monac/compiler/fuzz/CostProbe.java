@@ -0,0 +1,107 @@
+package com.monac.compiler.fuzz;
+
+import com.monac.compiler.lexer.Lexer;
+import com.monac.compiler.lexer.LexerException;
+import com.monac.compiler.lexer.StringSource;
+import com.monac.compiler.lexer.SymbolTable;
+import com.monac.compiler.lexer.TokenBuffer;
+import com.monac.compiler.parser.Parser;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures what lexing and parsing an input costs, in wall time and allocated bytes.
+ *
+ * <p>An input the lexer rejects with a {@link LexerException} is measured up to that point and
+ * counted as rejected. Anything else thrown by the lexer or the parser, including an error such
+ * as a stack overflow, is passed on to the caller as a crash.</p>
+ *
+ * <p>Allocation is read from the per-thread counters of {@code com.sun.management.ThreadMXBean};
+ * on a JVM without them it is reported as {@code -1}.</p>
+ */
+final class CostProbe {
+
+    // Growth of the cost per token, for four times the tokens, above which a cost is not linear
+    static final double TIME_LIMIT = 3.0;
+    static final double ALLOCATION_LIMIT = 2.0;
+
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    record Cost(long nanos, long bytes, boolean rejected) {
+    }
+
+    // How many times the cost per token grows when the pump is repeated four times as often
+    record Growth(double time, double allocation) {
+
+        boolean isSuperlinear() {
+            return time > TIME_LIMIT || allocation > ALLOCATION_LIMIT;
+        }
+
+    }
+
+    private CostProbe() {
+    }
+
+    /**
+     * Lexes and parses the text {@code repeats} times.
+     *
+     * @return The cost of the fastest run, and the least allocated by a run.
+     */
+    static Cost measure(String text, int repeats) {
+        long nanos = Long.MAX_VALUE;
+        long bytes = Long.MAX_VALUE;
+        boolean rejected = false;
+        for (int i = 0; i < repeats; i++) {
+            long allocatedBefore = allocated();
+            long start = System.nanoTime();
+            rejected = !run(text);
+            nanos = Math.min(nanos, System.nanoTime() - start);
+            bytes = Math.min(bytes, allocated() - allocatedBefore);
+        }
+        return new Cost(nanos, THREADS == null ? -1 : bytes, rejected);
+    }
+
+    /**
+     * Compares the cost per token of the input with about {@code tokens} tokens and with the
+     * pump repeated four times as often. The pump is repeated an even number of times, so a
+     * quote in it is closed the same way in both inputs.
+     */
+    static Growth growth(PumpedInput input, int tokens, int repeats) {
+        int small = Math.max(2, ((tokens - input.tokens(0)) / input.pump().size()) & ~1);
+        int large = small * 4;
+        Cost smallCost = measure(input.text(small), repeats);
+        Cost largeCost = measure(input.text(large), repeats);
+        if (smallCost.rejected() != largeCost.rejected()) return new Growth(0, 0); // Different inputs to the parser
+
+        double scale = (double) input.tokens(small) / input.tokens(large);
+        double time = (double) largeCost.nanos() / Math.max(1, smallCost.nanos()) * scale;
+        double allocation = smallCost.bytes() <= 0 ? 0 : (double) largeCost.bytes() / smallCost.bytes() * scale;
+        return new Growth(time, allocation);
+    }
+
+    // False if the lexer rejected the text
+    private static boolean run(String text) {
+        TokenBuffer tokens;
+        try {
+            tokens = new Lexer(new StringSource(text), new SymbolTable()).tokenizeToBuffer();
+        } catch (LexerException e) {
+            return false; // Malformed source
+        }
+        new Parser(tokens).parse();
+        return true;
+    }
+
+    private static long allocated() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+            return threads;
+        }
+        return null;
+    }
+
+}
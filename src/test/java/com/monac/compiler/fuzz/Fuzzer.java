@@ -0,0 +1,210 @@
+package com.monac.compiler.fuzz;
+
+import com.monac.compiler.parser.lalr.Grammar;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Looks for inputs that make lexing and parsing crash or cost more than linear time or memory.
+ *
+ * <p>Inputs are random sentences of the parser's grammar ({@link SentenceGenerator}), broken by
+ * a few random mutations ({@link Mutator}). Every input is lexed and parsed once to record its
+ * wall time and allocation per token; a crash is shrunk and saved. Then a random run of its tokens
+ * is chosen as a pump, and the input is grown to about {@value #PUMPED_TOKENS} tokens and to four
+ * times as many by repeating it. If the cost per token grows with the size
+ * ({@link CostProbe.Growth#isSuperlinear()}) twice in a row, the input is shrunk to the smallest
+ * prefix, pump and suffix that still grow, and saved.</p>
+ *
+ * <p>Findings are kept as {@code .properties} files in a corpus directory, and every run first
+ * checks the ones already there, so a fixed regression shows up as fixed and one that came back
+ * shows up as failing. Arguments, all optional: the number of seconds to fuzz (default 60), the
+ * random seed (default from the clock) and the corpus directory (default {@code fuzz-corpus}).
+ * The exit status is 1 when anything fails.</p>
+ *
+ * <p>Kept with the tests, out of the production jar; run from the test classpath, e.g.
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.monac.compiler.fuzz.Fuzzer}.
+ * The corpus directory is local to the checkout and not packaged.</p>
+ */
+public final class Fuzzer {
+
+    private static final int PUMPED_TOKENS = 2000;
+    private static final int MAX_DEPTH = 40;
+    private static final int MAX_TOKENS = 400;
+
+    private final Random random;
+    private final SentenceGenerator generator;
+    private final Mutator mutator;
+    private final Path corpus;
+
+    // Cost per token of every input with enough tokens to measure, for the summary
+    private final List<Double> nanosPerToken = new ArrayList<>();
+    private final List<Double> bytesPerToken = new ArrayList<>();
+    private String worstInput = "";
+    private double worstNanosPerToken = 0;
+    private int inputs = 0;
+    private int rejected = 0;
+    private int findings = 0;
+
+    private Fuzzer(long seed, Path corpus) {
+        this.random = new Random(seed);
+        this.generator = new SentenceGenerator(Grammar.load(), random);
+        this.mutator = new Mutator(random);
+        this.corpus = corpus;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        Path corpus = Path.of(args.length > 2 ? args[2] : "fuzz-corpus");
+
+        Fuzzer fuzzer = new Fuzzer(seed, corpus);
+        System.out.printf("seed: %d%n", seed);
+        int failing = fuzzer.replay();
+        fuzzer.warmUp();
+        fuzzer.run(seconds * 1_000_000_000L);
+        fuzzer.summarize();
+        if (failing > 0 || fuzzer.findings > 0) System.exit(1);
+    }
+
+    // Checks the saved findings, returns how many still fail
+    private int replay() throws IOException {
+        if (!Files.isDirectory(corpus)) return 0;
+        List<Path> files;
+        try (Stream<Path> list = Files.list(corpus)) {
+            files = list.filter(file -> file.toString().endsWith(".properties")).sorted().toList();
+        }
+        int failing = 0;
+        for (Path file : files) {
+            Properties finding = new Properties();
+            try (Reader in = Files.newBufferedReader(file)) {
+                finding.load(in);
+            }
+            PumpedInput input = new PumpedInput(tokens(finding.getProperty("prefix")), tokens(finding.getProperty("pump")), tokens(finding.getProperty("suffix")));
+            boolean fails = input.pump().isEmpty() ? crashes(input) : grows(input);
+            if (fails) failing++;
+            System.out.printf("corpus: %s %s%n", fails ? "FAILING" : "fixed  ", file.getFileName());
+        }
+        return failing;
+    }
+
+    // Lets the JIT compile the lexer and parser before anything is timed
+    private void warmUp() {
+        for (int i = 0; i < 2000; i++) {
+            try {
+                CostProbe.measure(String.join(" ", generator.generate(MAX_DEPTH, MAX_TOKENS)), 1);
+            } catch (Throwable e) {
+                // Found again by the run
+            }
+        }
+    }
+
+    private void run(long nanos) throws IOException {
+        long deadline = System.nanoTime() + nanos;
+        while (System.nanoTime() < deadline) {
+            List<String> tokens = mutator.mutate(generator.generate(1 + random.nextInt(MAX_DEPTH), MAX_TOKENS), random.nextInt(4));
+            if (tokens.isEmpty()) continue;
+            inputs++;
+
+            PumpedInput whole = new PumpedInput(tokens, List.of(), List.of());
+            CostProbe.Cost cost;
+            try {
+                cost = CostProbe.measure(whole.text(0), 1);
+            } catch (Throwable e) {
+                save("crash", Shrinker.shrink(whole, Fuzzer::crashes), e.toString());
+                continue;
+            }
+            record(tokens, cost);
+
+            int start = random.nextInt(tokens.size());
+            int end = Math.min(tokens.size(), start + 1 + random.nextInt(8));
+            PumpedInput pumped = new PumpedInput(tokens.subList(0, start), tokens.subList(start, end), tokens.subList(end, tokens.size()));
+            if (grows(pumped)) {
+                PumpedInput shrunk = Shrinker.shrink(pumped, Fuzzer::grows);
+                CostProbe.Growth growth = CostProbe.growth(shrunk, PUMPED_TOKENS, 5);
+                save("superlinear", shrunk, String.format("time x%.2f, allocation x%.2f per token for 4x the tokens", growth.time(), growth.allocation()));
+            }
+        }
+    }
+
+    private void record(List<String> tokens, CostProbe.Cost cost) {
+        if (cost.rejected()) rejected++;
+        if (tokens.size() < 64) return; // Too short for the timer
+        double nanos = (double) cost.nanos() / tokens.size();
+        nanosPerToken.add(nanos);
+        if (cost.bytes() >= 0) bytesPerToken.add((double) cost.bytes() / tokens.size());
+        if (nanos > worstNanosPerToken) {
+            worstNanosPerToken = nanos;
+            worstInput = String.join(" ", tokens);
+        }
+    }
+
+    // Superlinear twice, as timing alone can be thrown off by a collection or a compilation
+    private static boolean grows(PumpedInput input) {
+        try {
+            return CostProbe.growth(input, PUMPED_TOKENS, 3).isSuperlinear() && CostProbe.growth(input, PUMPED_TOKENS, 5).isSuperlinear();
+        } catch (Throwable e) {
+            return false; // Left to the crash check
+        }
+    }
+
+    private static boolean crashes(PumpedInput input) {
+        try {
+            CostProbe.measure(input.text(0), 1);
+            return false;
+        } catch (Throwable e) {
+            return true;
+        }
+    }
+
+    private void save(String kind, PumpedInput input, String detail) throws IOException {
+        findings++;
+        String name = kind + "-" + Integer.toHexString(input.hashCode()) + ".properties";
+        System.out.printf("%s: %s%n  %s%n", kind, detail, describe(input));
+
+        Properties finding = new Properties();
+        finding.setProperty("kind", kind);
+        finding.setProperty("detail", detail);
+        finding.setProperty("prefix", String.join(" ", input.prefix()));
+        finding.setProperty("pump", String.join(" ", input.pump()));
+        finding.setProperty("suffix", String.join(" ", input.suffix()));
+        Files.createDirectories(corpus);
+        try (Writer out = Files.newBufferedWriter(corpus.resolve(name))) {
+            finding.store(out, "Found by " + Fuzzer.class.getName());
+        }
+    }
+
+    private void summarize() {
+        System.out.printf("inputs:  %d, %d rejected by the lexer, %d findings%n", inputs, rejected, findings);
+        System.out.printf("time:    %s ns per token%n", percentiles(nanosPerToken));
+        if (!bytesPerToken.isEmpty()) System.out.printf("alloc:   %s bytes per token%n", percentiles(bytesPerToken));
+        if (!worstInput.isEmpty()) {
+            System.out.printf("slowest: %.1f ns per token: %s%n", worstNanosPerToken, worstInput.length() > 200 ? worstInput.substring(0, 200) + "..." : worstInput);
+        }
+    }
+
+    private static String percentiles(List<Double> values) {
+        if (values.isEmpty()) return "-";
+        double[] sorted = values.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+        return String.format("median %.1f, p99 %.1f, max %.1f",
+                sorted[sorted.length / 2], sorted[(int) (sorted.length * 0.99)], sorted[sorted.length - 1]);
+    }
+
+    private static String describe(PumpedInput input) {
+        return String.join(" ", input.prefix()) + " ( " + String.join(" ", input.pump()) + " )* " + String.join(" ", input.suffix());
+    }
+
+    private static List<String> tokens(String text) {
+        return text == null || text.isEmpty() ? List.of() : Arrays.asList(text.split(" "));
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.monac.compiler.fuzz;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Breaks generated sentences the way edits in progress do: tokens deleted or duplicated,
+ * brackets left unbalanced, and now and then a character that upsets the lexer.
+ */
+final class Mutator {
+
+    private static final String[] BRACKETS = {"{", "}", "(", ")", "[", "]", ";"};
+    private static final String[] LEXER_BREAKERS = {"\"", "'", "/*", "*/", "\\", "0x", ".", "1e", "@"};
+
+    private final Random random;
+
+    Mutator(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Applies up to {@code count} random mutations.
+     *
+     * @return A new list, {@code tokens} is left unchanged.
+     */
+    List<String> mutate(List<String> tokens, int count) {
+        List<String> result = new ArrayList<>(tokens);
+        for (int i = 0; i < count; i++) {
+            switch (random.nextInt(10)) {
+                case 0, 1, 2 -> delete(result);
+                case 3, 4, 5 -> duplicate(result);
+                case 6, 7, 8 -> result.add(random.nextInt(result.size() + 1), BRACKETS[random.nextInt(BRACKETS.length)]);
+                default -> result.add(random.nextInt(result.size() + 1), LEXER_BREAKERS[random.nextInt(LEXER_BREAKERS.length)]);
+            }
+        }
+        return result;
+    }
+
+    private void delete(List<String> tokens) {
+        if (tokens.isEmpty()) return;
+        int start = random.nextInt(tokens.size());
+        int end = Math.min(tokens.size(), start + 1 + random.nextInt(8));
+        tokens.subList(start, end).clear();
+    }
+
+    private void duplicate(List<String> tokens) {
+        if (tokens.isEmpty()) return;
+        int start = random.nextInt(tokens.size());
+        int end = Math.min(tokens.size(), start + 1 + random.nextInt(16));
+        tokens.addAll(end, new ArrayList<>(tokens.subList(start, end)));
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.monac.compiler.fuzz;
+
+import java.util.List;
+
+/**
+ * An input of the form {@code prefix pump* suffix}, grown by repeating the pump. The tokens are
+ * spelled out and joined with single spaces. A crash is kept as a prefix with nothing to pump.
+ */
+record PumpedInput(List<String> prefix, List<String> pump, List<String> suffix) {
+
+    PumpedInput {
+        prefix = List.copyOf(prefix);
+        pump = List.copyOf(pump);
+        suffix = List.copyOf(suffix);
+    }
+
+    int tokens(int repeats) {
+        return prefix.size() + pump.size() * repeats + suffix.size();
+    }
+
+    String text(int repeats) {
+        StringBuilder text = new StringBuilder();
+        for (String token : prefix) text.append(token).append(' ');
+        for (int i = 0; i < repeats; i++) {
+            for (String token : pump) text.append(token).append(' ');
+        }
+        for (String token : suffix) text.append(token).append(' ');
+        return text.toString();
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.monac.compiler.fuzz;
+
+import com.monac.compiler.lexer.Lexer;
+import com.monac.compiler.lexer.TokenType;
+import com.monac.compiler.parser.lalr.Grammar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Derives random token sequences from the C grammar of the parser and spells them as source.
+ *
+ * <p>Every nonterminal is expanded by a production chosen at random until the derivation gets
+ * deeper than {@code maxDepth} or longer than {@code maxTokens}; from then on each nonterminal
+ * takes the production that reaches terminals in the fewest steps, so the derivation always ends.
+ * The expansion keeps its own stack, as deep derivations are the point.</p>
+ */
+final class SentenceGenerator {
+
+    private static final String[] IDENTIFIERS = {"a", "b", "x", "y", "f", "g", "main", "T", "U"};
+
+    private final Grammar grammar;
+    private final Random random;
+    private final int[][] productions; // Of each symbol, empty for terminals
+    private final int[] height;        // Fewest derivation steps down to terminals, by symbol
+    private final int[] shortest;      // Production of each nonterminal with the lowest height
+
+    SentenceGenerator(Grammar grammar, Random random) {
+        this.grammar = grammar;
+        this.random = random;
+
+        int symbols = grammar.symbolCount();
+        List<List<Integer>> bySymbol = new ArrayList<>();
+        for (int symbol = 0; symbol < symbols; symbol++) bySymbol.add(new ArrayList<>());
+        for (int production = 1; production < grammar.productionCount(); production++) {
+            bySymbol.get(grammar.left(production)).add(production);
+        }
+        productions = new int[symbols][];
+        for (int symbol = 0; symbol < symbols; symbol++) {
+            productions[symbol] = bySymbol.get(symbol).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        // Heights by fixpoint iteration, terminals have height 0
+        height = new int[symbols];
+        shortest = new int[symbols];
+        Arrays.fill(height, grammar.terminalCount(), symbols, Integer.MAX_VALUE);
+        for (boolean changed = true; changed; ) {
+            changed = false;
+            for (int production = 1; production < grammar.productionCount(); production++) {
+                int steps = 1;
+                for (int symbol : grammar.right(production)) {
+                    if (height[symbol] == Integer.MAX_VALUE) {
+                        steps = Integer.MAX_VALUE;
+                        break;
+                    }
+                    steps = Math.max(steps, height[symbol] + 1);
+                }
+                int left = grammar.left(production);
+                if (steps < height[left]) {
+                    height[left] = steps;
+                    shortest[left] = production;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return A random sentence of the start symbol, as the spelling of each token.
+     */
+    List<String> generate(int maxDepth, int maxTokens) {
+        List<String> tokens = new ArrayList<>();
+        int[] symbols = new int[64];
+        int[] depths = new int[64];
+        int top = 0;
+        symbols[0] = grammar.right(0)[0];
+        depths[0] = 0;
+
+        while (top >= 0) {
+            int symbol = symbols[top];
+            int depth = depths[top--];
+            if (grammar.isTerminal(symbol)) {
+                String spelling = spell(TokenType.values()[symbol]);
+                if (spelling != null) tokens.add(spelling);
+                continue;
+            }
+
+            int[] choices = productions[symbol];
+            int production = depth >= maxDepth || tokens.size() >= maxTokens
+                    ? shortest[symbol]
+                    : choices[random.nextInt(choices.length)];
+            int[] right = grammar.right(production);
+            if (top + right.length >= symbols.length) {
+                symbols = Arrays.copyOf(symbols, (top + right.length) * 2);
+                depths = Arrays.copyOf(depths, symbols.length);
+            }
+            for (int i = right.length - 1; i >= 0; i--) {
+                symbols[++top] = right[i];
+                depths[top] = depth + 1;
+            }
+        }
+        return tokens;
+    }
+
+    // The text of one token of the type, null for EOF
+    String spell(TokenType type) {
+        return switch (type) {
+            case IDENTIFIER, TYPEDEF_NAME -> IDENTIFIERS[random.nextInt(IDENTIFIERS.length)];
+            case INTEGER_CONSTANT -> Integer.toString(random.nextInt(1000));
+            case FLOATING_CONSTANT -> random.nextInt(100) + ".5";
+            case CHARACTER_CONSTANT -> "'c'";
+            case STRING -> "\"text\"";
+            default -> Lexer.spelling(type);
+        };
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.monac.compiler.fuzz;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Makes a failing input smaller while it keeps failing.
+ *
+ * <p>Runs of tokens are removed from the prefix, the suffix and the pump in turn, halving the
+ * length of the runs from half the part down to single tokens, and the whole round is repeated
+ * while it removes anything. The number of tests is capped, since each one parses the input
+ * again, possibly grown to thousands of tokens.</p>
+ */
+final class Shrinker {
+
+    private static final int MAX_TESTS = 400;
+
+    // Parts of an input
+    private static final int PREFIX = 0;
+    private static final int PUMP = 1;
+    private static final int SUFFIX = 2;
+
+    private final Predicate<PumpedInput> failing;
+    private int tests = 0;
+
+    private Shrinker(Predicate<PumpedInput> failing) {
+        this.failing = failing;
+    }
+
+    static PumpedInput shrink(PumpedInput input, Predicate<PumpedInput> failing) {
+        return new Shrinker(failing).shrink(input);
+    }
+
+    private PumpedInput shrink(PumpedInput input) {
+        // A pump that is there must stay, without it nothing grows
+        int minimumPump = input.pump().isEmpty() ? 0 : 1;
+        PumpedInput current = input;
+        PumpedInput previous;
+        do {
+            previous = current;
+            current = shrink(current, PREFIX, 0);
+            current = shrink(current, SUFFIX, 0);
+            current = shrink(current, PUMP, minimumPump);
+        } while (!current.equals(previous) && tests < MAX_TESTS);
+        return current;
+    }
+
+    private PumpedInput shrink(PumpedInput input, int part, int minimum) {
+        return with(input, part, shrink(part(input, part), minimum, tokens -> failing.test(with(input, part, tokens))));
+    }
+
+    private List<String> shrink(List<String> tokens, int minimum, Predicate<List<String>> failing) {
+        List<String> current = tokens;
+        for (int run = Math.max(1, current.size() / 2); run >= 1 && tests < MAX_TESTS; run /= 2) {
+            for (int start = 0; start + run <= current.size() && current.size() - run >= minimum && tests < MAX_TESTS; ) {
+                List<String> candidate = new ArrayList<>(current.subList(0, start));
+                candidate.addAll(current.subList(start + run, current.size()));
+                tests++;
+                if (failing.test(candidate)) current = candidate; // The next run has moved to start
+                else start += run;
+            }
+        }
+        return current;
+    }
+
+    private static List<String> part(PumpedInput input, int part) {
+        return switch (part) {
+            case PREFIX -> input.prefix();
+            case PUMP -> input.pump();
+            default -> input.suffix();
+        };
+    }
+
+    private static PumpedInput with(PumpedInput input, int part, List<String> tokens) {
+        return switch (part) {
+            case PREFIX -> new PumpedInput(tokens, input.pump(), input.suffix());
+            case PUMP -> new PumpedInput(input.prefix(), tokens, input.suffix());
+            default -> new PumpedInput(input.prefix(), input.pump(), tokens);
+        };
+    }
+
+}
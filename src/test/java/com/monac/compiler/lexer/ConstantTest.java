@@ -0,0 +1,137 @@
+package com.monac.compiler.lexer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConstantTest {
+
+    // The only token of the source
+    private static TokenBuffer single(String source) {
+        TokenBuffer tokens = new Lexer(new StringSource(source), new SymbolTable()).tokenizeToBuffer();
+        assertEquals(2, tokens.size(), () -> source + " is one token");
+        assertEquals(source, tokens.lexeme(0).toString());
+        return tokens;
+    }
+
+    private static long integer(String source) {
+        TokenBuffer tokens = single(source);
+        assertEquals(TokenType.INTEGER_CONSTANT, tokens.type(0), source);
+        return tokens.value(0);
+    }
+
+    private static double floating(String source) {
+        TokenBuffer tokens = single(source);
+        assertEquals(TokenType.FLOATING_CONSTANT, tokens.type(0), source);
+        return tokens.doubleValue(0);
+    }
+
+    private static long character(String source) {
+        TokenBuffer tokens = single(source);
+        assertEquals(TokenType.CHARACTER_CONSTANT, tokens.type(0), source);
+        return tokens.value(0);
+    }
+
+    private static void rejected(String source) {
+        assertThrows(LexerException.class, () -> new Lexer(new StringSource(source), new SymbolTable()).tokenizeToBuffer(), source);
+    }
+
+    @Test
+    void integersInEveryBase() {
+        assertEquals(0, integer("0"));
+        assertEquals(42, integer("42"));
+        assertEquals(0x1F, integer("0x1F"));
+        assertEquals(0xABCDEF, integer("0XabcDEF"));
+        assertEquals(8, integer("010"));
+        assertEquals(0777, integer("0777"));
+        assertEquals(Long.MAX_VALUE, integer("9223372036854775807"));
+        assertEquals(-1L, integer("18446744073709551615"), "Unsigned 64 bits");
+        assertEquals(-1L, integer("0xFFFFFFFFFFFFFFFF"));
+    }
+
+    @Test
+    void integerSuffixes() {
+        for (String suffix : new String[]{"u", "U", "l", "L", "ll", "LL", "ul", "lu", "uLL", "LLu", "Ul"}) {
+            assertEquals(10, integer("10" + suffix), suffix);
+            assertEquals(16, integer("0x10" + suffix), suffix);
+        }
+        rejected("10uu");
+        rejected("10lll");
+        rejected("10lL");
+        rejected("10f");
+    }
+
+    @Test
+    void malformedIntegers() {
+        rejected("09");
+        rejected("0128");
+        rejected("18446744073709551616");
+        rejected("0x10000000000000000");
+        rejected("12ab");
+        rejected("0x");
+    }
+
+    @Test
+    void floatingConstants() {
+        assertEquals(1.5, floating("1.5"));
+        assertEquals(0.5, floating(".5"));
+        assertEquals(2.0, floating("2."));
+        assertEquals(1e10, floating("1e10"));
+        assertEquals(2.5e-3, floating("2.5E-3"));
+        assertEquals(3e+2, floating("3e+2"));
+        assertEquals(0.1, floating("0.1"), "Rounded like Java");
+        assertEquals(0.1f, floating("0.1f"), "Float precision");
+        assertEquals(0.1, floating("0.1L"));
+        assertEquals(0x1.8p1, floating("0x1.8p1"));
+        assertEquals(0x.8p0, floating("0x.8P0"));
+        assertEquals(0x10p-2, floating("0x10p-2"));
+        assertEquals(010.5, floating("010.5"), "Not octal");
+    }
+
+    @Test
+    void malformedFloatingConstants() {
+        rejected("1e");
+        rejected("1e+");
+        rejected("0x1.8");
+        rejected("0x.p1");
+        rejected("1.5.2");
+        rejected("1.5ff");
+    }
+
+    @Test
+    void characterConstantsAndEscapes() {
+        assertEquals('a', character("'a'"));
+        assertEquals('\n', character("'\\n'"));
+        assertEquals('\'', character("'\\''"));
+        assertEquals('"', character("'\"'"));
+        assertEquals('\\', character("'\\\\'"));
+        assertEquals(0x07, character("'\\a'"));
+        assertEquals(0x0B, character("'\\v'"));
+        assertEquals('?', character("'\\?'"));
+        assertEquals(0, character("'\\0'"));
+        assertEquals(0101, character("'\\101'"));
+        assertEquals(0xFF, character("'\\xff'"));
+        assertEquals(0x12 << 8 | '4', character("'\\0224'"), "Octal escapes stop after three digits");
+        assertEquals('a' << 24 | 'b' << 16 | 'c' << 8 | 'd', character("'abcd'"), "Packed like GCC");
+    }
+
+    @Test
+    void malformedCharacterConstants() {
+        rejected("''");
+        rejected("'a");
+        rejected("'a\n'");
+        rejected("'\\q'");
+        rejected("'\\x'");
+        rejected("'\\x100'");
+        rejected("'\\400'");
+    }
+
+    @Test
+    void stringsKeepTheirQuotes() {
+        TokenBuffer tokens = single("\"a \\\" b\\n\"");
+        assertEquals(TokenType.STRING, tokens.type(0));
+        rejected("\"open");
+    }
+
+}
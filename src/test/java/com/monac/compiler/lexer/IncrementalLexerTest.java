@@ -0,0 +1,120 @@
+package com.monac.compiler.lexer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IncrementalLexerTest {
+
+    private static final String SOURCE = """
+            int main(void) {
+              /* a comment */ int x = 0x1F, y = 'c';
+              char *s = "text // not a comment";
+              // a line comment
+              return x+++y >>= 2.5e3;
+            }
+            """;
+
+    private static final String[] SNIPPETS = {"/*", "*/", "//", "\n", "\"", "'a'", "x", "1", ".5", "e+", "0x", "+", "=",
+            ">>", "<", " ", "int", "return", "ab", "\"s\""};
+
+    private static TokenBuffer lex(String source, SymbolTable symbols) {
+        return new Lexer(new StringSource(source), symbols).tokenizeToBuffer();
+    }
+
+    private static void assertSameTokens(TokenBuffer expected, TokenBuffer actual, String source) {
+        assertEquals(expected.size(), actual.size(), () -> "Token count of\n" + source);
+        for (int i = 0; i < expected.size(); i++) {
+            int index = i;
+            assertEquals(expected.type(i), actual.type(i), () -> "Type of token " + index + " of\n" + source);
+            assertEquals(expected.start(i), actual.start(i), () -> "Start of token " + index + " of\n" + source);
+            assertEquals(expected.length(i), actual.length(i), () -> "Length of token " + index + " of\n" + source);
+            assertEquals(expected.value(i), actual.value(i), () -> "Value of token " + index + " of\n" + source);
+            assertEquals(expected.line(i), actual.line(i));
+            assertEquals(expected.column(i), actual.column(i));
+            if (expected.type(i) == TokenType.IDENTIFIER) {
+                assertEquals(expected.getSymbolTable().name(expected.symbol(i)), actual.getSymbolTable().name(actual.symbol(i)));
+            }
+        }
+    }
+
+    @Test
+    void randomEditsGiveTheTokensOfAFullLex() {
+        Random random = new Random(3);
+        SymbolTable symbols = new SymbolTable();
+        String text = SOURCE;
+        TokenBuffer tokens = lex(text, symbols);
+        int applied = 0;
+        for (int e = 0; e < 5000; e++) {
+            int offset = random.nextInt(text.length() + 1);
+            int removed = random.nextInt(3) == 0 ? Math.min(random.nextInt(8), text.length() - offset) : 0;
+            String inserted = random.nextInt(4) == 0 ? "" : SNIPPETS[random.nextInt(SNIPPETS.length)];
+            String next = text.substring(0, offset) + inserted + text.substring(offset + removed);
+
+            TokenBuffer expected;
+            try {
+                expected = lex(next, new SymbolTable());
+            } catch (LexerException rejected) {
+                TokenBuffer current = tokens;
+                assertThrows(LexerException.class, () -> IncrementalLexer.edit(current, offset, removed, inserted), next);
+                continue;
+            }
+            tokens = IncrementalLexer.edit(tokens, offset, removed, inserted);
+            assertEquals(next, tokens.getInput().toString());
+            assertSameTokens(expected, tokens, next);
+            text = next;
+            applied++;
+            if (text.length() > 4 * SOURCE.length()) {
+                text = SOURCE;
+                tokens = lex(text, symbols);
+            }
+        }
+        assertEquals(true, applied > 1000, "Edits applied: " + applied);
+    }
+
+    private static void assertEdit(String source, int offset, int removed, String inserted) {
+        String next = source.substring(0, offset) + inserted + source.substring(offset + removed);
+        TokenBuffer edited = IncrementalLexer.edit(lex(source, new SymbolTable()), offset, removed, inserted);
+        assertSameTokens(lex(next, new SymbolTable()), edited, next);
+    }
+
+    @Test
+    void editsThatReachFarAreFollowed() {
+        // Opening a comment swallows the tokens up to a later '*/', closing one brings them back
+        assertEdit("a b c d /* e */ f", 2, 0, "/*");
+        assertEdit("a /* b c d /* e */ f", 2, 2, "");
+        // A quote turns code into a string and back
+        assertEdit("a \"b\" c \"d\" e", 2, 5, "b \"c\"");
+        assertEdit("a \"b c\" d e", 2, 0, "\"x\" ");
+        assertEdit("a \"b\\\" c\" d", 5, 1, "");
+        // A line comment ends at the next line break
+        assertEdit("a // b\nc d\ne", 6, 1, " ");
+        // Tokens that merge and split
+        assertEdit("a + + b", 3, 1, "");
+        assertEdit("a ++ b", 3, 0, " ");
+        assertEdit("x 12 y", 4, 0, ".5e3");
+    }
+
+    @Test
+    void untouchedIdentifiersKeepTheirSymbols() {
+        SymbolTable symbols = new SymbolTable();
+        TokenBuffer tokens = lex("alpha beta gamma", symbols);
+        TokenBuffer edited = IncrementalLexer.edit(tokens, 6, 4, "delta");
+        assertEquals(tokens.symbol(0), edited.symbol(0));
+        assertEquals(tokens.symbol(2), edited.symbol(2));
+        assertEquals("delta", symbols.name(edited.symbol(1)));
+        assertEquals(12, edited.start(2));
+    }
+
+    @Test
+    void editsOutOfBoundsAreRejected() {
+        TokenBuffer tokens = lex("int a;", new SymbolTable());
+        assertThrows(IndexOutOfBoundsException.class, () -> IncrementalLexer.edit(tokens, 7, 0, "x"));
+        assertThrows(IndexOutOfBoundsException.class, () -> IncrementalLexer.edit(tokens, 4, 3, "x"));
+        assertThrows(IndexOutOfBoundsException.class, () -> IncrementalLexer.edit(tokens, -1, 0, "x"));
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.monac.compiler.lexer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class KeywordsTest {
+
+    private static final Map<String, TokenType> KEYWORDS = Map.ofEntries(
+            Map.entry("void", TokenType.VOID), Map.entry("char", TokenType.CHAR), Map.entry("int", TokenType.INT),
+            Map.entry("const", TokenType.CONST), Map.entry("volatile", TokenType.VOLATILE),
+            Map.entry("struct", TokenType.STRUCT), Map.entry("union", TokenType.UNION), Map.entry("case", TokenType.CASE),
+            Map.entry("default", TokenType.DEFAULT), Map.entry("goto", TokenType.GOTO),
+            Map.entry("continue", TokenType.CONTINUE), Map.entry("return", TokenType.RETURN),
+            Map.entry("break", TokenType.BREAK), Map.entry("if", TokenType.IF), Map.entry("else", TokenType.ELSE),
+            Map.entry("switch", TokenType.SWITCH), Map.entry("while", TokenType.WHILE), Map.entry("do", TokenType.DO),
+            Map.entry("for", TokenType.FOR), Map.entry("typedef", TokenType.TYPEDEF), Map.entry("sizeof", TokenType.SIZEOF));
+
+    private static TokenType lookup(String word) {
+        String padded = "(" + word + ")"; // A region inside a longer input
+        return Keywords.lookup(padded, 1, padded.length() - 1);
+    }
+
+    @Test
+    void everyKeywordIsFound() {
+        KEYWORDS.forEach((spelling, type) -> {
+            assertEquals(type, lookup(spelling), spelling);
+            assertEquals(spelling, Keywords.spelling(type));
+        });
+        assertNull(Keywords.spelling(TokenType.IDENTIFIER));
+    }
+
+    @Test
+    void wordsThatHashLikeAKeywordAreIdentifiers() {
+        // Same first character, last character and length, so the same slot as the keyword
+        for (String spelling : KEYWORDS.keySet()) {
+            char[] word = spelling.toCharArray();
+            for (int i = 1; i + 1 < word.length; i++) {
+                char original = word[i];
+                for (char c = 'a'; c <= 'z'; c++) {
+                    if (c == original) continue;
+                    word[i] = c;
+                    assertEquals(TokenType.IDENTIFIER, lookup(new String(word)), new String(word));
+                }
+                word[i] = original;
+            }
+            assertEquals(TokenType.IDENTIFIER, lookup(spelling.toUpperCase()), spelling.toUpperCase());
+        }
+    }
+
+    @Test
+    void wordsOutsideTheKeywordLengthsAreIdentifiers() {
+        for (String word : List.of("i", "_", "x", "volatiles", "continue_", "sizeof_of", "returning")) {
+            assertEquals(TokenType.IDENTIFIER, lookup(word), word);
+        }
+    }
+
+    @Test
+    void symbolIdsAreDenseAndCanonical() {
+        SymbolTable symbols = new SymbolTable();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) names.add("name" + i); // Grows the table several times
+        for (int i = 0; i < names.size(); i++) assertEquals(i, symbols.intern(names.get(i)));
+        for (int i = 0; i < names.size(); i++) {
+            assertEquals(i, symbols.intern("x" + names.get(i) + "x", 1, names.get(i).length() + 1));
+            assertEquals(names.get(i), symbols.name(i));
+        }
+        assertSame(symbols.name(7), symbols.name(symbols.intern(new StringBuilder("name7"))));
+        assertEquals(names.size(), symbols.size());
+
+        symbols.clear();
+        assertEquals(0, symbols.size());
+        assertEquals(0, symbols.intern("name4999"));
+    }
+
+    @Test
+    void concurrentInterningAgreesOnIds() throws Exception {
+        SymbolTable symbols = new SymbolTable();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Map<String, Integer> ids = new ConcurrentHashMap<>();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20000; i++) {
+                        String name = "n" + (i * 31 + seed * 7) % 3000;
+                        int id = symbols.intern(name);
+                        Integer previous = ids.putIfAbsent(name, id);
+                        if (previous != null && previous != id) throw new AssertionError(name + " has ids " + previous + " and " + id);
+                        if (!symbols.name(id).equals(name)) throw new AssertionError(name + " reads back as " + symbols.name(id));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(ids.size(), symbols.size());
+        Set<Integer> distinct = new HashSet<>(ids.values());
+        assertEquals(ids.size(), distinct.size());
+        for (int id = 0; id < symbols.size(); id++) assertEquals(id, (int) ids.get(symbols.name(id)));
+    }
+
+}
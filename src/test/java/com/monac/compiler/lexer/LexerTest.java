@@ -0,0 +1,117 @@
+package com.monac.compiler.lexer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.monac.compiler.lexer.TokenType.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LexerTest {
+
+    private static TokenBuffer lex(String source) {
+        return new Lexer(new StringSource(source), new SymbolTable()).tokenizeToBuffer();
+    }
+
+    // Token types without the EOF
+    private static List<TokenType> types(String source) {
+        TokenBuffer tokens = lex(source);
+        List<TokenType> types = new ArrayList<>();
+        for (int i = 0; i + 1 < tokens.size(); i++) types.add(tokens.type(i));
+        assertEquals(EOF, tokens.type(tokens.size() - 1));
+        return types;
+    }
+
+    private static List<String> lexemes(String source) {
+        TokenBuffer tokens = lex(source);
+        List<String> lexemes = new ArrayList<>();
+        for (int i = 0; i + 1 < tokens.size(); i++) lexemes.add(tokens.lexeme(i).toString());
+        return lexemes;
+    }
+
+    @Test
+    void operatorsAreMatchedLongestFirst() {
+        assertEquals(List.of(IDENTIFIER, SHL_ASSIGN, IDENTIFIER, SHR, IDENTIFIER, ARROW, IDENTIFIER, LAND, IDENTIFIER, LOR,
+                        IDENTIFIER, INCREMENT, DECREMENT, IDENTIFIER),
+                types("a<<=b>>c->d&&e||f++--g"));
+        assertEquals(List.of("x", "++", "+", "y"), lexemes("x+++y"));
+        assertEquals(List.of("a", "<", "<=", "b"), lexemes("a< <=b"));
+        assertEquals(List.of("#", "##", "##", "#"), lexemes("# #####"));
+    }
+
+    @Test
+    void everyOperatorIsItsOwnToken() {
+        String[] operators = {"(", ")", "[", "]", "{", "}", ":", ";", ",", "?", ".", "->", "&&", "||", "&", "|", "^", "++",
+                "--", "<<", ">>", "+", "-", "*", "/", "%", "<", ">", "<=", ">=", "==", "!=", "=", "*=", "/=", "%=", "+=", "-=",
+                "<<=", ">>=", "&=", "^=", "|=", "#", "##"};
+        for (String operator : operators) {
+            TokenBuffer tokens = lex(" " + operator + " ");
+            assertEquals(2, tokens.size(), operator);
+            assertEquals(operator, tokens.lexeme(0).toString());
+            assertEquals(operator, Lexer.spelling(tokens.type(0)));
+        }
+    }
+
+    @Test
+    void whitespaceAndCommentsSeparateTokens() {
+        assertEquals(List.of("a", "b", "c", "d"), lexemes(" a/* x */b // y\n\t c\r\n\f/**/d "));
+        assertEquals(List.of("a", "/", "b"), lexemes("a / b"));
+        assertEquals(List.of(), lexemes("// only a comment"));
+        assertEquals(List.of(), lexemes(""));
+        assertEquals(List.of("a", "b", "c"), lexemes("a \\\nb\\\r\nc\\\n"), "Line splices");
+    }
+
+    @Test
+    void keywordsNeedWholeWords() {
+        assertEquals(List.of(INT, IDENTIFIER, IDENTIFIER, IDENTIFIER, RETURN, IDENTIFIER),
+                types("int intx _int int1 return returns"));
+    }
+
+    @Test
+    void identifiersShareSymbols() {
+        TokenBuffer tokens = lex("alpha beta alpha _a1");
+        assertEquals(tokens.symbol(0), tokens.symbol(2));
+        assertEquals("alpha", tokens.getSymbolTable().name(tokens.symbol(0)));
+        assertEquals("_a1", tokens.lexeme(3).toString());
+    }
+
+    @Test
+    void positionsCountLinesAndColumns() {
+        TokenBuffer tokens = lex("int a;\n  /* two\n lines */ b =\n1;");
+        int b = 3;
+        assertEquals("b", tokens.lexeme(b).toString());
+        assertEquals(3, tokens.line(b));
+        assertEquals(11, tokens.column(b));
+        assertEquals(1, tokens.line(0));
+        assertEquals(1, tokens.column(0));
+        assertEquals(4, tokens.line(tokens.size() - 1), "EOF");
+    }
+
+    @Test
+    void nextTokenMatchesTheBuffer() {
+        String source = "int main(void) { return a->b[1] + 'c' * 0x1F; } /* end */";
+        TokenBuffer tokens = lex(source);
+        Lexer lexer = new Lexer(source);
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = lexer.nextToken();
+            assertEquals(tokens.type(i), token.getType());
+            assertEquals(tokens.start(i), token.getOffset());
+            assertEquals(tokens.lexeme(i).toString(), token.getLexeme());
+            assertEquals(tokens.value(i), token.getValue());
+        }
+        assertEquals(EOF, lexer.nextToken().getType(), "EOF again");
+    }
+
+    @Test
+    void malformedInputThrowsWithItsOffset() {
+        LexerException unknown = assertThrows(LexerException.class, () -> lex("int a = @;"));
+        assertEquals(8, unknown.getOffset());
+        assertThrows(LexerException.class, () -> lex("a /* open"));
+        assertThrows(LexerException.class, () -> lex("a = !b;"));
+        assertThrows(LexerException.class, () -> lex("\"no end\nx"));
+        assertEquals(2, assertThrows(LexerException.class, () -> lex("a \\ b")).getOffset(), "A backslash not at a line end");
+    }
+
+}
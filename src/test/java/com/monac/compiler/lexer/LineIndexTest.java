@@ -0,0 +1,68 @@
+package com.monac.compiler.lexer;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class LineIndexTest {
+
+    private static void assertPosition(LineIndex lines, int offset, int line, int column) {
+        assertEquals(line, lines.line(offset), "Line of " + offset);
+        assertEquals(column, lines.column(offset), "Column of " + offset);
+    }
+
+    @Test
+    void lineStartsEndsAndCarriageReturns() {
+        // a b \n c d \r \n e f \n EOF
+        LineIndex lines = LineIndex.of("ab\ncd\r\nef\n");
+        assertEquals(4, lines.lineCount());
+        assertPosition(lines, 0, 1, 1);
+        assertPosition(lines, 2, 1, 3); // The line feed ends its own line
+        assertPosition(lines, 3, 2, 1);
+        assertPosition(lines, 5, 2, 3); // The carriage return is a column of its line
+        assertPosition(lines, 6, 2, 4);
+        assertPosition(lines, 7, 3, 1); // After \r\n
+        assertPosition(lines, 9, 3, 3);
+        assertPosition(lines, 10, 4, 1); // EOF after a final line feed
+    }
+
+    @Test
+    void endOfFile() {
+        assertPosition(LineIndex.of("x\ny"), 3, 2, 2);
+        assertPosition(LineIndex.of(""), 0, 1, 1);
+        assertEquals(1, LineIndex.of("").lineCount());
+        assertPosition(LineIndex.of("\n\n\n"), 3, 4, 1);
+        assertPosition(LineIndex.of("\n\n\n"), 1, 2, 1);
+        assertPosition(LineIndex.of("a\r"), 2, 1, 3); // A lone \r does not end a line
+    }
+
+    @Test
+    void manyLines() {
+        LineIndex lines = LineIndex.of("ab\n".repeat(10_000));
+        assertEquals(10_001, lines.lineCount());
+        for (int line = 1; line <= 10_000; line++) {
+            int start = 3 * (line - 1);
+            assertPosition(lines, start, line, 1);
+            assertPosition(lines, start + 2, line, 3);
+        }
+        assertPosition(lines, 30_000, 10_001, 1);
+    }
+
+    @Test
+    void utf8ColumnsCountBytes() {
+        String text = "é = 1;\r\n/* € */ x\n";
+        Source source = new Utf8Source(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+        LineIndex lines = source.lines();
+        assertEquals(new StringSource(text).lines().lineCount(), lines.lineCount());
+        assertPosition(lines, 2, 1, 3); // After the two bytes of é
+        assertPosition(lines, 9, 2, 1);
+        assertPosition(lines, 19, 2, 11); // x, after the three bytes of €
+        assertPosition(lines, source.length(), 3, 1);
+        assertSame(lines, source.lines(), "Built once");
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.monac.compiler.lexer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelLexerTest {
+
+    // Lines whose comments and literals hide line breaks, quotes and comment starts from a naive split
+    private static final String SOURCE = """
+            int a = 1; /* a block comment
+            over several lines, with "quotes", 'x' and // a line comment inside
+            int hidden = 2;
+            */ int b = a;
+            char q = '"', r = '\\'', s = '/', t = '*';
+            char *u = "escaped \\" quote /* not a comment */ // nor this";
+            // a line comment with /* an opener and a "quote
+            int c = b + 0x1F / 2.5e3;
+            char *v = "ends with a backslash \\\\"; int w = 'a' * "\\\\" [0];
+            /**/ int d;/*
+            */int e; int f = 1 + \\
+            2;
+            """;
+
+    private static void assertSameTokens(Source input, int chunkSize, ForkJoinPool pool) {
+        SymbolTable symbols = new SymbolTable();
+        TokenBuffer expected = new Lexer(input, symbols).tokenizeToBuffer();
+        // The names are already interned, so the chunks get the same ids as the sequential run
+        TokenBuffer actual = ParallelLexer.tokenize(input, symbols, pool, chunkSize);
+        assertEquals(expected.size(), actual.size(), "Tokens with chunks of " + chunkSize);
+        for (int i = 0; i < expected.size(); i++) {
+            String where = "Token " + i + " with chunks of " + chunkSize;
+            assertEquals(expected.type(i), actual.type(i), where);
+            assertEquals(expected.start(i), actual.start(i), where);
+            assertEquals(expected.length(i), actual.length(i), where);
+            assertEquals(expected.symbol(i), actual.symbol(i), where);
+            assertEquals(expected.value(i), actual.value(i), where);
+        }
+
+        // With a fresh table the ids may be numbered differently, but name the same identifiers
+        SymbolTable fresh = new SymbolTable();
+        TokenBuffer renumbered = ParallelLexer.tokenize(input, fresh, pool, chunkSize);
+        for (int i = 0; i < expected.size(); i++) {
+            if (expected.symbol(i) < 0) continue;
+            assertEquals(symbols.name(expected.symbol(i)), fresh.name(renumbered.symbol(i)));
+        }
+    }
+
+    @Test
+    void seamsInCommentsAndLiteralsGiveTheSequentialTokens() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Source input = new StringSource(SOURCE.repeat(3));
+            for (int chunkSize = 1; chunkSize <= SOURCE.length(); chunkSize++) assertSameTokens(input, chunkSize, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void splitPointsStartLinesBetweenTokens() {
+        Source input = new StringSource(SOURCE);
+        TokenBuffer tokens = new Lexer(input, new SymbolTable()).tokenizeToBuffer();
+        for (int chunkSize = 1; chunkSize < 40; chunkSize++) {
+            int[] splits = ParallelLexer.splitPoints(input, chunkSize);
+            assertEquals(0, splits[0]);
+            assertEquals(input.length(), splits[splits.length - 1]);
+            for (int i = 1; i + 1 < splits.length; i++) {
+                int split = splits[i];
+                assertTrue(split > splits[i - 1]);
+                assertEquals('\n', input.charAt(split - 1), "Split " + split + " with chunks of " + chunkSize);
+                for (int t = 0; t < tokens.size(); t++) {
+                    assertTrue(split <= tokens.start(t) || split >= tokens.start(t) + tokens.length(t), "Split " + split + " in token " + t);
+                }
+            }
+        }
+    }
+
+    @Test
+    void errorsAreReportedAtTheSequentialOffset() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            String valid = "int a = 1; /* comment\n spanning */ char *s = \"x\";\n".repeat(20);
+            for (String error : new String[]{"int @ = 2;\n", "char c = 'ab\n", "x = \"open\n", "/* never closed\n"}) {
+                String source = valid + error + valid;
+                if (error.startsWith("/*")) source = valid + error;
+                Source input = new StringSource(source);
+                LexerException sequential = assertThrows(LexerException.class, () -> new Lexer(input, new SymbolTable()).tokenizeToBuffer());
+                for (int chunkSize : new int[]{16, 64, 256}) {
+                    LexerException parallel = assertThrows(LexerException.class,
+                            () -> ParallelLexer.tokenize(input, new SymbolTable(), pool, chunkSize));
+                    assertEquals(sequential.getOffset(), parallel.getOffset(), error.strip() + " with chunks of " + chunkSize);
+                    assertEquals(sequential.getMessage(), parallel.getMessage());
+                }
+            }
+
+            // Of two errors, the one in the earlier chunk is reported
+            String twice = valid + "@\n" + valid + "$\n" + valid;
+            LexerException first = assertThrows(LexerException.class,
+                    () -> ParallelLexer.tokenize(new StringSource(twice), new SymbolTable(), pool, 32));
+            assertEquals(twice.indexOf('@'), first.getOffset());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void smallInputsAndSinglePoolsLexSequentially() {
+        Source input = new StringSource(SOURCE);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            assertSameTokens(input, 1 << 20, pool);
+            assertSameTokens(input, 8, single);
+        } finally {
+            pool.shutdown();
+            single.shutdown();
+        }
+        assertThrows(IllegalArgumentException.class, () -> ParallelLexer.tokenize(input, new SymbolTable(), single, 0));
+    }
+
+}
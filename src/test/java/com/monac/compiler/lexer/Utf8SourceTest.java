@@ -0,0 +1,118 @@
+package com.monac.compiler.lexer;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Utf8SourceTest {
+
+    private static final String TEXT = "int π = 1; /* ü€ 😀 */\nchar s = \"日本語 é\";\r\n// \uFEFF not a mark here\nx";
+
+    private static Utf8Source utf8(String text) {
+        return new Utf8Source(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // Offsets where a code point starts, in chars of the text and in bytes of its encoding, ending with both lengths
+    private static int[][] boundaries(String text) {
+        int count = text.codePointCount(0, text.length());
+        int[] chars = new int[count + 1];
+        int[] bytes = new int[count + 1];
+        for (int i = 0, c = 0; i < count; i++) {
+            int codePoint = text.codePointAt(c);
+            int next = c + Character.charCount(codePoint);
+            chars[i + 1] = next;
+            bytes[i + 1] = bytes[i] + text.substring(c, next).getBytes(StandardCharsets.UTF_8).length;
+            c = next;
+        }
+        return new int[][]{chars, bytes};
+    }
+
+    @Test
+    void charsAreTheBytesOfTheEncoding() {
+        Utf8Source source = utf8(TEXT);
+        StringSource expected = new StringSource(TEXT);
+        byte[] encoded = TEXT.getBytes(StandardCharsets.UTF_8);
+        assertEquals(encoded.length, source.length());
+        assertTrue(source.length() > expected.length());
+
+        int[][] boundaries = boundaries(TEXT);
+        int[] chars = boundaries[0];
+        int[] bytes = boundaries[1];
+        for (int i = 0; i + 1 < chars.length; i++) {
+            if (bytes[i + 1] - bytes[i] == 1) {
+                assertEquals(expected.charAt(chars[i]), source.charAt(bytes[i]), "ASCII at " + chars[i]);
+            } else {
+                // No byte of a multi-byte sequence can be taken for an ASCII delimiter
+                for (int b = bytes[i]; b < bytes[i + 1]; b++) {
+                    assertTrue(source.charAt(b) >= 0x80, "Byte " + b);
+                    assertEquals(encoded[b] & 0xFF, source.charAt(b));
+                }
+            }
+        }
+    }
+
+    @Test
+    void rangesDecodeToTheSameText() {
+        Utf8Source source = utf8(TEXT);
+        StringSource expected = new StringSource(TEXT);
+        int[][] boundaries = boundaries(TEXT);
+        int[] chars = boundaries[0];
+        int[] bytes = boundaries[1];
+        for (int i = 0; i < chars.length; i++) {
+            for (int j = i; j < chars.length; j++) {
+                String text = expected.subSequence(chars[i], chars[j]).toString();
+                assertEquals(text, source.subSequence(bytes[i], bytes[j]).toString());
+                assertEquals(text, source.text(bytes[i], bytes[j]).toString());
+                assertEquals(expected.text(chars[i], chars[j]).toString(), source.text(bytes[i], bytes[j]).toString());
+                assertEquals(bytes[j] - bytes[i], source.subSequence(bytes[i], bytes[j]).length());
+            }
+        }
+        assertEquals(TEXT, source.toString());
+
+        CharSequence nested = source.subSequence(bytes[4], bytes[12]).subSequence(2, 6);
+        for (int i = 0; i < nested.length(); i++) assertEquals(source.charAt(bytes[4] + 2 + i), nested.charAt(i), "Views of views");
+    }
+
+    @Test
+    void onlyALeadingByteOrderMarkIsSkipped() {
+        Utf8Source marked = utf8("\uFEFFint a;");
+        assertEquals("int a;", marked.toString());
+        assertEquals(6, marked.length());
+        assertEquals('i', marked.charAt(0));
+
+        Utf8Source source = utf8(TEXT);
+        int mark = TEXT.substring(0, TEXT.indexOf('\uFEFF')).getBytes(StandardCharsets.UTF_8).length;
+        assertEquals("\uFEFF not", source.subSequence(mark, mark + 7).toString(), "A U+FEFF inside the text is kept");
+        assertEquals("\uFEFF", source.text(mark, mark + 3).toString());
+        assertEquals("\uFEFFx", source.replace(0, source.length(), "\uFEFFx").toString());
+    }
+
+    @Test
+    void replaceMatchesTheEditedText() {
+        Utf8Source source = utf8(TEXT);
+        int start = TEXT.indexOf('π');
+        int end = TEXT.indexOf('€') + 1;
+        Source edited = source.replace(TEXT.substring(0, start).getBytes(StandardCharsets.UTF_8).length,
+                TEXT.substring(0, end).getBytes(StandardCharsets.UTF_8).length, "ö = 2; /* ß");
+        assertEquals(new StringSource(TEXT).replace(start, end, "ö = 2; /* ß").toString(), edited.toString());
+        assertEquals(TEXT, source.toString(), "The original is not modified");
+    }
+
+    @Test
+    void tokensMatchTheDecodedText() {
+        String text = "char s = \"日本語 é\"; int x = 'u' /* € */ + y; // 😀\nz";
+        TokenBuffer bytes = new Lexer(utf8(text), new SymbolTable()).tokenizeToBuffer();
+        TokenBuffer chars = new Lexer(new StringSource(text), new SymbolTable()).tokenizeToBuffer();
+        assertEquals(chars.size(), bytes.size());
+        for (int i = 0; i < chars.size(); i++) {
+            assertEquals(chars.type(i), bytes.type(i));
+            assertEquals(chars.lexeme(i).toString(), bytes.lexeme(i).toString());
+            assertEquals(chars.line(i), bytes.line(i));
+        }
+    }
+
+}
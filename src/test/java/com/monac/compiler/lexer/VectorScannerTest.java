@@ -0,0 +1,136 @@
+package com.monac.compiler.lexer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VectorScannerTest {
+
+    // Beyond two of the widest vectors (64 bytes), so runs end in every lane and in the scalar tail
+    private static final int LONGEST = 2 * 64 + 3;
+
+    @BeforeEach
+    void vectorModuleIsPresent() {
+        // Otherwise both lexers below would take the scalar path and the comparison would prove nothing
+        assertTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(),
+                "Run the tests with --add-modules jdk.incubator.vector");
+    }
+
+    private static Utf8Source utf8(String text) {
+        return new Utf8Source(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // Text of the given length cycling through the pattern
+    private static String run(String pattern, int length) {
+        return pattern.repeat(length / pattern.length() + 1).substring(0, length);
+    }
+
+    private static void assertSameTokens(String text) {
+        Utf8Source input = utf8(text);
+        TokenBuffer expected;
+        try {
+            expected = new Lexer(input, new SymbolTable(), false).tokenizeToBuffer();
+        } catch (LexerException scalar) {
+            LexerException vector = null;
+            try {
+                new Lexer(input, new SymbolTable(), true).tokenizeToBuffer();
+            } catch (LexerException e) {
+                vector = e;
+            }
+            assertTrue(vector != null, () -> "Only the scalar lexer failed on " + text);
+            assertEquals(scalar.getOffset(), vector.getOffset(), text);
+            return;
+        }
+
+        TokenBuffer actual = new Lexer(input, new SymbolTable(), true).tokenizeToBuffer();
+        assertEquals(expected.size(), actual.size(), text);
+        for (int i = 0; i < expected.size(); i++) {
+            String where = "Token " + i + " of " + text;
+            assertEquals(expected.type(i), actual.type(i), where);
+            assertEquals(expected.start(i), actual.start(i), where);
+            assertEquals(expected.length(i), actual.length(i), where);
+            assertEquals(expected.symbol(i), actual.symbol(i), where);
+            assertEquals(expected.value(i), actual.value(i), where);
+        }
+    }
+
+    @Test
+    void runsEndingInEveryLane() {
+        for (int shift = 0; shift < 3; shift++) {
+            String before = "x".repeat(shift) + " ";
+            for (int length = 0; length <= LONGEST; length++) {
+                assertSameTokens(before + "a" + run(" \t\n\r\f\u000B", length) + "b");
+                assertSameTokens(before + "a" + run("zA_9y", length) + "+b");
+                assertSameTokens(before + run("Z_0a", length + 1));
+                assertSameTokens(before + "/*" + run("ab* /c*", length) + "*/b");
+                assertSameTokens(before + "/*" + run("*", length) + "*/b");
+                assertSameTokens(before + "/*" + run("/ ", length) + "**/b");
+                assertSameTokens(before + "//" + run("a*/ ", length) + "\nb");
+                assertSameTokens(before + "//" + run("a ", length));
+            }
+        }
+    }
+
+    @Test
+    void unterminatedCommentsAtTheEnd() {
+        for (int length = 0; length <= LONGEST; length++) {
+            assertSameTokens("a /*" + run("b* /", length));
+            assertSameTokens("a /*" + run("b /", length) + "*");
+            assertSameTokens("a /*" + run("b ", length) + "/");
+        }
+    }
+
+    @Test
+    void multiByteSequencesStopTheRuns() {
+        for (int length = 0; length <= LONGEST; length++) {
+            assertSameTokens("a /*" + run("é€ ", length) + "*/ b");
+            assertSameTokens("\"" + run("日本 ", length) + "\" b");
+            assertSameTokens("a" + run("bc", length) + "é"); // Lexed as an error after the identifier
+            assertSameTokens(run(" ", length) + "😀");
+        }
+    }
+
+    @Test
+    void scannerMatchesAScalarScanAtEveryPosition() {
+        StringBuilder text = new StringBuilder();
+        for (int length = 0; length <= LONGEST; length += 7) {
+            text.append(run(" \t\n", length)).append(run("ab_1", length)).append("/*").append(run("* x/", length))
+                    .append("*/").append(run("é", length / 2)).append('\n');
+        }
+        Utf8Source input = utf8(text.toString());
+        VectorScanner scanner = new VectorScanner(input.segment());
+        int length = input.length();
+        for (int position = 0; position <= length; position++) {
+            int expected = position;
+            while (expected < length && " \t\n\r\f\u000B".indexOf(input.charAt(expected)) >= 0) expected++;
+            assertEquals(expected, scanner.skipWhitespace(position), "Whitespace from " + position);
+
+            expected = position;
+            while (expected < length && isIdentifierPart(input.charAt(expected))) expected++;
+            assertEquals(expected, scanner.skipIdentifier(position), "Identifier from " + position);
+
+            expected = position;
+            while (expected < length && input.charAt(expected) != '\n') expected++;
+            assertEquals(expected, scanner.findLineEnd(position), "Line end from " + position);
+
+            expected = -1;
+            for (int i = position; i + 1 < length; i++) {
+                if (input.charAt(i) == '*' && input.charAt(i + 1) == '/') {
+                    expected = i + 2;
+                    break;
+                }
+            }
+            assertEquals(expected, scanner.findBlockCommentEnd(position), "Comment end from " + position);
+        }
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+}
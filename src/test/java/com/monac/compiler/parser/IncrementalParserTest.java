@@ -0,0 +1,161 @@
+package com.monac.compiler.parser;
+
+import com.monac.compiler.lexer.LexerException;
+import com.monac.compiler.parser.tree.Node;
+import com.monac.compiler.parser.tree.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static com.monac.compiler.parser.Trees.dump;
+import static com.monac.compiler.parser.Trees.lex;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalParserTest {
+
+    private static final String SOURCE = """
+            typedef int T;
+            int g;
+            int f(int a, int b) {
+              int c = a + b, d;
+              T e;
+              if (c) { d = c * 2; { return d; } }
+              return f(a, 1);
+            }
+            main(x) int x; { int y; y = x ? 1 : 2; if (y) return y; return 0; }
+            int h(void);
+            """;
+
+    private static final String[] SNIPPETS = {"x", " + 1", ";", "}", "{", " int y;", " return 2;", "1", " ", "(", ")",
+            "q = 3;", "if (q) { q; }", "int", ",", " T t;", "typedef int U;", "T", "'", "\"", "@"};
+
+    // Applies an edit to both the incremental parser and the text, and compares with a fresh parse
+    private static String edit(IncrementalParser incremental, String text, int offset, int removed, String inserted) {
+        String next = text.substring(0, offset) + inserted + text.substring(offset + removed);
+        Node tree = incremental.edit(offset, removed, inserted);
+        Parser parser = new Parser(lex(next));
+        Node expected = parser.parse();
+        assertEquals(dump(expected), dump(tree), () -> "Tree after editing at " + offset + ":\n" + next);
+        assertEquals(parser.getErrors().size(), incremental.getErrors().size(), () -> "Errors after editing at " + offset + ":\n" + next);
+        return next;
+    }
+
+    private static IncrementalParser parse(String text) {
+        IncrementalParser incremental = new IncrementalParser(lex(text));
+        incremental.parse();
+        return incremental;
+    }
+
+    @Test
+    void randomEditsGiveTheTreeOfAFullParse() {
+        Random random = new Random(7);
+        String text = SOURCE;
+        IncrementalParser incremental = parse(text);
+        int reparsedAlone = 0;
+        for (int e = 0; e < 2000; e++) {
+            int offset = random.nextInt(text.length() + 1);
+            int removed = random.nextInt(4) == 0 ? Math.min(random.nextInt(6), text.length() - offset) : 0;
+            String inserted = random.nextInt(3) == 0 ? "" : SNIPPETS[random.nextInt(SNIPPETS.length)];
+            if (removed == 0 && inserted.isEmpty()) inserted = " ";
+
+            String next = text.substring(0, offset) + inserted + text.substring(offset + removed);
+            try {
+                lex(next);
+            } catch (LexerException rejected) {
+                continue; // Covered by editRejectedByTheLexerLeavesTheTree
+            }
+            text = edit(incremental, text, offset, removed, inserted);
+            if (incremental.getReparsed() != incremental.getTree()) reparsedAlone++;
+            if (incremental.hadErrors()) { // Keep most edits on valid code, where nodes are re-parsed alone
+                text = SOURCE;
+                incremental = parse(text);
+            }
+        }
+        assertTrue(reparsedAlone > 100, "Edits re-parsed on their own: " + reparsedAlone);
+    }
+
+    @Test
+    void editInsideAStatementReparsesOnlyItsBlock() {
+        String text = SOURCE;
+        IncrementalParser incremental = parse(text);
+        Node root = incremental.getTree();
+        int offset = text.indexOf("d = c * 2") + 4;
+        edit(incremental, text, offset, 1, "c + 1");
+
+        assertSame(root, incremental.getTree());
+        assertEquals(NodeType.COMPOUND_STATEMENT, incremental.getReparsed().getType());
+    }
+
+    @Test
+    void declarationThatDeclaresOtherTypedefNamesIsNotKeptAlone() {
+        // 'T e;' declares e with type T; once T is no typedef name it is an expression statement
+        String text = SOURCE;
+        IncrementalParser incremental = parse(text);
+        int offset = text.indexOf("typedef int T;");
+        text = edit(incremental, text, offset, "typedef ".length(), "");
+        assertSame(incremental.getTree(), incremental.getReparsed(), "A full parse");
+
+        // And back: the declaration becomes a typedef again
+        text = edit(incremental, text, offset, 0, "typedef ");
+        assertSame(incremental.getTree(), incremental.getReparsed(), "A full parse");
+
+        // Renaming the typedef inside its declaration changes the names just the same
+        edit(incremental, text, text.indexOf("T;"), 1, "S");
+        assertSame(incremental.getTree(), incremental.getReparsed(), "A full parse");
+    }
+
+    @Test
+    void declarationWithTheSameTypedefNamesIsReparsedAlone() {
+        String text = SOURCE;
+        IncrementalParser incremental = parse(text);
+        edit(incremental, text, text.indexOf("int T;") + 3, 0, " const");
+
+        assertEquals(NodeType.DECLARATION, incremental.getReparsed().getType());
+        assertNotSame(incremental.getTree(), incremental.getReparsed());
+    }
+
+    @Test
+    void editThatBreaksTheSyntaxFallsBackToAFullParse() {
+        String text = SOURCE;
+        IncrementalParser incremental = parse(text);
+        text = edit(incremental, text, text.indexOf("return d;"), "return d;".length(), "return d");
+        assertTrue(incremental.hadErrors());
+        assertSame(incremental.getTree(), incremental.getReparsed(), "A full parse");
+
+        // A tree with errors is parsed again as a whole, which also repairs it
+        edit(incremental, text, text.indexOf("return d") + "return d".length(), 0, ";");
+        assertEquals(0, incremental.getErrors().size());
+        assertSame(incremental.getTree(), incremental.getReparsed(), "A full parse");
+    }
+
+    @Test
+    void editAcrossNodesFallsBackToAFullParse() {
+        String text = SOURCE;
+        IncrementalParser incremental = parse(text);
+        int from = text.indexOf("int g;");
+        int to = text.indexOf("{ int y;");
+        edit(incremental, text, from, to - from, "int g; int m() ");
+        assertSame(incremental.getTree(), incremental.getReparsed(), "A full parse");
+    }
+
+    @Test
+    void editRejectedByTheLexerLeavesTheTree() {
+        String text = SOURCE;
+        IncrementalParser incremental = parse(text);
+        String before = dump(incremental.getTree());
+        int offset = text.indexOf("return 0;");
+
+        assertThrows(LexerException.class, () -> incremental.edit(offset, 0, "'"));
+        assertThrows(LexerException.class, () -> incremental.edit(offset, 0, "@"));
+        assertThrows(LexerException.class, () -> incremental.edit(offset, 0, "/*"));
+        assertEquals(before, dump(incremental.getTree()));
+
+        // The parser goes on from the text before the rejected edits
+        edit(incremental, text, offset, 0, "y = 3; ");
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.monac.compiler.parser;
+
+import com.monac.compiler.lexer.TokenBuffer;
+import com.monac.compiler.lexer.TokenType;
+import com.monac.compiler.parser.tree.Node;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.monac.compiler.parser.Trees.dump;
+import static com.monac.compiler.parser.Trees.lex;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelParserTest {
+
+    private static final int[] SEGMENT_SIZES = {1, 3, 7, 50, 1000};
+
+    // Functions, K&R definitions, declarations and typedefs spread over the whole input, with
+    // names used far from the typedef that declares them
+    private static String mixed(long seed, int count) {
+        Random random = new Random(seed);
+        StringBuilder source = new StringBuilder();
+        int typedefs = 0;
+        for (int i = 0; i < count; i++) {
+            String type = typedefs > 0 && random.nextBoolean() ? "T" + random.nextInt(typedefs) : "int";
+            switch (random.nextInt(6)) {
+                case 0 -> source.append("typedef int T").append(typedefs++).append(";\n");
+                case 1 -> source.append(type).append(" g").append(i).append(" = ").append(i).append(", h").append(i).append(";\n");
+                case 2 -> source.append("f").append(i).append("(a, b) int a; int b; { return a + b; }\n");
+                case 3 -> source.append(type).append(" f").append(i).append("(").append(type).append(" x) {\n")
+                        .append("  typedef int L; L y = x;\n")
+                        .append("  { if (y) { y = y * 2; } }\n")
+                        .append("  while (y) y = y - 1;\n")
+                        .append("  return y;\n}\n");
+                case 4 -> source.append("int p").append(i).append("(void);\n");
+                default -> source.append("void q").append(i).append("() { int z; z = ").append(i).append(" ? 1 : 2; }\n");
+            }
+        }
+        return source.toString();
+    }
+
+    private static void assertSameAsSequential(String source) {
+        TokenBuffer tokens = lex(source);
+        Parser sequential = new Parser(tokens);
+        String expected = dump(sequential.parse());
+        List<String> expectedErrors = sequential.getErrors().stream().map(ParserException::toJson).toList();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int segmentSize : SEGMENT_SIZES) {
+                ParallelParser parallel = new ParallelParser(tokens, pool, segmentSize);
+                Node tree = parallel.parse();
+                assertEquals(expected, dump(tree), "Tree with segments of " + segmentSize);
+                assertEquals(expectedErrors, parallel.getErrors().stream().map(ParserException::toJson).toList(),
+                        "Errors with segments of " + segmentSize);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void segmentsGiveTheSequentialTree() {
+        for (long seed = 0; seed < 20; seed++) {
+            String source = mixed(seed, 60);
+            Parser parser = new Parser(lex(source));
+            parser.parse();
+            assertEquals(List.of(), parser.getErrors(), source);
+            assertSameAsSequential(source);
+        }
+    }
+
+    @Test
+    void typedefsLateInTheInputReachEverySegment() {
+        String source = mixed(1, 40) + "typedef int Late;\nLate late(Late x) { Late y; y = x; return y; }\n" + mixed(2, 40);
+        assertSameAsSequential(source);
+    }
+
+    @Test
+    void noSegmentStartsBeforeTheLastFileScopeTypedef() {
+        TokenBuffer tokens = lex(mixed(3, 80) + "typedef int Last;\nLast l;\n" + mixed(4, 20));
+        int last = -1;
+        int depth = 0;
+        for (int i = 0; tokens.type(i) != TokenType.EOF; i++) {
+            switch (tokens.type(i)) {
+                case LBRACE -> depth++;
+                case RBRACE -> depth--;
+                case TYPEDEF -> {
+                    if (depth == 0) last = i;
+                }
+                default -> {
+                }
+            }
+        }
+        for (int segmentSize : SEGMENT_SIZES) {
+            int[] splits = ParallelParser.splitPoints(tokens, segmentSize);
+            for (int i = 1; i + 1 < splits.length; i++) {
+                assertTrue(splits[i] > last, "Boundary " + splits[i] + " before the typedef at " + last);
+            }
+        }
+    }
+
+    @Test
+    void failingSegmentFallsBackToSequentialParsing() {
+        // Errors in a middle segment, one of them with unbalanced braces that misplace every later boundary
+        assertSameAsSequential(mixed(5, 40) + "int broken( { x = ; }\n" + mixed(6, 40));
+        assertSameAsSequential(mixed(7, 40) + "int open() { if (x) { y = 1; }\n" + mixed(8, 40));
+        assertSameAsSequential(mixed(9, 40) + "} } int a = ;\n" + mixed(10, 40));
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.monac.compiler.parser;
+
+import com.monac.compiler.lexer.LexerException;
+import com.monac.compiler.lexer.SymbolTable;
+import com.monac.compiler.parser.tree.Node;
+import com.monac.compiler.parser.tree.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.monac.compiler.parser.Trees.dump;
+import static com.monac.compiler.parser.Trees.lex;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParseSessionTest {
+
+    private static final String A = "typedef int T; int f(int a, T b) { T c = a + b; return f(c, 1); }";
+    private static final String B = "int g; main(x) int x; { int y; y = x ? g : 2; return y; }";
+
+    // The tree of a parse with a new lexer and parser
+    private static String fresh(String source) {
+        return dump(new Parser(lex(source)).parse());
+    }
+
+    // The names of the identifiers of a tree, looked up by their symbol ids
+    private static List<String> names(Node root, SymbolTable symbols) {
+        List<String> names = new ArrayList<>();
+        List<Node> pending = new ArrayList<>(List.of(root));
+        while (!pending.isEmpty()) {
+            Node node = pending.removeLast();
+            if (node.getType() == NodeType.IDENTIFIER) {
+                assertEquals(node.getLiteral().toString(), symbols.name((int) node.getValue()));
+                names.add(symbols.name((int) node.getValue()));
+            }
+            if (node.getChildren() != null) pending.addAll(node.getChildren());
+        }
+        return names;
+    }
+
+    @Test
+    void inputsParsedAgainGiveTheSameTree() {
+        try (ParseSession session = ParseSession.acquire()) {
+            SymbolTable symbols = session.getTokens().getSymbolTable();
+            Node first = session.parse(A);
+            List<String> firstNames = names(first, symbols);
+            assertEquals(fresh(A), dump(first));
+
+            assertEquals(fresh(B), dump(session.parse(B)));
+
+            Node again = session.parse(A);
+            assertEquals(dump(first), dump(again));
+            assertEquals(firstNames, names(again, symbols));
+            assertFalse(session.hadErrors());
+        }
+    }
+
+    @Test
+    void typedefNamesDoNotOutliveTheirParse() {
+        try (ParseSession session = ParseSession.acquire()) {
+            session.parse("typedef int T;");
+            Node tree = session.parse("int f() { T * x; }");
+            assertFalse(session.hadErrors(), () -> session.getErrors().toString());
+            assertEquals(fresh("int f() { T * x; }"), dump(tree), "An expression, not a declaration");
+        }
+    }
+
+    @Test
+    void errorsDoNotCarryOver() {
+        try (ParseSession session = ParseSession.acquire()) {
+            session.parse("int f() { a = ; b = ; } int (");
+            assertTrue(session.hadErrors());
+            session.parse(B);
+            assertFalse(session.hadErrors());
+            assertEquals(List.of(), session.getErrors());
+
+            // The error cascade of the last parse does not swallow the first error of this one
+            session.parse("int f() { a = ; }");
+            assertEquals(1, session.getErrors().size());
+        }
+    }
+
+    @Test
+    void sessionsStayUsableAfterALexerError() {
+        try (ParseSession session = ParseSession.acquire()) {
+            session.parse(A + A);
+            LexerException error = assertThrows(LexerException.class, () -> session.parse("int a = 1; int b = @;"));
+            assertEquals(19, error.getOffset());
+            assertEquals(fresh(B), dump(session.parse(B)));
+            assertFalse(session.hadErrors());
+            assertEquals(fresh(A), dump(session.parse(A)));
+        }
+    }
+
+    @Test
+    void closingTwicePoolsASessionOnce() {
+        ParseSession session = ParseSession.acquire();
+        session.close();
+        session.close();
+
+        // Takes every idle session, more than the pool can hold
+        List<ParseSession> taken = new ArrayList<>();
+        for (int i = 0; i < 4 * Runtime.getRuntime().availableProcessors() + 2; i++) taken.add(ParseSession.acquire());
+        assertEquals(1, taken.stream().filter(other -> other == session).count());
+        for (ParseSession other : taken) other.close();
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.monac.compiler.parser;
+
+import com.monac.compiler.lexer.Token;
+import com.monac.compiler.lexer.TokenBuffer;
+import com.monac.compiler.lexer.TokenStream;
+import com.monac.compiler.lexer.TokenType;
+import com.monac.compiler.parser.tree.Node;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static com.monac.compiler.parser.Trees.lex;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecoveryTest {
+
+    // Reads of the token stream per token that recovery may take, whatever the input
+    private static final int READS_PER_TOKEN = 16;
+
+    private static final String[] WORDS = {"int", "char", "typedef", "T", "x", "1", "'c'", "\"s\"", "(", ")", "{", "}",
+            ";", ",", "+", "*", "=", "?", ":", "&&", "sizeof", "if", "else", "while", "do", "for", "return", "case", "default"};
+
+    // Counts the reads of the parser, which a recovery that goes back and forth would multiply
+    private static final class CountingTokens implements TokenStream {
+
+        private final TokenBuffer tokens;
+        private long reads = 0;
+
+        CountingTokens(TokenBuffer tokens) {
+            this.tokens = tokens;
+        }
+
+        @Override
+        public TokenType type(int index) {
+            reads++;
+            return tokens.type(index);
+        }
+
+        @Override
+        public Token token(int index) {
+            reads++;
+            return tokens.token(index);
+        }
+
+        @Override
+        public int symbol(int index) {
+            reads++;
+            return tokens.symbol(index);
+        }
+
+    }
+
+    // Parses the source and checks the number of errors and of external declarations kept
+    private static void assertRecovers(String source, int errors, int declarations) {
+        Parser parser = new Parser(lex(source));
+        Node unit = parser.parse();
+        assertEquals(errors, parser.getErrors().size(), () -> source + "\n" + parser.getErrors());
+        assertEquals(declarations, unit.getChildren().size(), source);
+    }
+
+    // Parses the source and returns the number of errors, checking that tokens are read a bounded number of times
+    private static int parseLinearly(String source) {
+        TokenBuffer tokens = lex(source);
+        CountingTokens counting = new CountingTokens(tokens);
+        Parser parser = new Parser(counting);
+        parser.parse();
+        assertTrue(counting.reads <= (long) READS_PER_TOKEN * tokens.size(),
+                () -> counting.reads + " reads of " + tokens.size() + " tokens");
+        return parser.getErrors().size();
+    }
+
+    @Test
+    void parsingResumesAfterTheFailedStatementOrDeclaration() {
+        assertRecovers("int f() { a = ; b = 2; } int g() { return 1; }", 1, 2);
+        assertRecovers("int f() { if (a b) { c = 1; } d = 2; }", 1, 1);
+        assertRecovers("int f() { x = (1 + ; y; } int g;", 1, 2);
+        assertRecovers("} } int a; if (x) ; int b;", 2, 2);
+        assertRecovers("int f() { return 1 } int g;", 1, 2);
+        assertRecovers("int f() { while x) a; for (i = 0 i < 2;) b; do a; while (1) int z; }", 3, 1);
+        assertRecovers("int f( { int a; } int g() { return 2; }", 1, 1);
+        assertRecovers("int f() { int a; { { { ", 1, 1);
+        assertRecovers("int f() { a + + ; ; ; b = 1; }", 1, 1);
+    }
+
+    @Test
+    void recoveredDeclarationsKeepTheirTree() {
+        Parser parser = new Parser(lex("int f() { a =  ; } int g() { return 1; }"));
+        Node unit = parser.parse();
+        Parser clean = new Parser(lex("int f() { a = 1; } int g() { return 1; }"));
+        Node expected = clean.parse();
+        assertEquals(Trees.dump(expected.getChildren().getLast()), Trees.dump(unit.getChildren().getLast()));
+    }
+
+    @Test
+    void garbageIsParsedInLinearTime() {
+        for (int size : new int[]{1_000, 10_000, 200_000}) {
+            Random random = new Random(size);
+            StringBuilder source = new StringBuilder();
+            for (int i = 0; i < size; i++) source.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            int errors = parseLinearly(source.toString());
+            assertTrue(errors > 0 && errors <= size, () -> errors + " errors");
+        }
+    }
+
+    @Test
+    void repeatedErrorsAreReportedOnce() {
+        int count = 50_000;
+        for (String repeated : new String[]{"{", "}", "(", "if (", "int f() {", "a :", "case", "int (", "} {"}) {
+            assertEquals(1, parseLinearly(repeated.repeat(count)), repeated);
+        }
+        // The missing '}' of the body and of the unit are reported after the repeated declaration error
+        assertEquals(3, parseLinearly("int f() { int (".repeat(count)));
+    }
+
+    @Test
+    void theCascadeEndsWithTheStatement() {
+        assertRecovers("int f() { a = ; b = ; c = ; }", 3, 1);
+        assertRecovers("int f() { a = (; }", 1, 1);
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.monac.compiler.parser;
+
+import com.monac.compiler.lexer.Lexer;
+import com.monac.compiler.lexer.StringSource;
+import com.monac.compiler.lexer.SymbolTable;
+import com.monac.compiler.lexer.TokenBuffer;
+import com.monac.compiler.parser.tree.Node;
+import com.monac.compiler.parser.tree.NodeType;
+
+import java.util.List;
+
+/**
+ * Helpers shared by the parser tests.
+ */
+public final class Trees {
+
+    private Trees() {
+    }
+
+    public static TokenBuffer lex(String source) {
+        return new Lexer(new StringSource(source), new SymbolTable()).tokenizeToBuffer();
+    }
+
+    /**
+     * Renders a tree as one line with the type, offset, literal and value of every node, so two
+     * trees are equal exactly when their dumps are. Identifier values are symbol ids, which
+     * depend on the symbol table, and are left out.
+     */
+    public static String dump(Node node) {
+        StringBuilder builder = new StringBuilder();
+        dump(node, builder);
+        return builder.toString();
+    }
+
+    private static void dump(Node node, StringBuilder builder) {
+        if (node == null) {
+            builder.append("null");
+            return;
+        }
+        builder.append(node.getType()).append('@').append(node.getOffset());
+        if (node.getLiteral() != null) builder.append('\'').append(node.getLiteral()).append('\'');
+        if (node.getValue() != 0 && node.getType() != NodeType.IDENTIFIER) builder.append('=').append(node.getValue());
+        List<Node> children = node.getChildren();
+        if (children == null || children.isEmpty()) return;
+        builder.append('(');
+        for (Node child : children) {
+            dump(child, builder);
+            builder.append(' ');
+        }
+        builder.append(')');
+    }
+
+}
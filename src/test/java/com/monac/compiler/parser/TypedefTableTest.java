@@ -0,0 +1,129 @@
+package com.monac.compiler.parser;
+
+import com.monac.compiler.parser.tree.Node;
+import com.monac.compiler.parser.tree.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.monac.compiler.parser.Trees.dump;
+import static com.monac.compiler.parser.Trees.lex;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TypedefTableTest {
+
+    // Number of nodes of the type in the tree
+    private static int count(Node root, NodeType type) {
+        int count = 0;
+        List<Node> pending = new ArrayList<>(List.of(root));
+        while (!pending.isEmpty()) {
+            Node node = pending.removeLast();
+            if (node.getType() == type) count++;
+            if (node.getChildren() != null) pending.addAll(node.getChildren());
+        }
+        return count;
+    }
+
+    // Parses a source without errors and returns the number of casts, '(T) + 1' being a cast exactly when T names a type
+    private static int casts(String source) {
+        Parser parser = new Parser(lex(source));
+        Node tree = parser.parse();
+        assertEquals(List.of(), parser.getErrors(), source);
+
+        Parser lazy = new Parser(lex(source), true);
+        assertEquals(dump(tree), dump(lazy.parse()), () -> "Lazy bodies of " + source);
+        return count(tree, NodeType.CAST_EXPRESSION);
+    }
+
+    private static boolean hasErrors(String source) {
+        Parser parser = new Parser(lex(source));
+        parser.parse();
+        return parser.hadErrors();
+    }
+
+    @Test
+    void scopesRestoreTheNamesTheyChanged() {
+        TypedefTable table = new TypedefTable();
+        table.declare(3, true);
+        table.declare(200, true);
+        table.enterScope();
+        table.declare(3, false);
+        table.declare(70, true);
+        assertFalse(table.isTypedef(3));
+        assertTrue(table.isTypedef(70));
+        table.enterScope();
+        table.declare(3, true);
+        table.declare(200, false);
+        assertTrue(table.isTypedef(3));
+        assertFalse(table.isTypedef(200));
+        table.exitScope();
+        assertFalse(table.isTypedef(3));
+        assertTrue(table.isTypedef(200));
+        table.exitScope();
+        assertTrue(table.isTypedef(3));
+        assertFalse(table.isTypedef(70));
+        assertTrue(table.isTypedef(200));
+
+        table.declare(-1, true);
+        assertFalse(table.isTypedef(-1));
+        table.clear();
+        assertTrue(table.isEmpty());
+        assertFalse(table.isTypedef(3));
+    }
+
+    @Test
+    void copiesChangeIndependently() {
+        TypedefTable table = new TypedefTable();
+        table.declare(1, true);
+        TypedefTable copy = table.copy();
+        TypedefTable second = copy.copy();
+        copy.declare(1, false);
+        copy.declare(2, true);
+        table.declare(500, true);
+        assertTrue(table.isTypedef(1));
+        assertFalse(table.isTypedef(2));
+        assertFalse(copy.isTypedef(1));
+        assertTrue(copy.isTypedef(2));
+        assertFalse(copy.isTypedef(500));
+        assertTrue(second.isTypedef(1));
+        assertFalse(second.isTypedef(2));
+
+        TypedefTable cleared = table.copy();
+        cleared.clear();
+        assertTrue(cleared.isEmpty());
+        assertTrue(table.isTypedef(1));
+        assertTrue(table.isTypedef(500));
+    }
+
+    @Test
+    void typedefNamesStartDeclarationsAndCasts() {
+        assertEquals(1, casts("typedef int T; int f() { T x; return (T) + 1; }"));
+        assertEquals(1, casts("typedef int T, U; U u; int f() { return (U) + 1; }"));
+        assertEquals(0, casts("int T; int f() { return (T) + 1; }"));
+        assertTrue(hasErrors("int f() { T x; }"));
+    }
+
+    @Test
+    void parametersHideTypedefNamesInTheirBody() {
+        assertEquals(1, casts("typedef int T; int f(int T) { return (T) + 1; } int g() { return (T) + 1; }"));
+        assertEquals(2, casts("typedef int T; int h(T); int g() { return (T) + (T) + 1; }"));
+    }
+
+    @Test
+    void innerDeclarationsHideTypedefNamesUntilTheBlockEnds() {
+        assertEquals(1, casts("typedef int T; int f() { { int T; T = 1; (T) + 1; } return (T) + 1; }"));
+        assertEquals(0, casts("typedef int T; int f() { int T; return (T) + 1; } int T;"));
+        assertEquals(1, casts("int T; int f() { typedef char T; return (T) + 1; } int g() { return (T) + 1; }"));
+    }
+
+    @Test
+    void blockTypedefsEndWithTheirBlock() {
+        assertEquals(1, casts("int f() { { typedef int L; L a; return (L) + 1; } return (L) + 1; }"));
+        assertTrue(hasErrors("int f() { { typedef int L; } L a; }"));
+        assertTrue(hasErrors("int f() { typedef int L; } int g() { L a; }"));
+    }
+
+}
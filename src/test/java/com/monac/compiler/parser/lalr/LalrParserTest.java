@@ -0,0 +1,103 @@
+package com.monac.compiler.parser.lalr;
+
+import com.monac.compiler.lexer.Lexer;
+import com.monac.compiler.lexer.StringSource;
+import com.monac.compiler.lexer.SymbolTable;
+import com.monac.compiler.lexer.TokenBuffer;
+import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.tree.Node;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static com.monac.compiler.parser.Trees.dump;
+import static com.monac.compiler.parser.Trees.lex;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LalrParserTest {
+
+    private static final String[] PROGRAMS = {
+            "int x;",
+            "const int a = 1, b, c = a + 2;",
+            "volatile char c; const volatile int v = 'v'; void w;",
+            "int h(void); int k(int a, char, int b);",
+            "int f(int a, int b) { int c = a + b; return c * 2; }",
+            "main(x) int x; { return x; }",
+            "f(a, b) int a; int b; { return a ? b : a; }",
+            "void g() { int i; for (i = 0; i < 10; i += 1) { if (i) i = 1; } for (; i; ) i = 0; }",
+            "void g() { int i; while (i) i = i - 1; do { ++i; } while (i < 3); }",
+            "void g() { int i; case 1: i = 2; default: i = 3; end: return; }",
+            "void g() { int s; s = sizeof s + sizeof (s) + (int) 2.5 + 'c' + \"str\"; }",
+            "void g() { int n; n = sizeof(int) * n + sizeof (const char) - sizeof sizeof(int); }",
+            "void g() { int a, b; a = b <<= 2 >> 1 | 3 & 4 ^ 5; a = f(1, b = 2, (a, b)); a = -b * +a / ++a % --b; }",
+            "void g() { int a; a = a == 1 || a != 2 && a <= 3 >= 4 < 5 > 6; { { return; } } }",
+    };
+
+    private static void assertSameTree(String source) {
+        Parser parser = new Parser(lex(source));
+        Node expected = parser.parse();
+        assertEquals(0, parser.getErrors().size(), source);
+
+        LalrParser lalr = new LalrParser(lex(source));
+        assertEquals(dump(expected), dump(lalr.parse()), source);
+        assertFalse(lalr.hadErrors(), source);
+
+        LalrParser streaming = new LalrParser(new Lexer(new StringSource(source), new SymbolTable()));
+        assertEquals(dump(expected), dump(streaming.parse()), () -> "Streaming " + source);
+    }
+
+    @Test
+    void treesEqualThoseOfTheRecursiveDescentParser() {
+        for (String program : PROGRAMS) assertSameTree(program);
+        assertSameTree(String.join("\n", PROGRAMS));
+    }
+
+    @Test
+    void randomProgramsGiveTheSameTree() {
+        Random random = new Random(3);
+        for (int p = 0; p < 50; p++) {
+            StringBuilder source = new StringBuilder();
+            for (int i = 0; i < 20; i++) source.append(PROGRAMS[random.nextInt(PROGRAMS.length)]).append('\n');
+            assertSameTree(source.toString());
+        }
+    }
+
+    @Test
+    void deepNestingDoesNotOverflowTheStack() {
+        int depth = 100_000;
+        String source = "int f() { return " + "(".repeat(depth) + "1" + ")".repeat(depth) + " + 1".repeat(depth) + "; }"
+                + "int g() { " + "{".repeat(depth) + "}".repeat(depth) + " }";
+        LalrParser lalr = new LalrParser(lex(source));
+        assertTrue(lalr.parse() != null);
+        assertFalse(lalr.hadErrors());
+    }
+
+    @Test
+    void stopsAtTheFirstError() {
+        TokenBuffer tokens = lex("int f() { return 1 + ; } int g() { return ; ; }");
+        LalrParser lalr = new LalrParser(tokens);
+        assertNull(lalr.parse());
+        assertEquals(1, lalr.getErrors().size());
+    }
+
+    @Test
+    void declarationsWithTypedefNamesAreRejected() {
+        String source = "typedef int T; int f() { T x; return 0; }";
+        Parser parser = new Parser(lex(source));
+        parser.parse();
+        assertFalse(parser.hadErrors());
+
+        LalrParser lalr = new LalrParser(lex(source));
+        assertNull(lalr.parse());
+        assertEquals("Unexpected 'x'.", lalr.getErrors().getFirst().getMessage());
+    }
+
+    @Test
+    void typedefsAreDeclarationsWhileTheirNamesAreUnused() {
+        assertSameTree("typedef int T; typedef const char U, V; int f() { typedef char C; return 0; }");
+    }
+
+}
@@ -0,0 +1,172 @@
+package com.monac.compiler.parser.rules.expression;
+
+import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.tree.Node;
+import com.monac.compiler.parser.tree.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.monac.compiler.parser.Trees.lex;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OperatorPrecedenceTest {
+
+    private static final String NON_UNARY = "The left operand of an assignment must be a unary expression.";
+
+    // Parses the expression as the only statement of a function and returns its root
+    private static Node parse(String expression, Parser parser) {
+        Node body = parser.parse().getChildren().getFirst().getChildren().getLast();
+        List<Node> statements = body.getChildren();
+        return statements == null || statements.isEmpty() ? null : statements.getFirst();
+    }
+
+    private static Parser parser(String expression) {
+        return new Parser(lex("int f() { " + expression + "; }"));
+    }
+
+    // Fully parenthesized rendering of a well-formed expression
+    private static String grouped(String expression) {
+        Parser parser = parser(expression);
+        Node root = parse(expression, parser);
+        assertEquals(List.of(), parser.getErrors(), expression);
+        return render(root);
+    }
+
+    private static String render(Node node) {
+        List<Node> children = node.getChildren();
+        return switch (node.getType()) {
+            case IDENTIFIER -> node.getLiteral().toString();
+            case INTEGER_CONSTANT -> Long.toString(node.getValue());
+            case ASSIGNMENT_EXPRESSION ->
+                    "(" + render(children.get(0)) + " " + children.get(1).getLiteral() + " " + render(children.get(2)) + ")";
+            case CONDITIONAL_EXPRESSION ->
+                    "(" + render(children.get(0)) + " ? " + render(children.get(1)) + " : " + render(children.get(2)) + ")";
+            case UNARY_EXPRESSION -> "(" + node.getLiteral() + " " + render(children.getFirst()) + ")";
+            case TYPE_NAME -> "(" + String.join(" ", children.stream().map(specifier -> specifier.getLiteral().toString()).toList()) + ")";
+            case CAST_EXPRESSION ->
+                    "((" + children.get(0).getChildren().getFirst().getLiteral() + ") " + render(children.get(1)) + ")";
+            case POSTFIX_EXPRESSION -> {
+                StringBuilder call = new StringBuilder("call(");
+                if (children != null) {
+                    for (int i = 0; i < children.size(); i++) call.append(i == 0 ? "" : ", ").append(render(children.get(i)));
+                }
+                yield call.append(')').toString();
+            }
+            default -> "(" + render(children.get(0)) + " " + node.getLiteral() + " " + render(children.get(1)) + ")";
+        };
+    }
+
+    private static void assertRejected(String expression, String message) {
+        Parser parser = parser(expression);
+        parse(expression, parser);
+        assertTrue(parser.hadErrors(), expression);
+        assertEquals(message, parser.getErrors().getFirst().getMessage(), expression);
+    }
+
+    @Test
+    void operatorsOfOneLevelGroupFromTheLeft() {
+        assertEquals("((a - b) - c)", grouped("a - b - c"));
+        assertEquals("((a / b) % c)", grouped("a / b % c"));
+        assertEquals("((a << b) >> c)", grouped("a << b >> c"));
+        assertEquals("((a < b) >= c)", grouped("a < b >= c"));
+        assertEquals("((a == b) != c)", grouped("a == b != c"));
+        assertEquals("((a || b) || c)", grouped("a || b || c"));
+        assertEquals("((a , b) , c)", grouped("a, b, c"));
+    }
+
+    @Test
+    void assignmentsAndConditionalsGroupFromTheRight() {
+        assertEquals("(a = (b = c))", grouped("a = b = c"));
+        assertEquals("(a += (b <<= (c |= d)))", grouped("a += b <<= c |= d"));
+        assertEquals("(a ? b : (c ? d : e))", grouped("a ? b : c ? d : e"));
+        assertEquals("(a ? (b ? c : d) : e)", grouped("a ? b ? c : d : e"));
+        assertEquals("(a = (b ? c : d))", grouped("a = b ? c : d"));
+        assertEquals("(a ? (b = c) : d)", grouped("a ? b = c : d"));
+    }
+
+    @Test
+    void tighterLevelsBindFirst() {
+        assertEquals("((((((((((a << 1) < b) == c) & d) ^ e) | f) && g) || h) ? i : j) , k)",
+                grouped("a << 1 < b == c & d ^ e | f && g || h ? i : j, k"));
+        assertEquals("(k , (j ? i : (h || (g && (f | (e ^ (d & (c == (b < (1 << a))))))))))",
+                grouped("k, j ? i : h || g && f | e ^ d & c == b < 1 << a"));
+        assertEquals("(a + ((b * c) / d))", grouped("a + b * c / d"));
+        assertEquals("((a * (b + c)) - d)", grouped("a * (b + c) - d"));
+        assertEquals("(x = (y = ((a + b) * c)))", grouped("x = y = (a + b) * c"));
+    }
+
+    @Test
+    void prefixOperatorsAndCastsBindTighterThanBinaryOperators() {
+        assertEquals("((- a) * (- b))", grouped("-a * -b"));
+        assertEquals("((++ a) + (sizeof b))", grouped("++a + sizeof b"));
+        assertEquals("((& a) & (* b))", grouped("&a & *b"));
+        assertEquals("(((int) (- x)) + y)", grouped("(int) -x + y"));
+        assertEquals("((int) ((char) x))", grouped("(int) (char) x"));
+        assertEquals("((- (a + b)) * c)", grouped("-(a + b) * c"));
+        assertEquals("(call(1, (a = 2), (b , c)) + d)", grouped("f(1, a = 2, (b, c)) + d"));
+    }
+
+    @Test
+    void sizeofTakesAParenthesizedTypeNameAsItsOperand() {
+        assertEquals("(sizeof (int))", grouped("sizeof(int)"));
+        assertEquals("((sizeof (int)) * n)", grouped("sizeof(int) * n"));
+        assertEquals("((sizeof (char)) - x)", grouped("sizeof (char) -x"), "Not a cast of -x");
+        assertEquals("((sizeof (const int)) + (sizeof n))", grouped("sizeof(const int) + sizeof(n)"));
+        assertEquals("(sizeof (sizeof (int)))", grouped("sizeof sizeof(int)"));
+        assertEquals("((int) (sizeof (char)))", grouped("(int) sizeof(char)"));
+        assertEquals("(sizeof (- ((char) x)))", grouped("sizeof -(char) x"), "A cast when not right after sizeof");
+        assertRejected("sizeof(int", "Expected ')' after the type name of sizeof.");
+    }
+
+    @Test
+    void unaryLeftOperandsMayBeAssigned() {
+        assertEquals("((- a) = b)", grouped("-a = b"));
+        assertEquals("((a + b) = c)", grouped("(a + b) = c"));
+        assertEquals("(a , (b = c))", grouped("a, b = c"));
+        assertEquals("(a ? b : (c = d))", grouped("a ? b : (c = d)"));
+    }
+
+    @Test
+    void nonUnaryLeftOperandsOfAnAssignmentAreRejected() {
+        assertRejected("a + b = c", NON_UNARY);
+        assertRejected("a * b += c", NON_UNARY);
+        assertRejected("x = a || b = c", NON_UNARY);
+        assertRejected("(int) a = b", NON_UNARY);
+        assertRejected("-(int) a = b", NON_UNARY);
+        assertRejected("a ? b : c = d", NON_UNARY);
+        assertRejected("(a + b = c)", NON_UNARY);
+    }
+
+    @Test
+    void incompleteExpressionsAreRejected() {
+        assertRejected("a +", "Invalid expression. Expected an operand after '+'.");
+        assertRejected("(a + b", "Expected ')' after expression.");
+        assertRejected("a ? b", "Expected ':' in conditional expression.");
+    }
+
+    @Test
+    void deepNestingDoesNotRecurse() {
+        int depth = 200_000;
+        assertEquals(depth, depth(parseDeep("(".repeat(depth) + "a" + ")".repeat(depth) + " + b".repeat(depth)), 0));
+        assertEquals(depth, depth(parseDeep("a = ".repeat(depth) + "b"), 2));
+        assertEquals(depth, depth(parseDeep("a ? b : ".repeat(depth) + "c"), 2));
+        assertEquals(depth, depth(parseDeep("- ".repeat(depth) + "a"), 0));
+    }
+
+    private static Node parseDeep(String expression) {
+        Parser parser = parser(expression);
+        Node root = parse(expression, parser);
+        assertTrue(!parser.hadErrors(), () -> parser.getErrors().getFirst().getMessage());
+        return root;
+    }
+
+    // Number of operators on the path that always takes the given child
+    private static int depth(Node node, int child) {
+        int depth = 0;
+        for (Node current = node; current.getChildren() != null; current = current.getChildren().get(child)) depth++;
+        return depth;
+    }
+
+}
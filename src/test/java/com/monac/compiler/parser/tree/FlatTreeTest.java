@@ -0,0 +1,146 @@
+package com.monac.compiler.parser.tree;
+
+import com.monac.compiler.lexer.TokenBuffer;
+import com.monac.compiler.parser.Parser;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.monac.compiler.parser.Trees.dump;
+import static com.monac.compiler.parser.Trees.lex;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlatTreeTest {
+
+    private static final String SOURCE = """
+            typedef int T;
+            const int g = 'g', h;
+            int f(int a, T b) {
+              int c = a + b * 2;
+              char s;
+              if (c) { c = c ? 1.5 : "str"; }
+              while (c) c -= 1;
+              return f(a, (T) c);
+            }
+            main(x) int x; { lbl: return x; }
+            int p(void);
+            """;
+
+    private static FlatTree flatten(String source, boolean lazyBodies) {
+        TokenBuffer tokens = lex(source);
+        return FlatTree.of(new Parser(tokens, lazyBodies).parse(), tokens);
+    }
+
+    @Test
+    void toNodeGivesBackTheParsedTree() {
+        TokenBuffer tokens = lex(SOURCE);
+        Parser parser = new Parser(tokens);
+        Node root = parser.parse();
+        assertFalse(parser.hadErrors());
+        String expected = dump(root);
+        FlatTree tree = FlatTree.of(root, tokens);
+        assertEquals(expected, dump(tree.toNode(tree.root())));
+        assertEquals(expected, dump(flatten(SOURCE, true).toNode(0)), "Lazy bodies are parsed");
+    }
+
+    @Test
+    void subtreesAreContiguousRanges() {
+        FlatTree tree = flatten(SOURCE, false);
+        for (int node = 0; node < tree.size(); node++) {
+            int end = tree.end(node);
+            Node subtree = tree.toNode(node);
+            assertEquals(end - node, count(subtree), "Size of the subtree of " + node);
+            assertEquals(tree.type(node), subtree.getType());
+
+            int children = 0;
+            for (int child = tree.firstChild(node); child != FlatTree.NONE; child = tree.nextSibling(child)) {
+                assertEquals(node, tree.parent(child));
+                assertTrue(child > node && child < end);
+                children++;
+            }
+            assertEquals(children, tree.childCount(node));
+        }
+        assertEquals(FlatTree.NONE, tree.parent(tree.root()));
+        assertEquals(tree.size(), tree.end(tree.root()));
+    }
+
+    @Test
+    void cursorWalksInHandleOrder() {
+        FlatTree tree = flatten(SOURCE, false);
+        FlatTree.Cursor cursor = tree.cursor();
+        int visited = 1;
+        while (cursor.toNext(tree.root())) {
+            assertEquals(visited++, cursor.node());
+            assertEquals(tree.offset(cursor.node()), cursor.offset());
+        }
+        assertEquals(tree.size(), visited);
+
+        // A walk of a subtree stops at its end
+        int function = tree.nextSibling(tree.firstChild(tree.root()));
+        function = tree.nextSibling(function);
+        cursor.moveTo(function);
+        int last = function;
+        while (cursor.toNext(function)) last = cursor.node();
+        assertEquals(tree.end(function) - 1, last);
+
+        cursor.moveTo(tree.root());
+        assertFalse(cursor.toParent());
+        assertFalse(cursor.toNextSibling());
+        assertTrue(cursor.toFirstChild());
+        assertEquals(NodeType.DECLARATION, cursor.type());
+        assertTrue(cursor.toParent());
+        assertEquals(NodeType.TRANSLATION_UNIT, cursor.copy().type());
+    }
+
+    @Test
+    void valuesAndLiteralsAreReadFromTheTokens() {
+        FlatTree tree = flatten("int f() { return 'a' + 12 + x; } char d = 2.5;", false);
+        List<String> seen = new ArrayList<>();
+        for (int node = 0; node < tree.size(); node++) {
+            switch (tree.type(node)) {
+                case CHARACTER_CONSTANT, INTEGER_CONSTANT -> seen.add(tree.type(node) + "=" + tree.value(node));
+                case FLOATING_CONSTANT -> seen.add("FLOATING_CONSTANT=" + tree.doubleValue(node));
+                case ADDITIVE_EXPRESSION, TYPE_SPECIFIER -> seen.add(tree.literal(node).toString());
+                default -> {
+                }
+            }
+        }
+        assertEquals(List.of("int", "+", "+", "CHARACTER_CONSTANT=97", "INTEGER_CONSTANT=12", "char", "FLOATING_CONSTANT=2.5"), seen);
+    }
+
+    @Test
+    void deepTreesAreCopiedWithoutRecursion() {
+        int depth = 100_000;
+        String source = "int f() { return " + "(".repeat(depth) + "1" + ")".repeat(depth) + " + 1".repeat(depth) + "; }";
+        FlatTree tree = flatten(source, false);
+        assertEquals(tree.size(), count(tree.toNode(tree.root())));
+        assertTrue(tree.size() > 2 * depth);
+        assertEquals((long) tree.size() * 18, tree.memoryUsage());
+    }
+
+    @Test
+    void emptyAndForeignTrees() {
+        TokenBuffer tokens = lex("int x;");
+        FlatTree empty = FlatTree.of(null, tokens);
+        assertEquals(0, empty.size());
+        assertEquals(FlatTree.NONE, empty.root());
+
+        assertThrows(IllegalArgumentException.class, () -> FlatTree.of(new Node(NodeType.IDENTIFIER, 2), tokens));
+    }
+
+    private static int count(Node root) {
+        int count = 0;
+        List<Node> pending = new ArrayList<>(List.of(root));
+        while (!pending.isEmpty()) {
+            Node node = pending.removeLast();
+            count++;
+            if (node.getChildren() != null) pending.addAll(node.getChildren());
+        }
+        return count;
+    }
+
+}
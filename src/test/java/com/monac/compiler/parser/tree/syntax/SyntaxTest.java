@@ -0,0 +1,327 @@
+package com.monac.compiler.parser.tree.syntax;
+
+import com.monac.compiler.parser.Parser;
+import com.monac.compiler.parser.tree.Node;
+import com.monac.compiler.parser.tree.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static com.monac.compiler.parser.Trees.lex;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SyntaxTest {
+
+    private static final String SOURCE = """
+            typedef int T;
+            const volatile int g = 'g', h;
+            void v;
+            int p(void);
+            int q(int, T t, char c);
+            int f(int a, T b) {
+              int c = a + b * 2 - -a, d;
+              T e;
+              if (c) { c = c ? 1.5 : "str"; }
+              while (c) c -= 1;
+              do { ++c; } while (c < 3 && c != 0 || c >= 1);
+              for (c = 0; c <= 10; c += 1) d = c << 2 >> 1 | 3 & 4 ^ 5;
+              for (;;) return 0;
+              case 1: c = sizeof c + sizeof(T) * sizeof(const char);
+              default: c = (T) (int) c % 2 / 1;
+              again: d *= d, d /= 1, d %= 2, d <<= 1, d >>= 1, d &= 1, d ^= 1, d |= 1, d -= f(*&c, (c, d));
+              return f(a, (T) c);
+            }
+            main(x) int x; { return; }
+            """;
+
+    private static Syntax syntax(String source, boolean lazyBodies) {
+        Parser parser = new Parser(lex(source), lazyBodies);
+        Node root = parser.parse();
+        assertFalse(parser.hadErrors(), () -> source + "\n" + parser.getErrors());
+        return Syntax.of(root);
+    }
+
+    // Record components without the offsets and symbol ids, which depend on the spelling
+    private static String structure(Syntax syntax) {
+        return syntax.toString().replaceAll("offset=\\d+, ", "").replaceAll(", symbol=\\d+", "");
+    }
+
+    @Test
+    void printingAndParsingAgainGivesTheSameRecords() {
+        Syntax tree = syntax(SOURCE, false);
+        String printed = new Printer(SOURCE).print(tree);
+        Syntax reparsed = syntax(printed, false);
+        assertEquals(structure(tree), structure(reparsed), printed);
+        assertEquals(printed, new Printer(printed).print(reparsed));
+    }
+
+    @Test
+    void lazyBodiesGiveTheSameRecords() {
+        assertEquals(syntax(SOURCE, false), syntax(SOURCE, true));
+    }
+
+    @Test
+    void nodesBecomeTypedRecords() {
+        String source = "int f(int a) { return a + 1; } typedef char C; C c = 'x';";
+        TranslationUnit unit = (TranslationUnit) syntax(source, false);
+        assertEquals("TranslationUnit[declarations=["
+                + "FunctionDefinition[specifiers=[TypeSpecifier[kind=INT]], "
+                + "declarator=FunctionDeclarator[declarator=Identifier[name=f], "
+                + "parameters=[ParameterDeclaration[specifier=TypeSpecifier[kind=INT], declarator=Identifier[name=a]]]], "
+                + "parameterDeclarations=[], body=Compound[items=["
+                + "Return[value=Binary[operator=ADD, left=Identifier[name=a], right=IntegerConstant[value=1]]]]]], "
+                + "Declaration[specifiers=[StorageClassSpecifier[kind=TYPEDEF], TypeSpecifier[kind=CHAR]], "
+                + "declarators=[InitDeclarator[declarator=Identifier[name=C], initializer=null]]], "
+                + "Declaration[specifiers=[Identifier[name=C]], "
+                + "declarators=[InitDeclarator[declarator=Identifier[name=c], initializer=CharacterConstant[value=120]]]]]]",
+                structure(unit));
+
+        Declaration declaration = (Declaration) unit.declarations().getLast();
+        assertEquals(source.indexOf("C c"), declaration.offset());
+        Identifier c = (Identifier) declaration.declarators().getFirst().declarator();
+        Identifier type = (Identifier) declaration.specifiers().getFirst();
+        assertEquals(List.of("c", "C"), List.of(c.name(), type.name()));
+    }
+
+    @Test
+    void deepTreesAreBuiltWithoutRecursion() {
+        int depth = 100_000;
+        String source = "int f() { return " + "(".repeat(depth) + "1" + ")".repeat(depth) + " + 1".repeat(depth) + "; }";
+        FunctionDefinition function = (FunctionDefinition) ((TranslationUnit) syntax(source, false)).declarations().getFirst();
+        Expression value = ((Return) function.body().items().getFirst()).value();
+        int chain = 0;
+        while (value instanceof Binary binary) {
+            value = binary.left();
+            chain++;
+        }
+        assertEquals(depth, chain);
+        assertTrue(value instanceof IntegerConstant);
+    }
+
+    @Test
+    void nodesTheParsersDoNotBuildAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Syntax.of(new Node(NodeType.STRUCT_OR_UNION, 0)));
+        Node binary = new Node(NodeType.ADDITIVE_EXPRESSION, 0);
+        binary.setLiteral("@");
+        binary.setChildren(List.of(new Node(NodeType.INTEGER_CONSTANT, 0), new Node(NodeType.INTEGER_CONSTANT, 2)));
+        assertThrows(IllegalArgumentException.class, () -> Syntax.of(binary));
+    }
+
+    /**
+     * Prints records back as source, every expression in parentheses. A call keeps only its
+     * arguments, so the callee's name is read from the source the records were built from.
+     */
+    private static final class Printer {
+
+        private final String source;
+        private final StringBuilder out = new StringBuilder();
+
+        Printer(String source) {
+            this.source = source;
+        }
+
+        String print(Syntax syntax) {
+            out.setLength(0);
+            syntax(syntax);
+            return out.toString();
+        }
+
+        private void syntax(Syntax syntax) {
+            switch (syntax) {
+                case TranslationUnit unit -> unit.declarations().forEach(declaration -> {
+                    syntax(declaration);
+                    out.append('\n');
+                });
+                case FunctionDefinition function -> {
+                    specifiers(function.specifiers());
+                    syntax(function.declarator());
+                    out.append(' ');
+                    for (Declaration declaration : function.parameterDeclarations()) {
+                        syntax(declaration);
+                        out.append(' ');
+                    }
+                    syntax(function.body());
+                }
+                case Declaration declaration -> {
+                    specifiers(declaration.specifiers());
+                    list(declaration.declarators(), ", ");
+                    out.append(';');
+                }
+                case InitDeclarator declarator -> {
+                    syntax(declarator.declarator());
+                    if (declarator.initializer() != null) {
+                        out.append(" = ");
+                        expression(declarator.initializer());
+                    }
+                }
+                case FunctionDeclarator declarator -> {
+                    syntax(declarator.declarator());
+                    out.append('(');
+                    list(declarator.parameters(), ", ");
+                    out.append(')');
+                }
+                case ParameterDeclaration parameter -> {
+                    syntax(parameter.specifier());
+                    if (parameter.declarator() != null) {
+                        out.append(' ');
+                        syntax(parameter.declarator());
+                    }
+                }
+                case TypeName type -> list(type.specifiers(), " ");
+                case StorageClassSpecifier specifier -> out.append(specifier.kind().name().toLowerCase(Locale.ROOT));
+                case TypeSpecifier specifier -> out.append(specifier.kind().name().toLowerCase(Locale.ROOT));
+                case TypeQualifier specifier -> out.append(specifier.kind().name().toLowerCase(Locale.ROOT));
+                case Identifier identifier -> out.append(identifier.name());
+                case Statement statement -> statement(statement);
+            }
+        }
+
+        private void statement(Statement statement) {
+            switch (statement) {
+                case Compound compound -> {
+                    out.append("{ ");
+                    for (BlockItem item : compound.items()) {
+                        syntax(item);
+                        out.append(' ');
+                    }
+                    out.append('}');
+                }
+                case If statementIf -> {
+                    out.append("if (");
+                    expression(statementIf.condition());
+                    out.append(") ");
+                    statement(statementIf.then());
+                }
+                case While loop -> {
+                    out.append("while (");
+                    expression(loop.condition());
+                    out.append(") ");
+                    statement(loop.body());
+                }
+                case DoWhile loop -> {
+                    out.append("do ");
+                    statement(loop.body());
+                    out.append(" while (");
+                    expression(loop.condition());
+                    out.append(");");
+                }
+                case For loop -> {
+                    // Only the clauses that are there are kept, they are printed first
+                    out.append("for (");
+                    for (int i = 0; i < 3; i++) {
+                        if (i > 0) out.append(i < loop.clauses().size() ? "; " : ";");
+                        if (i < loop.clauses().size()) expression(loop.clauses().get(i));
+                    }
+                    out.append(") ");
+                    statement(loop.body());
+                }
+                case Return jump -> {
+                    out.append("return");
+                    if (jump.value() != null) {
+                        out.append(' ');
+                        expression(jump.value());
+                    }
+                    out.append(';');
+                }
+                case Label label -> {
+                    out.append(label.label().name()).append(": ");
+                    statement(label.statement());
+                }
+                case Case label -> {
+                    out.append("case ");
+                    expression(label.value());
+                    out.append(": ");
+                    statement(label.statement());
+                }
+                case Default label -> {
+                    out.append("default: ");
+                    statement(label.statement());
+                }
+                case Expression expression -> {
+                    expression(expression);
+                    out.append(';');
+                }
+            }
+        }
+
+        private void expression(Expression expression) {
+            switch (expression) {
+                case Identifier identifier -> out.append(identifier.name());
+                case IntegerConstant constant -> out.append(constant.value());
+                case CharacterConstant constant -> out.append('\'').append((char) constant.value()).append('\'');
+                case FloatingConstant constant -> out.append(constant.value());
+                case StringLiteral string -> out.append(string.text());
+                case Binary binary -> {
+                    out.append('(');
+                    expression(binary.left());
+                    out.append(' ').append(binary.operator().getSpelling()).append(' ');
+                    expression(binary.right());
+                    out.append(')');
+                }
+                case Assignment assignment -> {
+                    out.append('(');
+                    expression(assignment.target());
+                    out.append(' ').append(assignment.operator().getSpelling()).append(' ');
+                    expression(assignment.value());
+                    out.append(')');
+                }
+                case Conditional conditional -> {
+                    out.append('(');
+                    expression(conditional.condition());
+                    out.append(" ? ");
+                    expression(conditional.consequent());
+                    out.append(" : ");
+                    expression(conditional.alternative());
+                    out.append(')');
+                }
+                case Unary unary -> {
+                    out.append('(').append(unary.operator().getSpelling()).append(' ');
+                    expression(unary.operand());
+                    out.append(')');
+                }
+                case SizeofType sizeof -> {
+                    out.append("(sizeof (");
+                    syntax(sizeof.type());
+                    out.append("))");
+                }
+                case Cast cast -> {
+                    out.append("((");
+                    syntax(cast.type());
+                    out.append(") ");
+                    expression(cast.operand());
+                    out.append(')');
+                }
+                case Call call -> {
+                    int end = call.offset();
+                    while (Character.isJavaIdentifierPart(source.charAt(end))) end++;
+                    out.append(source, call.offset(), end).append('(');
+                    for (int i = 0; i < call.arguments().size(); i++) {
+                        if (i > 0) out.append(", ");
+                        expression(call.arguments().get(i));
+                    }
+                    out.append(')');
+                }
+            }
+        }
+
+        private void specifiers(List<Specifier> specifiers) {
+            for (Specifier specifier : specifiers) {
+                syntax(specifier);
+                out.append(' ');
+            }
+        }
+
+        private void list(List<? extends Syntax> items, String separator) {
+            for (int i = 0; i < items.size(); i++) {
+                if (i > 0) out.append(separator);
+                syntax(items.get(i));
+            }
+        }
+
+    }
+
+}
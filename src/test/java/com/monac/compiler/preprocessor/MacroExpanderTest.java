@@ -0,0 +1,135 @@
+package com.monac.compiler.preprocessor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class MacroExpanderTest {
+
+    private Path file;
+
+    @BeforeEach
+    void createFile() throws IOException {
+        file = Files.createTempFile("macros", ".c");
+    }
+
+    @AfterEach
+    void deleteFile() throws IOException {
+        Files.delete(file);
+    }
+
+    private String expand(String source) throws IOException {
+        Files.writeString(file, source);
+        return PreprocessorTest.text(new Preprocessor(new HeaderCache(), List.of()).preprocess(file));
+    }
+
+    @Test
+    void objectAndFunctionLikeMacros() throws IOException {
+        assertEquals("int x = 3 ;", expand("#define N 3\nint x = N;\n"));
+        assertEquals("( 1 ) * ( 2 + 3 )", expand("#define MUL(a, b) (a) * (b)\nMUL(1, 2 + 3)\n"));
+        assertEquals("3 ( 1 , 2 )", expand("#define F(a, b) b a\nF((1, 2), 3)\n"));
+        assertEquals("f + 2", expand("#define f(x) x\nf + f(2)\n"), "Not followed by '('");
+        assertEquals("0", expand("#define E() 0\nE()\n"));
+        assertEquals("", expand("#define EMPTY\nEMPTY\n"));
+        assertEquals("N", expand("#define N 3\n#undef N\nN\n"));
+    }
+
+    @Test
+    void continuedDefinitions() throws IOException {
+        assertEquals("( ( 1 ) > ( 2 ) ? ( 1 ) : ( 2 ) ) ;",
+                expand("#define MAX(a,b) \\\n((a)>(b)?(a):(b))\nMAX(1, 2);\n"));
+        assertEquals("int x = 1 + 2 ; int y ;",
+                expand("#define SUM 1 \\\r\n  + \\\n 2\nint x = SUM; int y;\n"), "CRLF and several continuations");
+        assertEquals("\"a + b\"", expand("#define S(x) \\\n #x\nS(a \\\n + b)\n"), "Spliced in the arguments too");
+        assertEquals("int z ;", expand("#define E \\\n\nint z;\n"), "Continued onto an empty line");
+    }
+
+    @Test
+    void argumentsAreExpandedBeforeSubstitution() throws IOException {
+        assertEquals("2 * ( 3 )", expand("#define N 3\n#define TWICE(x) 2 * (x)\nTWICE(N)\n"));
+        assertEquals("g ( 1 )", expand("#define ID(x) x\n#define g(x) g(x)\nID(g(1))\n"));
+        assertEquals("3 + 1", expand("#define F(x) x + 1\n#define G F\n#define N 3\nG(N)\n"), "Rescanned with what follows");
+    }
+
+    @Test
+    void stringizing() throws IOException {
+        assertEquals("\"a + b\"", expand("#define S(x) #x\nS(a + b)\n"));
+        assertEquals("\"a +b\"", expand("#define S(x) #x\nS(  a   +b  )\n"), "Spacing is normalized");
+        assertEquals("\"\\\"q\\\" '\\\\n'\"", expand("#define S(x) #x\nS(\"q\" '\\n')\n"), "Quotes and backslashes are escaped");
+        assertEquals("\"\"", expand("#define S(x) #x\nS()\n"));
+        assertEquals("\"N\" \"3\"", expand("#define N 3\n#define S(x) #x\n#define XS(x) S(x)\nS(N) XS(N)\n"));
+    }
+
+    @Test
+    void tokenPasting() throws IOException {
+        assertEquals("xy", expand("#define CAT(a, b) a ## b\nCAT(x, y)\n"));
+        assertEquals("12", expand("#define CAT(a, b) a ## b\nCAT(1, 2)\n"));
+        assertEquals("<<=", expand("#define CAT(a, b) a ## b\nCAT(<<, =)\n"));
+        assertEquals("y", expand("#define CAT(a, b) a ## b\nCAT(, y)\n"));
+        assertEquals("NN", expand("#define N 3\n#define CAT(a, b) a ## b\nCAT(N, N)\n"), "Operands are not expanded");
+        assertEquals("3", expand("#define NN 3\n#define CAT(a, b) a ## b\nCAT(N, N)\n"), "The result is rescanned");
+        assertEquals("var_1", expand("#define VAR(n) var_ ## n\nVAR(1)\n"));
+        assertThrows(PreprocessorException.class, () -> expand("#define CAT(a, b) a ## b\nCAT(+, /)\n"));
+        assertThrows(PreprocessorException.class, () -> expand("#define BAD(a) ## a\n"));
+    }
+
+    @Test
+    void hideSetsStopRecursion() throws IOException {
+        assertEquals("foo", expand("#define foo foo\nfoo\n"));
+        assertEquals("z [ 0 ]", expand("#define z z[0]\nz\n"));
+        assertEquals("a b", expand("#define a b\n#define b a\na b\n"));
+        assertEquals("f ( 1 )", expand("#define f(x) g(x)\n#define g(x) f(x)\nf(1)\n"));
+        assertEquals("1 f ( 2 )", expand("#define f(x) x f\nf(1)(2)\n"));
+        assertEquals("2 * 9 * g", expand("#define f(a) a*g\n#define g(a) f(a)\nf(2)(9)\n"), "C11 6.10.3.4 example");
+    }
+
+    @Test
+    void standardExample() throws IOException {
+        // From C11 6.10.3.5, without the operators the lexer does not know
+        String source = """
+                #define x 3
+                #define f(a) f(x * (a))
+                #undef x
+                #define x 2
+                #define g f
+                #define z z[0]
+                #define h g(2
+                #define m(a) a(w)
+                #define w 0,1
+                #define t(a) a
+                #define p() int
+                #define q(x) x
+                #define r(x,y) x ## y
+                f(y+1) + f(f(z)) % t(t(g)(0) + t)(1);
+                g(x+(3,4)-w) | h 5) & m
+                (f)^m(m);
+                p() i[q()] = { q(1), r(2,3), r(4,), r(,5), r(,) };
+                """;
+        assertEquals(String.join(" ",
+                "f ( 2 * ( y + 1 ) ) + f ( 2 * ( f ( 2 * ( z [ 0 ] ) ) ) ) % f ( 2 * ( 0 ) ) + t ( 1 ) ;",
+                "f ( 2 * ( 2 + ( 3 , 4 ) - 0 , 1 ) ) | f ( 2 * ( 2 5 ) ) & f ( 2 * ( 0 , 1 ) ) ^ m ( 0 , 1 ) ;",
+                "int i [ ] = { 1 , 23 , 4 , 5 , } ;"), expand(source));
+    }
+
+    @Test
+    void expansionIsLinearInItsOutput() throws IOException {
+        StringBuilder source = new StringBuilder();
+        int depth = 20000;
+        for (int i = 0; i < depth; i++) source.append("#define M").append(i).append(" M").append(i + 1).append(" M").append(i).append('\n');
+        source.append("M0\n");
+        String result = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> expand(source.toString()));
+        assertEquals("M" + depth + " M" + (depth - 1), result.substring(0, result.indexOf(" M" + (depth - 2))));
+        assertEquals(depth + 1, result.split(" ").length);
+    }
+
+}
@@ -0,0 +1,170 @@
+package com.monac.compiler.preprocessor;
+
+import com.monac.compiler.lexer.SymbolTable;
+import com.monac.compiler.lexer.TokenType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.monac.compiler.preprocessor.PreprocessorTest.text;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrecompiledHeaderTest {
+
+    private static final List<String> MACROS = List.of("PRELUDE_H", "MAX", "N", "INNER", "STR");
+
+    private Path directory;
+    private Path prelude;
+    private Path main;
+    private Path snapshot;
+
+    @BeforeEach
+    void createFiles() throws IOException {
+        directory = Files.createTempDirectory("pch");
+        prelude = write("prelude.h", """
+                #ifndef PRELUDE_H
+                #define PRELUDE_H
+                #include "inner.h"
+                #define MAX(a, b) ((a) > (b) ? (a) : (b))
+                #define N 10
+                #define STR(x) #x
+                typedef int word;
+                word limit = MAX(N, INNER);
+                #endif
+                """);
+        write("inner.h", "#pragma once\nint inner;\n#define INNER 1\n");
+        main = write("main.c", """
+                #include "prelude.h"
+                #include "inner.h"
+                #include "prelude.h"
+                word m = MAX(N, INNER) + limit; char *s = STR(N);
+                """);
+        snapshot = directory.resolve("prelude.pch");
+    }
+
+    @AfterEach
+    void deleteFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+        }
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = directory.resolve(name);
+        Files.writeString(file, content);
+        return file;
+    }
+
+    // Writes the snapshot with a cache of its own, as a separate run of the compiler would
+    private void writeSnapshot() throws IOException {
+        PrecompiledHeader.write(snapshot, prelude, new HeaderCache(), List.of());
+    }
+
+    // Checks that every identifier of the output has the symbol id of its name in the table
+    private static void assertSymbols(TokenSequence tokens, SymbolTable symbols) {
+        for (int i = 0; tokens.type(i) != TokenType.EOF; i++) {
+            if (tokens.type(i) != TokenType.IDENTIFIER) continue;
+            String name = tokens.token(i).getLexeme();
+            assertEquals(name, symbols.name(tokens.symbol(i)), "Symbol of token " + i);
+            assertEquals(symbols.intern(name), tokens.symbol(i));
+        }
+    }
+
+    @Test
+    void restoredStateGivesTheSameTokensAndMacros() throws IOException {
+        HeaderCache plainCache = new HeaderCache();
+        Preprocessor plain = new Preprocessor(plainCache, List.of());
+        String expected = text(plain.preprocess(main));
+
+        writeSnapshot();
+        HeaderCache cache = new HeaderCache();
+        PrecompiledHeader header = PrecompiledHeader.load(snapshot, cache);
+        assertEquals(prelude.toAbsolutePath().normalize(), header.getPrefix());
+        assertTrue(header.isUpToDate());
+
+        Preprocessor restored = new Preprocessor(cache, List.of());
+        TokenSequence tokens = restored.preprocess(main, header);
+        assertEquals(expected, text(tokens));
+        assertSymbols(tokens, cache.getSymbols());
+        assertFalse(cache.size() > 2, "The prefix is not lexed again");
+
+        assertEquals(plain.getMacros().size(), restored.getMacros().size());
+        SymbolTable symbols = cache.getSymbols();
+        for (String name : MACROS) {
+            Macro macro = restored.getMacros().get(symbols.intern(name));
+            Macro original = plain.getMacros().get(plainCache.getSymbols().intern(name));
+            assertEquals(original.isFunctionLike(), macro.isFunctionLike(), name);
+            assertEquals(original.getParameterCount(), macro.getParameterCount(), name);
+            assertEquals(original.getBodyEnd() - original.getBodyStart(), macro.getBodyEnd() - macro.getBodyStart(), name);
+        }
+    }
+
+    @Test
+    void symbolIdsAreRemappedIntoAFilledTable() throws IOException {
+        String expected = text(new Preprocessor(new HeaderCache(), List.of()).preprocess(main));
+        writeSnapshot();
+
+        // Other names first, in another order, so no id of the snapshot means the same name here
+        SymbolTable symbols = new SymbolTable();
+        for (String name : List.of("unrelated", "b", "a", "INNER", "x", "word", "N", "limit", "MAX")) symbols.intern(name);
+        HeaderCache cache = new HeaderCache(symbols);
+        PrecompiledHeader header = PrecompiledHeader.load(snapshot, cache);
+
+        Preprocessor restored = new Preprocessor(cache, List.of());
+        TokenSequence tokens = restored.preprocess(main, header);
+        assertEquals(expected, text(tokens));
+        assertSymbols(tokens, symbols);
+        for (String name : MACROS) assertTrue(restored.getMacros().isDefined(name), name);
+        assertEquals("unrelated", symbols.name(0));
+    }
+
+    @Test
+    void changedHeadersMakeTheSnapshotStale() throws IOException {
+        writeSnapshot();
+        HeaderCache cache = new HeaderCache();
+        PrecompiledHeader header = PrecompiledHeader.load(snapshot, cache);
+        assertTrue(header.isUpToDate());
+
+        // Same size, so only the modification time tells
+        Path inner = write("inner.h", "#pragma once\nint inner;\n#define INNER 2\n");
+        Files.setLastModifiedTime(inner, FileTime.fromMillis(Files.getLastModifiedTime(inner).toMillis() + 2000));
+        assertFalse(header.isUpToDate());
+
+        // The stale snapshot is ignored and the changed header is read
+        String text = text(new Preprocessor(cache, List.of()).preprocess(main, header));
+        assertTrue(text.contains("( ( 10 ) > ( 2 ) ? ( 10 ) : ( 2 ) )"), text);
+
+        Files.delete(directory.resolve("inner.h"));
+        assertFalse(header.isUpToDate());
+    }
+
+    @Test
+    void snapshotsOfAnotherPrefixAreIgnored() throws IOException {
+        writeSnapshot();
+        Path other = write("other.c", "#include \"inner.h\"\nint o = INNER;\n");
+        HeaderCache cache = new HeaderCache();
+        Preprocessor preprocessor = new Preprocessor(cache, List.of());
+        assertEquals("int inner ; int o = 1 ;", text(preprocessor.preprocess(other, PrecompiledHeader.load(snapshot, cache))));
+        assertFalse(preprocessor.getMacros().isDefined("MAX"));
+    }
+
+    @Test
+    void otherFilesAreNotLoaded() throws IOException {
+        Path garbage = write("garbage.pch", "not a snapshot");
+        assertThrows(IOException.class, () -> PrecompiledHeader.load(garbage, new HeaderCache()));
+        Path empty = write("empty.pch", "");
+        assertThrows(IOException.class, () -> PrecompiledHeader.load(empty, new HeaderCache()));
+    }
+
+}
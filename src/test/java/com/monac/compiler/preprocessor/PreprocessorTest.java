@@ -0,0 +1,137 @@
+package com.monac.compiler.preprocessor;
+
+import com.monac.compiler.lexer.LexerException;
+import com.monac.compiler.lexer.TokenType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PreprocessorTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("preprocessor");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+        }
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = directory.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        return file;
+    }
+
+    // The output tokens separated by single spaces, without the EOF
+    static String text(TokenSequence tokens) {
+        List<String> lexemes = new ArrayList<>();
+        for (int i = 0; tokens.type(i) != TokenType.EOF; i++) lexemes.add(tokens.token(i).getLexeme());
+        return String.join(" ", lexemes);
+    }
+
+    private String preprocess(String main) throws IOException {
+        return text(new Preprocessor(new HeaderCache(), List.of(directory.resolve("include"))).preprocess(write("main.c", main)));
+    }
+
+    @Test
+    void includesAreReplacedByTheirTokens() throws IOException {
+        write("local.h", "int local;\n");
+        write("include/system.h", "int system;\n");
+        write("include/local.h", "int shadowed;\n");
+        assertEquals("int local ; int system ; int main ;",
+                preprocess("#include \"local.h\"\n#include <system.h>\nint main;\n"));
+    }
+
+    @Test
+    void guardedHeadersAreIncludedOnce() throws IOException {
+        write("a.h", "#ifndef A_H\n#define A_H\nint a;\n#endif\n");
+        write("b.h", "#include \"a.h\"\nint b;\n");
+        assertEquals("int a ; int b ; int c ;", preprocess("#include \"a.h\"\n#include \"b.h\"\n#include \"a.h\"\nint c;\n"));
+    }
+
+    @Test
+    void guardsAreOnlyDetectedAroundTheWholeFile() throws IOException {
+        HeaderCache cache = new HeaderCache();
+        assertEquals("G", cache.load(write("g.h", "/* c */\n#ifndef G\n#define G\n#ifdef X\n#endif\nint g;\n#endif\n// c\n")).getGuard());
+        assertNull(cache.load(write("before.h", "int x;\n#ifndef G\n#define G\n#endif\n")).getGuard());
+        assertNull(cache.load(write("after.h", "#ifndef G\n#define G\n#endif\nint x;\n")).getGuard());
+        assertNull(cache.load(write("else.h", "#ifndef G\n#define G\n#else\nint x;\n#endif\n")).getGuard());
+        assertNull(cache.load(write("other.h", "#ifndef G\n#define H\n#endif\n")).getGuard());
+    }
+
+    @Test
+    void pragmaOnceIncludesAFileOnce() throws IOException {
+        write("once.h", "#pragma once\nint once;\n");
+        assertEquals("int once ;", preprocess("#include \"once.h\"\n#include \"once.h\"\n"));
+    }
+
+    @Test
+    void conditionalGroups() throws IOException {
+        assertEquals("int yes ; int also ;",
+                preprocess("#define X\n#ifdef X\nint yes;\n#else\nint no;\n#endif\n#ifndef X\nint no;\n#else\nint also;\n#endif\n"));
+        assertEquals("int outer ;", preprocess("#ifdef NOPE\n#ifdef X\n#else\nint no;\n#endif\n#else\nint outer;\n#endif\n"));
+    }
+
+    @Test
+    void skippedGroupsMayHoldAnyText() throws IOException {
+        assertEquals("int main ;", preprocess("""
+                #ifdef NOPE
+                #error don't do this
+                it's not C: @ ` \\ 1.2.3e+ 0x "unterminated
+                # ! bang
+                #endif
+                int main;
+                """));
+    }
+
+    @Test
+    void errorAndWarningMessagesMayHoldAnyText() throws IOException {
+        PreprocessorException error = assertThrows(PreprocessorException.class, () -> preprocess("#error don't do this\n"));
+        assertTrue(error.getMessage().startsWith("#error don't do this"), error.getMessage());
+
+        Preprocessor preprocessor = new Preprocessor(new HeaderCache(), List.of());
+        TokenSequence output = preprocessor.preprocess(write("warn.c", "#warning it's \"odd\nint main;\n"));
+        assertEquals("int main ;", text(output));
+        assertEquals(1, preprocessor.getWarnings().size());
+        assertTrue(preprocessor.getWarnings().getFirst().startsWith("#warning it's \"odd at "), preprocessor.getWarnings().getFirst());
+    }
+
+    @Test
+    void invalidTextOutsideSkippedGroupsIsAnError() throws IOException {
+        PreprocessorException text = assertThrows(PreprocessorException.class, () -> preprocess("int a = @;\n"));
+        assertTrue(text.getMessage().startsWith("Invalid token '@'"), text.getMessage());
+        assertThrows(PreprocessorException.class, () -> preprocess("char c = 'a;\n"));
+        assertThrows(PreprocessorException.class, () -> preprocess("#define Q 'q\nQ\n"));
+        assertThrows(PreprocessorException.class, () -> preprocess("# ! bang\n"));
+        assertThrows(LexerException.class, () -> preprocess("#ifdef NOPE\n/* open\n#endif\n"), "An unterminated comment");
+    }
+
+    @Test
+    void unbalancedConditionalsAreErrors() {
+        assertThrows(PreprocessorException.class, () -> preprocess("#ifdef X\nint a;\n"));
+        assertThrows(PreprocessorException.class, () -> preprocess("#endif\n"));
+        assertThrows(PreprocessorException.class, () -> preprocess("#else\n"));
+        assertThrows(PreprocessorException.class, () -> preprocess("#include \"missing.h\"\n"));
+    }
+
+}